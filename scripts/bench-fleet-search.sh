@@ -0,0 +1,89 @@
+#!/bin/bash
+
+# ==============================================================================
+# Fleet Search Benchmark
+# ==============================================================================
+# Purpose: Compare the old fleet search predicate ("(:x IS NULL OR LOWER(col)
+#          LIKE ...)" plus a separate COUNT query) with the trigram-indexed
+#          one (FleetVehicleSearchRepositoryImpl) on a synthetic fleet.
+#
+# Usage:   ./scripts/bench-fleet-search.sh [vehicles] [runs]
+#
+# Needs psql and a database the service has started against once (tables,
+# pg_trgm indexes). Inserts <vehicles> vehicles for a throwaway owner and
+# deletes them again on exit.
+# ==============================================================================
+
+set -e
+
+export PGHOST="${PGHOST:-localhost}"
+export PGPORT="${PGPORT:-5432}"
+export PGDATABASE="${PGDATABASE:-exploresg-fleet-service-db}"
+export PGUSER="${PGUSER:-exploresguser}"
+VEHICLES="${1:-100000}"
+RUNS="${2:-20}"
+OWNER_ID="$(cat /proc/sys/kernel/random/uuid)"
+
+cleanup() {
+    psql -q -c "DELETE FROM fleet_vehicles WHERE owner_id = '$OWNER_ID'" > /dev/null
+}
+trap cleanup EXIT
+
+echo "Seeding $VEHICLES vehicles for owner $OWNER_ID"
+psql -q -v ON_ERROR_STOP=1 <<SQL
+INSERT INTO fleet_vehicles (id, car_model_id, owner_id, daily_price, license_plate, status,
+                            mileage_km, current_location, created_at, last_updated_at)
+SELECT gen_random_uuid(),
+       (SELECT id FROM car_models ORDER BY id OFFSET (n % (SELECT COUNT(*) FROM car_models)) LIMIT 1),
+       '$OWNER_ID',
+       80 + (n % 200),
+       'BENCH' || lpad(to_hex(n), 7, '0') || chr(65 + n % 26),
+       CASE WHEN n % 10 = 0 THEN 'UNDER_MAINTENANCE' ELSE 'AVAILABLE' END,
+       n % 120000,
+       (ARRAY['Changi Airport', 'Jurong East', 'Woodlands', 'Tampines Hub', 'Marina Bay'])[1 + n % 5]
+           || ' Bay ' || (n % 400),
+       now(), now()
+FROM generate_series(1, $VEHICLES) AS n;
+ANALYZE fleet_vehicles;
+ANALYZE car_models;
+SQL
+
+OLD_FILTER="f.owner_id = '$OWNER_ID'
+  AND ('ab12' IS NULL OR LOWER(f.license_plate) LIKE LOWER(CONCAT('%', 'ab12', '%')))
+  AND (NULL IS NULL OR f.status = NULL)
+  AND (NULL IS NULL OR LOWER(cm.model) LIKE LOWER(CONCAT('%', NULL, '%')))
+  AND (NULL IS NULL OR LOWER(cm.manufacturer) LIKE LOWER(CONCAT('%', NULL, '%')))
+  AND ('woodlands bay 1' IS NULL OR LOWER(f.current_location) LIKE LOWER(CONCAT('%', 'woodlands bay 1', '%')))"
+NEW_FILTER="f.owner_id = '$OWNER_ID'
+  AND LOWER(f.license_plate) LIKE LOWER('%ab12%') ESCAPE '\\'
+  AND LOWER(f.current_location) LIKE LOWER('%woodlands bay 1%') ESCAPE '\\'"
+
+OLD_SQL="SELECT f.* FROM fleet_vehicles f JOIN car_models cm ON cm.id = f.car_model_id WHERE $OLD_FILTER
+ORDER BY f.license_plate LIMIT 10 OFFSET 0;
+SELECT COUNT(*) FROM fleet_vehicles f JOIN car_models cm ON cm.id = f.car_model_id WHERE $OLD_FILTER;"
+NEW_SQL="SELECT f.*, COUNT(*) OVER () AS total_count FROM fleet_vehicles f
+JOIN car_models cm ON cm.id = f.car_model_id WHERE $NEW_FILTER
+ORDER BY f.license_plate, f.id LIMIT 10 OFFSET 0;"
+
+echo ""
+echo "Old plan:"
+psql -q -c "EXPLAIN (ANALYZE, BUFFERS) ${OLD_SQL%%;*}" | grep -E "Scan|Execution Time"
+echo ""
+echo "New plan:"
+psql -q -c "EXPLAIN (ANALYZE, BUFFERS) ${NEW_SQL%;}" | grep -E "Scan|Execution Time"
+
+time_runs() {
+    local sql="$1"
+    local started finished
+    started=$(date +%s.%N)
+    for _ in $(seq "$RUNS"); do
+        psql -q -o /dev/null -c "$sql"
+    done
+    finished=$(date +%s.%N)
+    echo "scale=2; ($finished - $started) * 1000 / $RUNS" | bc
+}
+
+echo ""
+echo "Mean over $RUNS runs, page + total (ms, incl. psql start-up):"
+echo "  old: $(time_runs "$OLD_SQL")"
+echo "  new: $(time_runs "$NEW_SQL")"
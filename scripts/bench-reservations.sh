@@ -0,0 +1,60 @@
+#!/bin/bash
+
+# ==============================================================================
+# Temporary Reservation Load Test
+# ==============================================================================
+# Purpose: Compare allocation modes (direct vs coalesced) under a flash-sale
+#          burst: N concurrent POST /reservations/temporary for ONE model and
+#          ONE date range, each with its own bookingId.
+#
+# Usage:   ./scripts/bench-reservations.sh <modelPublicId> [requests] [concurrency]
+#
+# Run once with BOOKING_ALLOCATION_COALESCING_ENABLED=false and once with
+# =true (restart the service in between). Besides the client-side numbers
+# below, compare booking_reservation_allocation_seconds{mode=...} on
+# /actuator/prometheus.
+# ==============================================================================
+
+set -e
+
+BASE_URL="${BASE_URL:-http://localhost:8080}"
+MODEL_ID="$1"
+REQUESTS="${2:-200}"
+CONCURRENCY="${3:-50}"
+START_DATE="${START_DATE:-$(date -u -d '+7 days' '+%Y-%m-%dT10:00:00')}"
+END_DATE="${END_DATE:-$(date -u -d '+9 days' '+%Y-%m-%dT10:00:00')}"
+
+if [ -z "$MODEL_ID" ]; then
+    echo "Usage: $0 <modelPublicId> [requests] [concurrency]"
+    exit 1
+fi
+
+RESULTS=$(mktemp)
+trap 'rm -f "$RESULTS"' EXIT
+
+echo "Firing $REQUESTS requests ($CONCURRENCY concurrent) for model $MODEL_ID, $START_DATE -> $END_DATE"
+
+STARTED=$(date +%s.%N)
+seq "$REQUESTS" | xargs -P "$CONCURRENCY" -I{} sh -c '
+    curl -s -o /dev/null -w "%{http_code} %{time_total}\n" \
+        -X POST "$0/api/v1/fleet/reservations/temporary" \
+        -H "Content-Type: application/json" \
+        -d "{\"modelPublicId\":\"$1\",\"bookingId\":\"$(cat /proc/sys/kernel/random/uuid)\",\"startDate\":\"$2\",\"endDate\":\"$3\"}"
+' "$BASE_URL" "$MODEL_ID" "$START_DATE" "$END_DATE" >> "$RESULTS"
+FINISHED=$(date +%s.%N)
+
+echo ""
+echo "Status codes:"
+cut -d' ' -f1 "$RESULTS" | sort | uniq -c
+
+echo ""
+echo "Latency (seconds):"
+cut -d' ' -f2 "$RESULTS" | sort -n | awk '
+    { t[NR] = $1; sum += $1 }
+    END {
+        printf "  mean %.4f  p50 %.4f  p95 %.4f  p99 %.4f  max %.4f\n",
+            sum / NR, t[int(NR * 0.50)], t[int(NR * 0.95)], t[int(NR * 0.99)], t[NR]
+    }'
+
+echo ""
+echo "Wall time: $(echo "$FINISHED - $STARTED" | bc) s"
@@ -60,6 +60,8 @@ public class SecurityConfig {
                                 "/api/v1/fleet/models", // Public endpoint for browsing all cars
                                 "/api/v1/fleet/models/*/availability-count", // Public endpoint for checking
                                                                              // availability
+                                "/api/v1/fleet/models/availability-counts", // Public batch availability check
+                                "/api/v1/fleet/models/*/availability-calendar", // Public availability calendar
                                 "/api/v1/fleet/operators/*/models", // Public endpoint for browsing cars by operator
                                 "/api/v1/fleet/bookings/**", // Allow booking service to access without auth (dev only)
                                 "/api/v1/fleet/reservations/**", // Allow booking service reservation endpoints (dev
@@ -121,7 +123,7 @@ public class SecurityConfig {
         configuration.setAllowedHeaders(Arrays.asList(allowedHeaders.split(",")));
         configuration.setAllowCredentials(allowCredentials);
         // Expose headers that frontend needs to read
-        configuration.setExposedHeaders(List.of("Authorization", "Content-Type"));
+        configuration.setExposedHeaders(List.of("Authorization", "Content-Type", "ETag", "X-Catalog-Version", "Retry-After"));
         // Cache preflight requests for 1 hour to reduce overhead
         configuration.setMaxAge(3600L);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
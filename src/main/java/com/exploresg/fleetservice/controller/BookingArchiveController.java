@@ -0,0 +1,50 @@
+package com.exploresg.fleetservice.controller;
+
+import com.exploresg.fleetservice.constants.SecurityConstants;
+import com.exploresg.fleetservice.dto.ArchivedBookingResponse;
+import com.exploresg.fleetservice.service.BookingColdStorage;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/fleet/archive")
+@RequiredArgsConstructor
+public class BookingArchiveController {
+
+    private final BookingColdStorage coldStorage;
+    private static final Logger log = LoggerFactory.getLogger(BookingArchiveController.class);
+
+    /**
+     * Admin endpoint for audit lookups of bookings moved to cold storage.
+     * Exactly one of bookingId / vehicleId must be given.
+     * GET /api/v1/fleet/archive/bookings?bookingId=... or ?vehicleId=...
+     * 
+     * Scans the segment files on the cold storage volume shared by the
+     * replicas; meant for occasional use, not for the booking flow.
+     * 
+     * @return Archived records, oldest booking end first (empty when cold
+     *         storage is disabled).
+     */
+    @GetMapping("/bookings")
+    @PreAuthorize(SecurityConstants.HAS_ROLE_ADMIN)
+    public ResponseEntity<List<ArchivedBookingResponse>> findArchivedBookings(
+            @RequestParam(required = false) UUID bookingId,
+            @RequestParam(required = false) UUID vehicleId) {
+        if ((bookingId == null) == (vehicleId == null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<ArchivedBookingResponse> bookings = bookingId != null
+                ? coldStorage.findByBookingId(bookingId)
+                : coldStorage.findByVehicleId(vehicleId);
+        log.info("Archive lookup bookingId={}, vehicleId={} matched {} record(s)", bookingId, vehicleId,
+                bookings.size());
+        return ResponseEntity.ok(bookings);
+    }
+}
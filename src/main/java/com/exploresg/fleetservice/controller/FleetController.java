@@ -1,10 +1,18 @@
 package com.exploresg.fleetservice.controller;
 
 import com.exploresg.fleetservice.constants.SecurityConstants;
+import com.exploresg.fleetservice.dto.BulkVehicleStatusRequest;
+import com.exploresg.fleetservice.dto.BulkVehicleStatusResponse;
 import com.exploresg.fleetservice.dto.CreateCarModelRequest;
+import com.exploresg.fleetservice.dto.FleetImportResponse;
+import com.exploresg.fleetservice.dto.FleetVehicleCursorPage;
 import com.exploresg.fleetservice.dto.OperatorCarModelDto;
 import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.repository.FleetVehicleSearchRepository.KeysetSort;
 import com.exploresg.fleetservice.service.CarModelService;
+import com.exploresg.fleetservice.service.CatalogSnapshotService;
+import com.exploresg.fleetservice.service.FleetExportService;
+import com.exploresg.fleetservice.service.FleetImportService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -14,14 +22,20 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
@@ -29,7 +43,13 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class FleetController {
 
+    private static final String CATALOG_VERSION_HEADER = "X-Catalog-Version";
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     private final CarModelService carModelService;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final FleetExportService fleetExportService;
+    private final FleetImportService fleetImportService;
     private static final Logger log = LoggerFactory.getLogger(FleetController.class);
 
     /**
@@ -53,15 +73,77 @@ public class FleetController {
      * Public endpoint to browse available car models.
      * Returns one entry per operator-model combination.
      * GET /api/v1/fleet/models
-     * * @return A list of available car models grouped by operator.
+     * 
+     * Served from a pre-serialized catalog snapshot:
+     * - ETag / If-None-Match → 304 Not Modified when the catalog is unchanged
+     * - gzip'd body when Accept-Encoding allows gzip (q > 0, or via *)
+     * - X-Catalog-Version carries this instance's snapshot version
+     * * @return A list of available car models grouped by operator (JSON).
      */
-    @GetMapping("/models")
-    public ResponseEntity<List<OperatorCarModelDto>> getAvailableModels() {
+    @GetMapping(value = "/models", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getAvailableModels(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         String correlation = MDC.get("correlationId");
-        log.info("getAvailableModels invoked, correlationId={}", correlation);
-        List<OperatorCarModelDto> models = carModelService.getAvailableModelsPerOperator();
-        log.info("getAvailableModels returning {} models, correlationId={}", models.size(), correlation);
-        return ResponseEntity.ok(models);
+        CatalogSnapshotService.Snapshot snapshot = catalogSnapshotService.getSnapshot();
+
+        boolean notModified = snapshot.matches(ifNoneMatch);
+        ResponseEntity.BodyBuilder response = ResponseEntity
+                .status(notModified ? HttpStatus.NOT_MODIFIED : HttpStatus.OK)
+                .eTag(snapshot.getEtag())
+                .header(CATALOG_VERSION_HEADER, String.valueOf(snapshot.getVersion()))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .cacheControl(CacheControl.noCache());
+
+        if (notModified) {
+            log.debug("getAvailableModels not modified (v{}), correlationId={}", snapshot.getVersion(), correlation);
+            return response.build();
+        }
+
+        log.info("getAvailableModels returning {} models (v{}), correlationId={}", snapshot.getModelCount(),
+                snapshot.getVersion(), correlation);
+        if (snapshot.getGzip() != null && acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(snapshot.getGzip());
+        }
+        return response.contentType(MediaType.APPLICATION_JSON).body(snapshot.getJson());
+    }
+
+    /**
+     * Whether Accept-Encoding allows gzip: listed with a non-zero q-value, or
+     * not listed and covered by a non-zero "*".
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double wildcard = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            double q = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=") || param.startsWith("Q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0; // Malformed weight: don't risk an encoding the client can't read
+                    }
+                }
+            }
+            if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip")) {
+                gzip = gzip == null ? q : Math.max(gzip, q);
+            } else if (name.equals("*")) {
+                wildcard = q;
+            }
+        }
+        if (gzip != null) {
+            return gzip > 0;
+        }
+        return wildcard != null && wildcard > 0;
     }
 
     /**
@@ -160,6 +242,72 @@ public class FleetController {
         return ResponseEntity.ok(vehicles);
     }
 
+    /**
+     * Fleet Manager endpoint to onboard vehicles in bulk from a CSV file.
+     * Same layout as the fleet CSV used for onboarding so far (header row;
+     * car_model_id, dailyPrice, licensePlate and status required). The file is
+     * streamed and validated row by row; invalid or conflicting rows are
+     * reported and skipped, the rest inserted. Vehicles always go to the
+     * authenticated fleet manager, whatever the ownerId column says.
+     * POST /api/v1/fleet/operators/fleet/import (Content-Type: text/csv)
+     * 
+     * @param jwt The authenticated user's JWT token containing userId.
+     * @param csv The CSV request body.
+     * @return Row counts plus the line and reason of each skipped row.
+     */
+    @PostMapping(value = "/operators/fleet/import", consumes = "text/csv")
+    @PreAuthorize(SecurityConstants.HAS_ROLE_FLEET_MANAGER)
+    public ResponseEntity<FleetImportResponse> importMyFleet(
+            @AuthenticationPrincipal Jwt jwt,
+            InputStream csv) {
+        // Extract user ID from JWT token (userId is the ownerId in the fleet table)
+        String userIdStr = jwt.getClaimAsString("userId");
+
+        if (userIdStr == null || userIdStr.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        UUID userId = UUID.fromString(userIdStr);
+        FleetImportResponse result = fleetImportService.importCsv(userId, csv);
+        log.info("Fleet import for {}: {} of {} row(s) imported", userId, result.getImportedRows(),
+                result.getTotalRows());
+
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Fleet Manager endpoint to export their whole fleet.
+     * Streams rows from the database as they are read (NDJSON: one vehicle
+     * object per line; CSV: header row first), so large fleets do not have to
+     * fit in memory. Prefer this over /operators/fleet/all for bulk downloads.
+     * GET /api/v1/fleet/operators/fleet/export?format=NDJSON|CSV
+     * 
+     * @param jwt    The authenticated user's JWT token containing userId.
+     * @param format NDJSON (default) or CSV.
+     * @return The export, as an attachment.
+     */
+    @GetMapping("/operators/fleet/export")
+    @PreAuthorize(SecurityConstants.HAS_ROLE_FLEET_MANAGER)
+    public ResponseEntity<StreamingResponseBody> exportMyFleet(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(defaultValue = "NDJSON") FleetExportService.Format format) {
+        // Extract user ID from JWT token (userId is the ownerId in the fleet table)
+        String userIdStr = jwt.getClaimAsString("userId");
+
+        if (userIdStr == null || userIdStr.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        UUID userId = UUID.fromString(userIdStr);
+        StreamingResponseBody body = out -> fleetExportService.export(userId, format, out);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"fleet." + format.extension() + "\"")
+                .contentType(MediaType.parseMediaType(format.contentType()))
+                .body(body);
+    }
+
     /**
      * Fleet Manager endpoint to view ALL individual vehicles in their fleet with
      * pagination and search support.
@@ -226,6 +374,55 @@ public class FleetController {
         return ResponseEntity.ok(vehiclesPage);
     }
 
+    /**
+     * Fleet Manager endpoint to page through their fleet with a continuation
+     * cursor instead of page numbers. Same filters as /all/paginated, but deep
+     * pages cost the same as the first and the total is optional.
+     * GET /api/v1/fleet/operators/fleet/all/cursor
+     * 
+     * @param jwt           The authenticated user's JWT token containing userId.
+     * @param cursor        nextCursor of the previous page; omit for the first.
+     * @param size          The page size (1-100, default: 10).
+     * @param sortBy        licensePlate (default), status, dailyPrice or
+     *                      createdAt.
+     * @param sortDirection The sort direction - "asc" or "desc" (default: "asc").
+     * @param totalMode     EXACT, CAPPED (default), ESTIMATED or NONE.
+     * @return One page of fleet vehicles plus the cursor for the next.
+     */
+    @GetMapping("/operators/fleet/all/cursor")
+    @PreAuthorize(SecurityConstants.HAS_ROLE_FLEET_MANAGER)
+    public ResponseEntity<FleetVehicleCursorPage> getAllMyFleetVehiclesByCursor(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "licensePlate") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDirection,
+            @RequestParam(defaultValue = "CAPPED") FleetVehicleCursorPage.TotalMode totalMode,
+            @RequestParam(required = false) String licensePlate,
+            @RequestParam(required = false) com.exploresg.fleetservice.model.VehicleStatus status,
+            @RequestParam(required = false) String model,
+            @RequestParam(required = false) String manufacturer,
+            @RequestParam(required = false) String location) {
+        // Extract user ID from JWT token (userId is the ownerId in the fleet table)
+        String userIdStr = jwt.getClaimAsString("userId");
+
+        if (userIdStr == null || userIdStr.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        Optional<KeysetSort> sort = KeysetSort.fromProperty(sortBy);
+        if (sort.isEmpty() || size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        UUID userId = UUID.fromString(userIdStr);
+        FleetVehicleCursorPage vehiclesPage = carModelService.searchFleetVehiclesKeyset(
+                userId, licensePlate, status, model, manufacturer, location,
+                sort.get(), !sortDirection.equalsIgnoreCase("desc"), cursor, size, totalMode);
+
+        return ResponseEntity.ok(vehiclesPage);
+    }
+
     /**
      * Fleet Manager dashboard endpoint.
      * Returns comprehensive fleet statistics and breakdowns for the authenticated
@@ -287,4 +484,26 @@ public class FleetController {
         var vehicle = carModelService.updateFleetVehicleStatusWithDetails(id, status);
         return vehicle != null ? ResponseEntity.ok(vehicle) : ResponseEntity.notFound().build();
     }
+
+    /**
+     * Fleet Manager endpoint: Set the status of many vehicles of the caller's
+     * fleet at once (up to 1000), optionally with a maintenance note and
+     * expected return date. Vehicles not in the caller's fleet are reported as
+     * NOT_FOUND and left unchanged.
+     * PATCH /api/v1/fleet/operators/fleet/status
+     */
+    @PatchMapping("/operators/fleet/status")
+    @PreAuthorize(SecurityConstants.HAS_ROLE_FLEET_MANAGER)
+    public ResponseEntity<BulkVehicleStatusResponse> updateFleetVehicleStatuses(
+            @AuthenticationPrincipal Jwt jwt,
+            @Valid @RequestBody BulkVehicleStatusRequest request) {
+        String userIdStr = jwt.getClaimAsString("userId");
+
+        if (userIdStr == null || userIdStr.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        UUID userId = UUID.fromString(userIdStr);
+        return ResponseEntity.ok(carModelService.updateFleetVehicleStatuses(userId, request));
+    }
 }
\ No newline at end of file
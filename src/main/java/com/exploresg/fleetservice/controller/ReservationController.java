@@ -1,6 +1,9 @@
 package com.exploresg.fleetservice.controller;
 
 import com.exploresg.fleetservice.dto.*;
+import com.exploresg.fleetservice.service.AvailabilityCalendarService;
+import com.exploresg.fleetservice.service.ReservationAdmissionControl;
+import com.exploresg.fleetservice.service.ReservationCoalescer;
 import com.exploresg.fleetservice.service.ReservationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -17,6 +20,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -36,7 +40,12 @@ import java.util.UUID;
 @Tag(name = "Fleet Reservations", description = "Vehicle reservation management endpoints")
 public class ReservationController {
 
+        private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
         private final ReservationService reservationService;
+        private final AvailabilityCalendarService availabilityCalendarService;
+        private final ReservationAdmissionControl admissionControl;
+        private final ReservationCoalescer reservationCoalescer;
 
         /**
          * ⭐ ENDPOINT 1: Create Temporary Reservation (BEFORE Payment)
@@ -55,13 +64,15 @@ public class ReservationController {
          * @return 201 CREATED with reservationId and expiresAt
          *         409 CONFLICT if no vehicles available
          *         400 BAD REQUEST if invalid date range
+         *         503 SERVICE UNAVAILABLE if too many requests for the model are queued
          */
         @PostMapping("/reservations/temporary")
         @Operation(summary = "Create temporary reservation", description = "Locks a vehicle for 30 seconds before payment. Returns reservation ID and expiry time.")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "201", description = "Reservation created successfully", content = @Content(schema = @Schema(implementation = TemporaryReservationResponse.class))),
                         @ApiResponse(responseCode = "409", description = "No vehicles available for the requested dates"),
-                        @ApiResponse(responseCode = "400", description = "Invalid request data or date range")
+                        @ApiResponse(responseCode = "400", description = "Invalid request data or date range"),
+                        @ApiResponse(responseCode = "503", description = "Model busy, retry after the Retry-After delay")
         })
         public ResponseEntity<TemporaryReservationResponse> createTemporaryReservation(
                         @Valid @RequestBody CreateTemporaryReservationRequest request) {
@@ -69,7 +80,9 @@ public class ReservationController {
                 log.info("POST /reservations/temporary - Creating reservation for model: {}, bookingId: {}",
                                 request.getModelPublicId(), request.getBookingId());
 
-                TemporaryReservationResponse response = reservationService.createTemporaryReservation(request);
+                // Queue behind other requests for the same model before opening a transaction
+                TemporaryReservationResponse response = admissionControl.admit(request.getModelPublicId(),
+                                () -> reservationCoalescer.reserve(request));
 
                 log.info("Temporary reservation created: reservationId={}, expiresAt={}",
                                 response.getReservationId(), response.getExpiresAt());
@@ -77,6 +90,39 @@ public class ReservationController {
                 return ResponseEntity.status(HttpStatus.CREATED).body(response);
         }
 
+        /**
+         * 🛒 Create Cart Reservation (BEFORE Payment, several cars)
+         * 
+         * Same as ENDPOINT 1 for group trips: one PENDING hold per line under a
+         * single booking, created in one transaction. Either every line gets a
+         * vehicle or none does, so a failed cart leaves no orphan holds.
+         * Each hold is confirmed / cancelled through ENDPOINT 2 / 3 as usual.
+         * 
+         * @param request bookingId plus up to 10 (modelPublicId, startDate, endDate)
+         *                lines
+         * @return 201 CREATED with one reservation per line, in request order
+         *         409 CONFLICT if any line cannot be served, or the booking
+         *         already holds vehicles for different lines
+         *         400 BAD REQUEST if invalid date range
+         */
+        @PostMapping("/reservations/cart")
+        @Operation(summary = "Create cart reservation", description = "Holds one vehicle per line under one booking, all-or-nothing, before payment.")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "201", description = "All reservations created successfully", content = @Content(schema = @Schema(implementation = CartReservationResponse.class))),
+                        @ApiResponse(responseCode = "409", description = "Not enough vehicles available for at least one line, or booking already holds other reservations"),
+                        @ApiResponse(responseCode = "400", description = "Invalid request data or date range")
+        })
+        public ResponseEntity<CartReservationResponse> createCartReservation(
+                        @Valid @RequestBody CartReservationRequest request) {
+
+                log.info("POST /reservations/cart - Creating {} reservations for bookingId: {}",
+                                request.getLines().size(), request.getBookingId());
+
+                CartReservationResponse response = reservationService.createCartReservation(request);
+
+                return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        }
+
         /**
          * ⭐ ENDPOINT 2: Confirm Reservation (AFTER Successful Payment)
          * 
@@ -90,12 +136,18 @@ public class ReservationController {
          * 4. Backend updates reservation status: PENDING → CONFIRMED
          * 5. Vehicle is now officially booked
          * 
-         * @param reservationId UUID of the temporary reservation
-         * @param request       Contains paymentReference
+         * Retries should send the same Idempotency-Key: a repeated key gets the
+         * original confirmation back (200) instead of a 400.
+         * 
+         * @param reservationId  UUID of the temporary reservation
+         * @param request        Contains paymentReference
+         * @param idempotencyKey Optional Idempotency-Key header
          * @return 200 OK with confirmation details
          *         410 GONE if reservation expired
          *         404 NOT FOUND if reservation doesn't exist
-         *         400 BAD REQUEST if reservation is not PENDING
+         *         400 BAD REQUEST if reservation is not PENDING, or the key is
+         *         blank or longer than 255 characters
+         *         422 UNPROCESSABLE ENTITY if the key was used for another call
          */
         @PostMapping("/reservations/{reservationId}/confirm")
         @Operation(summary = "Confirm reservation after payment", description = "Confirms a temporary reservation after successful payment. Must be called within 30 seconds.")
@@ -103,18 +155,21 @@ public class ReservationController {
                         @ApiResponse(responseCode = "200", description = "Reservation confirmed successfully", content = @Content(schema = @Schema(implementation = ConfirmReservationResponse.class))),
                         @ApiResponse(responseCode = "410", description = "Reservation has expired (took longer than 30 seconds)"),
                         @ApiResponse(responseCode = "404", description = "Reservation not found"),
-                        @ApiResponse(responseCode = "400", description = "Reservation is not in PENDING status")
+                        @ApiResponse(responseCode = "400", description = "Reservation is not in PENDING status, or invalid Idempotency-Key"),
+                        @ApiResponse(responseCode = "422", description = "Idempotency-Key already used for a different call")
         })
         public ResponseEntity<ConfirmReservationResponse> confirmReservation(
                         @Parameter(description = "Reservation ID from temporary reservation", required = true) @PathVariable UUID reservationId,
-                        @Valid @RequestBody ConfirmReservationRequest request) {
+                        @Valid @RequestBody ConfirmReservationRequest request,
+                        @Parameter(description = "Replays the original result when retried with the same key") @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
 
                 log.info("POST /reservations/{}/confirm - Confirming with payment reference: {}",
                                 reservationId, request.getPaymentReference());
 
                 ConfirmReservationResponse response = reservationService.confirmReservation(
                                 reservationId,
-                                request);
+                                request,
+                                idempotencyKey);
 
                 log.info("Reservation confirmed: reservationId={}, vehicleId={}",
                                 response.getReservationId(), response.getVehicleId());
@@ -131,28 +186,34 @@ public class ReservationController {
          * - User takes too long and wants to start over
          * 
          * Sets reservation status to CANCELLED, freeing the vehicle.
+         * A retry with the same Idempotency-Key gets 204 again.
          * 
-         * @param reservationId UUID of the reservation to cancel
-         * @param reason        Optional cancellation reason (query parameter)
+         * @param reservationId  UUID of the reservation to cancel
+         * @param reason         Optional cancellation reason (query parameter)
+         * @param idempotencyKey Optional Idempotency-Key header
          * @return 204 NO CONTENT on success
          *         404 NOT FOUND if reservation doesn't exist
-         *         400 BAD REQUEST if reservation is not PENDING
+         *         400 BAD REQUEST if reservation is not PENDING, or the key is
+         *         blank or longer than 255 characters
+         *         422 UNPROCESSABLE ENTITY if the key was used for another call
          */
         @DeleteMapping("/reservations/{reservationId}")
         @Operation(summary = "Cancel reservation", description = "Cancels a PENDING reservation. Used when payment fails or user cancels.")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "204", description = "Reservation cancelled successfully"),
                         @ApiResponse(responseCode = "404", description = "Reservation not found"),
-                        @ApiResponse(responseCode = "400", description = "Reservation is not in PENDING status")
+                        @ApiResponse(responseCode = "400", description = "Reservation is not in PENDING status, or invalid Idempotency-Key"),
+                        @ApiResponse(responseCode = "422", description = "Idempotency-Key already used for a different call")
         })
         public ResponseEntity<Void> cancelReservation(
                         @Parameter(description = "Reservation ID to cancel", required = true) @PathVariable UUID reservationId,
-                        @Parameter(description = "Reason for cancellation") @RequestParam(required = false) String reason) {
+                        @Parameter(description = "Reason for cancellation") @RequestParam(required = false) String reason,
+                        @Parameter(description = "Replays the original result when retried with the same key") @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
 
                 log.info("DELETE /reservations/{} - Cancelling reservation, reason: {}",
                                 reservationId, reason);
 
-                reservationService.cancelReservation(reservationId, reason);
+                reservationService.cancelReservation(reservationId, reason, idempotencyKey);
 
                 log.info("Reservation cancelled: reservationId={}", reservationId);
 
@@ -202,6 +263,67 @@ public class ReservationController {
                 return ResponseEntity.ok(response);
         }
 
+        /**
+         * 📅 Availability Calendar
+         * 
+         * Number of vehicles of a model free for each day (or hour) of the
+         * booking horizon, e.g. to grey out fully booked days in a date picker.
+         * 
+         * @param modelPublicId Car model UUID
+         * @param from          First day (defaults to today)
+         * @param days          Number of days (max 30)
+         * @param granularity   DAY (default) or HOUR slots
+         * @return 200 OK with one slot per day/hour
+         *         400 BAD REQUEST if the window is outside the booking horizon
+         */
+        @GetMapping("/models/{modelPublicId}/availability-calendar")
+        @Operation(summary = "Availability calendar", description = "Returns the number of available vehicles of a model per day or hour over the booking horizon.")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Calendar returned", content = @Content(schema = @Schema(implementation = AvailabilityCalendarResponse.class))),
+                        @ApiResponse(responseCode = "400", description = "Window outside the booking horizon")
+        })
+        public ResponseEntity<AvailabilityCalendarResponse> getAvailabilityCalendar(
+                        @Parameter(description = "Car model public ID", required = true) @PathVariable UUID modelPublicId,
+                        @Parameter(description = "First day (ISO 8601: yyyy-MM-dd), defaults to today") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                        @Parameter(description = "Number of days") @RequestParam(defaultValue = "30") int days,
+                        @Parameter(description = "Slot size: DAY or HOUR") @RequestParam(defaultValue = "DAY") AvailabilityCalendarResponse.Granularity granularity) {
+
+                log.debug("GET /models/{}/availability-calendar - from: {}, days: {}, granularity: {}",
+                                modelPublicId, from, days, granularity);
+
+                return ResponseEntity.ok(availabilityCalendarService.getCalendar(modelPublicId, from, days, granularity));
+        }
+
+        /**
+         * 📊 Batch Availability Check
+         * 
+         * One request for all cards of a search result page instead of one
+         * availability-count call per card.
+         * 
+         * @param request Model public IDs (max 100) plus one date range
+         * @return 200 OK with a count per requested model
+         *         400 BAD REQUEST if invalid date range or model list
+         */
+        @PostMapping("/models/availability-counts")
+        @Operation(summary = "Check availability for several models", description = "Returns the count of available vehicles for each requested model in one date range.")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Availability check successful", content = @Content(schema = @Schema(implementation = BatchAvailabilityResponse.class))),
+                        @ApiResponse(responseCode = "400", description = "Invalid date range or model list")
+        })
+        public ResponseEntity<BatchAvailabilityResponse> checkAvailabilityBatch(
+                        @Valid @RequestBody BatchAvailabilityRequest request) {
+
+                log.debug("POST /models/availability-counts - Checking {} models for dates: {} to {}",
+                                request.getModelPublicIds().size(), request.getStartDate(), request.getEndDate());
+
+                BatchAvailabilityResponse response = reservationService.checkAvailabilityBatch(
+                                request.getModelPublicIds(),
+                                request.getStartDate(),
+                                request.getEndDate());
+
+                return ResponseEntity.ok(response);
+        }
+
         /**
          * 🔍 BONUS ENDPOINT: Get Reservation Details
          * 
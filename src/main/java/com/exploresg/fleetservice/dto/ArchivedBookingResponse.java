@@ -0,0 +1,31 @@
+package com.exploresg.fleetservice.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Response DTO for a booking record read back from cold storage
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedBookingResponse {
+
+    private UUID reservationId;
+    private UUID vehicleId;
+    private UUID bookingId;
+    private LocalDateTime bookingStartDate;
+    private LocalDateTime bookingEndDate;
+    private String reservationStatus;
+    private LocalDateTime expiresAt;
+    private String paymentReference;
+    private String notes;
+    private LocalDateTime createdAt;
+    private LocalDateTime confirmedAt;
+    private LocalDateTime cancelledAt;
+    private LocalDateTime lastUpdatedAt;
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,39 @@
+package com.exploresg.fleetservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response DTO for the per-model availability calendar.
+ * One slot per day (or hour) with the number of vehicles free for the whole slot.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AvailabilityCalendarResponse {
+
+    public enum Granularity {
+        DAY,
+        HOUR
+    }
+
+    private UUID modelPublicId;
+    private Granularity granularity;
+    private long totalVehicles; // AVAILABLE vehicles of the model
+    private List<Slot> slots;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Slot {
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'")
+        private LocalDateTime start;
+        private long availableCount;
+        private boolean available;
+    }
+}
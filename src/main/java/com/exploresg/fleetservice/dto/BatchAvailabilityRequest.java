@@ -0,0 +1,41 @@
+package com.exploresg.fleetservice.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Request DTO for checking availability of several car models at once
+ * (e.g. every card on a search result page) for one date range.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchAvailabilityRequest {
+
+    public static final int MAX_MODELS = 100;
+
+    @NotEmpty(message = "At least one model public ID is required")
+    @Size(max = MAX_MODELS, message = "At most " + MAX_MODELS + " models can be checked per request")
+    private List<@NotNull UUID> modelPublicIds;
+
+    @NotNull(message = "Start date is required")
+    @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+    @JsonSerialize(using = LocalDateTimeSerializer.class)
+    private LocalDateTime startDate;
+
+    @NotNull(message = "End date is required")
+    @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+    @JsonSerialize(using = LocalDateTimeSerializer.class)
+    private LocalDateTime endDate;
+}
@@ -0,0 +1,43 @@
+package com.exploresg.fleetservice.dto;
+
+import com.exploresg.fleetservice.model.VehicleStatus;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Request DTO for changing the status of many vehicles at once (e.g. a depot
+ * sending a batch of cars to maintenance). maintenanceNote and
+ * expectedReturnDate are written as given, so leaving them out clears them.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkVehicleStatusRequest {
+
+    public static final int MAX_VEHICLES = 1000;
+
+    @NotEmpty(message = "At least one vehicle ID is required")
+    @Size(max = MAX_VEHICLES, message = "At most " + MAX_VEHICLES + " vehicles can be updated per request")
+    private List<@NotNull UUID> vehicleIds;
+
+    @NotNull(message = "Status is required")
+    private VehicleStatus status;
+
+    @Size(max = 2048, message = "Maintenance note must be at most 2048 characters")
+    private String maintenanceNote;
+
+    @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+    @JsonSerialize(using = LocalDateTimeSerializer.class)
+    private LocalDateTime expectedReturnDate;
+}
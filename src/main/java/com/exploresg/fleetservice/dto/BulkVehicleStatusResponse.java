@@ -0,0 +1,38 @@
+package com.exploresg.fleetservice.dto;
+
+import com.exploresg.fleetservice.model.VehicleStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response DTO for a bulk status change: one outcome per requested vehicle,
+ * in request order.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkVehicleStatusResponse {
+    private VehicleStatus status;
+    private int requested;
+    private int updated;
+    private List<Result> results;
+
+    public enum Outcome {
+        UPDATED,
+        NOT_FOUND // No such vehicle in the caller's fleet
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Result {
+        private UUID vehicleId;
+        private Outcome outcome;
+    }
+}
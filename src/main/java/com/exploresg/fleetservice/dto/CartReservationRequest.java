@@ -0,0 +1,55 @@
+package com.exploresg.fleetservice.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Request DTO for reserving several vehicles under one booking
+ * (family / group trips). One line per car; lines may repeat a model.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CartReservationRequest {
+
+    public static final int MAX_LINES = 10;
+
+    @NotNull(message = "Booking ID is required")
+    private UUID bookingId;
+
+    @NotEmpty(message = "At least one line is required")
+    @Size(max = MAX_LINES, message = "At most " + MAX_LINES + " vehicles can be reserved per booking")
+    private List<@Valid @NotNull Line> lines;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Line {
+
+        @NotNull(message = "Model Public ID is required")
+        private UUID modelPublicId;
+
+        @NotNull(message = "Start date is required")
+        @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+        @JsonSerialize(using = LocalDateTimeSerializer.class)
+        private LocalDateTime startDate;
+
+        @NotNull(message = "End date is required")
+        @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+        @JsonSerialize(using = LocalDateTimeSerializer.class)
+        private LocalDateTime endDate;
+    }
+}
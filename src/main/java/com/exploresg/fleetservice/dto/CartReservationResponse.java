@@ -0,0 +1,40 @@
+package com.exploresg.fleetservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response DTO for cart reservation: one PENDING hold per request line, in
+ * request order, all sharing the same expiry.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CartReservationResponse {
+
+    private boolean success;
+    private String message;
+    private UUID bookingId;
+    private List<TemporaryReservationResponse> reservations;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'")
+    private LocalDateTime expiresAt;
+
+    public static CartReservationResponse success(
+            UUID bookingId,
+            List<TemporaryReservationResponse> reservations,
+            LocalDateTime expiresAt) {
+        return CartReservationResponse.builder()
+                .success(true)
+                .message("Reservations created successfully")
+                .bookingId(bookingId)
+                .reservations(reservations)
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
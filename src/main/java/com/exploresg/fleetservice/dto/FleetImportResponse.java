@@ -0,0 +1,34 @@
+package com.exploresg.fleetservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk fleet CSV import.
+ * Rows listed in errors were skipped; every other row was inserted.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetImportResponse {
+    private long totalRows;
+    private long importedRows;
+    private long failedRows;
+    private long durationMs;
+    private List<RowError> errors;
+    private boolean errorsTruncated; // More failed rows than fleet.import.max-reported-errors
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowError {
+        private int line; // 1-based, the header is line 1
+        private String licensePlate;
+        private String message;
+    }
+}
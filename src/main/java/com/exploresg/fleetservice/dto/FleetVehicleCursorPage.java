@@ -0,0 +1,40 @@
+package com.exploresg.fleetservice.dto;
+
+import com.exploresg.fleetservice.model.FleetVehicle;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One keyset page of an operator's fleet.
+ * Pass nextCursor back as ?cursor= for the following page; null on the last
+ * page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetVehicleCursorPage {
+    private List<FleetVehicle> content;
+    private int size;
+    private String nextCursor;
+
+    // Per totalMode; null for NONE or when no estimate was available
+    private Long totalElements;
+    private TotalMode totalMode;
+    private boolean totalCapped; // true when there are more than totalElements
+
+    /**
+     * How totalElements is computed.
+     * - EXACT: COUNT(*) of all matches
+     * - CAPPED: COUNT(*) that stops at fleet.search.total-cap
+     * - ESTIMATED: query planner estimate, no scan
+     * - NONE: not computed
+     */
+    public enum TotalMode {
+        EXACT, CAPPED, ESTIMATED, NONE
+    }
+}
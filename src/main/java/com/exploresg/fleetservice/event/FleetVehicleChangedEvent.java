@@ -0,0 +1,23 @@
+package com.exploresg.fleetservice.event;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Published when one or more fleet vehicles are inserted or their operational
+ * data (status, mileage, pricing, ...) changes.
+ * 
+ * The event only carries identifiers; listeners reload whatever they need.
+ */
+@Value
+public class FleetVehicleChangedEvent {
+
+    UUID ownerId;
+    List<UUID> vehicleIds;
+
+    public static FleetVehicleChangedEvent of(UUID ownerId, UUID vehicleId) {
+        return new FleetVehicleChangedEvent(ownerId, List.of(vehicleId));
+    }
+}
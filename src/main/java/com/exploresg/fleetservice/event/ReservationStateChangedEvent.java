@@ -0,0 +1,43 @@
+package com.exploresg.fleetservice.event;
+
+import com.exploresg.fleetservice.model.VehicleBookingRecord;
+import com.exploresg.fleetservice.model.VehicleBookingRecord.ReservationStatus;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Published whenever a reservation is created or changes status
+ * (PENDING → CONFIRMED / CANCELLED / EXPIRED).
+ * 
+ * Listeners should use @TransactionalEventListener(AFTER_COMMIT) so that
+ * in-memory views are only updated once the database change is durable.
+ */
+@Value
+public class ReservationStateChangedEvent {
+
+    UUID reservationId;
+    UUID vehicleId;
+    LocalDateTime bookingStartDate;
+    LocalDateTime bookingEndDate;
+    ReservationStatus status;
+    LocalDateTime expiresAt;
+
+    public static ReservationStateChangedEvent of(VehicleBookingRecord record) {
+        return new ReservationStateChangedEvent(
+                record.getId(),
+                record.getVehicle().getId(),
+                record.getBookingStartDate(),
+                record.getBookingEndDate(),
+                record.getReservationStatus(),
+                record.getExpiresAt());
+    }
+
+    /**
+     * Whether the reservation still blocks the vehicle for its date range.
+     */
+    public boolean isActive() {
+        return status == ReservationStatus.CONFIRMED || status == ReservationStatus.PENDING;
+    }
+}
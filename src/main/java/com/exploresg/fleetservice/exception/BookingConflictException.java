@@ -0,0 +1,20 @@
+package com.exploresg.fleetservice.exception;
+
+import java.util.UUID;
+
+/**
+ * Exception thrown when a booking id already holds reservations that do not
+ * match the request reusing it
+ */
+public class BookingConflictException extends RuntimeException {
+    private final UUID bookingId;
+
+    public BookingConflictException(UUID bookingId, String message) {
+        super(message);
+        this.bookingId = bookingId;
+    }
+
+    public UUID getBookingId() {
+        return bookingId;
+    }
+}
@@ -3,6 +3,7 @@ package com.exploresg.fleetservice.exception;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -73,6 +74,34 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
     }
 
+    /**
+     * Handle ReservationAdmissionTimeoutException
+     * Returns 503 SERVICE UNAVAILABLE with Retry-After
+     */
+    @ExceptionHandler(ReservationAdmissionTimeoutException.class)
+    public ResponseEntity<ErrorResponse> handleReservationAdmissionTimeout(
+            ReservationAdmissionTimeoutException ex,
+            WebRequest request) {
+
+        log.warn("Reservation admission timed out: {}", ex.getMessage());
+
+        ErrorResponse error = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Busy",
+                ex.getMessage(),
+                getPath(request));
+
+        Map<String, Object> details = new HashMap<>();
+        details.put("modelPublicId", ex.getModelPublicId());
+        details.put("waitedMs", ex.getWaitedMs());
+        error.setDetails(details);
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error);
+    }
+
     /**
      * Handle ReservationExpiredException
      * Returns 410 GONE
@@ -150,6 +179,77 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
+    /**
+     * Handle BookingConflictException
+     * Returns 409 CONFLICT
+     */
+    @ExceptionHandler(BookingConflictException.class)
+    public ResponseEntity<ErrorResponse> handleBookingConflict(
+            BookingConflictException ex,
+            WebRequest request) {
+
+        log.warn("Booking conflict: {}", ex.getMessage());
+
+        ErrorResponse error = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.CONFLICT.value(),
+                "Booking Conflict",
+                ex.getMessage(),
+                getPath(request));
+
+        Map<String, Object> details = new HashMap<>();
+        details.put("bookingId", ex.getBookingId());
+        error.setDetails(details);
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    /**
+     * Handle IdempotencyKeyMismatchException
+     * Returns 422 UNPROCESSABLE ENTITY
+     */
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyMismatch(
+            IdempotencyKeyMismatchException ex,
+            WebRequest request) {
+
+        log.warn("Idempotency key rejected: {}", ex.getMessage());
+
+        ErrorResponse error = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                "Idempotency Key Mismatch",
+                ex.getMessage(),
+                getPath(request));
+
+        Map<String, Object> details = new HashMap<>();
+        details.put("idempotencyKey", ex.getIdempotencyKey());
+        error.setDetails(details);
+
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(error);
+    }
+
+    /**
+     * Handle InvalidIdempotencyKeyException
+     * Returns 400 BAD REQUEST
+     */
+    @ExceptionHandler(InvalidIdempotencyKeyException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidIdempotencyKey(
+            InvalidIdempotencyKeyException ex,
+            WebRequest request) {
+
+        log.warn("Invalid idempotency key: {}", ex.getMessage());
+
+        ErrorResponse error = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.BAD_REQUEST.value(),
+                "Invalid Idempotency Key",
+                ex.getMessage(),
+                getPath(request));
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
     /**
      * Handle InvalidDateRangeException
      * Returns 400 BAD REQUEST
@@ -171,6 +271,48 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
+    /**
+     * Handle InvalidPageCursorException
+     * Returns 400 BAD REQUEST
+     */
+    @ExceptionHandler(InvalidPageCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidPageCursor(
+            InvalidPageCursorException ex,
+            WebRequest request) {
+
+        log.warn("Invalid page cursor: {}", ex.getMessage());
+
+        ErrorResponse error = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.BAD_REQUEST.value(),
+                "Invalid Page Cursor",
+                ex.getMessage(),
+                getPath(request));
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    /**
+     * Handle InvalidImportFileException
+     * Returns 400 BAD REQUEST
+     */
+    @ExceptionHandler(InvalidImportFileException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidImportFile(
+            InvalidImportFileException ex,
+            WebRequest request) {
+
+        log.warn("Invalid import file: {}", ex.getMessage());
+
+        ErrorResponse error = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.BAD_REQUEST.value(),
+                "Invalid Import File",
+                ex.getMessage(),
+                getPath(request));
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
     /**
      * Handle validation errors (e.g., @NotNull violations)
      * Returns 400 BAD REQUEST
@@ -0,0 +1,18 @@
+package com.exploresg.fleetservice.exception;
+
+/**
+ * Exception thrown when an Idempotency-Key was already used for a different
+ * call, or is being used by a concurrent request
+ */
+public class IdempotencyKeyMismatchException extends RuntimeException {
+    private final String idempotencyKey;
+
+    public IdempotencyKeyMismatchException(String idempotencyKey, String message) {
+        super(message);
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+}
@@ -0,0 +1,11 @@
+package com.exploresg.fleetservice.exception;
+
+/**
+ * Exception thrown when an Idempotency-Key header is blank or longer than the
+ * key table allows
+ */
+public class InvalidIdempotencyKeyException extends RuntimeException {
+    public InvalidIdempotencyKeyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.exploresg.fleetservice.exception;
+
+/**
+ * Exception thrown when a bulk import file cannot be read as a whole (e.g.
+ * missing header columns or broken quoting)
+ */
+public class InvalidImportFileException extends RuntimeException {
+    public InvalidImportFileException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.exploresg.fleetservice.exception;
+
+/**
+ * Exception thrown when a keyset pagination cursor cannot be decoded or does
+ * not match the requested sort
+ */
+public class InvalidPageCursorException extends RuntimeException {
+    public InvalidPageCursorException(String message) {
+        super(message);
+    }
+}
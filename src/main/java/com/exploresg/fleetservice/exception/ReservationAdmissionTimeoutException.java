@@ -0,0 +1,26 @@
+package com.exploresg.fleetservice.exception;
+
+import java.util.UUID;
+
+/**
+ * Exception thrown when a reservation request waited too long for its turn
+ * to allocate a vehicle of a busy model
+ */
+public class ReservationAdmissionTimeoutException extends RuntimeException {
+    private final UUID modelPublicId;
+    private final long waitedMs;
+
+    public ReservationAdmissionTimeoutException(UUID modelPublicId, long waitedMs) {
+        super("Too many concurrent reservations for model: " + modelPublicId + ". Please retry shortly.");
+        this.modelPublicId = modelPublicId;
+        this.waitedMs = waitedMs;
+    }
+
+    public UUID getModelPublicId() {
+        return modelPublicId;
+    }
+
+    public long getWaitedMs() {
+        return waitedMs;
+    }
+}
@@ -0,0 +1,54 @@
+package com.exploresg.fleetservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Outcome of a confirm / cancel call made with an Idempotency-Key header,
+ * kept until expires_at so a retry with the same key is answered with the
+ * original result. Stores just enough to rebuild the response.
+ */
+@Entity
+@Table(name = "reservation_idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_expires", columnList = "expires_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservationIdempotencyKey {
+
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String idempotencyKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "operation", nullable = false, length = 10)
+    private Operation operation;
+
+    @Column(name = "reservation_id", nullable = false)
+    private UUID reservationId;
+
+    @Column(name = "vehicle_id")
+    private UUID vehicleId;
+
+    @Column(name = "completed_at", nullable = false)
+    private LocalDateTime completedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public enum Operation {
+        CONFIRM,
+        CANCEL
+    }
+
+    // Same key, same call: anything else is a client reusing a key
+    public boolean matches(Operation operation, UUID reservationId) {
+        return this.operation == operation && this.reservationId.equals(reservationId);
+    }
+}
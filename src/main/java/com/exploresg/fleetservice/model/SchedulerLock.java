@@ -0,0 +1,37 @@
+package com.exploresg.fleetservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lease row of a scheduled job that must run on one replica at a time (see
+ * SchedulerLockService). fencing_token grows by one on every takeover, so
+ * writes made under an older lease can be told apart and refused.
+ */
+@Entity
+@Table(name = "scheduler_locks")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SchedulerLock {
+
+    @Id
+    @Column(name = "lock_name", length = 64)
+    private String lockName;
+
+    @Column(name = "owner_id", nullable = false, length = 255)
+    private String ownerId;
+
+    @Column(name = "fencing_token", nullable = false)
+    private long fencingToken;
+
+    @Column(name = "locked_at", nullable = false)
+    private LocalDateTime lockedAt;
+
+    @Column(name = "locked_until", nullable = false)
+    private LocalDateTime lockedUntil;
+}
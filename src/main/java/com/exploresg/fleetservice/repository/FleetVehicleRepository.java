@@ -3,6 +3,10 @@ package com.exploresg.fleetservice.repository;
 import com.exploresg.fleetservice.model.CarModel;
 import com.exploresg.fleetservice.model.FleetVehicle;
 import com.exploresg.fleetservice.model.VehicleStatus;
+import com.exploresg.fleetservice.repository.projection.FleetModelStatusAggregateView;
+import com.exploresg.fleetservice.repository.projection.FleetVehicleDashboardView;
+import com.exploresg.fleetservice.repository.projection.OperatorModelAvailabilityView;
+import com.exploresg.fleetservice.repository.projection.VehicleAllocationView;
 
 import jakarta.persistence.LockModeType;
 
@@ -10,16 +14,18 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.UUID; // <-- NEW IMPORT
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 // JpaRepository<Entity, ID_TYPE>
-public interface FleetVehicleRepository extends JpaRepository<FleetVehicle, UUID> { // <-- ID TYPE CHANGED TO UUID
+public interface FleetVehicleRepository extends JpaRepository<FleetVehicle, UUID>, FleetVehicleSearchRepository { // <-- ID TYPE CHANGED TO UUID
 
     /**
      * Retrieves all unique CarModel entities that currently have at least one
@@ -30,6 +36,39 @@ public interface FleetVehicleRepository extends JpaRepository<FleetVehicle, UUID
     @Query("SELECT DISTINCT f.carModel FROM FleetVehicle f WHERE f.status = 'AVAILABLE'")
     List<CarModel> findAvailableCarModels();
 
+    /**
+     * Public catalog: lowest daily price and number of AVAILABLE vehicles per
+     * (operator, car model), grouped in the database.
+     */
+    @Query("""
+            SELECT fv.ownerId AS ownerId,
+                   fv.carModel.id AS carModelId,
+                   MIN(fv.dailyPrice) AS lowestDailyPrice,
+                   COUNT(fv) AS availableVehicleCount
+            FROM FleetVehicle fv
+            WHERE fv.status = 'AVAILABLE'
+            GROUP BY fv.ownerId, fv.carModel.id
+            ORDER BY fv.ownerId, fv.carModel.id
+            """)
+    List<OperatorModelAvailabilityView> findAvailableOperatorModelSummaries();
+
+    /**
+     * Same as findAvailableOperatorModelSummaries, for a single operator.
+     */
+    @Query("""
+            SELECT fv.ownerId AS ownerId,
+                   fv.carModel.id AS carModelId,
+                   MIN(fv.dailyPrice) AS lowestDailyPrice,
+                   COUNT(fv) AS availableVehicleCount
+            FROM FleetVehicle fv
+            WHERE fv.status = 'AVAILABLE'
+              AND fv.ownerId = :ownerId
+            GROUP BY fv.ownerId, fv.carModel.id
+            ORDER BY fv.carModel.id
+            """)
+    List<OperatorModelAvailabilityView> findAvailableOperatorModelSummariesByOwnerId(
+            @Param("ownerId") UUID ownerId);
+
     /**
      * Retrieves all specific FleetVehicle instances for a given model that are
      * AVAILABLE.
@@ -73,48 +112,40 @@ public interface FleetVehicleRepository extends JpaRepository<FleetVehicle, UUID
     Page<FleetVehicle> findByOwnerId(UUID ownerId, Pageable pageable);
 
     /**
-     * Search fleet vehicles with optional filters and pagination.
-     * Uses native SQL query to avoid JPQL parameter binding issues with PostgreSQL.
-     * All search parameters are optional (use null to skip filtering).
-     * 
-     * @param ownerId      The owner/operator UUID (required)
-     * @param licensePlate License plate to search (partial match)
-     * @param status       Vehicle status to filter by
-     * @param model        Car model name to search (partial match)
-     * @param manufacturer Manufacturer name to search (partial match)
-     * @param location     Current location to search (partial match)
-     * @param pageable     Pagination information
-     * @return Page of FleetVehicle entities matching the search criteria
-     */
-    @Query(value = "SELECT f.* FROM fleet_vehicles f " +
-            "JOIN car_models cm ON cm.id = f.car_model_id " +
-            "WHERE f.owner_id = :ownerId " +
-            "AND (:licensePlate IS NULL OR LOWER(f.license_plate) LIKE LOWER(CONCAT('%', :licensePlate, '%'))) "
-            +
-            "AND (:status IS NULL OR f.status = CAST(:status AS TEXT)) " +
-            "AND (:model IS NULL OR LOWER(cm.model) LIKE LOWER(CONCAT('%', :model, '%'))) " +
-            "AND (:manufacturer IS NULL OR LOWER(cm.manufacturer) LIKE LOWER(CONCAT('%', :manufacturer, '%'))) "
-            +
-            "AND (:location IS NULL OR LOWER(f.current_location) LIKE LOWER(CONCAT('%', :location, '%')))", countQuery = "SELECT COUNT(*) FROM fleet_vehicles f "
-                    +
-                    "JOIN car_models cm ON cm.id = f.car_model_id " +
-                    "WHERE f.owner_id = :ownerId " +
-                    "AND (:licensePlate IS NULL OR LOWER(f.license_plate) LIKE LOWER(CONCAT('%', :licensePlate, '%'))) "
-                    +
-                    "AND (:status IS NULL OR f.status = CAST(:status AS TEXT)) " +
-                    "AND (:model IS NULL OR LOWER(cm.model) LIKE LOWER(CONCAT('%', :model, '%'))) "
-                    +
-                    "AND (:manufacturer IS NULL OR LOWER(cm.manufacturer) LIKE LOWER(CONCAT('%', :manufacturer, '%'))) "
-                    +
-                    "AND (:location IS NULL OR LOWER(f.current_location) LIKE LOWER(CONCAT('%', :location, '%')))", nativeQuery = true)
-    Page<FleetVehicle> searchFleetVehicles(
-            UUID ownerId,
-            String licensePlate,
-            String status,
-            String model,
-            String manufacturer,
-            String location,
-            Pageable pageable);
+     * Bulk status change: set status, maintenance note and expected return
+     * date of the listed vehicles in one statement, exactly as given (null
+     * clears them). Vehicles of other owners are left untouched.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            UPDATE FleetVehicle fv
+            SET fv.status = :status,
+                fv.maintenanceNote = :maintenanceNote,
+                fv.expectedReturnDate = :expectedReturnDate,
+                fv.lastUpdatedAt = :now
+            WHERE fv.ownerId = :ownerId
+              AND fv.id IN :vehicleIds
+            """)
+    int updateStatusForOwner(
+            @Param("ownerId") UUID ownerId,
+            @Param("vehicleIds") Collection<UUID> vehicleIds,
+            @Param("status") VehicleStatus status,
+            @Param("maintenanceNote") String maintenanceNote,
+            @Param("expectedReturnDate") LocalDateTime expectedReturnDate,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * Which of the given vehicles belong to the owner.
+     */
+    @Query("""
+            SELECT fv.id
+            FROM FleetVehicle fv
+            WHERE fv.ownerId = :ownerId
+              AND fv.id IN :vehicleIds
+            """)
+    List<UUID> findIdsByOwnerIdAndIdIn(
+            @Param("ownerId") UUID ownerId,
+            @Param("vehicleIds") Collection<UUID> vehicleIds);
 
     /**
      * Count vehicles by owner and status.
@@ -128,6 +159,76 @@ public interface FleetVehicleRepository extends JpaRepository<FleetVehicle, UUID
      */
     long countByOwnerId(UUID ownerId);
 
+    /**
+     * Dashboard aggregate: one row per (car model, status) for an operator.
+     * Replaces loading every vehicle and streaming over it in Java.
+     */
+    @Query("""
+            SELECT cm.id AS carModelId,
+                   cm.manufacturer AS manufacturer,
+                   cm.model AS model,
+                   cm.imageUrl AS imageUrl,
+                   fv.status AS status,
+                   COUNT(fv) AS vehicleCount,
+                   COUNT(fv.mileageKm) AS mileageCount,
+                   COALESCE(SUM(CAST(fv.mileageKm AS Long)), 0L) AS mileageSum,
+                   SUM(fv.dailyPrice) AS dailyPriceSum,
+                   SUM(CASE WHEN fv.expectedReturnDate < :now THEN 1L ELSE 0L END) AS returnOverdueCount,
+                   SUM(CASE WHEN fv.expectedReturnDate > :now THEN 1L ELSE 0L END) AS returnUpcomingCount,
+                   SUM(CASE WHEN fv.mileageKm > 50000 THEN 1L ELSE 0L END) AS highMileageCount
+            FROM FleetVehicle fv
+            JOIN fv.carModel cm
+            WHERE fv.ownerId = :ownerId
+            GROUP BY cm.id, cm.manufacturer, cm.model, cm.imageUrl, fv.status
+            ORDER BY cm.manufacturer, cm.model
+            """)
+    List<FleetModelStatusAggregateView> aggregateFleetByModelAndStatus(
+            @Param("ownerId") UUID ownerId,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * Dashboard fields of every vehicle of an operator.
+     * Used to load and reconcile the in-memory dashboard rollup.
+     */
+    @Query("""
+            SELECT fv.id AS vehicleId,
+                   fv.ownerId AS ownerId,
+                   cm.id AS carModelId,
+                   cm.manufacturer AS manufacturer,
+                   cm.model AS model,
+                   cm.imageUrl AS imageUrl,
+                   fv.status AS status,
+                   fv.mileageKm AS mileageKm,
+                   fv.dailyPrice AS dailyPrice,
+                   fv.expectedReturnDate AS expectedReturnDate
+            FROM FleetVehicle fv
+            JOIN fv.carModel cm
+            WHERE fv.ownerId = :ownerId
+            """)
+    List<FleetVehicleDashboardView> findDashboardViewsByOwnerId(@Param("ownerId") UUID ownerId);
+
+    /**
+     * Dashboard fields for a set of vehicles.
+     * Used to apply vehicle changes to the dashboard rollup.
+     */
+    @Query("""
+            SELECT fv.id AS vehicleId,
+                   fv.ownerId AS ownerId,
+                   cm.id AS carModelId,
+                   cm.manufacturer AS manufacturer,
+                   cm.model AS model,
+                   cm.imageUrl AS imageUrl,
+                   fv.status AS status,
+                   fv.mileageKm AS mileageKm,
+                   fv.dailyPrice AS dailyPrice,
+                   fv.expectedReturnDate AS expectedReturnDate
+            FROM FleetVehicle fv
+            JOIN fv.carModel cm
+            WHERE fv.id IN :vehicleIds
+            """)
+    List<FleetVehicleDashboardView> findDashboardViewsByIdIn(
+            @Param("vehicleIds") Collection<UUID> vehicleIds);
+
     /**
      * Find all vehicles of a model that are AVAILABLE status
      * Used for availability count checks (before pessimistic locking)
@@ -150,7 +251,9 @@ public interface FleetVehicleRepository extends JpaRepository<FleetVehicle, UUID
      * The query:
      * 1. Finds vehicles of the requested model
      * 2. Filters to AVAILABLE status only
-     * 3. Excludes vehicles with overlapping CONFIRMED or PENDING bookings
+     * 3. Excludes vehicles with overlapping CONFIRMED or unexpired PENDING
+     * bookings (PENDING holds past expires_at are free even before the cleanup
+     * job flips them to EXPIRED)
      * 4. Orders by mileage (prefer lower mileage vehicles)
      * 5. Locks the selected row FOR UPDATE
      * 6. SKIP LOCKED means if a vehicle is already locked, skip it and try the next
@@ -167,7 +270,8 @@ public interface FleetVehicleRepository extends JpaRepository<FleetVehicle, UUID
                 SELECT 1
                 FROM vehicle_booking_records vbr
                 WHERE vbr.vehicle_id = fv.id
-                  AND vbr.reservation_status IN ('CONFIRMED', 'PENDING')
+                  AND (vbr.reservation_status = 'CONFIRMED'
+                       OR (vbr.reservation_status = 'PENDING' AND vbr.expires_at > :now))
                   AND vbr.booking_start_date < :endDate
                   AND vbr.booking_end_date > :startDate
             )
@@ -178,7 +282,173 @@ public interface FleetVehicleRepository extends JpaRepository<FleetVehicle, UUID
     Optional<FleetVehicle> findOneAvailableVehicleForBooking(
             @Param("modelPublicId") UUID modelPublicId,
             @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate);
+            @Param("endDate") LocalDateTime endDate,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * 🔒 Lock up to :limit available vehicles of a model at once (cart
+     * reservations).
+     * 
+     * Set-based variant of findOneAvailableVehicleForBooking: same filter,
+     * order and FOR UPDATE SKIP LOCKED, minus :excludedIds (vehicles already
+     * picked for, or holding an old row of, the same booking). Returns fewer
+     * than :limit rows when not enough vehicles are free.
+     */
+    @Query(value = """
+            SELECT fv.*
+            FROM fleet_vehicles fv
+            WHERE fv.car_model_id = (
+                SELECT id FROM car_models WHERE public_id = :modelPublicId
+            )
+            AND fv.status = 'AVAILABLE'
+            AND fv.id NOT IN (:excludedIds)
+            AND NOT EXISTS (
+                SELECT 1
+                FROM vehicle_booking_records vbr
+                WHERE vbr.vehicle_id = fv.id
+                  AND (vbr.reservation_status = 'CONFIRMED'
+                       OR (vbr.reservation_status = 'PENDING' AND vbr.expires_at > :now))
+                  AND vbr.booking_start_date < :endDate
+                  AND vbr.booking_end_date > :startDate
+            )
+            ORDER BY fv.mileage_km ASC, fv.id ASC
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<FleetVehicle> lockAvailableVehiclesForBooking(
+            @Param("modelPublicId") UUID modelPublicId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("now") LocalDateTime now,
+            @Param("excludedIds") Collection<UUID> excludedIds,
+            @Param("limit") int limit);
+
+    /**
+     * 🎯 Candidate vehicles for optimistic allocation (no row locks).
+     * 
+     * Same filter and order as findOneAvailableVehicleForBooking, but returns
+     * up to :limit ids without locking them. The caller inserts the hold
+     * directly and lets excl_vbr_vehicle_period reject a vehicle that was taken
+     * in the meantime.
+     */
+    @Query(value = """
+            SELECT fv.id
+            FROM fleet_vehicles fv
+            WHERE fv.car_model_id = (
+                SELECT id FROM car_models WHERE public_id = :modelPublicId
+            )
+            AND fv.status = 'AVAILABLE'
+            AND NOT EXISTS (
+                SELECT 1
+                FROM vehicle_booking_records vbr
+                WHERE vbr.vehicle_id = fv.id
+                  AND (vbr.reservation_status = 'CONFIRMED'
+                       OR (vbr.reservation_status = 'PENDING' AND vbr.expires_at > :now))
+                  AND vbr.booking_start_date < :endDate
+                  AND vbr.booking_end_date > :startDate
+            )
+            ORDER BY fv.mileage_km ASC, fv.id ASC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<UUID> findAvailableVehicleIdsForBooking(
+            @Param("modelPublicId") UUID modelPublicId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("now") LocalDateTime now,
+            @Param("limit") int limit);
+
+    /**
+     * 🔐 Lock-and-verify a single, already chosen vehicle.
+     * 
+     * Used together with the in-memory availability index: the index ranks
+     * candidates, and the database only has to lock the one row and re-check
+     * that it is still AVAILABLE and free for the requested dates.
+     * Returns empty if the vehicle is taken, locked by another transaction
+     * (SKIP LOCKED) or no longer AVAILABLE.
+     */
+    @Query(value = """
+            SELECT fv.*
+            FROM fleet_vehicles fv
+            WHERE fv.id = :vehicleId
+            AND fv.status = 'AVAILABLE'
+            AND NOT EXISTS (
+                SELECT 1
+                FROM vehicle_booking_records vbr
+                WHERE vbr.vehicle_id = fv.id
+                  AND (vbr.reservation_status = 'CONFIRMED'
+                       OR (vbr.reservation_status = 'PENDING' AND vbr.expires_at > :now))
+                  AND vbr.booking_start_date < :endDate
+                  AND vbr.booking_end_date > :startDate
+            )
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    Optional<FleetVehicle> lockVehicleIfAvailableForBooking(
+            @Param("vehicleId") UUID vehicleId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * Allocation snapshot of every vehicle (all statuses).
+     * Used to (re)build the in-memory availability index.
+     */
+    @Query("""
+            SELECT fv.id AS vehicleId,
+                   cm.publicId AS modelPublicId,
+                   fv.status AS status,
+                   fv.mileageKm AS mileageKm
+            FROM FleetVehicle fv
+            JOIN fv.carModel cm
+            """)
+    List<VehicleAllocationView> findAllAllocationViews();
+
+    /**
+     * Allocation snapshot of the vehicles changed since :since.
+     * Used to keep the model inventory ledger in step with other replicas
+     * (idx_fleet_vehicles_last_updated).
+     */
+    @Query("""
+            SELECT fv.id AS vehicleId,
+                   cm.publicId AS modelPublicId,
+                   fv.status AS status,
+                   fv.mileageKm AS mileageKm
+            FROM FleetVehicle fv
+            JOIN fv.carModel cm
+            WHERE fv.lastUpdatedAt > :since
+            """)
+    List<VehicleAllocationView> findAllocationViewsUpdatedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Allocation snapshot of every vehicle (all statuses) of one car model.
+     * Used to build the per-model availability calendar.
+     */
+    @Query("""
+            SELECT fv.id AS vehicleId,
+                   cm.publicId AS modelPublicId,
+                   fv.status AS status,
+                   fv.mileageKm AS mileageKm
+            FROM FleetVehicle fv
+            JOIN fv.carModel cm
+            WHERE cm.publicId = :modelPublicId
+            """)
+    List<VehicleAllocationView> findAllocationViewsByModelPublicId(
+            @Param("modelPublicId") UUID modelPublicId);
+
+    /**
+     * Allocation snapshot for a set of vehicles.
+     * Used to refresh the in-memory availability index after vehicle changes.
+     */
+    @Query("""
+            SELECT fv.id AS vehicleId,
+                   cm.publicId AS modelPublicId,
+                   fv.status AS status,
+                   fv.mileageKm AS mileageKm
+            FROM FleetVehicle fv
+            JOIN fv.carModel cm
+            WHERE fv.id IN :vehicleIds
+            """)
+    List<VehicleAllocationView> findAllocationViewsByIdIn(
+            @Param("vehicleIds") Collection<UUID> vehicleIds);
 
     /**
      * Check if a specific vehicle is currently booked
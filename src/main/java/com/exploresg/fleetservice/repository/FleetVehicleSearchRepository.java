@@ -0,0 +1,124 @@
+package com.exploresg.fleetservice.repository;
+
+import com.exploresg.fleetservice.model.FleetVehicle;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Custom fragment of FleetVehicleRepository for the operator fleet search,
+ * whose SQL is assembled from the filters actually given.
+ */
+public interface FleetVehicleSearchRepository {
+
+    /**
+     * Search fleet vehicles with optional filters and pagination.
+     * All search parameters are optional (use null to skip filtering).
+     *
+     * @param ownerId      The owner/operator UUID (required)
+     * @param licensePlate License plate to search (partial match)
+     * @param status       Vehicle status to filter by
+     * @param model        Car model name to search (partial match)
+     * @param manufacturer Manufacturer name to search (partial match)
+     * @param location     Current location to search (partial match)
+     * @param pageable     Pagination information, sorted by fleet_vehicles
+     *                     column names
+     * @return Page of FleetVehicle entities matching the search criteria
+     */
+    Page<FleetVehicle> searchFleetVehicles(
+            UUID ownerId,
+            String licensePlate,
+            String status,
+            String model,
+            String manufacturer,
+            String location,
+            Pageable pageable);
+
+    /**
+     * Keyset page: up to {@code limit} vehicles matching {@code criteria} that
+     * come after ({@code afterValue}, {@code afterId}) in (sort, id) order.
+     * With afterId null, the first page. Cost does not grow with depth.
+     */
+    List<FleetVehicle> searchFleetVehiclesAfter(
+            SearchCriteria criteria,
+            KeysetSort sort,
+            boolean ascending,
+            Object afterValue,
+            UUID afterId,
+            int limit);
+
+    /**
+     * Number of vehicles matching {@code criteria}, counting no further than
+     * {@code cap} + 1 (cap &lt;= 0: exact count).
+     */
+    long countFleetVehicles(SearchCriteria criteria, long cap);
+
+    /**
+     * The planner's row estimate for {@code criteria}; empty where the
+     * database cannot provide one.
+     */
+    OptionalLong estimateFleetVehicles(SearchCriteria criteria);
+
+    /**
+     * Fleet search filters; everything but ownerId is optional.
+     */
+    record SearchCriteria(
+            UUID ownerId,
+            String licensePlate,
+            String status,
+            String model,
+            String manufacturer,
+            String location) {
+    }
+
+    /**
+     * Sort orders available to keyset pagination: non-null columns only, so
+     * (column, id) is a strict total order.
+     */
+    enum KeysetSort {
+        LICENSE_PLATE("licensePlate", "license_plate", FleetVehicle::getLicensePlate, value -> value),
+        STATUS("status", "status", vehicle -> vehicle.getStatus().name(), value -> value),
+        DAILY_PRICE("dailyPrice", "daily_price", FleetVehicle::getDailyPrice, BigDecimal::new),
+        CREATED_AT("createdAt", "created_at", FleetVehicle::getCreatedAt, LocalDateTime::parse);
+
+        private final String property;
+        private final String column;
+        private final Function<FleetVehicle, Object> extractor;
+        private final Function<String, Object> parser;
+
+        KeysetSort(String property, String column, Function<FleetVehicle, Object> extractor,
+                Function<String, Object> parser) {
+            this.property = property;
+            this.column = column;
+            this.extractor = extractor;
+            this.parser = parser;
+        }
+
+        public static Optional<KeysetSort> fromProperty(String property) {
+            return Arrays.stream(values()).filter(sort -> sort.property.equals(property)).findFirst();
+        }
+
+        public String column() {
+            return column;
+        }
+
+        /** Sort value of a vehicle, as bound for the keyset predicate */
+        public Object valueOf(FleetVehicle vehicle) {
+            return extractor.apply(vehicle);
+        }
+
+        /** Sort value from its String.valueOf form (cursors) */
+        public Object parse(String value) {
+            return parser.apply(value);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.exploresg.fleetservice.repository;
+
+import com.exploresg.fleetservice.model.FleetVehicle;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 🔎 Trigram-indexed fleet search
+ *
+ * Partial matches are written as LOWER(column) LIKE '%term%', which the
+ * pg_trgm GIN indexes on those expressions (schema-postgresql.sql) can
+ * answer instead of scanning the operator's whole fleet:
+ * - Only the filters actually given make it into the SQL; the old
+ * "(:x IS NULL OR ...)" form kept PostgreSQL from using any index
+ * - LIKE wildcards in the terms are escaped, so "_" and "%" in a search
+ * match themselves
+ * - Total count comes from COUNT(*) OVER () in the same statement rather
+ * than a second query
+ * - Sorting only by whitelisted columns, with f.id as tie-breaker
+ *
+ * Deep pages of large fleets use the keyset variant instead
+ * (searchFleetVehiclesAfter), with an optional capped or estimated total.
+ *
+ * Terms shorter than three characters have no trigrams; PostgreSQL then
+ * falls back to the owner_id filter on its own.
+ */
+public class FleetVehicleSearchRepositoryImpl implements FleetVehicleSearchRepository {
+
+    private static final Set<String> SORTABLE_COLUMNS = Set.of(
+            "license_plate", "status", "daily_price", "mileage_km", "current_location",
+            "passenger_capacity", "primary_colour", "available_from", "available_until",
+            "expected_return_date", "created_at", "last_updated_at");
+
+    private static final String DEFAULT_ORDER = "f.license_plate ASC";
+
+    private static final Pattern PLAN_ROWS = Pattern.compile("\\brows=(\\d+)");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<FleetVehicle> searchFleetVehicles(
+            UUID ownerId,
+            String licensePlate,
+            String status,
+            String model,
+            String manufacturer,
+            String location,
+            Pageable pageable) {
+
+        SearchCriteria criteria = new SearchCriteria(ownerId, licensePlate, status, model, manufacturer,
+                location);
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        String where = where(criteria, parameters);
+
+        String sql = "SELECT {f.*}, COUNT(*) OVER () AS total_count " +
+                "FROM fleet_vehicles f " +
+                "JOIN car_models cm ON cm.id = f.car_model_id " +
+                where +
+                "ORDER BY " + orderBy(pageable.getSort()) + ", f.id " +
+                "LIMIT :limit OFFSET :offset";
+
+        NativeQuery<?> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+        query.addEntity("f", FleetVehicle.class);
+        query.addScalar("total_count", StandardBasicTypes.LONG);
+        parameters.forEach(query::setParameter);
+        query.setParameter("limit", pageable.getPageSize());
+        query.setParameter("offset", pageable.getOffset());
+
+        List<FleetVehicle> vehicles = new ArrayList<>();
+        long total = 0;
+        for (Object row : query.getResultList()) {
+            Object[] columns = (Object[]) row;
+            vehicles.add((FleetVehicle) columns[0]);
+            total = (Long) columns[1];
+        }
+
+        if (vehicles.isEmpty() && pageable.getOffset() > 0) {
+            // Past the last page: the window count has no row to ride on
+            total = countFleetVehicles(criteria, 0);
+        }
+        return new PageImpl<>(vehicles, pageable, total);
+    }
+
+    @Override
+    public List<FleetVehicle> searchFleetVehiclesAfter(
+            SearchCriteria criteria,
+            KeysetSort sort,
+            boolean ascending,
+            Object afterValue,
+            UUID afterId,
+            int limit) {
+
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        StringBuilder where = new StringBuilder(where(criteria, parameters));
+        String direction = ascending ? "ASC" : "DESC";
+        if (afterId != null) {
+            // Row comparison, so PostgreSQL can seek the (owner_id, column, id) index
+            where.append("AND (f.").append(sort.column()).append(", f.id) ")
+                    .append(ascending ? ">" : "<").append(" (:afterValue, :afterId) ");
+            parameters.put("afterValue", afterValue);
+            parameters.put("afterId", afterId);
+        }
+
+        String sql = "SELECT f.* FROM fleet_vehicles f " +
+                "JOIN car_models cm ON cm.id = f.car_model_id " +
+                where +
+                "ORDER BY f." + sort.column() + " " + direction + ", f.id " + direction + " " +
+                "LIMIT :limit";
+
+        var query = entityManager.createNativeQuery(sql, FleetVehicle.class);
+        parameters.forEach(query::setParameter);
+        query.setParameter("limit", limit);
+        @SuppressWarnings("unchecked")
+        List<FleetVehicle> vehicles = query.getResultList();
+        return vehicles;
+    }
+
+    @Override
+    public long countFleetVehicles(SearchCriteria criteria, long cap) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        String matching = "SELECT 1 FROM fleet_vehicles f " +
+                "JOIN car_models cm ON cm.id = f.car_model_id " +
+                where(criteria, parameters);
+        if (cap > 0) {
+            matching += "LIMIT " + (cap + 1);
+        }
+
+        var query = entityManager.createNativeQuery("SELECT COUNT(*) FROM (" + matching + ") matching");
+        parameters.forEach(query::setParameter);
+        return ((Number) query.getSingleResult()).longValue();
+    }
+
+    @Override
+    public OptionalLong estimateFleetVehicles(SearchCriteria criteria) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        var query = entityManager.createNativeQuery("EXPLAIN SELECT 1 FROM fleet_vehicles f " +
+                "JOIN car_models cm ON cm.id = f.car_model_id " +
+                where(criteria, parameters));
+        parameters.forEach(query::setParameter);
+        try {
+            // Top plan node, e.g. "Hash Join  (cost=12.40..3071.55 rows=4821 width=4)"
+            Matcher rows = PLAN_ROWS.matcher(String.valueOf(query.getResultList().get(0)));
+            return rows.find() ? OptionalLong.of(Long.parseLong(rows.group(1))) : OptionalLong.empty();
+        } catch (RuntimeException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    private static String where(SearchCriteria criteria, Map<String, Object> parameters) {
+        StringBuilder where = new StringBuilder("WHERE f.owner_id = :ownerId ");
+        parameters.put("ownerId", criteria.ownerId());
+
+        if (criteria.status() != null) {
+            where.append("AND f.status = :status ");
+            parameters.put("status", criteria.status());
+        }
+        addContains(where, parameters, "f.license_plate", "licensePlate", criteria.licensePlate());
+        addContains(where, parameters, "cm.model", "model", criteria.model());
+        addContains(where, parameters, "cm.manufacturer", "manufacturer", criteria.manufacturer());
+        addContains(where, parameters, "f.current_location", "location", criteria.location());
+        return where.toString();
+    }
+
+    private static void addContains(StringBuilder where, Map<String, Object> parameters,
+            String column, String parameter, String term) {
+        if (term == null) {
+            return;
+        }
+        where.append("AND LOWER(").append(column).append(") LIKE LOWER(:").append(parameter)
+                .append(") ESCAPE '\\' ");
+        parameters.put(parameter, "%" + escapeLike(term) + "%");
+    }
+
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static String orderBy(Sort sort) {
+        List<String> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            if (SORTABLE_COLUMNS.contains(order.getProperty())) {
+                orders.add("f." + order.getProperty() + (order.isAscending() ? " ASC" : " DESC"));
+            }
+        }
+        return orders.isEmpty() ? DEFAULT_ORDER : String.join(", ", orders);
+    }
+}
@@ -0,0 +1,60 @@
+package com.exploresg.fleetservice.repository;
+
+import com.exploresg.fleetservice.model.ReservationIdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface ReservationIdempotencyKeyRepository extends JpaRepository<ReservationIdempotencyKey, String> {
+
+  /**
+   * Record a key in the caller's transaction, replacing a row for the same key
+   * that is past retention but not purged yet. Returns 0 if the key is still
+   * taken (a concurrent request with the same key committed first).
+   */
+  @Modifying
+  @Query(value = "INSERT INTO reservation_idempotency_keys " +
+      "  (idempotency_key, operation, reservation_id, vehicle_id, completed_at, expires_at) " +
+      "VALUES (:idempotencyKey, :operation, :reservationId, :vehicleId, :completedAt, :expiresAt) " +
+      "ON CONFLICT (idempotency_key) DO UPDATE SET " +
+      "  operation = EXCLUDED.operation, " +
+      "  reservation_id = EXCLUDED.reservation_id, " +
+      "  vehicle_id = EXCLUDED.vehicle_id, " +
+      "  completed_at = EXCLUDED.completed_at, " +
+      "  expires_at = EXCLUDED.expires_at " +
+      "WHERE reservation_idempotency_keys.expires_at < EXCLUDED.completed_at", nativeQuery = true)
+  int insertOrReplaceExpired(
+      @Param("idempotencyKey") String idempotencyKey,
+      @Param("operation") String operation,
+      @Param("reservationId") UUID reservationId,
+      @Param("vehicleId") UUID vehicleId,
+      @Param("completedAt") LocalDateTime completedAt,
+      @Param("expiresAt") LocalDateTime expiresAt);
+
+  /**
+   * Bulk delete keys past their retention (idx_idempotency_expires), only
+   * while the purge job's scheduler lease is still held (fencing token < 0:
+   * locking disabled, no check).
+   */
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM ReservationIdempotencyKey k " +
+      "WHERE k.expiresAt < :now " +
+      "AND (:fencingToken < 0 OR EXISTS (" +
+      "  SELECT 1 FROM SchedulerLock l " +
+      "  WHERE l.lockName = :lockName " +
+      "  AND l.fencingToken = :fencingToken " +
+      "  AND l.lockedUntil > LOCAL DATETIME" +
+      "))")
+  int deleteExpired(
+      @Param("now") LocalDateTime now,
+      @Param("lockName") String lockName,
+      @Param("fencingToken") long fencingToken);
+}
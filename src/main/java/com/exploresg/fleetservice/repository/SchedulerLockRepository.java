@@ -0,0 +1,69 @@
+package com.exploresg.fleetservice.repository;
+
+import com.exploresg.fleetservice.model.SchedulerLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Lease statements for SchedulerLockService. Times come from the database
+ * clock (LOCALTIMESTAMP), so clock skew between pods cannot hand out
+ * overlapping leases. PostgreSQL only.
+ */
+@Repository
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String> {
+
+  /**
+   * Take the lease if it is free or lapsed, in one statement.
+   * Returns the new fencing token, or empty if another owner holds the lease.
+   */
+  @Transactional
+  @Query(value = "INSERT INTO scheduler_locks (lock_name, owner_id, fencing_token, locked_at, locked_until) " +
+      "VALUES (:lockName, :ownerId, 1, LOCALTIMESTAMP, LOCALTIMESTAMP + make_interval(secs => :leaseSeconds)) " +
+      "ON CONFLICT (lock_name) DO UPDATE " +
+      "SET owner_id = EXCLUDED.owner_id, " +
+      "    fencing_token = scheduler_locks.fencing_token + 1, " +
+      "    locked_at = EXCLUDED.locked_at, " +
+      "    locked_until = EXCLUDED.locked_until " +
+      "WHERE scheduler_locks.locked_until <= LOCALTIMESTAMP " +
+      "RETURNING fencing_token", nativeQuery = true)
+  Optional<Long> tryAcquire(
+      @Param("lockName") String lockName,
+      @Param("ownerId") String ownerId,
+      @Param("leaseSeconds") double leaseSeconds);
+
+  /**
+   * Extend a lease still held under the given token. Returns 0 if it was lost.
+   */
+  @Transactional
+  @Modifying
+  @Query(value = "UPDATE scheduler_locks " +
+      "SET locked_until = LOCALTIMESTAMP + make_interval(secs => :leaseSeconds) " +
+      "WHERE lock_name = :lockName " +
+      "AND fencing_token = :fencingToken " +
+      "AND locked_until > LOCALTIMESTAMP", nativeQuery = true)
+  int renew(
+      @Param("lockName") String lockName,
+      @Param("fencingToken") long fencingToken,
+      @Param("leaseSeconds") double leaseSeconds);
+
+  /**
+   * Give the lease up once the job is done, but not before locked_at plus
+   * the minimum hold, so replicas whose tick comes a little later skip it.
+   */
+  @Transactional
+  @Modifying
+  @Query(value = "UPDATE scheduler_locks " +
+      "SET locked_until = GREATEST(LOCALTIMESTAMP, locked_at + make_interval(secs => :minHoldSeconds)) " +
+      "WHERE lock_name = :lockName " +
+      "AND fencing_token = :fencingToken", nativeQuery = true)
+  int release(
+      @Param("lockName") String lockName,
+      @Param("fencingToken") long fencingToken,
+      @Param("minHoldSeconds") double minHoldSeconds);
+}
@@ -7,11 +7,17 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.exploresg.fleetservice.model.VehicleBookingRecord;
 import com.exploresg.fleetservice.model.VehicleBookingRecord.ReservationStatus;
+import com.exploresg.fleetservice.repository.projection.BookingIntervalView;
+import com.exploresg.fleetservice.repository.projection.ModelAvailabilityCountView;
+import com.exploresg.fleetservice.repository.projection.ModelCountView;
 
+import java.sql.Date;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -20,9 +26,18 @@ import java.util.UUID;
 public interface VehicleBookingRecordRepository extends JpaRepository<VehicleBookingRecord, UUID> {
 
   /**
-   * Find reservation by booking ID (for idempotency checks)
+   * Guarded PENDING hold insert behind insertPendingHoldIfFree; also run as a
+   * JDBC batch (named parameters) by the coalesced allocation.
    */
-  Optional<VehicleBookingRecord> findByBookingId(UUID bookingId);
+  String INSERT_PENDING_HOLD_IF_FREE = "INSERT INTO vehicle_booking_records " +
+      "  (id, vehicle_id, booking_id, booking_start_date, booking_end_date, " +
+      "   reservation_status, expires_at, created_at, last_updated_at) " +
+      "SELECT :id, fv.id, :bookingId, :startDate, :endDate, 'PENDING', :expiresAt, :now, :now " +
+      "FROM fleet_vehicles fv " +
+      "WHERE fv.id = :vehicleId " +
+      "AND fv.status = 'AVAILABLE' " +
+      "AND NOT EXISTS (SELECT 1 FROM vehicle_booking_records vbr WHERE vbr.booking_id = :bookingId) " +
+      "ON CONFLICT DO NOTHING";
 
   /**
    * Find all PENDING reservations that have expired
@@ -33,33 +48,264 @@ public interface VehicleBookingRecordRepository extends JpaRepository<VehicleBoo
   List<VehicleBookingRecord> findExpiredPendingReservations(@Param("now") LocalDateTime now);
 
   /**
-   * Bulk update expired PENDING reservations to EXPIRED status
+   * Bulk update expired PENDING reservations to EXPIRED status, only while
+   * the cleanup job's scheduler lease is still held (fencing token < 0:
+   * locking disabled, no check)
    * Returns the number of records updated
    */
+  @Transactional
   @Modifying
   @Query("UPDATE VehicleBookingRecord vbr " +
       "SET vbr.reservationStatus = 'EXPIRED', " +
       "    vbr.lastUpdatedAt = :now " +
       "WHERE vbr.reservationStatus = 'PENDING' " +
-      "AND vbr.expiresAt < :now")
-  int expirePendingReservations(@Param("now") LocalDateTime now);
+      "AND vbr.expiresAt < :now " +
+      "AND (:fencingToken < 0 OR EXISTS (" +
+      "  SELECT 1 FROM SchedulerLock l " +
+      "  WHERE l.lockName = :lockName " +
+      "  AND l.fencingToken = :fencingToken " +
+      "  AND l.lockedUntil > LOCAL DATETIME" +
+      "))")
+  int expirePendingReservations(
+      @Param("now") LocalDateTime now,
+      @Param("lockName") String lockName,
+      @Param("fencingToken") long fencingToken);
+
+  /**
+   * Intervals of all PENDING holds (any expiry).
+   * Used to seed the expiry engine on startup.
+   */
+  @Query("SELECT vbr.id AS reservationId, " +
+      "       vbr.vehicle.id AS vehicleId, " +
+      "       vbr.bookingStartDate AS bookingStartDate, " +
+      "       vbr.bookingEndDate AS bookingEndDate, " +
+      "       vbr.reservationStatus AS reservationStatus, " +
+      "       vbr.expiresAt AS expiresAt " +
+      "FROM VehicleBookingRecord vbr " +
+      "WHERE vbr.reservationStatus = 'PENDING' " +
+      "AND vbr.expiresAt IS NOT NULL")
+  List<BookingIntervalView> findPendingBookingIntervals();
+
+  /**
+   * Expire the given PENDING holds, keyed by primary key, and return the rows
+   * actually expired. Holds that were confirmed, cancelled or extended in the
+   * meantime are left untouched by the status/expiry predicates and are not
+   * returned. PostgreSQL only (RETURNING).
+   */
+  @Transactional
+  @Query(value = "UPDATE vehicle_booking_records " +
+      "SET reservation_status = 'EXPIRED', " +
+      "    last_updated_at = :now " +
+      "WHERE id IN (:ids) " +
+      "AND reservation_status = 'PENDING' " +
+      "AND expires_at <= :now " +
+      "RETURNING id AS \"reservationId\", " +
+      "          vehicle_id AS \"vehicleId\", " +
+      "          booking_start_date AS \"bookingStartDate\", " +
+      "          booking_end_date AS \"bookingEndDate\", " +
+      "          reservation_status AS \"reservationStatus\", " +
+      "          expires_at AS \"expiresAt\"", nativeQuery = true)
+  List<BookingIntervalView> expirePendingReservationsByIds(
+      @Param("ids") Collection<UUID> ids,
+      @Param("now") LocalDateTime now);
+
+  /**
+   * Expire the vehicles' PENDING holds that are past expires_at and overlap
+   * [startDate, endDate).
+   * Run before writing new holds on the vehicles: such holds no longer block
+   * availability, but excl_vbr_vehicle_period still counts them until they are
+   * flipped.
+   */
+  @Modifying
+  @Query("UPDATE VehicleBookingRecord vbr " +
+      "SET vbr.reservationStatus = 'EXPIRED', " +
+      "    vbr.lastUpdatedAt = :now " +
+      "WHERE vbr.vehicle.id IN :vehicleIds " +
+      "AND vbr.reservationStatus = 'PENDING' " +
+      "AND vbr.expiresAt <= :now " +
+      "AND vbr.bookingStartDate < :endDate " +
+      "AND vbr.bookingEndDate > :startDate")
+  int expireStalePendingHolds(
+      @Param("vehicleIds") Collection<UUID> vehicleIds,
+      @Param("startDate") LocalDateTime startDate,
+      @Param("endDate") LocalDateTime endDate,
+      @Param("now") LocalDateTime now);
+
+  /**
+   * Insert a PENDING hold for the vehicle, unless the booking id already has
+   * a row.
+   * Used without a row lock by optimistic allocation: overlaps are rejected by
+   * excl_vbr_vehicle_period (and a repeated booking id by uk_vehicle_booking);
+   * ON CONFLICT DO NOTHING turns either into 0 rows instead of an error that
+   * would abort the transaction. The NOT EXISTS guard catches a retried
+   * booking whose booking id lookup was skipped (BookingIdempotencyCache).
+   * Returns 1 if the hold was written, 0 if the vehicle was taken or the
+   * booking id is already in use.
+   */
+  @Modifying
+  @Query(value = INSERT_PENDING_HOLD_IF_FREE, nativeQuery = true)
+  int insertPendingHoldIfFree(
+      @Param("id") UUID id,
+      @Param("vehicleId") UUID vehicleId,
+      @Param("bookingId") UUID bookingId,
+      @Param("startDate") LocalDateTime startDate,
+      @Param("endDate") LocalDateTime endDate,
+      @Param("expiresAt") LocalDateTime expiresAt,
+      @Param("now") LocalDateTime now);
+
+  /**
+   * Whether the overlap exclusion constraint is installed
+   * (see schema-postgresql.sql). PostgreSQL only.
+   */
+  @Query(value = "SELECT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'excl_vbr_vehicle_period')",
+      nativeQuery = true)
+  boolean existsBookingExclusionConstraint();
+
+  /**
+   * Confirm a PENDING, unexpired hold in one statement.
+   * Empty when the row is missing, no longer PENDING or past expires_at; use
+   * findReservationStatusById to tell which. PostgreSQL only (RETURNING).
+   */
+  @Query(value = "UPDATE vehicle_booking_records " +
+      "SET reservation_status = 'CONFIRMED', " +
+      "    payment_reference = :paymentReference, " +
+      "    notes = COALESCE(CAST(:notes AS text), notes), " +
+      "    confirmed_at = :now, " +
+      "    expires_at = NULL, " +
+      "    last_updated_at = :now " +
+      "WHERE id = :id " +
+      "AND reservation_status = 'PENDING' " +
+      "AND (expires_at IS NULL OR expires_at >= :now) " +
+      "RETURNING id AS \"reservationId\", " +
+      "          vehicle_id AS \"vehicleId\", " +
+      "          booking_start_date AS \"bookingStartDate\", " +
+      "          booking_end_date AS \"bookingEndDate\", " +
+      "          reservation_status AS \"reservationStatus\", " +
+      "          expires_at AS \"expiresAt\"", nativeQuery = true)
+  Optional<BookingIntervalView> confirmPendingReservation(
+      @Param("id") UUID id,
+      @Param("paymentReference") String paymentReference,
+      @Param("notes") String notes,
+      @Param("now") LocalDateTime now);
+
+  /**
+   * Cancel a PENDING hold in one statement.
+   * Empty when the row is missing or no longer PENDING. PostgreSQL only
+   * (RETURNING).
+   */
+  @Query(value = "UPDATE vehicle_booking_records " +
+      "SET reservation_status = 'CANCELLED', " +
+      "    notes = COALESCE(CAST(:reason AS text), notes), " +
+      "    cancelled_at = :now, " +
+      "    last_updated_at = :now " +
+      "WHERE id = :id " +
+      "AND reservation_status = 'PENDING' " +
+      "RETURNING id AS \"reservationId\", " +
+      "          vehicle_id AS \"vehicleId\", " +
+      "          booking_start_date AS \"bookingStartDate\", " +
+      "          booking_end_date AS \"bookingEndDate\", " +
+      "          reservation_status AS \"reservationStatus\", " +
+      "          expires_at AS \"expiresAt\"", nativeQuery = true)
+  Optional<BookingIntervalView> cancelPendingReservation(
+      @Param("id") UUID id,
+      @Param("reason") String reason,
+      @Param("now") LocalDateTime now);
+
+  /**
+   * Current status only; explains why a conditional confirm / cancel
+   * matched no row.
+   */
+  @Query("SELECT vbr.reservationStatus FROM VehicleBookingRecord vbr WHERE vbr.id = :id")
+  Optional<ReservationStatus> findReservationStatusById(@Param("id") UUID id);
+
+  /**
+   * Intervals of all CONFIRMED or PENDING bookings that have not ended yet.
+   * Used to (re)build the in-memory availability index.
+   */
+  @Query("SELECT vbr.id AS reservationId, " +
+      "       vbr.vehicle.id AS vehicleId, " +
+      "       vbr.bookingStartDate AS bookingStartDate, " +
+      "       vbr.bookingEndDate AS bookingEndDate, " +
+      "       vbr.reservationStatus AS reservationStatus, " +
+      "       vbr.expiresAt AS expiresAt " +
+      "FROM VehicleBookingRecord vbr " +
+      "WHERE vbr.reservationStatus IN ('CONFIRMED', 'PENDING') " +
+      "AND vbr.bookingEndDate > :now")
+  List<BookingIntervalView> findActiveBookingIntervals(@Param("now") LocalDateTime now);
+
+  /**
+   * Intervals of all bookings written since :since, whatever their status.
+   * Used to keep the model inventory ledger in step with other replicas
+   * (idx_vbr_last_updated).
+   */
+  @Query("SELECT vbr.id AS reservationId, " +
+      "       vbr.vehicle.id AS vehicleId, " +
+      "       vbr.bookingStartDate AS bookingStartDate, " +
+      "       vbr.bookingEndDate AS bookingEndDate, " +
+      "       vbr.reservationStatus AS reservationStatus, " +
+      "       vbr.expiresAt AS expiresAt " +
+      "FROM VehicleBookingRecord vbr " +
+      "WHERE vbr.lastUpdatedAt > :since")
+  List<BookingIntervalView> findBookingIntervalsUpdatedSince(@Param("since") LocalDateTime since);
+
+  /**
+   * Intervals of CONFIRMED or PENDING bookings of one car model's vehicles
+   * that overlap [from, to).
+   * Used to build the per-model availability calendar.
+   */
+  @Query("SELECT vbr.id AS reservationId, " +
+      "       vbr.vehicle.id AS vehicleId, " +
+      "       vbr.bookingStartDate AS bookingStartDate, " +
+      "       vbr.bookingEndDate AS bookingEndDate, " +
+      "       vbr.reservationStatus AS reservationStatus, " +
+      "       vbr.expiresAt AS expiresAt " +
+      "FROM VehicleBookingRecord vbr " +
+      "WHERE vbr.vehicle.carModel.publicId = :modelPublicId " +
+      "AND vbr.reservationStatus IN ('CONFIRMED', 'PENDING') " +
+      "AND vbr.bookingStartDate < :to " +
+      "AND vbr.bookingEndDate > :from")
+  List<BookingIntervalView> findActiveBookingIntervalsByModelPublicId(
+      @Param("modelPublicId") UUID modelPublicId,
+      @Param("from") LocalDateTime from,
+      @Param("to") LocalDateTime to);
 
   /**
-   * Check if a vehicle has any overlapping bookings (CONFIRMED or PENDING)
+   * Check if a vehicle has any overlapping bookings (CONFIRMED or unexpired
+   * PENDING)
    */
   @Query("SELECT COUNT(vbr) > 0 FROM VehicleBookingRecord vbr " +
       "WHERE vbr.vehicle.id = :vehicleId " +
-      "AND vbr.reservationStatus IN ('CONFIRMED', 'PENDING') " +
+      "AND (vbr.reservationStatus = 'CONFIRMED' " +
+      "     OR (vbr.reservationStatus = 'PENDING' AND vbr.expiresAt > :now)) " +
       "AND vbr.bookingStartDate < :endDate " +
       "AND vbr.bookingEndDate > :startDate")
   boolean hasOverlappingBookings(
       @Param("vehicleId") UUID vehicleId,
       @Param("startDate") LocalDateTime startDate,
-      @Param("endDate") LocalDateTime endDate);
+      @Param("endDate") LocalDateTime endDate,
+      @Param("now") LocalDateTime now);
+
+  /**
+   * Number of an operator's vehicles currently on a booking (CONFIRMED or
+   * unexpired PENDING spanning :now), per car model.
+   * Used by the fleet dashboard instead of one overlap query per vehicle.
+   */
+  @Query("SELECT fv.carModel.id AS carModelId, COUNT(DISTINCT fv.id) AS vehicleCount " +
+      "FROM VehicleBookingRecord vbr JOIN vbr.vehicle fv " +
+      "WHERE fv.ownerId = :ownerId " +
+      "AND (vbr.reservationStatus = 'CONFIRMED' " +
+      "     OR (vbr.reservationStatus = 'PENDING' AND vbr.expiresAt > :now)) " +
+      "AND vbr.bookingStartDate < :now " +
+      "AND vbr.bookingEndDate > :now " +
+      "GROUP BY fv.carModel.id")
+  List<ModelCountView> countCurrentlyBookedVehiclesByModel(
+      @Param("ownerId") UUID ownerId,
+      @Param("now") LocalDateTime now);
 
   /**
    * Count available vehicles for a car model in a date range
-   * Excludes vehicles with CONFIRMED or PENDING bookings that overlap
+   * Excludes vehicles with CONFIRMED or unexpired PENDING bookings that overlap
+   * (PENDING holds past expires_at no longer block, even before cleanup runs)
    */
   @Query("SELECT COUNT(DISTINCT fv.id) " +
       "FROM FleetVehicle fv " +
@@ -68,20 +314,111 @@ public interface VehicleBookingRecordRepository extends JpaRepository<VehicleBoo
       "AND NOT EXISTS (" +
       "    SELECT 1 FROM VehicleBookingRecord vbr " +
       "    WHERE vbr.vehicle.id = fv.id " +
-      "    AND vbr.reservationStatus IN ('CONFIRMED', 'PENDING') " +
+      "    AND (vbr.reservationStatus = 'CONFIRMED' " +
+      "         OR (vbr.reservationStatus = 'PENDING' AND vbr.expiresAt > :now)) " +
       "    AND vbr.bookingStartDate < :endDate " +
       "    AND vbr.bookingEndDate > :startDate" +
       ")")
   long countAvailableVehicles(
       @Param("modelPublicId") UUID modelPublicId,
       @Param("startDate") LocalDateTime startDate,
-      @Param("endDate") LocalDateTime endDate);
+      @Param("endDate") LocalDateTime endDate,
+      @Param("now") LocalDateTime now);
+
+  /**
+   * Batch variant of countAvailableVehicles: one grouped query for several
+   * car models and a single date range.
+   * Models without any bookable vehicle are absent from the result.
+   */
+  @Query("SELECT fv.carModel.publicId AS modelPublicId, COUNT(fv.id) AS availableCount " +
+      "FROM FleetVehicle fv " +
+      "WHERE fv.carModel.publicId IN :modelPublicIds " +
+      "AND fv.status = 'AVAILABLE' " +
+      "AND NOT EXISTS (" +
+      "    SELECT 1 FROM VehicleBookingRecord vbr " +
+      "    WHERE vbr.vehicle.id = fv.id " +
+      "    AND (vbr.reservationStatus = 'CONFIRMED' " +
+      "         OR (vbr.reservationStatus = 'PENDING' AND vbr.expiresAt > :now)) " +
+      "    AND vbr.bookingStartDate < :endDate " +
+      "    AND vbr.bookingEndDate > :startDate" +
+      ") " +
+      "GROUP BY fv.carModel.publicId")
+  List<ModelAvailabilityCountView> countAvailableVehiclesByModels(
+      @Param("modelPublicIds") Collection<UUID> modelPublicIds,
+      @Param("startDate") LocalDateTime startDate,
+      @Param("endDate") LocalDateTime endDate,
+      @Param("now") LocalDateTime now);
 
   /**
    * Find all bookings for a specific booking ID across all services
    */
   List<VehicleBookingRecord> findAllByBookingId(UUID bookingId);
 
+  /**
+   * Find all bookings for several booking IDs (idempotency checks of a
+   * coalesced batch)
+   */
+  List<VehicleBookingRecord> findAllByBookingIdIn(Collection<UUID> bookingIds);
+
+  /**
+   * First day of each month (by booking_end_date) holding rows the archival
+   * job would move: CANCELLED / EXPIRED rows untouched since the cutoff and
+   * CONFIRMED rows whose booking ended before it.
+   */
+  @Query(value = "SELECT DISTINCT CAST(date_trunc('month', booking_end_date) AS date) " +
+      "FROM vehicle_booking_records " +
+      "WHERE (reservation_status IN ('CANCELLED', 'EXPIRED') AND last_updated_at < :cutoff) " +
+      "OR (reservation_status = 'CONFIRMED' AND booking_end_date < :cutoff)", nativeQuery = true)
+  List<Date> findArchivableMonths(@Param("cutoff") LocalDateTime cutoff);
+
+  /**
+   * Move up to batchSize archivable rows (see findArchivableMonths) into the
+   * monthly-partitioned vehicle_booking_records_archive, in one statement,
+   * only while the archival job's scheduler lease is still held (fencing
+   * token < 0: locking disabled, no check). Rows locked by a running
+   * transaction are skipped. PostgreSQL only.
+   * Returns the number of rows moved.
+   */
+  @Transactional
+  @Modifying
+  @Query(value = "WITH moved AS ( " +
+      "  DELETE FROM vehicle_booking_records " +
+      "  WHERE id IN ( " +
+      "    SELECT id FROM vehicle_booking_records " +
+      "    WHERE ((reservation_status IN ('CANCELLED', 'EXPIRED') AND last_updated_at < :cutoff) " +
+      "       OR (reservation_status = 'CONFIRMED' AND booking_end_date < :cutoff)) " +
+      "    AND (:fencingToken < 0 OR EXISTS ( " +
+      "      SELECT 1 FROM scheduler_locks l " +
+      "      WHERE l.lock_name = :lockName " +
+      "      AND l.fencing_token = :fencingToken " +
+      "      AND l.locked_until > LOCALTIMESTAMP)) " +
+      "    LIMIT :batchSize " +
+      "    FOR UPDATE SKIP LOCKED) " +
+      "  RETURNING id, vehicle_id, booking_id, booking_start_date, booking_end_date, " +
+      "            reservation_status, expires_at, payment_reference, notes, " +
+      "            created_at, confirmed_at, cancelled_at, last_updated_at " +
+      ") " +
+      "INSERT INTO vehicle_booking_records_archive " +
+      "  (id, vehicle_id, booking_id, booking_start_date, booking_end_date, " +
+      "   reservation_status, expires_at, payment_reference, notes, " +
+      "   created_at, confirmed_at, cancelled_at, last_updated_at, archived_at) " +
+      "SELECT id, vehicle_id, booking_id, booking_start_date, booking_end_date, " +
+      "       reservation_status, expires_at, payment_reference, notes, " +
+      "       created_at, confirmed_at, cancelled_at, last_updated_at, LOCALTIMESTAMP " +
+      "FROM moved", nativeQuery = true)
+  int moveArchivableBatch(
+      @Param("cutoff") LocalDateTime cutoff,
+      @Param("batchSize") int batchSize,
+      @Param("lockName") String lockName,
+      @Param("fencingToken") long fencingToken);
+
+  /**
+   * Booking IDs of reservations created since the given time (warms the
+   * BookingIdempotencyCache filter)
+   */
+  @Query("SELECT vbr.bookingId FROM VehicleBookingRecord vbr WHERE vbr.createdAt >= :since")
+  List<UUID> findBookingIdsCreatedSince(@Param("since") LocalDateTime since);
+
   /**
    * Find all CONFIRMED bookings for a vehicle
    */
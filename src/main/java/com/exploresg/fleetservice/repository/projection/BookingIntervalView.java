@@ -0,0 +1,24 @@
+package com.exploresg.fleetservice.repository.projection;
+
+import com.exploresg.fleetservice.model.VehicleBookingRecord.ReservationStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Lightweight projection of a booking record's occupied interval.
+ */
+public interface BookingIntervalView {
+
+    UUID getReservationId();
+
+    UUID getVehicleId();
+
+    LocalDateTime getBookingStartDate();
+
+    LocalDateTime getBookingEndDate();
+
+    ReservationStatus getReservationStatus();
+
+    LocalDateTime getExpiresAt();
+}
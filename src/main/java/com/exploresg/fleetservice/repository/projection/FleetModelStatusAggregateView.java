@@ -0,0 +1,40 @@
+package com.exploresg.fleetservice.repository.projection;
+
+import com.exploresg.fleetservice.model.VehicleStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of the fleet dashboard aggregate: the vehicles of one operator
+ * that share a car model and an operational status, pre-counted in SQL.
+ */
+public interface FleetModelStatusAggregateView {
+
+    Long getCarModelId();
+
+    String getManufacturer();
+
+    String getModel();
+
+    String getImageUrl();
+
+    VehicleStatus getStatus();
+
+    Long getVehicleCount();
+
+    /** Number of vehicles with a non-null mileage. */
+    Long getMileageCount();
+
+    Long getMileageSum();
+
+    BigDecimal getDailyPriceSum();
+
+    /** Vehicles with an expected return date in the past. */
+    Long getReturnOverdueCount();
+
+    /** Vehicles with an expected return date in the future. */
+    Long getReturnUpcomingCount();
+
+    /** Vehicles above the 50,000 km service threshold. */
+    Long getHighMileageCount();
+}
@@ -0,0 +1,33 @@
+package com.exploresg.fleetservice.repository.projection;
+
+import com.exploresg.fleetservice.model.VehicleStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The fields of one fleet vehicle that feed the operator dashboard rollup.
+ */
+public interface FleetVehicleDashboardView {
+
+    UUID getVehicleId();
+
+    UUID getOwnerId();
+
+    Long getCarModelId();
+
+    String getManufacturer();
+
+    String getModel();
+
+    String getImageUrl();
+
+    VehicleStatus getStatus();
+
+    Integer getMileageKm();
+
+    BigDecimal getDailyPrice();
+
+    LocalDateTime getExpectedReturnDate();
+}
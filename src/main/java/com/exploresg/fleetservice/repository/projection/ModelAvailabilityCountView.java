@@ -0,0 +1,13 @@
+package com.exploresg.fleetservice.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * Number of bookable vehicles of one car model (by public id).
+ */
+public interface ModelAvailabilityCountView {
+
+    UUID getModelPublicId();
+
+    Long getAvailableCount();
+}
@@ -0,0 +1,11 @@
+package com.exploresg.fleetservice.repository.projection;
+
+/**
+ * A vehicle count keyed by internal CarModel id.
+ */
+public interface ModelCountView {
+
+    Long getCarModelId();
+
+    Long getVehicleCount();
+}
@@ -0,0 +1,18 @@
+package com.exploresg.fleetservice.repository.projection;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Available vehicles of one operator for one car model, grouped in SQL.
+ */
+public interface OperatorModelAvailabilityView {
+
+    UUID getOwnerId();
+
+    Long getCarModelId();
+
+    BigDecimal getLowestDailyPrice();
+
+    Long getAvailableVehicleCount();
+}
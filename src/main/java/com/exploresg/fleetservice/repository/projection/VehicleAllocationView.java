@@ -0,0 +1,20 @@
+package com.exploresg.fleetservice.repository.projection;
+
+import com.exploresg.fleetservice.model.VehicleStatus;
+
+import java.util.UUID;
+
+/**
+ * Lightweight projection of a fleet vehicle holding only what the
+ * in-memory availability index needs to rank allocation candidates.
+ */
+public interface VehicleAllocationView {
+
+    UUID getVehicleId();
+
+    UUID getModelPublicId();
+
+    VehicleStatus getStatus();
+
+    Integer getMileageKm();
+}
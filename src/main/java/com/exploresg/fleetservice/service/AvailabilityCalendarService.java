@@ -0,0 +1,310 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.dto.AvailabilityCalendarResponse;
+import com.exploresg.fleetservice.dto.AvailabilityCalendarResponse.Granularity;
+import com.exploresg.fleetservice.dto.AvailabilityCalendarResponse.Slot;
+import com.exploresg.fleetservice.event.FleetVehicleChangedEvent;
+import com.exploresg.fleetservice.event.ReservationStateChangedEvent;
+import com.exploresg.fleetservice.exception.InvalidDateRangeException;
+import com.exploresg.fleetservice.model.VehicleBookingRecord.ReservationStatus;
+import com.exploresg.fleetservice.model.VehicleStatus;
+import com.exploresg.fleetservice.repository.FleetVehicleRepository;
+import com.exploresg.fleetservice.repository.VehicleBookingRecordRepository;
+import com.exploresg.fleetservice.repository.projection.BookingIntervalView;
+import com.exploresg.fleetservice.repository.projection.VehicleAllocationView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 📅 Availability Calendar
+ *
+ * Answers "how many vehicles of this model are free on each day (or hour)"
+ * over the booking horizon without one count query per slot.
+ *
+ * How it works:
+ * - Per AVAILABLE vehicle, a bitset with one bit per hour of the horizon
+ * (720 bits = 12 longs for 30 days) marks hours touched by a CONFIRMED or
+ * unexpired PENDING booking
+ * - A vehicle is free for a slot when all of the slot's hour bits are clear
+ * - OR-combined (any vehicle busy) and AND-combined (every vehicle busy) model
+ * bitsets short-circuit the common "all free" / "none free" slots
+ *
+ * Bitsets are cached per model and dropped on reservation and vehicle changes,
+ * when the earliest PENDING hold in them expires, or after a short TTL (for
+ * changes made by other replicas). Models without vehicles are never cached,
+ * and the least recently used model is evicted past cache-max-models.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AvailabilityCalendarService {
+
+    private static final int HOURS_PER_DAY = 24;
+
+    private final FleetVehicleRepository fleetVehicleRepository;
+    private final VehicleBookingRecordRepository bookingRecordRepository;
+
+    @Value("${booking.calendar.horizon-days:30}")
+    private int horizonDays;
+
+    @Value("${booking.calendar.cache-ttl-ms:60000}")
+    private long cacheTtlMs;
+
+    @Value("${booking.calendar.cache-max-models:500}")
+    private int cacheMaxModels;
+
+    private final Map<UUID, ModelCalendar> cache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, ModelCalendar> eldest) {
+            if (size() > cacheMaxModels) {
+                generations.remove(eldest.getKey());
+                return true;
+            }
+            return false;
+        }
+    };
+    // Only ever holds real vehicles, so it is bounded by the fleet
+    private final Map<UUID, UUID> modelByVehicle = new ConcurrentHashMap<>();
+    // Bumped on invalidation so a build that raced with a change isn't cached
+    private final Map<UUID, Long> generations = new ConcurrentHashMap<>();
+
+    /**
+     * Available vehicle counts of a model per slot, for {@code days} days
+     * starting at {@code from}. Both must lie within the booking horizon
+     * (today + horizon-days).
+     */
+    @Transactional(readOnly = true)
+    public AvailabilityCalendarResponse getCalendar(UUID modelPublicId, LocalDate from, int days,
+            Granularity granularity) {
+        LocalDate today = LocalDate.now();
+        LocalDate start = from != null ? from : today;
+        validateWindow(today, start, days);
+
+        ModelCalendar calendar = getModelCalendar(modelPublicId, today);
+        int firstHour = (int) ChronoUnit.DAYS.between(today, start) * HOURS_PER_DAY;
+        int slotHours = granularity == Granularity.HOUR ? 1 : HOURS_PER_DAY;
+        int slotCount = days * HOURS_PER_DAY / slotHours;
+
+        List<Slot> slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            int hour = firstHour + i * slotHours;
+            long count = calendar.freeCount(hour, slotHours);
+            slots.add(new Slot(calendar.horizonStart.plusHours(hour), count, count > 0));
+        }
+
+        return AvailabilityCalendarResponse.builder()
+                .modelPublicId(modelPublicId)
+                .granularity(granularity)
+                .totalVehicles(calendar.occupancy.size())
+                .slots(slots)
+                .build();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationStateChanged(ReservationStateChangedEvent event) {
+        UUID modelPublicId = modelByVehicle.get(event.getVehicleId());
+        if (modelPublicId != null) {
+            invalidate(modelPublicId);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFleetVehicleChanged(FleetVehicleChangedEvent event) {
+        for (UUID vehicleId : event.getVehicleIds()) {
+            UUID modelPublicId = modelByVehicle.get(vehicleId);
+            if (modelPublicId != null) {
+                invalidate(modelPublicId);
+            } else {
+                // New vehicle of an unknown model: cheaper to drop everything than to look it up
+                List<UUID> cached;
+                synchronized (cache) {
+                    cached = new ArrayList<>(cache.keySet());
+                }
+                cached.forEach(this::invalidate);
+                return;
+            }
+        }
+    }
+
+    private void invalidate(UUID modelPublicId) {
+        synchronized (cache) {
+            generations.merge(modelPublicId, 1L, Long::sum);
+            cache.remove(modelPublicId);
+        }
+    }
+
+    private void validateWindow(LocalDate today, LocalDate start, int days) {
+        if (days < 1 || days > horizonDays) {
+            throw new InvalidDateRangeException("Calendar length must be between 1 and " + horizonDays + " days");
+        }
+        if (start.isBefore(today)) {
+            throw new InvalidDateRangeException("Calendar cannot start in the past");
+        }
+        if (start.plusDays(days).isAfter(today.plusDays(horizonDays))) {
+            throw new InvalidDateRangeException(
+                    "Calendar cannot extend beyond " + horizonDays + " days from today");
+        }
+    }
+
+    private ModelCalendar getModelCalendar(UUID modelPublicId, LocalDate today) {
+        long nowMillis = System.currentTimeMillis();
+        ModelCalendar cached;
+        long generation;
+        synchronized (cache) {
+            cached = cache.get(modelPublicId);
+            generation = generations.getOrDefault(modelPublicId, 0L);
+        }
+        if (cached != null && cached.horizonStart.toLocalDate().equals(today) && nowMillis < cached.validUntilMillis) {
+            return cached;
+        }
+
+        ModelCalendar built = build(modelPublicId, today.atStartOfDay(), nowMillis);
+        if (built.vehicleCount == 0) {
+            return built; // Unknown model, or one without vehicles: not worth a cache slot
+        }
+        synchronized (cache) {
+            if (generations.getOrDefault(modelPublicId, 0L) == generation) {
+                cache.put(modelPublicId, built);
+            }
+        }
+        return built;
+    }
+
+    private ModelCalendar build(UUID modelPublicId, LocalDateTime horizonStart, long nowMillis) {
+        int hours = horizonDays * HOURS_PER_DAY;
+        LocalDateTime horizonEnd = horizonStart.plusHours(hours);
+        LocalDateTime now = LocalDateTime.now();
+
+        Map<UUID, long[]> occupancy = new HashMap<>();
+        List<VehicleAllocationView> vehicles = fleetVehicleRepository.findAllocationViewsByModelPublicId(modelPublicId);
+        for (VehicleAllocationView vehicle : vehicles) {
+            modelByVehicle.put(vehicle.getVehicleId(), modelPublicId);
+            if (vehicle.getStatus() == VehicleStatus.AVAILABLE) {
+                occupancy.put(vehicle.getVehicleId(), new long[words(hours)]);
+            }
+        }
+
+        long validUntilMillis = nowMillis + cacheTtlMs;
+        List<BookingIntervalView> intervals = bookingRecordRepository
+                .findActiveBookingIntervalsByModelPublicId(modelPublicId, horizonStart, horizonEnd);
+        for (BookingIntervalView interval : intervals) {
+            long[] bits = occupancy.get(interval.getVehicleId());
+            if (bits == null) {
+                continue;
+            }
+            if (interval.getReservationStatus() == ReservationStatus.PENDING && interval.getExpiresAt() != null) {
+                if (!interval.getExpiresAt().isAfter(now)) {
+                    continue; // Expired hold: already free
+                }
+                // The calendar changes when this hold lapses
+                long expiresMillis = interval.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                validUntilMillis = Math.min(validUntilMillis, expiresMillis);
+            }
+
+            int fromHour = Math.max(0, (int) (secondsBetween(horizonStart, interval.getBookingStartDate()) / 3600));
+            int toHour = (int) Math.min(hours, (secondsBetween(horizonStart, interval.getBookingEndDate()) + 3599) / 3600);
+            setRange(bits, fromHour, toHour);
+        }
+
+        return new ModelCalendar(horizonStart, vehicles.size(), new ArrayList<>(occupancy.values()), words(hours),
+                validUntilMillis);
+    }
+
+    private static long secondsBetween(LocalDateTime from, LocalDateTime to) {
+        return Math.max(0, Duration.between(from, to).getSeconds());
+    }
+
+    static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    /**
+     * Set bits [from, to).
+     */
+    static void setRange(long[] bits, int from, int to) {
+        for (int i = from; i < to; i++) {
+            bits[i >>> 6] |= 1L << (i & 63);
+        }
+    }
+
+    /**
+     * Whether any bit in [from, from + length) is set.
+     */
+    static boolean anySet(long[] bits, int from, int length) {
+        int to = from + length;
+        int i = from;
+        while (i < to) {
+            int word = i >>> 6;
+            int offset = i & 63;
+            int span = Math.min(64 - offset, to - i);
+            long mask = (span == 64 ? -1L : ((1L << span) - 1)) << offset;
+            if ((bits[word] & mask) != 0) {
+                return true;
+            }
+            i += span;
+        }
+        return false;
+    }
+
+    /**
+     * Hour-occupancy bitsets of one model's AVAILABLE vehicles.
+     */
+    private static final class ModelCalendar {
+        private final LocalDateTime horizonStart;
+        private final int vehicleCount; // Any status
+        private final List<long[]> occupancy;
+        private final long[] anyBusy; // OR of all vehicles
+        private final long[] allBusy; // AND of all vehicles
+        private final long validUntilMillis;
+
+        ModelCalendar(LocalDateTime horizonStart, int vehicleCount, List<long[]> occupancy, int words,
+                long validUntilMillis) {
+            this.horizonStart = horizonStart;
+            this.vehicleCount = vehicleCount;
+            this.occupancy = occupancy;
+            this.validUntilMillis = validUntilMillis;
+            this.anyBusy = new long[words];
+            this.allBusy = new long[words];
+            if (!occupancy.isEmpty()) {
+                Arrays.fill(allBusy, -1L);
+            }
+            for (long[] bits : occupancy) {
+                for (int w = 0; w < words; w++) {
+                    anyBusy[w] |= bits[w];
+                    allBusy[w] &= bits[w];
+                }
+            }
+        }
+
+        /**
+         * Number of vehicles with no booking touching hours [hour, hour + length).
+         */
+        long freeCount(int hour, int length) {
+            if (!anySet(anyBusy, hour, length)) {
+                return occupancy.size();
+            }
+            if (anySet(allBusy, hour, length)) {
+                return 0;
+            }
+            return occupancy.stream().filter(bits -> !anySet(bits, hour, length)).count();
+        }
+    }
+}
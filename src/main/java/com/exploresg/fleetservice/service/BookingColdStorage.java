@@ -0,0 +1,196 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.dto.ArchivedBookingResponse;
+import com.exploresg.fleetservice.service.BookingSegment.Column;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * 🧊 Cold storage for archived bookings
+ *
+ * Takes bookings out of PostgreSQL for good. Archive partitions that
+ * ReservationArchiver detached are streamed through a JDBC cursor into one
+ * compressed, columnar segment file per month (BookingSegment) under
+ * booking.cold-storage.dir; the archiver then drops the table.
+ *
+ * Audit lookups by bookingId or vehicleId read every segment and inflate
+ * only the key column of each row group, unless it matches.
+ *
+ * Off by default: the directory must be a persistent volume shared by the
+ * replicas, or exported bookings are lost with the pod.
+ */
+@Component
+@Slf4j
+public class BookingColdStorage {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${booking.cold-storage.enabled:false}")
+    private boolean enabled;
+
+    @Value("${booking.cold-storage.dir:/var/lib/fleet-service/segments}")
+    private Path directory;
+
+    @Value("${booking.cold-storage.fetch-size:1000}")
+    private int fetchSize;
+
+    public BookingColdStorage(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Stream a detached archive partition into the month's segment file.
+     * Runs in a read-only transaction so the PostgreSQL driver uses a
+     * server-side cursor instead of loading the whole month; the writer holds
+     * one row group at a time.
+     *
+     * If the month already has a segment (late rows archived into an exported
+     * month, or a retry after the DROP failed), its rows are carried over into
+     * the new file, except those the partition holds again.
+     *
+     * @return rows written
+     */
+    @Transactional(readOnly = true)
+    public int exportPartition(String table, YearMonth month) {
+        Path target = segmentPath(month);
+        int carriedOver = 0;
+        try {
+            Files.createDirectories(directory);
+            try (BookingSegment.Writer writer = new BookingSegment.Writer(target)) {
+                jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(
+                            "SELECT id, vehicle_id, booking_id, booking_start_date, booking_end_date, " +
+                                    "reservation_status, expires_at, payment_reference, notes, created_at, " +
+                                    "confirmed_at, cancelled_at, last_updated_at, archived_at FROM " + table);
+                    statement.setFetchSize(fetchSize);
+                    return statement;
+                }, (RowCallbackHandler) rs -> {
+                    try {
+                        writer.add(toArchivedBooking(rs));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+
+                if (Files.exists(target)) {
+                    carriedOver = carryOver(target, table, writer);
+                }
+                writer.commit();
+                log.info("Exported {} archived booking(s) from {} to {} ({} carried over from the earlier segment)",
+                        writer.rowCount(), table, target, carriedOver);
+                return writer.rowCount();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write segment for " + month, e);
+        }
+    }
+
+    /**
+     * Copy the existing segment's rows into {@code writer}, one row group at
+     * a time, skipping reservations that {@code table} contains too.
+     */
+    private int carryOver(Path existing, String table, BookingSegment.Writer writer) throws IOException {
+        int copied = 0;
+        try (BookingSegment.Reader reader = new BookingSegment.Reader(existing)) {
+            for (int group = 0; group < reader.groupCount(); group++) {
+                List<ArchivedBookingResponse> rows = reader.readGroup(group);
+                Set<UUID> exportedAgain = new HashSet<>(jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(
+                            "SELECT id FROM " + table + " WHERE id = ANY (?)");
+                    statement.setArray(1, connection.createArrayOf("uuid",
+                            rows.stream().map(ArchivedBookingResponse::getReservationId).toArray()));
+                    return statement;
+                }, (rs, rowNum) -> rs.getObject(1, UUID.class)));
+                for (ArchivedBookingResponse row : rows) {
+                    if (!exportedAgain.contains(row.getReservationId())) {
+                        writer.add(row);
+                        copied++;
+                    }
+                }
+            }
+        }
+        return copied;
+    }
+
+    public List<ArchivedBookingResponse> findByBookingId(UUID bookingId) {
+        return scan(Column.BOOKING_ID, bookingId);
+    }
+
+    public List<ArchivedBookingResponse> findByVehicleId(UUID vehicleId) {
+        return scan(Column.VEHICLE_ID, vehicleId);
+    }
+
+    private List<ArchivedBookingResponse> scan(Column keyColumn, UUID key) {
+        List<ArchivedBookingResponse> results = new ArrayList<>();
+        if (!enabled || !Files.isDirectory(directory)) {
+            return results;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path segment : files.filter(f -> f.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted().toList()) {
+                try (BookingSegment.Reader reader = new BookingSegment.Reader(segment)) {
+                    results.addAll(reader.find(keyColumn, key));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read booking segments", e);
+        }
+        results.sort(Comparator.comparing(ArchivedBookingResponse::getBookingEndDate));
+        return results;
+    }
+
+    private Path segmentPath(YearMonth month) {
+        return directory.resolve("bookings-" + month + SEGMENT_SUFFIX);
+    }
+
+    private static ArchivedBookingResponse toArchivedBooking(ResultSet rs) throws SQLException {
+        return ArchivedBookingResponse.builder()
+                .reservationId(rs.getObject("id", UUID.class))
+                .vehicleId(rs.getObject("vehicle_id", UUID.class))
+                .bookingId(rs.getObject("booking_id", UUID.class))
+                .bookingStartDate(toLocalDateTime(rs.getTimestamp("booking_start_date")))
+                .bookingEndDate(toLocalDateTime(rs.getTimestamp("booking_end_date")))
+                .reservationStatus(rs.getString("reservation_status"))
+                .expiresAt(toLocalDateTime(rs.getTimestamp("expires_at")))
+                .paymentReference(rs.getString("payment_reference"))
+                .notes(rs.getString("notes"))
+                .createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+                .confirmedAt(toLocalDateTime(rs.getTimestamp("confirmed_at")))
+                .cancelledAt(toLocalDateTime(rs.getTimestamp("cancelled_at")))
+                .lastUpdatedAt(toLocalDateTime(rs.getTimestamp("last_updated_at")))
+                .archivedAt(toLocalDateTime(rs.getTimestamp("archived_at")))
+                .build();
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
@@ -0,0 +1,211 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.dto.TemporaryReservationResponse;
+import com.exploresg.fleetservice.event.ReservationStateChangedEvent;
+import com.exploresg.fleetservice.model.VehicleBookingRecord.ReservationStatus;
+import com.exploresg.fleetservice.repository.VehicleBookingRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * 🪪 Booking ID Idempotency Cache
+ *
+ * Saves the booking id lookup round trip at the start of
+ * createTemporaryReservation, which nearly always finds nothing:
+ * - A scalable Bloom filter of booking ids seen recently (warmed from the
+ * database on startup): "definitely not seen" skips the lookup
+ * - A small LRU of holds handed out by this instance answers quick client
+ * retries without touching the database at all
+ *
+ * Neither is the source of truth. Other replicas insert booking ids this
+ * filter never sees, so the hold insert behind a skipped lookup is guarded in
+ * SQL (no row for the booking id may exist) and falls back to the lookup when
+ * the guard trips. Until the filter is warm every request does the lookup.
+ * LRU entries live for a few seconds only, since a hold can be cancelled on
+ * another replica.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingIdempotencyCache {
+
+    private final VehicleBookingRecordRepository bookingRecordRepository;
+
+    @Value("${booking.idempotency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${booking.idempotency.warmup-days:30}")
+    private int warmupDays;
+
+    @Value("${booking.idempotency.filter.expected-ids:100000}")
+    private int expectedIds;
+
+    @Value("${booking.idempotency.filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${booking.idempotency.lru.max-size:10000}")
+    private int lruMaxSize;
+
+    @Value("${booking.idempotency.lru.ttl-ms:10000}")
+    private long lruTtlMs;
+
+    // Null until warmed: callers must do the lookup
+    private volatile ScalableBloomFilter filter;
+    // Filter being warmed; ids seen meanwhile go into both
+    private volatile ScalableBloomFilter warming;
+
+    private final Map<UUID, RecentHold> recentByBookingId = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, RecentHold> eldest) {
+            if (size() > lruMaxSize) {
+                bookingByReservation.remove(eldest.getValue().response().getReservationId());
+                return true;
+            }
+            return false;
+        }
+    };
+    private final Map<UUID, UUID> bookingByReservation = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            warm();
+        }
+    }
+
+    /**
+     * Rebuilt periodically so ids older than the warm-up window drop out and
+     * the filter does not grow without bound.
+     */
+    @Scheduled(fixedDelayString = "${booking.idempotency.rebuild-ms:86400000}", initialDelayString = "${booking.idempotency.rebuild-ms:86400000}")
+    public void rebuild() {
+        if (enabled) {
+            warm();
+        }
+    }
+
+    /**
+     * False only when the booking id has certainly not been used recently;
+     * true when it may have been, or when the filter is disabled or cold.
+     */
+    public boolean mightHaveSeen(UUID bookingId) {
+        ScalableBloomFilter current = filter;
+        return !enabled || current == null || current.mightContain(bookingId);
+    }
+
+    public void markSeen(UUID bookingId) {
+        if (!enabled) {
+            return;
+        }
+        ScalableBloomFilter current = filter;
+        if (current != null) {
+            current.add(bookingId);
+        }
+        ScalableBloomFilter next = warming;
+        if (next != null) {
+            next.add(bookingId);
+        }
+    }
+
+    /**
+     * A still-pending hold this instance handed out for the booking id in the
+     * last few seconds.
+     */
+    public Optional<TemporaryReservationResponse> findRecent(UUID bookingId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        RecentHold recent;
+        synchronized (recentByBookingId) {
+            recent = recentByBookingId.get(bookingId);
+        }
+        if (recent == null
+                || System.currentTimeMillis() - recent.cachedAtMillis() > lruTtlMs
+                || !recent.response().getExpiresAt().isAfter(LocalDateTime.now())) {
+            return Optional.empty();
+        }
+        return Optional.of(recent.response());
+    }
+
+    /**
+     * Remember a hold handed out to a caller, once the surrounding
+     * transaction (if any) has committed.
+     */
+    public void remember(TemporaryReservationResponse response) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(response);
+                }
+            });
+        } else {
+            put(response);
+        }
+    }
+
+    /**
+     * Confirmed, cancelled or expired holds must not be handed out again.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationStateChanged(ReservationStateChangedEvent event) {
+        if (event.getStatus() == ReservationStatus.PENDING) {
+            return;
+        }
+        synchronized (recentByBookingId) {
+            UUID bookingId = bookingByReservation.remove(event.getReservationId());
+            if (bookingId != null) {
+                recentByBookingId.remove(bookingId);
+            }
+        }
+    }
+
+    private void put(TemporaryReservationResponse response) {
+        synchronized (recentByBookingId) {
+            RecentHold previous = recentByBookingId.put(response.getBookingId(),
+                    new RecentHold(response, System.currentTimeMillis()));
+            if (previous != null) {
+                bookingByReservation.remove(previous.response().getReservationId());
+            }
+            bookingByReservation.put(response.getReservationId(), response.getBookingId());
+        }
+    }
+
+    private void warm() {
+        long started = System.currentTimeMillis();
+        ScalableBloomFilter fresh = new ScalableBloomFilter(expectedIds, falsePositiveRate);
+        warming = fresh;
+        try {
+            bookingRecordRepository.findBookingIdsCreatedSince(LocalDateTime.now().minusDays(warmupDays))
+                    .forEach(fresh::add);
+            filter = fresh;
+            log.info("Booking id filter warmed: {} stages, {} KB in {}ms", fresh.stageCount(),
+                    fresh.sizeInBytes() / 1024, System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.error("Failed to warm booking id filter, keeping the previous one: {}", e.getMessage(), e);
+        } finally {
+            warming = null;
+        }
+    }
+
+    private record RecentHold(TemporaryReservationResponse response, long cachedAtMillis) {
+    }
+}
@@ -0,0 +1,493 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.dto.ArchivedBookingResponse;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Columnar, Deflate-compressed file of archived booking records (one per
+ * month, see BookingColdStorage).
+ *
+ * Rows are stored in row groups of at most rowGroupSize rows; each group is
+ * one compressed block per column, in Column order. The footer indexes every
+ * block:
+ *
+ * <pre>
+ * [row group 0: column blocks ...] [row group 1: ...] ...
+ * [version:int][rowCount:int][minEnd:long][maxEnd:long][groupCount:int]
+ * [per group: rowCount:int, minEnd:long, maxEnd:long,
+ *             per column: offset:long, compressedLength:int, rawLength:int]
+ * [footerLength:int][MAGIC:int]
+ * </pre>
+ *
+ * Version 1 files (a single group, no groupCount / per-group stats) are
+ * still read.
+ *
+ * Timestamps are microseconds since the epoch (as stored, no zone), UUIDs
+ * 16 bytes, strings length-prefixed UTF-8; -1 / Long.MIN_VALUE mark nulls.
+ * A lookup inflates only the key column of each group unless something
+ * matches, so memory on both sides is bounded by one row group.
+ */
+final class BookingSegment {
+
+    static final int MAGIC = 0x42534547; // "BSEG"
+    static final int VERSION = 2;
+    static final int DEFAULT_ROW_GROUP_SIZE = 8192;
+
+    private static final long NULL_TIME = Long.MIN_VALUE;
+
+    enum Column {
+        RESERVATION_ID, VEHICLE_ID, BOOKING_ID, BOOKING_START_DATE, BOOKING_END_DATE, RESERVATION_STATUS,
+        EXPIRES_AT, PAYMENT_REFERENCE, NOTES, CREATED_AT, CONFIRMED_AT, CANCELLED_AT, LAST_UPDATED_AT,
+        ARCHIVED_AT
+    }
+
+    private BookingSegment() {
+    }
+
+    /**
+     * Location and stats of one row group.
+     */
+    private record RowGroup(int rowCount, long minEnd, long maxEnd, long[] offsets, int[] compressedLengths,
+            int[] rawLengths) {
+    }
+
+    /**
+     * Streams rows into a temporary file next to the target, one row group at
+     * a time; commit() adds the footer and moves the file into place, so
+     * readers never see a half-written segment. Closing without commit()
+     * discards the temporary file.
+     */
+    static final class Writer implements Closeable {
+        private final Path target;
+        private final Path temp;
+        private final FileChannel channel;
+        private final CountingOutputStream file;
+        private final int rowGroupSize;
+        private final Map<Column, ByteArrayOutputStream> buffers = new EnumMap<>(Column.class);
+        private final Map<Column, DataOutputStream> columns = new EnumMap<>(Column.class);
+        private final List<RowGroup> groups = new ArrayList<>();
+        private int rowCount;
+        private long minEnd = Long.MAX_VALUE;
+        private long maxEnd = Long.MIN_VALUE;
+        private int groupRows;
+        private long groupMinEnd = Long.MAX_VALUE;
+        private long groupMaxEnd = Long.MIN_VALUE;
+        private boolean committed;
+
+        Writer(Path target) throws IOException {
+            this(target, DEFAULT_ROW_GROUP_SIZE);
+        }
+
+        Writer(Path target, int rowGroupSize) throws IOException {
+            this.target = target;
+            this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+            this.rowGroupSize = rowGroupSize;
+            this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.file = new CountingOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            for (Column column : Column.values()) {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                buffers.put(column, buffer);
+                columns.put(column, new DataOutputStream(buffer));
+            }
+        }
+
+        void add(ArchivedBookingResponse row) throws IOException {
+            writeUuid(Column.RESERVATION_ID, row.getReservationId());
+            writeUuid(Column.VEHICLE_ID, row.getVehicleId());
+            writeUuid(Column.BOOKING_ID, row.getBookingId());
+            writeTime(Column.BOOKING_START_DATE, row.getBookingStartDate());
+            writeTime(Column.BOOKING_END_DATE, row.getBookingEndDate());
+            writeString(Column.RESERVATION_STATUS, row.getReservationStatus());
+            writeTime(Column.EXPIRES_AT, row.getExpiresAt());
+            writeString(Column.PAYMENT_REFERENCE, row.getPaymentReference());
+            writeString(Column.NOTES, row.getNotes());
+            writeTime(Column.CREATED_AT, row.getCreatedAt());
+            writeTime(Column.CONFIRMED_AT, row.getConfirmedAt());
+            writeTime(Column.CANCELLED_AT, row.getCancelledAt());
+            writeTime(Column.LAST_UPDATED_AT, row.getLastUpdatedAt());
+            writeTime(Column.ARCHIVED_AT, row.getArchivedAt());
+
+            long end = toMicros(row.getBookingEndDate());
+            groupMinEnd = Math.min(groupMinEnd, end);
+            groupMaxEnd = Math.max(groupMaxEnd, end);
+            rowCount++;
+            if (++groupRows == rowGroupSize) {
+                flushGroup();
+            }
+        }
+
+        int rowCount() {
+            return rowCount;
+        }
+
+        /**
+         * Write the last row group and the footer, fsync, then move the file
+         * over {@code target} (replacing it: callers merge an existing
+         * segment's rows in first).
+         */
+        void commit() throws IOException {
+            flushGroup();
+
+            ByteArrayOutputStream footer = new ByteArrayOutputStream();
+            DataOutputStream footerOut = new DataOutputStream(footer);
+            footerOut.writeInt(VERSION);
+            footerOut.writeInt(rowCount);
+            footerOut.writeLong(minEnd);
+            footerOut.writeLong(maxEnd);
+            footerOut.writeInt(groups.size());
+            for (RowGroup group : groups) {
+                footerOut.writeInt(group.rowCount());
+                footerOut.writeLong(group.minEnd());
+                footerOut.writeLong(group.maxEnd());
+                for (int i = 0; i < group.offsets().length; i++) {
+                    footerOut.writeLong(group.offsets()[i]);
+                    footerOut.writeInt(group.compressedLengths()[i]);
+                    footerOut.writeInt(group.rawLengths()[i]);
+                }
+            }
+
+            DataOutputStream out = new DataOutputStream(file);
+            footer.writeTo(out);
+            out.writeInt(footer.size());
+            out.writeInt(MAGIC);
+            out.flush();
+            channel.force(true);
+            channel.close();
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                channel.close();
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        private void flushGroup() throws IOException {
+            if (groupRows == 0) {
+                return;
+            }
+            int columnCount = Column.values().length;
+            long[] offsets = new long[columnCount];
+            int[] compressedLengths = new int[columnCount];
+            int[] rawLengths = new int[columnCount];
+
+            for (Column column : Column.values()) {
+                ByteArrayOutputStream buffer = buffers.get(column);
+                int index = column.ordinal();
+                offsets[index] = file.count();
+                rawLengths[index] = buffer.size();
+
+                // Compressed straight into the file; finish() leaves it open
+                Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+                try {
+                    DeflaterOutputStream out = new DeflaterOutputStream(file, deflater);
+                    buffer.writeTo(out);
+                    out.finish();
+                } finally {
+                    deflater.end();
+                }
+                compressedLengths[index] = Math.toIntExact(file.count() - offsets[index]);
+                buffer.reset();
+            }
+
+            groups.add(new RowGroup(groupRows, groupMinEnd, groupMaxEnd, offsets, compressedLengths, rawLengths));
+            minEnd = Math.min(minEnd, groupMinEnd);
+            maxEnd = Math.max(maxEnd, groupMaxEnd);
+            groupRows = 0;
+            groupMinEnd = Long.MAX_VALUE;
+            groupMaxEnd = Long.MIN_VALUE;
+        }
+
+        private void writeUuid(Column column, UUID value) throws IOException {
+            columns.get(column).writeLong(value.getMostSignificantBits());
+            columns.get(column).writeLong(value.getLeastSignificantBits());
+        }
+
+        private void writeTime(Column column, LocalDateTime value) throws IOException {
+            columns.get(column).writeLong(value == null ? NULL_TIME : toMicros(value));
+        }
+
+        private void writeString(Column column, String value) throws IOException {
+            DataOutputStream out = columns.get(column);
+            if (value == null) {
+                out.writeInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Read-only view of one segment file; column blocks are memory-mapped
+     * one at a time.
+     */
+    static final class Reader implements Closeable {
+        private final Path path;
+        private final FileChannel channel;
+        private final int rowCount;
+        private final long minEnd;
+        private final long maxEnd;
+        private final List<RowGroup> groups = new ArrayList<>();
+
+        Reader(Path path) throws IOException {
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                long size = channel.size();
+                ByteBuffer trailer = size < 8 ? null : channel.map(FileChannel.MapMode.READ_ONLY, size - 8, 8);
+                if (trailer == null || trailer.getInt(4) != MAGIC) {
+                    throw new IOException("Not a booking segment: " + path);
+                }
+                int footerLength = trailer.getInt(0);
+                ByteBuffer footer = channel.map(FileChannel.MapMode.READ_ONLY, size - 8 - footerLength,
+                        footerLength);
+                int version = footer.getInt();
+                if (version != 1 && version != VERSION) {
+                    throw new IOException("Unsupported booking segment version " + version + ": " + path);
+                }
+                this.rowCount = footer.getInt();
+                this.minEnd = footer.getLong();
+                this.maxEnd = footer.getLong();
+                if (version == 1) {
+                    groups.add(readBlocks(footer, rowCount, minEnd, maxEnd));
+                } else {
+                    int groupCount = footer.getInt();
+                    for (int g = 0; g < groupCount; g++) {
+                        groups.add(readBlocks(footer, footer.getInt(), footer.getLong(), footer.getLong()));
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        private static RowGroup readBlocks(ByteBuffer footer, int rows, long groupMinEnd, long groupMaxEnd) {
+            int columnCount = Column.values().length;
+            long[] offsets = new long[columnCount];
+            int[] compressedLengths = new int[columnCount];
+            int[] rawLengths = new int[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                offsets[i] = footer.getLong();
+                compressedLengths[i] = footer.getInt();
+                rawLengths[i] = footer.getInt();
+            }
+            return new RowGroup(rows, groupMinEnd, groupMaxEnd, offsets, compressedLengths, rawLengths);
+        }
+
+        int rowCount() {
+            return rowCount;
+        }
+
+        int groupCount() {
+            return groups.size();
+        }
+
+        LocalDateTime minBookingEnd() {
+            return rowCount == 0 ? null : fromMicros(minEnd);
+        }
+
+        LocalDateTime maxBookingEnd() {
+            return rowCount == 0 ? null : fromMicros(maxEnd);
+        }
+
+        /**
+         * Rows whose UUID {@code keyColumn} equals {@code key}.
+         */
+        List<ArchivedBookingResponse> find(Column keyColumn, UUID key) throws IOException {
+            List<ArchivedBookingResponse> rows = new ArrayList<>();
+            for (RowGroup group : groups) {
+                ByteBuffer keys = inflate(group, keyColumn);
+                List<Integer> matches = new ArrayList<>();
+                for (int row = 0; row < group.rowCount(); row++) {
+                    long mostSignificant = keys.getLong();
+                    long leastSignificant = keys.getLong();
+                    if (mostSignificant == key.getMostSignificantBits()
+                            && leastSignificant == key.getLeastSignificantBits()) {
+                        matches.add(row);
+                    }
+                }
+                if (!matches.isEmpty()) {
+                    rows.addAll(read(group, matches));
+                }
+            }
+            return rows;
+        }
+
+        /**
+         * Every row of row group {@code index}.
+         */
+        List<ArchivedBookingResponse> readGroup(int index) throws IOException {
+            RowGroup group = groups.get(index);
+            return read(group, IntStream.range(0, group.rowCount()).boxed().toList());
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private List<ArchivedBookingResponse> read(RowGroup group, List<Integer> matches) throws IOException {
+            List<ArchivedBookingResponse> rows = new ArrayList<>(matches.size());
+            matches.forEach(row -> rows.add(new ArchivedBookingResponse()));
+            readUuids(group, Column.RESERVATION_ID, matches, rows, ArchivedBookingResponse::setReservationId);
+            readUuids(group, Column.VEHICLE_ID, matches, rows, ArchivedBookingResponse::setVehicleId);
+            readUuids(group, Column.BOOKING_ID, matches, rows, ArchivedBookingResponse::setBookingId);
+            readTimes(group, Column.BOOKING_START_DATE, matches, rows, ArchivedBookingResponse::setBookingStartDate);
+            readTimes(group, Column.BOOKING_END_DATE, matches, rows, ArchivedBookingResponse::setBookingEndDate);
+            readStrings(group, Column.RESERVATION_STATUS, matches, rows,
+                    ArchivedBookingResponse::setReservationStatus);
+            readTimes(group, Column.EXPIRES_AT, matches, rows, ArchivedBookingResponse::setExpiresAt);
+            readStrings(group, Column.PAYMENT_REFERENCE, matches, rows, ArchivedBookingResponse::setPaymentReference);
+            readStrings(group, Column.NOTES, matches, rows, ArchivedBookingResponse::setNotes);
+            readTimes(group, Column.CREATED_AT, matches, rows, ArchivedBookingResponse::setCreatedAt);
+            readTimes(group, Column.CONFIRMED_AT, matches, rows, ArchivedBookingResponse::setConfirmedAt);
+            readTimes(group, Column.CANCELLED_AT, matches, rows, ArchivedBookingResponse::setCancelledAt);
+            readTimes(group, Column.LAST_UPDATED_AT, matches, rows, ArchivedBookingResponse::setLastUpdatedAt);
+            readTimes(group, Column.ARCHIVED_AT, matches, rows, ArchivedBookingResponse::setArchivedAt);
+            return rows;
+        }
+
+        // Fixed-width columns: jump straight to the matching rows
+        private void readUuids(RowGroup group, Column column, List<Integer> matches,
+                List<ArchivedBookingResponse> rows, BiConsumer<ArchivedBookingResponse, UUID> setter)
+                throws IOException {
+            ByteBuffer values = inflate(group, column);
+            for (int i = 0; i < matches.size(); i++) {
+                int at = matches.get(i) * 16;
+                setter.accept(rows.get(i), new UUID(values.getLong(at), values.getLong(at + 8)));
+            }
+        }
+
+        private void readTimes(RowGroup group, Column column, List<Integer> matches,
+                List<ArchivedBookingResponse> rows, BiConsumer<ArchivedBookingResponse, LocalDateTime> setter)
+                throws IOException {
+            ByteBuffer values = inflate(group, column);
+            for (int i = 0; i < matches.size(); i++) {
+                long micros = values.getLong(matches.get(i) * 8);
+                setter.accept(rows.get(i), micros == NULL_TIME ? null : fromMicros(micros));
+            }
+        }
+
+        // Variable-width column: walk the lengths up to each match
+        private void readStrings(RowGroup group, Column column, List<Integer> matches,
+                List<ArchivedBookingResponse> rows, BiConsumer<ArchivedBookingResponse, String> setter)
+                throws IOException {
+            ByteBuffer values = inflate(group, column);
+            int row = 0;
+            for (int i = 0; i < matches.size(); i++) {
+                int target = matches.get(i);
+                for (; row < target; row++) {
+                    int skip = Math.max(0, values.getInt());
+                    values.position(values.position() + skip);
+                }
+                int length = values.getInt();
+                row++;
+                if (length < 0) {
+                    setter.accept(rows.get(i), null);
+                    continue;
+                }
+                byte[] bytes = new byte[length];
+                values.get(bytes);
+                setter.accept(rows.get(i), new String(bytes, StandardCharsets.UTF_8));
+            }
+        }
+
+        private ByteBuffer inflate(RowGroup group, Column column) throws IOException {
+            int index = column.ordinal();
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(channel.map(FileChannel.MapMode.READ_ONLY, group.offsets()[index],
+                        group.compressedLengths()[index]));
+                byte[] raw = new byte[group.rawLengths()[index]];
+                int read = 0;
+                while (read < raw.length) {
+                    int n = inflater.inflate(raw, read, raw.length - read);
+                    if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                        break;
+                    }
+                    read += n;
+                }
+                if (read != raw.length) {
+                    throw new IOException("Truncated column " + column + " in " + path);
+                }
+                return ByteBuffer.wrap(raw);
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt column " + column + " in " + path, e);
+            } finally {
+                inflater.end();
+            }
+        }
+    }
+
+    /**
+     * Tracks the file offset of column blocks as they are written.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        long count() {
+            return count;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    private static long toMicros(LocalDateTime value) {
+        return ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), value);
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000), 0, ZoneOffset.UTC)
+                .plusNanos(Math.floorMod(micros, 1_000_000) * 1000L);
+    }
+}
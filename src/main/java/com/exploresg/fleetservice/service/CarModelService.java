@@ -1,14 +1,22 @@
 package com.exploresg.fleetservice.service;
 
 import com.exploresg.fleetservice.dto.*;
+import com.exploresg.fleetservice.dto.FleetVehicleCursorPage.TotalMode;
+import com.exploresg.fleetservice.event.FleetVehicleChangedEvent;
 import com.exploresg.fleetservice.model.CarModel;
 import com.exploresg.fleetservice.model.FleetVehicle;
 import com.exploresg.fleetservice.model.VehicleStatus;
 import com.exploresg.fleetservice.repository.CarModelRepository;
 import com.exploresg.fleetservice.repository.FleetVehicleRepository;
+import com.exploresg.fleetservice.repository.FleetVehicleSearchRepository.KeysetSort;
+import com.exploresg.fleetservice.repository.FleetVehicleSearchRepository.SearchCriteria;
 import com.exploresg.fleetservice.repository.VehicleBookingRecordRepository;
+import com.exploresg.fleetservice.repository.projection.FleetModelStatusAggregateView;
+import com.exploresg.fleetservice.repository.projection.OperatorModelAvailabilityView;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -17,11 +25,18 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -38,6 +53,11 @@ public class CarModelService {
         // private final VehicleBookingRecordService bookingRecordService;
         // --- THIS IS THE CRITICAL CHANGE ---
         private final VehicleBookingRecordRepository bookingRecordRepository;
+        private final ApplicationEventPublisher eventPublisher;
+        private final FleetDashboardRollup dashboardRollup;
+
+        @Value("${fleet.search.total-cap:10000}")
+        private long searchTotalCap;
 
         /**
          * Creates a new CarModel and saves it to the database.
@@ -81,32 +101,45 @@ public class CarModelService {
          */
         @Transactional(readOnly = true)
         public List<OperatorCarModelDto> getAvailableModelsPerOperator() {
-                // Get all available vehicles across ALL operators
-                List<FleetVehicle> availableVehicles = fleetVehicleRepository
-                                .findByStatus(VehicleStatus.AVAILABLE);
-
-                // Group by (ownerId, carModelId) combination
-                Map<String, List<FleetVehicle>> groupedVehicles = availableVehicles.stream()
-                                .collect(Collectors.groupingBy(v -> v.getOwnerId() + "-" + v.getCarModel().getId()));
+                // (ownerId, carModelId) -> lowest price and count, grouped in the database
+                return toOperatorCarModelDtos(fleetVehicleRepository.findAvailableOperatorModelSummaries());
+        }
 
-                List<OperatorCarModelDto> result = new ArrayList<>();
+        /**
+         * Retrieves available car models for a specific operator.
+         * Filters by operator ID and availability, then groups by CarModel (blueprint).
+         */
+        @Transactional(readOnly = true)
+        public List<OperatorCarModelDto> getAvailableModelsByOperator(UUID operatorId) {
+                return toOperatorCarModelDtos(
+                                fleetVehicleRepository.findAvailableOperatorModelSummariesByOwnerId(operatorId));
+        }
 
-                for (List<FleetVehicle> vehicles : groupedVehicles.values()) {
-                        if (vehicles.isEmpty())
-                                continue;
+        /**
+         * Joins the grouped (operator, model) rows with their CarModel
+         * attributes, loading each model once.
+         */
+        private List<OperatorCarModelDto> toOperatorCarModelDtos(List<OperatorModelAvailabilityView> summaries) {
+                if (summaries.isEmpty()) {
+                        return List.of();
+                }
 
-                        FleetVehicle firstVehicle = vehicles.get(0);
-                        CarModel carModel = firstVehicle.getCarModel();
+                Set<Long> modelIds = summaries.stream()
+                                .map(OperatorModelAvailabilityView::getCarModelId)
+                                .collect(Collectors.toSet());
+                Map<Long, CarModel> modelsById = carModelRepository.findAllById(modelIds).stream()
+                                .collect(Collectors.toMap(CarModel::getId, Function.identity()));
 
-                        // Find lowest price from this operator for this model
-                        BigDecimal lowestPrice = vehicles.stream()
-                                        .map(FleetVehicle::getDailyPrice)
-                                        .min(BigDecimal::compareTo)
-                                        .orElse(BigDecimal.ZERO);
+                List<OperatorCarModelDto> result = new ArrayList<>(summaries.size());
+                for (OperatorModelAvailabilityView summary : summaries) {
+                        CarModel carModel = modelsById.get(summary.getCarModelId());
+                        if (carModel == null) {
+                                continue;
+                        }
 
                         OperatorCarModelDto dto = OperatorCarModelDto.builder()
-                                        .operatorId(firstVehicle.getOwnerId())
-                                        .operatorName("Fleet Operator " + firstVehicle.getOwnerId())
+                                        .operatorId(summary.getOwnerId())
+                                        .operatorName("Fleet Operator " + summary.getOwnerId())
                                         .publicModelId(carModel.getPublicId().toString())
                                         .model(carModel.getModel())
                                         .manufacturer(carModel.getManufacturer())
@@ -117,8 +150,8 @@ public class CarModelService {
                                         .category(carModel.getCategory())
                                         .fuelType(carModel.getFuelType())
                                         .modelYear(carModel.getModelYear())
-                                        .dailyPrice(lowestPrice)
-                                        .availableVehicleCount(vehicles.size())
+                                        .dailyPrice(summary.getLowestDailyPrice())
+                                        .availableVehicleCount(summary.getAvailableVehicleCount().intValue())
                                         .build();
 
                         result.add(dto);
@@ -127,57 +160,6 @@ public class CarModelService {
                 return result;
         }
 
-        /**
-         * Retrieves available car models for a specific operator.
-         * Filters by operator ID and availability, then groups by CarModel (blueprint).
-         */
-        @Transactional(readOnly = true)
-        public List<OperatorCarModelDto> getAvailableModelsByOperator(UUID operatorId) {
-                // 1. Fetch all available physical vehicles belonging to the specific operator
-                List<FleetVehicle> availableVehicles = fleetVehicleRepository
-                                .findByOwnerIdAndStatus(operatorId, VehicleStatus.AVAILABLE);
-
-                if (availableVehicles.isEmpty()) {
-                        return List.of();
-                }
-
-                // 2. Group vehicles by CarModel (the blueprint)
-                Map<CarModel, List<FleetVehicle>> groupedVehicles = availableVehicles.stream()
-                                .collect(Collectors.groupingBy(FleetVehicle::getCarModel));
-
-                // 3. Aggregate and Map to the DTO
-                return groupedVehicles.entrySet().stream()
-                                .map(entry -> {
-                                        CarModel model = entry.getKey();
-                                        List<FleetVehicle> physicalCars = entry.getValue();
-
-                                        // Find lowest price offered by this operator for this model
-                                        BigDecimal lowestPrice = physicalCars.stream()
-                                                        .map(FleetVehicle::getDailyPrice)
-                                                        .min(BigDecimal::compareTo)
-                                                        .orElse(BigDecimal.ZERO);
-
-                                        // Map to the aggregated DTO
-                                        return OperatorCarModelDto.builder()
-                                                        .operatorId(operatorId)
-                                                        .operatorName("Fleet Operator " + operatorId)
-                                                        .publicModelId(model.getPublicId().toString())
-                                                        .model(model.getModel())
-                                                        .manufacturer(model.getManufacturer())
-                                                        .seats(model.getSeats())
-                                                        .luggage(model.getLuggage())
-                                                        .transmission(model.getTransmission())
-                                                        .imageUrl(model.getImageUrl())
-                                                        .category(model.getCategory())
-                                                        .fuelType(model.getFuelType())
-                                                        .modelYear(model.getModelYear())
-                                                        .dailyPrice(lowestPrice)
-                                                        .availableVehicleCount(physicalCars.size())
-                                                        .build();
-                                })
-                                .collect(Collectors.toList());
-        }
-
         /**
          * Retrieves all unique CarModel templates that have at least one physical car
          * instance available in the fleet.
@@ -212,6 +194,8 @@ public class CarModelService {
         /**
          * Search fleet vehicles with optional filters and pagination support.
          * All search parameters are optional - if null/empty, they are ignored.
+         * Partial matches use the pg_trgm indexes (see
+         * FleetVehicleSearchRepositoryImpl); page and total come from one query.
          */
         @Transactional(readOnly = true)
         public Page<FleetVehicle> searchFleetVehicles(
@@ -245,6 +229,80 @@ public class CarModelService {
                                 transformedPageable);
         }
 
+        /**
+         * Keyset variant of searchFleetVehicles for large fleets and deep pages.
+         * Orders by (sort, id) and continues after the cursor's last vehicle, so
+         * every page costs the same; no OFFSET and, unless asked for EXACT, no
+         * full COUNT(*).
+         *
+         * @param cursor nextCursor of the previous page, null for the first page
+         */
+        @Transactional(readOnly = true)
+        public FleetVehicleCursorPage searchFleetVehiclesKeyset(
+                        UUID ownerId,
+                        String licensePlate,
+                        VehicleStatus status,
+                        String model,
+                        String manufacturer,
+                        String location,
+                        KeysetSort sort,
+                        boolean ascending,
+                        String cursor,
+                        int size,
+                        TotalMode totalMode) {
+
+                SearchCriteria criteria = new SearchCriteria(
+                                ownerId,
+                                blankToNull(licensePlate),
+                                status != null ? status.name() : null,
+                                blankToNull(model),
+                                blankToNull(manufacturer),
+                                blankToNull(location));
+                FleetVehicleCursor after = cursor != null
+                                ? FleetVehicleCursor.decode(cursor, sort, ascending)
+                                : null;
+
+                // One extra row tells whether there is a next page
+                List<FleetVehicle> vehicles = fleetVehicleRepository.searchFleetVehiclesAfter(
+                                criteria,
+                                sort,
+                                ascending,
+                                after != null ? after.lastValue() : null,
+                                after != null ? after.lastId() : null,
+                                size + 1);
+                String nextCursor = null;
+                if (vehicles.size() > size) {
+                        vehicles = vehicles.subList(0, size);
+                        nextCursor = FleetVehicleCursor.after(vehicles.get(size - 1), sort, ascending).encode();
+                }
+
+                FleetVehicleCursorPage.FleetVehicleCursorPageBuilder page = FleetVehicleCursorPage.builder()
+                                .content(vehicles)
+                                .size(size)
+                                .nextCursor(nextCursor)
+                                .totalMode(totalMode);
+                switch (totalMode) {
+                        case EXACT -> page.totalElements(fleetVehicleRepository.countFleetVehicles(criteria, 0));
+                        case CAPPED -> {
+                                long total = fleetVehicleRepository.countFleetVehicles(criteria, searchTotalCap);
+                                page.totalElements(Math.min(total, searchTotalCap))
+                                                .totalCapped(total > searchTotalCap);
+                        }
+                        // After the page query: a failed EXPLAIN leaves a PostgreSQL transaction unusable
+                        case ESTIMATED -> {
+                                OptionalLong estimate = fleetVehicleRepository.estimateFleetVehicles(criteria);
+                                page.totalElements(estimate.isPresent() ? estimate.getAsLong() : null);
+                        }
+                        case NONE -> {
+                        }
+                }
+                return page.build();
+        }
+
+        private static String blankToNull(String value) {
+                return (value != null && value.trim().isEmpty()) ? null : value;
+        }
+
         /**
          * Transforms a Pageable object to use database column names instead of Java
          * property names.
@@ -277,162 +335,97 @@ public class CarModelService {
 
         /**
          * Retrieves comprehensive dashboard statistics for a fleet manager.
-         * NOW PROPERLY INTEGRATES WITH VehicleBookingRecordRepository for accurate
-         * booking
-         * counts.
+         * 
+         * Built from two inputs served by FleetDashboardRollup:
+         * - (car model × status) counts, mileage/price sums and service flags
+         * - number of vehicles currently on a booking, per car model
          */
         @Transactional(readOnly = true)
         public FleetDashboardDto getFleetDashboard(UUID ownerId) {
-                List<FleetVehicle> allVehicles = fleetVehicleRepository.findByOwnerId(ownerId);
+                LocalDateTime now = LocalDateTime.now();
+                List<FleetModelStatusAggregateView> rows = dashboardRollup.getModelStatusRows(ownerId, now);
 
-                if (allVehicles.isEmpty()) {
+                if (rows.isEmpty()) {
                         return createEmptyDashboard();
                 }
 
-                // --- REFACTORED LOGIC ---
-                // Get currently booked vehicle IDs directly from the repository
-                LocalDateTime now = LocalDateTime.now();
-                List<UUID> currentlyBookedIds = allVehicles.stream()
-                                .map(FleetVehicle::getId)
-                                .filter(vehicleId -> bookingRecordRepository.hasOverlappingBookings(vehicleId, now,
-                                                now))
-                                .collect(Collectors.toList());
-
-                long bookedCount = currentlyBookedIds.size();
-                // --- END REFACTORED LOGIC ---
-
-                // 1. Calculate vehicle status counts
-                long availableCount = allVehicles.stream()
-                                .filter(v -> v.getStatus() == VehicleStatus.AVAILABLE)
-                                .count();
+                Map<Long, Long> bookedByModel = dashboardRollup.getBookedByModel(ownerId, now);
+
+                // Fold the (model × status) rows into per-model and fleet-wide totals
+                Map<Long, ModelTotals> modelTotals = new LinkedHashMap<>();
+                ModelTotals fleetTotals = new ModelTotals();
+                long overdueCount = 0;
+                long dueSoonCount = 0;
+                long pendingWorkOrders = 0;
+
+                for (FleetModelStatusAggregateView row : rows) {
+                        modelTotals.computeIfAbsent(row.getCarModelId(), id -> new ModelTotals(row)).add(row);
+                        fleetTotals.add(row);
+
+                        if (row.getStatus() == VehicleStatus.UNDER_MAINTENANCE) {
+                                overdueCount += row.getReturnOverdueCount();
+                        } else {
+                                dueSoonCount += row.getHighMileageCount();
+                                pendingWorkOrders += row.getReturnUpcomingCount();
+                        }
+                }
 
-                long underMaintenanceCount = allVehicles.stream()
-                                .filter(v -> v.getStatus() == VehicleStatus.UNDER_MAINTENANCE)
-                                .count();
+                long bookedCount = bookedByModel.values().stream().mapToLong(Long::longValue).sum();
 
+                // 1. Vehicle status counts
                 VehicleStatusSummary vehicleStatus = VehicleStatusSummary.builder()
-                                .available(availableCount)
+                                .available(fleetTotals.availableCount)
                                 .booked(bookedCount)
-                                .underMaintenance(underMaintenanceCount)
-                                .total(allVehicles.size())
+                                .underMaintenance(fleetTotals.underMaintenanceCount)
+                                .total(fleetTotals.totalCount)
                                 .build();
 
-                // 2. Calculate service reminders
-                long overdueCount = allVehicles.stream()
-                                .filter(v -> v.getExpectedReturnDate() != null
-                                                && v.getExpectedReturnDate().isBefore(now)
-                                                && v.getStatus() == VehicleStatus.UNDER_MAINTENANCE)
-                                .count();
-
-                long dueSoonCount = allVehicles.stream()
-                                .filter(v -> v.getMileageKm() != null && v.getMileageKm() > 50000)
-                                .filter(v -> v.getStatus() != VehicleStatus.UNDER_MAINTENANCE)
-                                .count();
-
+                // 2. Service reminders
                 ServiceRemindersSummary serviceReminders = ServiceRemindersSummary.builder()
                                 .overdue(overdueCount)
                                 .dueSoon(dueSoonCount)
                                 .build();
 
-                // 3. Calculate work orders
-                long activeWorkOrders = underMaintenanceCount;
-                long pendingWorkOrders = allVehicles.stream()
-                                .filter(v -> v.getExpectedReturnDate() != null
-                                                && v.getExpectedReturnDate().isAfter(now)
-                                                && v.getStatus() != VehicleStatus.UNDER_MAINTENANCE)
-                                .count();
-
+                // 3. Work orders
                 WorkOrdersSummary workOrders = WorkOrdersSummary.builder()
-                                .active(activeWorkOrders)
+                                .active(fleetTotals.underMaintenanceCount)
                                 .pending(pendingWorkOrders)
                                 .build();
 
-                // 4. Calculate vehicle assignments
+                // 4. Vehicle assignments
                 VehicleAssignmentsSummary vehicleAssignments = VehicleAssignmentsSummary.builder()
                                 .assigned(bookedCount)
-                                .unassigned(availableCount)
+                                .unassigned(fleetTotals.availableCount)
                                 .build();
 
-                // 5. Calculate overall fleet statistics
-                Double averageMileage = allVehicles.stream()
-                                .filter(v -> v.getMileageKm() != null)
-                                .mapToInt(FleetVehicle::getMileageKm)
-                                .average()
-                                .orElse(0.0);
-
-                Long totalMileage = allVehicles.stream()
-                                .filter(v -> v.getMileageKm() != null)
-                                .mapToLong(FleetVehicle::getMileageKm)
-                                .sum();
-
-                BigDecimal totalPotentialRevenue = allVehicles.stream()
-                                .map(FleetVehicle::getDailyPrice)
-                                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                double utilizationRate = allVehicles.size() > 0
-                                ? (bookedCount * 100.0 / allVehicles.size())
-                                : 0.0;
-
-                long uniqueModels = allVehicles.stream()
-                                .map(v -> v.getCarModel().getId())
-                                .distinct()
-                                .count();
-
+                // 5. Overall fleet statistics
                 FleetStatistics statistics = FleetStatistics.builder()
-                                .totalVehicles(allVehicles.size())
-                                .totalModels(uniqueModels)
-                                .averageMileage(averageMileage)
-                                .totalMileage(totalMileage)
-                                .totalPotentialDailyRevenue(totalPotentialRevenue)
-                                .totalRevenue(totalPotentialRevenue) // Note: This might need more complex calculation
-                                .utilizationRate(utilizationRate)
+                                .totalVehicles(fleetTotals.totalCount)
+                                .totalModels(modelTotals.size())
+                                .averageMileage(fleetTotals.averageMileage())
+                                .totalMileage(fleetTotals.mileageSum)
+                                .totalPotentialDailyRevenue(fleetTotals.dailyPriceSum)
+                                .totalRevenue(fleetTotals.dailyPriceSum) // Note: This might need more complex calculation
+                                .utilizationRate(bookedCount * 100.0 / fleetTotals.totalCount)
                                 .build();
 
-                // 6. Group vehicles by model and calculate breakdowns
-                Map<CarModel, List<FleetVehicle>> vehiclesByModel = allVehicles.stream()
-                                .collect(Collectors.groupingBy(FleetVehicle::getCarModel));
-
-                List<FleetModelBreakdown> fleetByModel = vehiclesByModel.entrySet()
+                // 6. Per-model breakdown
+                List<FleetModelBreakdown> fleetByModel = modelTotals.entrySet()
                                 .stream()
                                 .map(entry -> {
-                                        CarModel model = entry.getKey();
-                                        List<FleetVehicle> vehicles = entry.getValue();
-
-                                        long modelAvailableCount = vehicles.stream()
-                                                        .filter(v -> v.getStatus() == VehicleStatus.AVAILABLE)
-                                                        .count();
-
-                                        // Use the pre-calculated list of booked IDs for efficiency
-                                        long modelBookedCount = vehicles.stream()
-                                                        .filter(v -> currentlyBookedIds.contains(v.getId()))
-                                                        .count();
-
-                                        long modelMaintenanceCount = vehicles.stream()
-                                                        .filter(v -> v.getStatus() == VehicleStatus.UNDER_MAINTENANCE)
-                                                        .count();
-
-                                        Double modelAvgMileage = vehicles.stream()
-                                                        .filter(v -> v.getMileageKm() != null)
-                                                        .mapToInt(FleetVehicle::getMileageKm)
-                                                        .average()
-                                                        .orElse(0.0);
-
-                                        BigDecimal modelAvgPrice = vehicles.stream()
-                                                        .map(FleetVehicle::getDailyPrice)
-                                                        .reduce(BigDecimal.ZERO, BigDecimal::add)
-                                                        .divide(BigDecimal.valueOf(vehicles.size()), 2,
-                                                                        java.math.RoundingMode.HALF_UP);
-
+                                        ModelTotals model = entry.getValue();
                                         return FleetModelBreakdown.builder()
-                                                        .manufacturer(model.getManufacturer())
-                                                        .model(model.getModel())
-                                                        .imageUrl(model.getImageUrl())
-                                                        .totalCount(vehicles.size())
-                                                        .availableCount(modelAvailableCount)
-                                                        .bookedCount(modelBookedCount)
-                                                        .underMaintenanceCount(modelMaintenanceCount)
-                                                        .averageMileage(modelAvgMileage)
-                                                        .averageDailyPrice(modelAvgPrice)
+                                                        .manufacturer(model.manufacturer)
+                                                        .model(model.model)
+                                                        .imageUrl(model.imageUrl)
+                                                        .totalCount(model.totalCount)
+                                                        .availableCount(model.availableCount)
+                                                        .bookedCount(bookedByModel.getOrDefault(entry.getKey(), 0L))
+                                                        .underMaintenanceCount(model.underMaintenanceCount)
+                                                        .averageMileage(model.averageMileage())
+                                                        .averageDailyPrice(model.dailyPriceSum.divide(
+                                                                        BigDecimal.valueOf(model.totalCount), 2,
+                                                                        RoundingMode.HALF_UP))
                                                         .build();
                                 })
                                 .collect(Collectors.toList());
@@ -448,6 +441,47 @@ public class CarModelService {
                                 .build();
         }
 
+        /**
+         * Running totals over dashboard aggregate rows (one car model, or the
+         * whole fleet).
+         */
+        private static final class ModelTotals {
+                private String manufacturer;
+                private String model;
+                private String imageUrl;
+                private long totalCount;
+                private long availableCount;
+                private long underMaintenanceCount;
+                private long mileageCount;
+                private long mileageSum;
+                private BigDecimal dailyPriceSum = BigDecimal.ZERO;
+
+                ModelTotals() {
+                }
+
+                ModelTotals(FleetModelStatusAggregateView row) {
+                        this.manufacturer = row.getManufacturer();
+                        this.model = row.getModel();
+                        this.imageUrl = row.getImageUrl();
+                }
+
+                void add(FleetModelStatusAggregateView row) {
+                        totalCount += row.getVehicleCount();
+                        if (row.getStatus() == VehicleStatus.AVAILABLE) {
+                                availableCount += row.getVehicleCount();
+                        } else if (row.getStatus() == VehicleStatus.UNDER_MAINTENANCE) {
+                                underMaintenanceCount += row.getVehicleCount();
+                        }
+                        mileageCount += row.getMileageCount();
+                        mileageSum += row.getMileageSum();
+                        dailyPriceSum = dailyPriceSum.add(row.getDailyPriceSum());
+                }
+
+                Double averageMileage() {
+                        return mileageCount > 0 ? (double) mileageSum / mileageCount : 0.0;
+                }
+        }
+
         /**
          * Creates an empty dashboard when no vehicles exist.
          */
@@ -515,6 +549,7 @@ public class CarModelService {
                 FleetVehicle vehicle = opt.get();
                 vehicle.setStatus(status);
                 fleetVehicleRepository.save(vehicle);
+                eventPublisher.publishEvent(FleetVehicleChangedEvent.of(vehicle.getOwnerId(), vehicle.getId()));
                 return true;
         }
 
@@ -528,6 +563,48 @@ public class CarModelService {
                         return null;
                 FleetVehicle vehicle = opt.get();
                 vehicle.setStatus(status);
-                return fleetVehicleRepository.save(vehicle);
+                FleetVehicle saved = fleetVehicleRepository.save(vehicle);
+                eventPublisher.publishEvent(FleetVehicleChangedEvent.of(saved.getOwnerId(), saved.getId()));
+                return saved;
+        }
+
+        /**
+         * Fleet Manager: Set the status of many vehicles in one go.
+         * One UPDATE scoped to the owner's fleet plus one SELECT for the per-id
+         * outcome (the UPDATE holds the rows' locks, so the owned ids are exactly
+         * the updated ones), then a single change event for all of them.
+         */
+        @Transactional
+        public BulkVehicleStatusResponse updateFleetVehicleStatuses(UUID ownerId, BulkVehicleStatusRequest request) {
+                Set<UUID> requestedIds = new LinkedHashSet<>(request.getVehicleIds());
+
+                int updated = fleetVehicleRepository.updateStatusForOwner(
+                                ownerId,
+                                requestedIds,
+                                request.getStatus(),
+                                request.getMaintenanceNote(),
+                                request.getExpectedReturnDate(),
+                                LocalDateTime.now());
+                Set<UUID> updatedIds = updated > 0
+                                ? new HashSet<>(fleetVehicleRepository.findIdsByOwnerIdAndIdIn(ownerId, requestedIds))
+                                : Set.of();
+
+                List<BulkVehicleStatusResponse.Result> results = requestedIds.stream()
+                                .map(id -> new BulkVehicleStatusResponse.Result(id, updatedIds.contains(id)
+                                                ? BulkVehicleStatusResponse.Outcome.UPDATED
+                                                : BulkVehicleStatusResponse.Outcome.NOT_FOUND))
+                                .toList();
+
+                if (!updatedIds.isEmpty()) {
+                        eventPublisher.publishEvent(new FleetVehicleChangedEvent(ownerId,
+                                        requestedIds.stream().filter(updatedIds::contains).toList()));
+                }
+
+                return BulkVehicleStatusResponse.builder()
+                                .status(request.getStatus())
+                                .requested(requestedIds.size())
+                                .updated(updatedIds.size())
+                                .results(results)
+                                .build();
         }
 }
\ No newline at end of file
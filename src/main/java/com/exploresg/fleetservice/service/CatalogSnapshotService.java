@@ -0,0 +1,200 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.dto.OperatorCarModelDto;
+import com.exploresg.fleetservice.event.FleetVehicleChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 📦 Public Catalog Snapshot
+ *
+ * Serves GET /api/v1/fleet/models from a pre-serialized JSON buffer instead
+ * of recomputing and re-serializing the catalog on every call.
+ *
+ * - The snapshot holds the JSON bytes (and a gzip'd copy), a local version
+ * number and an ETag derived from the content, so every replica hands out the
+ * same ETag for the same catalog
+ * - Vehicle changes bump the requested version; a single background thread
+ * rebuilds, coalescing bursts of events into one rebuild. Reservations don't:
+ * the catalog only depends on models and vehicle status
+ * - A periodic refresh picks up changes made outside this service
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogSnapshotService {
+
+    private final CarModelService carModelService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${catalog.snapshot.gzip-enabled:true}")
+    private boolean gzipEnabled;
+
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "catalog-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong requestedVersion = new AtomicLong(1);
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean(false);
+    private final Object buildLock = new Object();
+    private volatile Snapshot snapshot;
+
+    /**
+     * Current snapshot. Built synchronously on the very first call only;
+     * afterwards callers always get the last completed build.
+     */
+    public Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (buildLock) {
+            return snapshot != null ? snapshot : build();
+        }
+    }
+
+    /**
+     * Mark the catalog stale and rebuild it in the background.
+     */
+    public void invalidate() {
+        requestedVersion.incrementAndGet();
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            rebuildExecutor.execute(this::rebuild);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFleetVehicleChanged(FleetVehicleChangedEvent event) {
+        invalidate();
+    }
+
+    /**
+     * Safety net for vehicles added or changed outside this service.
+     */
+    @Scheduled(fixedDelayString = "${catalog.snapshot.refresh-ms:300000}", initialDelay = 60000)
+    public void refresh() {
+        invalidate();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    private void rebuild() {
+        // Cleared before building: events arriving mid-build queue exactly one more pass
+        rebuildScheduled.set(false);
+        try {
+            synchronized (buildLock) {
+                build();
+            }
+        } catch (Exception e) {
+            log.error("Failed to rebuild catalog snapshot, serving previous version: {}", e.getMessage(), e);
+        }
+    }
+
+    private Snapshot build() {
+        long version = requestedVersion.get();
+        long started = System.currentTimeMillis();
+
+        List<OperatorCarModelDto> models = carModelService.getAvailableModelsPerOperator();
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(models);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        Snapshot previous = snapshot;
+        // Weak: the same tag covers the identity and gzip encodings
+        String etag = "W/\"" + digest(json) + "\"";
+        Snapshot built;
+        if (previous != null && previous.etag.equals(etag)) {
+            // Same content: keep the buffers, just move the version forward
+            built = new Snapshot(version, etag, previous.json, previous.gzip, previous.modelCount);
+        } else {
+            built = new Snapshot(version, etag, json, gzipEnabled ? gzip(json) : null, models.size());
+        }
+        snapshot = built;
+
+        log.debug("Catalog snapshot v{} built: {} models, {} bytes in {}ms", version, built.modelCount,
+                json.length, System.currentTimeMillis() - started);
+        return built;
+    }
+
+    private static String digest(byte[] content) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(content);
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * One immutable, pre-serialized generation of the catalog.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static final class Snapshot {
+        private final long version;
+        private final String etag;
+        private final byte[] json;
+        /** Null when gzip is disabled. */
+        private final byte[] gzip;
+        private final int modelCount;
+
+        /**
+         * Whether an If-None-Match header value matches this snapshot.
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            String opaqueTag = stripWeak(etag);
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = stripWeak(candidate.trim());
+                if (tag.equals("*") || tag.equals(opaqueTag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static String stripWeak(String tag) {
+            return tag.startsWith("W/") ? tag.substring(2) : tag;
+        }
+    }
+}
@@ -0,0 +1,480 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.event.FleetVehicleChangedEvent;
+import com.exploresg.fleetservice.event.ReservationStateChangedEvent;
+import com.exploresg.fleetservice.model.VehicleStatus;
+import com.exploresg.fleetservice.repository.FleetVehicleRepository;
+import com.exploresg.fleetservice.repository.VehicleBookingRecordRepository;
+import com.exploresg.fleetservice.repository.projection.FleetModelStatusAggregateView;
+import com.exploresg.fleetservice.repository.projection.FleetVehicleDashboardView;
+import com.exploresg.fleetservice.repository.projection.ModelCountView;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 📊 Per-operator Fleet Dashboard Rollup
+ *
+ * Keeps, per ownerId, the (car model × status) aggregates behind the fleet
+ * dashboard so a refresh is an O(models) read instead of a query over every
+ * vehicle.
+ *
+ * How it's maintained:
+ * - Loaded lazily from the database on an operator's first dashboard read
+ * - Vehicle inserts/updates (FleetVehicleChangedEvent) are applied as deltas:
+ * the vehicle's old contribution is subtracted and the new one added
+ * - "Currently booked" counts depend on the clock, so they are cached for a
+ * short TTL and dropped on any reservation change of the operator's vehicles
+ * - Events only arrive for changes committed on this replica, so an operator
+ * loaded longer than owner-ttl-ms ago is reloaded on the next read; that
+ * caps how stale another replica's changes can look
+ *
+ * A reconciliation job rebuilds every loaded operator from source, swaps the
+ * result in and reports the number of vehicles that had drifted.
+ */
+@Component
+@Slf4j
+public class FleetDashboardRollup {
+
+    private static final Comparator<ModelStatusTotals> ROW_ORDER = Comparator
+            .comparing((ModelStatusTotals t) -> t.manufacturer, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(t -> t.model, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(t -> t.carModelId)
+            .thenComparing(t -> t.status);
+
+    private final FleetVehicleRepository fleetVehicleRepository;
+    private final VehicleBookingRecordRepository bookingRecordRepository;
+
+    private final Map<UUID, OwnerRollup> owners = new ConcurrentHashMap<>();
+    private final Map<UUID, UUID> ownerByVehicle = new ConcurrentHashMap<>();
+    private final Map<UUID, BookedCounts> bookedByOwner = new ConcurrentHashMap<>();
+
+    private final AtomicLong lastDrift = new AtomicLong();
+    private final Counter driftCounter;
+
+    @Value("${fleet.dashboard.rollup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${fleet.dashboard.rollup.booked-ttl-ms:30000}")
+    private long bookedTtlMs;
+
+    @Value("${fleet.dashboard.rollup.owner-ttl-ms:30000}")
+    private long ownerTtlMs;
+
+    public FleetDashboardRollup(FleetVehicleRepository fleetVehicleRepository,
+            VehicleBookingRecordRepository bookingRecordRepository,
+            MeterRegistry meterRegistry) {
+        this.fleetVehicleRepository = fleetVehicleRepository;
+        this.bookingRecordRepository = bookingRecordRepository;
+        meterRegistry.gauge("fleet.dashboard.rollup.drift", lastDrift);
+        meterRegistry.gaugeMapSize("fleet.dashboard.rollup.owners", List.of(), owners);
+        this.driftCounter = Counter.builder("fleet.dashboard.rollup.drift.total")
+                .description("Vehicles found out of sync by dashboard rollup reconciliation")
+                .register(meterRegistry);
+    }
+
+    /**
+     * (car model × status) aggregate rows for an operator, ordered by
+     * manufacturer and model. Same shape as
+     * FleetVehicleRepository.aggregateFleetByModelAndStatus.
+     */
+    public List<FleetModelStatusAggregateView> getModelStatusRows(UUID ownerId, LocalDateTime now) {
+        if (!enabled) {
+            return fleetVehicleRepository.aggregateFleetByModelAndStatus(ownerId, now);
+        }
+        OwnerRollup rollup = owners.get(ownerId);
+        if (rollup == null) {
+            // Load outside the map so a slow query doesn't block other operators
+            OwnerRollup loaded = load(ownerId);
+            rollup = Objects.requireNonNullElse(owners.putIfAbsent(ownerId, loaded), loaded);
+        } else if (System.currentTimeMillis() - rollup.loadedAtMillis >= ownerTtlMs) {
+            // May include changes made on other replicas that sent us no event
+            rollup = load(ownerId);
+            swapIn(ownerId, rollup);
+        }
+        return rollup.rows(now);
+    }
+
+    /**
+     * Number of the operator's vehicles currently on a booking, per car model id.
+     */
+    public Map<Long, Long> getBookedByModel(UUID ownerId, LocalDateTime now) {
+        if (!enabled) {
+            return loadBookedByModel(ownerId, now);
+        }
+        long nowMillis = System.currentTimeMillis();
+        BookedCounts cached = bookedByOwner.get(ownerId);
+        if (cached != null && nowMillis - cached.loadedAtMillis < bookedTtlMs) {
+            return cached.counts;
+        }
+        Map<Long, Long> counts = loadBookedByModel(ownerId, now);
+        bookedByOwner.put(ownerId, new BookedCounts(counts, nowMillis));
+        return counts;
+    }
+
+    /**
+     * Apply vehicle inserts/updates once they are committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFleetVehicleChanged(FleetVehicleChangedEvent event) {
+        if (!enabled || event.getVehicleIds().isEmpty()) {
+            return;
+        }
+        Map<UUID, FleetVehicleDashboardView> views = fleetVehicleRepository
+                .findDashboardViewsByIdIn(event.getVehicleIds())
+                .stream()
+                .collect(Collectors.toMap(FleetVehicleDashboardView::getVehicleId, v -> v));
+
+        for (UUID vehicleId : event.getVehicleIds()) {
+            FleetVehicleDashboardView view = views.get(vehicleId);
+            UUID previousOwner = ownerByVehicle.get(vehicleId);
+            UUID newOwner = view != null ? view.getOwnerId() : null;
+
+            if (previousOwner != null && !previousOwner.equals(newOwner)) {
+                OwnerRollup previous = owners.get(previousOwner);
+                if (previous != null) {
+                    previous.remove(vehicleId);
+                }
+                ownerByVehicle.remove(vehicleId);
+            }
+            if (view != null) {
+                // Operators not loaded yet pick the vehicle up on their first read
+                OwnerRollup current = owners.get(newOwner);
+                if (current != null) {
+                    current.put(VehicleSnapshot.of(view));
+                    ownerByVehicle.put(vehicleId, newOwner);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop cached booked counts once a reservation change is committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationStateChanged(ReservationStateChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        UUID ownerId = ownerByVehicle.get(event.getVehicleId());
+        if (ownerId != null) {
+            bookedByOwner.remove(ownerId);
+        }
+    }
+
+    /**
+     * Rebuild every loaded operator from the database and report drift.
+     * Runs every 10 minutes by default.
+     *
+     * Also heals the rare update lost between an operator's load and its
+     * first event (those show up as drift).
+     */
+    @Scheduled(fixedDelayString = "${fleet.dashboard.rollup.reconcile-ms:600000}", initialDelay = 600000)
+    public void reconcile() {
+        if (!enabled || owners.isEmpty()) {
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        long drifted = 0;
+        for (UUID ownerId : new ArrayList<>(owners.keySet())) {
+            try {
+                OwnerRollup fresh = load(ownerId);
+                OwnerRollup current = swapIn(ownerId, fresh);
+                if (current != null) {
+                    drifted += current.countDrift(fresh);
+                }
+            } catch (Exception e) {
+                log.error("Failed to reconcile dashboard rollup for owner {}: {}", ownerId, e.getMessage(), e);
+            }
+        }
+
+        lastDrift.set(drifted);
+        driftCounter.increment(drifted);
+        if (drifted > 0) {
+            log.warn("Dashboard rollup reconciliation corrected {} drifted vehicle(s) across {} owner(s)",
+                    drifted, owners.size());
+        } else {
+            log.debug("Dashboard rollup reconciled {} owner(s) in {}ms", owners.size(),
+                    System.currentTimeMillis() - started);
+        }
+    }
+
+    private OwnerRollup load(UUID ownerId) {
+        OwnerRollup rollup = new OwnerRollup();
+        for (FleetVehicleDashboardView view : fleetVehicleRepository.findDashboardViewsByOwnerId(ownerId)) {
+            rollup.put(VehicleSnapshot.of(view));
+            ownerByVehicle.put(view.getVehicleId(), ownerId);
+        }
+        return rollup;
+    }
+
+    /**
+     * Replace the operator's rollup and forget vehicles it no longer has.
+     */
+    private OwnerRollup swapIn(UUID ownerId, OwnerRollup fresh) {
+        OwnerRollup current = owners.put(ownerId, fresh);
+        if (current != null) {
+            current.vehicles.keySet().stream()
+                    .filter(id -> !fresh.vehicles.containsKey(id))
+                    .forEach(ownerByVehicle::remove);
+        }
+        return current;
+    }
+
+    private Map<Long, Long> loadBookedByModel(UUID ownerId, LocalDateTime now) {
+        return bookingRecordRepository.countCurrentlyBookedVehiclesByModel(ownerId, now)
+                .stream()
+                .collect(Collectors.toMap(ModelCountView::getCarModelId, ModelCountView::getVehicleCount));
+    }
+
+    private record BookedCounts(Map<Long, Long> counts, long loadedAtMillis) {
+    }
+
+    /**
+     * The fields of one vehicle that contribute to the rollup.
+     */
+    private record VehicleSnapshot(UUID vehicleId, Long carModelId, String manufacturer, String model,
+            String imageUrl, VehicleStatus status, Integer mileageKm, BigDecimal dailyPrice,
+            LocalDateTime expectedReturnDate) {
+
+        static VehicleSnapshot of(FleetVehicleDashboardView view) {
+            return new VehicleSnapshot(view.getVehicleId(), view.getCarModelId(), view.getManufacturer(),
+                    view.getModel(), view.getImageUrl(), view.getStatus(), view.getMileageKm(),
+                    view.getDailyPrice(), view.getExpectedReturnDate());
+        }
+
+        GroupKey groupKey() {
+            return new GroupKey(carModelId, status);
+        }
+
+        /**
+         * dailyPrice is compared by value, so a different scale is not drift.
+         */
+        boolean sameAs(VehicleSnapshot other) {
+            return other != null
+                    && Objects.equals(carModelId, other.carModelId)
+                    && status == other.status
+                    && Objects.equals(mileageKm, other.mileageKm)
+                    && Objects.equals(expectedReturnDate, other.expectedReturnDate)
+                    && (dailyPrice == null ? other.dailyPrice == null
+                            : other.dailyPrice != null && dailyPrice.compareTo(other.dailyPrice) == 0);
+        }
+    }
+
+    private record GroupKey(Long carModelId, VehicleStatus status) {
+    }
+
+    /**
+     * All rollup state of one operator. Instances are their own lock.
+     */
+    private static final class OwnerRollup {
+        private final Map<UUID, VehicleSnapshot> vehicles = new HashMap<>();
+        private final Map<GroupKey, ModelStatusTotals> groups = new HashMap<>();
+        // Only vehicles with an expected return date; their counts depend on the clock
+        private final Map<UUID, VehicleSnapshot> withReturnDate = new HashMap<>();
+        private final long loadedAtMillis = System.currentTimeMillis();
+
+        synchronized void put(VehicleSnapshot vehicle) {
+            VehicleSnapshot previous = vehicles.put(vehicle.vehicleId, vehicle);
+            if (previous != null) {
+                subtract(previous);
+            }
+            groups.computeIfAbsent(vehicle.groupKey(), key -> new ModelStatusTotals(vehicle)).add(vehicle, 1);
+            if (vehicle.expectedReturnDate != null) {
+                withReturnDate.put(vehicle.vehicleId, vehicle);
+            } else {
+                withReturnDate.remove(vehicle.vehicleId);
+            }
+        }
+
+        synchronized void remove(UUID vehicleId) {
+            VehicleSnapshot previous = vehicles.remove(vehicleId);
+            if (previous != null) {
+                subtract(previous);
+                withReturnDate.remove(vehicleId);
+            }
+        }
+
+        private void subtract(VehicleSnapshot vehicle) {
+            ModelStatusTotals totals = groups.get(vehicle.groupKey());
+            totals.add(vehicle, -1);
+            if (totals.vehicleCount == 0) {
+                groups.remove(vehicle.groupKey());
+            }
+        }
+
+        synchronized List<FleetModelStatusAggregateView> rows(LocalDateTime now) {
+            Map<GroupKey, ModelStatusTotals> copies = new LinkedHashMap<>();
+            groups.forEach((key, totals) -> copies.put(key, totals.copy()));
+
+            for (VehicleSnapshot vehicle : withReturnDate.values()) {
+                ModelStatusTotals totals = copies.get(vehicle.groupKey());
+                if (vehicle.expectedReturnDate.isBefore(now)) {
+                    totals.returnOverdueCount++;
+                } else if (vehicle.expectedReturnDate.isAfter(now)) {
+                    totals.returnUpcomingCount++;
+                }
+            }
+
+            List<FleetModelStatusAggregateView> rows = new ArrayList<>(copies.values());
+            rows.sort((a, b) -> ROW_ORDER.compare((ModelStatusTotals) a, (ModelStatusTotals) b));
+            return rows;
+        }
+
+        /**
+         * Number of vehicles whose snapshot differs between this rollup and
+         * {@code source}, including vehicles missing on either side.
+         */
+        synchronized long countDrift(OwnerRollup source) {
+            Set<UUID> ids = new HashSet<>(vehicles.keySet());
+            ids.addAll(source.vehicles.keySet());
+            return ids.stream()
+                    .filter(id -> {
+                        VehicleSnapshot mine = vehicles.get(id);
+                        return mine == null || !mine.sameAs(source.vehicles.get(id));
+                    })
+                    .count();
+        }
+    }
+
+    /**
+     * Running totals of one (car model, status) group. Doubles as the row
+     * handed out to readers (as a copy).
+     */
+    private static final class ModelStatusTotals implements FleetModelStatusAggregateView {
+        private final Long carModelId;
+        private final String manufacturer;
+        private final String model;
+        private final String imageUrl;
+        private final VehicleStatus status;
+        private long vehicleCount;
+        private long mileageCount;
+        private long mileageSum;
+        private BigDecimal dailyPriceSum = BigDecimal.ZERO;
+        private long highMileageCount;
+        private long returnOverdueCount;
+        private long returnUpcomingCount;
+
+        ModelStatusTotals(VehicleSnapshot vehicle) {
+            this(vehicle.carModelId, vehicle.manufacturer, vehicle.model, vehicle.imageUrl, vehicle.status);
+        }
+
+        private ModelStatusTotals(Long carModelId, String manufacturer, String model, String imageUrl,
+                VehicleStatus status) {
+            this.carModelId = carModelId;
+            this.manufacturer = manufacturer;
+            this.model = model;
+            this.imageUrl = imageUrl;
+            this.status = status;
+        }
+
+        /**
+         * Add ({@code sign} = 1) or subtract ({@code sign} = -1) one vehicle.
+         */
+        void add(VehicleSnapshot vehicle, int sign) {
+            vehicleCount += sign;
+            if (vehicle.mileageKm != null) {
+                mileageCount += sign;
+                mileageSum += (long) sign * vehicle.mileageKm;
+                if (vehicle.mileageKm > 50000) {
+                    highMileageCount += sign;
+                }
+            }
+            if (vehicle.dailyPrice != null) {
+                dailyPriceSum = sign > 0 ? dailyPriceSum.add(vehicle.dailyPrice)
+                        : dailyPriceSum.subtract(vehicle.dailyPrice);
+            }
+        }
+
+        ModelStatusTotals copy() {
+            ModelStatusTotals copy = new ModelStatusTotals(carModelId, manufacturer, model, imageUrl, status);
+            copy.vehicleCount = vehicleCount;
+            copy.mileageCount = mileageCount;
+            copy.mileageSum = mileageSum;
+            copy.dailyPriceSum = dailyPriceSum;
+            copy.highMileageCount = highMileageCount;
+            return copy;
+        }
+
+        @Override
+        public Long getCarModelId() {
+            return carModelId;
+        }
+
+        @Override
+        public String getManufacturer() {
+            return manufacturer;
+        }
+
+        @Override
+        public String getModel() {
+            return model;
+        }
+
+        @Override
+        public String getImageUrl() {
+            return imageUrl;
+        }
+
+        @Override
+        public VehicleStatus getStatus() {
+            return status;
+        }
+
+        @Override
+        public Long getVehicleCount() {
+            return vehicleCount;
+        }
+
+        @Override
+        public Long getMileageCount() {
+            return mileageCount;
+        }
+
+        @Override
+        public Long getMileageSum() {
+            return mileageSum;
+        }
+
+        @Override
+        public BigDecimal getDailyPriceSum() {
+            return dailyPriceSum;
+        }
+
+        @Override
+        public Long getReturnOverdueCount() {
+            return returnOverdueCount;
+        }
+
+        @Override
+        public Long getReturnUpcomingCount() {
+            return returnUpcomingCount;
+        }
+
+        @Override
+        public Long getHighMileageCount() {
+            return highMileageCount;
+        }
+    }
+}
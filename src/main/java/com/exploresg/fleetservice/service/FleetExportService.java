@@ -0,0 +1,238 @@
+package com.exploresg.fleetservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * 📤 Streaming fleet export
+ *
+ * Writes an operator's whole fleet as NDJSON (one vehicle object per line) or
+ * CSV straight from a forward-only JDBC cursor, one row at a time, so memory
+ * per export stays flat whatever the fleet size. No entities are loaded; the
+ * car model's manufacturer / model come from a join.
+ *
+ * Runs in a read-only transaction so the PostgreSQL driver actually fetches
+ * fetch-size rows at a time instead of the whole result; it gets its own,
+ * longer timeout (timeout-seconds) as a slow client holds it open.
+ */
+@Service
+@Slf4j
+public class FleetExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+
+    private enum Kind {
+        TEXT, NUMBER, TIMESTAMP
+    }
+
+    private record Column(String name, String sql, Kind kind) {
+    }
+
+    // Names match the FleetVehicle JSON returned by the other fleet endpoints
+    private static final List<Column> COLUMNS = List.of(
+            new Column("id", "f.id", Kind.TEXT),
+            new Column("licensePlate", "f.license_plate", Kind.TEXT),
+            new Column("status", "f.status", Kind.TEXT),
+            new Column("carModelPublicId", "cm.public_id", Kind.TEXT),
+            new Column("manufacturer", "cm.manufacturer", Kind.TEXT),
+            new Column("model", "cm.model", Kind.TEXT),
+            new Column("dailyPrice", "f.daily_price", Kind.NUMBER),
+            new Column("mileageKm", "f.mileage_km", Kind.NUMBER),
+            new Column("passengerCapacity", "f.passenger_capacity", Kind.NUMBER),
+            new Column("currentLocation", "f.current_location", Kind.TEXT),
+            new Column("chassisNumber", "f.chassis_number", Kind.TEXT),
+            new Column("engineNumber", "f.engine_number", Kind.TEXT),
+            new Column("insuranceReference", "f.insurance_reference", Kind.TEXT),
+            new Column("coeReference", "f.coe_reference", Kind.TEXT),
+            new Column("primaryColour", "f.primary_colour", Kind.TEXT),
+            new Column("secondaryColour", "f.secondary_colour", Kind.TEXT),
+            new Column("availableFrom", "f.available_from", Kind.TIMESTAMP),
+            new Column("availableUntil", "f.available_until", Kind.TIMESTAMP),
+            new Column("maintenanceNote", "f.maintenance_note", Kind.TEXT),
+            new Column("expectedReturnDate", "f.expected_return_date", Kind.TIMESTAMP),
+            new Column("createdAt", "f.created_at", Kind.TIMESTAMP),
+            new Column("lastUpdatedAt", "f.last_updated_at", Kind.TIMESTAMP));
+
+    private static final String EXPORT_SQL = "SELECT " +
+            COLUMNS.stream().map(Column::sql).collect(Collectors.joining(", ")) +
+            " FROM fleet_vehicles f " +
+            "JOIN car_models cm ON cm.id = f.car_model_id " +
+            "WHERE f.owner_id = ? " +
+            "ORDER BY f.license_plate";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${fleet.export.fetch-size:500}")
+    private int fetchSize;
+
+    public FleetExportService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Stream every vehicle of {@code ownerId} to {@code out}. Does not close
+     * the stream.
+     *
+     * @return vehicles written
+     */
+    @Transactional(readOnly = true, timeoutString = "${fleet.export.timeout-seconds:600}")
+    public long export(UUID ownerId, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        RowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+        long[] rows = { 0 };
+
+        try {
+            rowWriter.header();
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(EXPORT_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                statement.setObject(1, ownerId);
+                return statement;
+            }, (RowCallbackHandler) rs -> {
+                try {
+                    rowWriter.row(rs);
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // Client went away mid-export
+        }
+        writer.flush();
+
+        log.info("Exported {} vehicle(s) of owner {} as {}", rows[0], ownerId, format);
+        return rows[0];
+    }
+
+    private static Object value(ResultSet rs, int index, Column column) throws SQLException {
+        return switch (column.kind()) {
+            case TEXT -> rs.getString(index);
+            case NUMBER -> rs.getBigDecimal(index);
+            case TIMESTAMP -> rs.getObject(index, LocalDateTime.class);
+        };
+    }
+
+    private interface RowWriter {
+        void header() throws IOException;
+
+        void row(ResultSet rs) throws IOException, SQLException;
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+        private final Writer writer;
+        private final JsonGenerator json;
+
+        NdjsonRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            this.json = objectMapper.getFactory().createGenerator(writer)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        }
+
+        @Override
+        public void header() {
+        }
+
+        @Override
+        public void row(ResultSet rs) throws IOException, SQLException {
+            json.writeStartObject();
+            for (int i = 0; i < COLUMNS.size(); i++) {
+                Column column = COLUMNS.get(i);
+                Object value = value(rs, i + 1, column);
+                json.writeFieldName(column.name());
+                if (value == null) {
+                    json.writeNull();
+                } else if (value instanceof BigDecimal number) {
+                    json.writeNumber(number);
+                } else {
+                    json.writeString(value.toString());
+                }
+            }
+            json.writeEndObject();
+            json.flush(); // Into the buffered writer only
+            writer.write('\n');
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void header() throws IOException {
+            writer.write(COLUMNS.stream().map(Column::name).collect(Collectors.joining(",")));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void row(ResultSet rs) throws IOException, SQLException {
+            for (int i = 0; i < COLUMNS.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = value(rs, i + 1, COLUMNS.get(i));
+                if (value != null) {
+                    writer.write(escape(value instanceof BigDecimal number ? number.toPlainString() : value.toString()));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        // RFC 4180: quote fields containing a separator, quote or line break
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                    && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
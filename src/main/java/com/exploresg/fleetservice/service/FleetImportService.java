@@ -0,0 +1,404 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.dto.FleetImportResponse;
+import com.exploresg.fleetservice.dto.FleetImportResponse.RowError;
+import com.exploresg.fleetservice.event.FleetVehicleChangedEvent;
+import com.exploresg.fleetservice.exception.InvalidImportFileException;
+import com.exploresg.fleetservice.model.VehicleStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 📥 Bulk fleet import
+ *
+ * Onboards an operator's fleet from a CSV in the layout of
+ * data/delete/fleet.csv (header row, columns in any order): car_model_id,
+ * dailyPrice, licensePlate and status are required, the other FleetVehicle
+ * columns optional, dates as dd/MM/yyyy HH:mm (or ISO-8601). The ownerId
+ * column is ignored: vehicles always go to the authenticated operator.
+ *
+ * - The file is read and validated one record at a time; invalid rows are
+ * reported with their line number and skipped, never failing the file
+ * - Valid rows are inserted batch-size at a time through one batched
+ * INSERT ... ON CONFLICT DO NOTHING (rewritten into multi-row inserts by the
+ * driver, reWriteBatchedInserts), each batch committed on its own
+ * - Rows that clashed with an existing plate / chassis / engine number are
+ * found by checking which of the batch's ids landed
+ * - A batch the database rejects (one bad row fails them all) is retried row
+ * by row, so only the offending rows are reported
+ * - One FleetVehicleChangedEvent per committed batch keeps the in-memory
+ * views (availability index, dashboard, catalog) current
+ */
+@Service
+@Slf4j
+public class FleetImportService {
+
+    private static final DateTimeFormatter CSV_DATE_TIME = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final String CONFLICT_MESSAGE =
+            "Conflicts with an existing licensePlate, chassisNumber or engineNumber";
+
+    private static final List<String> REQUIRED_COLUMNS = List.of(
+            "car_model_id", "dailyPrice", "licensePlate", "status");
+
+    private static final String INSERT_SQL = "INSERT INTO fleet_vehicles (" +
+            "id, car_model_id, owner_id, daily_price, license_plate, status, mileage_km, current_location, " +
+            "available_from, available_until, maintenance_note, expected_return_date, chassis_number, " +
+            "engine_number, insurance_reference, coe_reference, primary_colour, secondary_colour, " +
+            "passenger_capacity, vehicle_attachment1, vehicle_attachment2, created_at, last_updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${fleet.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${fleet.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public FleetImportService(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Import every valid row of {@code csv} into {@code ownerId}'s fleet.
+     *
+     * @throws InvalidImportFileException if the header lacks a required
+     *                                    column or the file is not valid CSV
+     */
+    public FleetImportResponse importCsv(UUID ownerId, InputStream csv) {
+        long started = System.nanoTime();
+        CsvRecordReader reader = new CsvRecordReader(
+                new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8)));
+        Import state = new Import(ownerId);
+
+        try {
+            Map<String, Integer> header = readHeader(reader);
+            Set<Long> carModelIds = new HashSet<>(jdbcTemplate.queryForList("SELECT id FROM car_models", Long.class));
+            Set<String> seenPlates = new HashSet<>();
+
+            List<String> fields;
+            while ((fields = reader.next()) != null) {
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                state.totalRows++;
+                Row row = new Row(reader.recordLine(), header, fields);
+                try {
+                    ImportRow vehicle = row.toImportRow(carModelIds);
+                    if (!seenPlates.add(vehicle.licensePlate().toUpperCase(Locale.ROOT))) {
+                        throw new IllegalArgumentException("Duplicate licensePlate in file");
+                    }
+                    state.pending.add(vehicle);
+                } catch (IllegalArgumentException e) {
+                    state.fail(row.line, row.text("licensePlate"), e.getMessage());
+                }
+                if (state.pending.size() >= batchSize) {
+                    flush(state);
+                }
+            }
+            flush(state);
+        } catch (IOException e) {
+            flush(state);
+            throw new InvalidImportFileException(e.getMessage() + " (" + state.imported + " row(s) imported before)");
+        }
+
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        log.info("Imported {} of {} vehicle(s) for owner {} in {} ms", state.imported, state.totalRows, ownerId,
+                durationMs);
+        return FleetImportResponse.builder()
+                .totalRows(state.totalRows)
+                .importedRows(state.imported)
+                .failedRows(state.failed)
+                .durationMs(durationMs)
+                .errors(state.errors)
+                .errorsTruncated(state.failed > state.errors.size())
+                .build();
+    }
+
+    private Map<String, Integer> readHeader(CsvRecordReader reader) throws IOException {
+        List<String> columns = reader.next();
+        if (columns == null) {
+            throw new InvalidImportFileException("File is empty");
+        }
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            header.put(columns.get(i).trim().replace("\uFEFF", ""), i);
+        }
+        List<String> missing = REQUIRED_COLUMNS.stream().filter(c -> !header.containsKey(c)).toList();
+        if (!missing.isEmpty()) {
+            throw new InvalidImportFileException("Missing required column(s): " + String.join(", ", missing));
+        }
+        return header;
+    }
+
+    /**
+     * Insert the pending rows as one batch and report the ones that did not
+     * land. A failing batch is retried row by row, never rethrown.
+     */
+    private void flush(Import state) {
+        if (state.pending.isEmpty()) {
+            return;
+        }
+        List<ImportRow> batch = new ArrayList<>(state.pending);
+        state.pending.clear();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Map<UUID, String> rowFailures = new HashMap<>();
+
+        Set<UUID> landed;
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, row) -> bind(ps, row, state.ownerId, now));
+            landed = findExisting(batch);
+        } catch (DataAccessException e) {
+            log.warn("Import batch of {} row(s) failed, retrying row by row: {}", batch.size(),
+                    e.getMostSpecificCause().getMessage());
+            // Each retry commits on its own, so one bad row can't take the others down
+            landed = findExisting(batch);
+            for (ImportRow row : batch) {
+                if (landed.contains(row.id())) {
+                    continue;
+                }
+                try {
+                    if (jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, row, state.ownerId, now)) == 1) {
+                        landed.add(row.id());
+                    }
+                } catch (DataAccessException rowError) {
+                    rowFailures.put(row.id(), "Insert failed: " + rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+
+        List<UUID> inserted = new ArrayList<>(landed.size());
+        for (ImportRow row : batch) {
+            if (landed.contains(row.id())) {
+                inserted.add(row.id());
+            } else {
+                state.fail(row.line(), row.licensePlate(), rowFailures.getOrDefault(row.id(), CONFLICT_MESSAGE));
+            }
+        }
+        state.imported += inserted.size();
+        if (!inserted.isEmpty()) {
+            eventPublisher.publishEvent(new FleetVehicleChangedEvent(state.ownerId, inserted));
+        }
+    }
+
+    private static void bind(PreparedStatement ps, ImportRow row, UUID ownerId, Timestamp now) throws SQLException {
+        ps.setObject(1, row.id());
+        ps.setLong(2, row.carModelId());
+        ps.setObject(3, ownerId);
+        ps.setBigDecimal(4, row.dailyPrice());
+        ps.setString(5, row.licensePlate());
+        ps.setString(6, row.status().name());
+        ps.setObject(7, row.mileageKm(), Types.INTEGER);
+        ps.setString(8, row.currentLocation());
+        ps.setTimestamp(9, toTimestamp(row.availableFrom()));
+        ps.setTimestamp(10, toTimestamp(row.availableUntil()));
+        ps.setString(11, row.maintenanceNote());
+        ps.setTimestamp(12, toTimestamp(row.expectedReturnDate()));
+        ps.setString(13, row.chassisNumber());
+        ps.setString(14, row.engineNumber());
+        ps.setString(15, row.insuranceReference());
+        ps.setString(16, row.coeReference());
+        ps.setString(17, row.primaryColour());
+        ps.setString(18, row.secondaryColour());
+        ps.setObject(19, row.passengerCapacity(), Types.INTEGER);
+        ps.setString(20, row.vehicleAttachment1());
+        ps.setString(21, row.vehicleAttachment2());
+        ps.setTimestamp(22, now);
+        ps.setTimestamp(23, now);
+    }
+
+    private Set<UUID> findExisting(List<ImportRow> batch) {
+        String placeholders = String.join(",", Collections.nCopies(batch.size(), "?"));
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM fleet_vehicles WHERE id IN (" + placeholders + ")",
+                UUID.class, batch.stream().map(ImportRow::id).toArray()));
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime value) {
+        return value == null ? null : Timestamp.valueOf(value);
+    }
+
+    /** Running totals of one import; pending holds the next batch. */
+    private final class Import {
+        private final UUID ownerId;
+        private final List<ImportRow> pending = new ArrayList<>();
+        private final List<RowError> errors = new ArrayList<>();
+        private long totalRows;
+        private long imported;
+        private long failed;
+
+        Import(UUID ownerId) {
+            this.ownerId = ownerId;
+        }
+
+        void fail(int line, String licensePlate, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new RowError(line, licensePlate, message));
+            }
+        }
+    }
+
+    /** One CSV record, read through the header's column positions. */
+    private record Row(int line, Map<String, Integer> header, List<String> fields) {
+
+        String text(String column) {
+            Integer index = header.get(column);
+            if (index == null || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        String text(String column, int maxLength) {
+            String value = text(column);
+            if (value != null && value.length() > maxLength) {
+                throw new IllegalArgumentException(column + " is longer than " + maxLength + " characters");
+            }
+            return value;
+        }
+
+        String required(String column) {
+            String value = text(column, MAX_TEXT_LENGTH);
+            if (value == null) {
+                throw new IllegalArgumentException(column + " is required");
+            }
+            return value;
+        }
+
+        Integer integer(String column) {
+            String value = text(column);
+            try {
+                return value == null ? null : Integer.valueOf(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(column + " is not a whole number: " + value);
+            }
+        }
+
+        LocalDateTime dateTime(String column) {
+            String value = text(column);
+            if (value == null) {
+                return null;
+            }
+            try {
+                return LocalDateTime.parse(value, CSV_DATE_TIME);
+            } catch (DateTimeParseException e) {
+                try {
+                    return LocalDateTime.parse(value);
+                } catch (DateTimeParseException iso) {
+                    throw new IllegalArgumentException(column + " is not a dd/MM/yyyy HH:mm date: " + value);
+                }
+            }
+        }
+
+        ImportRow toImportRow(Set<Long> carModelIds) {
+            long carModelId;
+            try {
+                carModelId = Long.parseLong(required("car_model_id"));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("car_model_id is not a number: " + text("car_model_id"));
+            }
+            if (!carModelIds.contains(carModelId)) {
+                throw new IllegalArgumentException("Unknown car_model_id " + carModelId);
+            }
+
+            BigDecimal dailyPrice;
+            try {
+                dailyPrice = new BigDecimal(required("dailyPrice"));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("dailyPrice is not a number: " + text("dailyPrice"));
+            }
+            if (dailyPrice.signum() < 0) {
+                throw new IllegalArgumentException("dailyPrice must not be negative");
+            }
+
+            String statusText = required("status");
+            VehicleStatus status;
+            try {
+                status = VehicleStatus.valueOf(statusText.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown status " + statusText);
+            }
+
+            return new ImportRow(
+                    line,
+                    UUID.randomUUID(),
+                    carModelId,
+                    dailyPrice,
+                    required("licensePlate"),
+                    status,
+                    integer("mileageKm"),
+                    text("currentLocation", MAX_TEXT_LENGTH),
+                    dateTime("availableFrom"),
+                    dateTime("availableUntil"),
+                    text("maintenanceNote", 2048),
+                    dateTime("expectedReturnDate"),
+                    text("chassisNumber", MAX_TEXT_LENGTH),
+                    text("engineNumber", MAX_TEXT_LENGTH),
+                    text("insuranceReference", MAX_TEXT_LENGTH),
+                    text("coeReference", MAX_TEXT_LENGTH),
+                    text("primaryColour", MAX_TEXT_LENGTH),
+                    text("secondaryColour", MAX_TEXT_LENGTH),
+                    integer("passengerCapacity"),
+                    text("vehicleAttachment1", 1024),
+                    text("vehicleAttachment2", 1024));
+        }
+    }
+
+    /** A validated row, ready to insert */
+    private record ImportRow(
+            int line,
+            UUID id,
+            long carModelId,
+            BigDecimal dailyPrice,
+            String licensePlate,
+            VehicleStatus status,
+            Integer mileageKm,
+            String currentLocation,
+            LocalDateTime availableFrom,
+            LocalDateTime availableUntil,
+            String maintenanceNote,
+            LocalDateTime expectedReturnDate,
+            String chassisNumber,
+            String engineNumber,
+            String insuranceReference,
+            String coeReference,
+            String primaryColour,
+            String secondaryColour,
+            Integer passengerCapacity,
+            String vehicleAttachment1,
+            String vehicleAttachment2) {
+    }
+}
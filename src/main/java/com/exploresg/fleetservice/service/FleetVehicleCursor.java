@@ -0,0 +1,52 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.exception.InvalidPageCursorException;
+import com.exploresg.fleetservice.model.FleetVehicle;
+import com.exploresg.fleetservice.repository.FleetVehicleSearchRepository.KeysetSort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Continuation token of the keyset fleet listing: the sort it belongs to and
+ * the (sort value, id) of the last vehicle returned, as URL-safe Base64.
+ * Opaque to clients; only this class reads or writes the format.
+ */
+record FleetVehicleCursor(KeysetSort sort, boolean ascending, Object lastValue, UUID lastId) {
+
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "|";
+
+    static FleetVehicleCursor after(FleetVehicle vehicle, KeysetSort sort, boolean ascending) {
+        return new FleetVehicleCursor(sort, ascending, sort.valueOf(vehicle), vehicle.getId());
+    }
+
+    String encode() {
+        // Value last: it is the only part that may contain the separator
+        String token = String.join(SEPARATOR, VERSION, sort.name(), ascending ? "asc" : "desc",
+                lastId.toString(), String.valueOf(lastValue));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws InvalidPageCursorException if the token is malformed or was
+     *                                    issued for a different sort
+     */
+    static FleetVehicleCursor decode(String cursor, KeysetSort sort, boolean ascending) {
+        try {
+            String token = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = token.split("\\|", 5);
+            if (parts.length != 5 || !VERSION.equals(parts[0])) {
+                throw new InvalidPageCursorException("Unrecognised cursor");
+            }
+            if (!sort.name().equals(parts[1]) || ascending != "asc".equals(parts[2])) {
+                throw new InvalidPageCursorException("Cursor was issued for a different sort order");
+            }
+            return new FleetVehicleCursor(sort, ascending, sort.parse(parts[4]), UUID.fromString(parts[3]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidPageCursorException("Unrecognised cursor");
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.event.FleetVehicleChangedEvent;
+import com.exploresg.fleetservice.event.ReservationStateChangedEvent;
+import com.exploresg.fleetservice.model.VehicleBookingRecord.ReservationStatus;
+import com.exploresg.fleetservice.model.VehicleStatus;
+import com.exploresg.fleetservice.repository.FleetVehicleRepository;
+import com.exploresg.fleetservice.repository.VehicleBookingRecordRepository;
+import com.exploresg.fleetservice.repository.projection.BookingIntervalView;
+import com.exploresg.fleetservice.repository.projection.VehicleAllocationView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * 📉 Model Inventory Ledger
+ *
+ * Remaining capacity per car model per day: remaining[d] is the number of
+ * AVAILABLE vehicles of the model that are NOT booked for the whole of day d.
+ * When a day touched by a request has nothing remaining, every vehicle
+ * overlaps the request, so ReservationService can reject it in O(days) with
+ * no query and no row lock.
+ *
+ * The ledger only ever answers "certainly sold out"; everything else still
+ * goes through the database. To stay on the safe side:
+ * - Counters move after commit, from reservation and vehicle events of this
+ * replica, and every poll-ms from the rows changed since the last poll
+ * (last_updated_at), which covers the other replicas and the bulk paths; a
+ * sold-out answer is at most poll-ms behind the database
+ * - A model is not judged while one of its PENDING holds is past expiresAt
+ * but not released yet (bulk expiry paths publish no per-hold events)
+ * - Days outside the horizon are never judged
+ * - A rare full rebuild (reconcile-ms) drops whatever the polls cannot see,
+ * such as archived rows, and moves the horizon forward
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ModelInventoryLedger {
+
+    private final FleetVehicleRepository fleetVehicleRepository;
+    private final VehicleBookingRecordRepository bookingRecordRepository;
+
+    @Value("${booking.inventory.enabled:true}")
+    private boolean enabled;
+
+    @Value("${booking.inventory.horizon-days:30}")
+    private int horizonDays;
+
+    // Re-read window of each poll; longer than the reservation transaction
+    // timeout, so rows committed late with an older last_updated_at are seen
+    @Value("${booking.inventory.poll-lookback-ms:15000}")
+    private long pollLookbackMs;
+
+    // Start of the last successful rebuild or poll
+    private volatile LocalDateTime polledAt;
+
+    private final Object mutationLock = new Object();
+    private volatile Ledger ledger;
+
+    // Mutations received while a rebuild is loading; replayed onto the new ledger
+    private List<Consumer<Ledger>> replayLog;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Full rebuild from the database: drops rows the polls cannot see
+     * (archived or deleted) and moves the horizon forward.
+     */
+    @Scheduled(fixedDelayString = "${booking.inventory.reconcile-ms:3600000}", initialDelay = 3600000)
+    public void reconcile() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Apply the bookings and vehicles changed since the last poll, whichever
+     * replica or path changed them. Re-applying a row is harmless, so each
+     * poll re-reads a lookback window instead of tracking commit order.
+     */
+    @Scheduled(fixedDelayString = "${booking.inventory.poll-ms:1000}", initialDelay = 1000)
+    public void pollChanges() {
+        LocalDateTime since = polledAt;
+        if (!enabled || ledger == null || since == null) {
+            return;
+        }
+
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime from = since.minusNanos(pollLookbackMs * 1_000_000);
+            List<VehicleAllocationView> vehicles = fleetVehicleRepository.findAllocationViewsUpdatedSince(from);
+            List<BookingIntervalView> intervals = bookingRecordRepository.findBookingIntervalsUpdatedSince(from);
+
+            mutate(l -> {
+                vehicles.forEach(l::upsertVehicle);
+                intervals.forEach(view -> l.applyInterval(view, now));
+            });
+            polledAt = now;
+
+            if (!vehicles.isEmpty() || !intervals.isEmpty()) {
+                log.debug("Model inventory ledger polled: {} vehicle(s), {} booking(s)", vehicles.size(),
+                        intervals.size());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to poll model inventory ledger changes: {}", e.getMessage());
+        }
+    }
+
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        synchronized (mutationLock) {
+            replayLog = new ArrayList<>();
+        }
+
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Ledger fresh = new Ledger(now.toLocalDate(), horizonDays);
+            fleetVehicleRepository.findAllAllocationViews().forEach(fresh::upsertVehicle);
+            bookingRecordRepository.findActiveBookingIntervals(now)
+                    .forEach(view -> fresh.applyInterval(view, now));
+
+            synchronized (mutationLock) {
+                replayLog.forEach(op -> op.accept(fresh));
+                ledger = fresh;
+            }
+            polledAt = now;
+
+            log.debug("Model inventory ledger rebuilt: {} models in {}ms", fresh.models.size(),
+                    System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.error("Failed to rebuild model inventory ledger: {}", e.getMessage(), e);
+        } finally {
+            synchronized (mutationLock) {
+                replayLog = null;
+            }
+        }
+    }
+
+    /**
+     * Whether the model certainly has no vehicle free for [startDate, endDate).
+     * False whenever the ledger cannot tell (disabled, not built, unknown model,
+     * unreleased expired hold, outside the horizon).
+     */
+    public boolean isSoldOut(UUID modelPublicId, LocalDateTime startDate, LocalDateTime endDate) {
+        Ledger current = ledger;
+        if (!enabled || current == null) {
+            return false;
+        }
+        return current.isSoldOut(modelPublicId, startDate, endDate, LocalDateTime.now());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationStateChanged(ReservationStateChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (event.isActive()) {
+            Interval interval = new Interval(event.getBookingStartDate(), event.getBookingEndDate(),
+                    event.getStatus(), event.getExpiresAt());
+            mutate(l -> l.putInterval(event.getVehicleId(), event.getReservationId(), interval));
+        } else {
+            mutate(l -> l.removeInterval(event.getReservationId()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFleetVehicleChanged(FleetVehicleChangedEvent event) {
+        if (!enabled || event.getVehicleIds().isEmpty()) {
+            return;
+        }
+        List<VehicleAllocationView> views = fleetVehicleRepository.findAllocationViewsByIdIn(event.getVehicleIds());
+        mutate(l -> views.forEach(l::upsertVehicle));
+    }
+
+    private void mutate(Consumer<Ledger> op) {
+        synchronized (mutationLock) {
+            if (ledger != null) {
+                op.accept(ledger);
+            }
+            if (replayLog != null) {
+                replayLog.add(op);
+            }
+        }
+    }
+
+    /**
+     * One generation of the ledger. Mutated under mutationLock only; counters
+     * are read lock-free.
+     */
+    static final class Ledger {
+        private final LocalDate baseDate;
+        private final int days;
+        private final Map<UUID, ModelInventory> models = new ConcurrentHashMap<>();
+        private final Map<UUID, VehicleState> vehicles = new HashMap<>();
+        private final Map<UUID, UUID> vehicleByReservation = new HashMap<>();
+
+        Ledger(LocalDate baseDate, int days) {
+            this.baseDate = baseDate;
+            this.days = days;
+        }
+
+        boolean isSoldOut(UUID modelPublicId, LocalDateTime startDate, LocalDateTime endDate, LocalDateTime now) {
+            ModelInventory model = models.get(modelPublicId);
+            if (model == null) {
+                return false;
+            }
+            LocalDateTime nextHoldExpiry = model.nextHoldExpiry;
+            if (nextHoldExpiry != null && !nextHoldExpiry.isAfter(now)) {
+                return false;
+            }
+
+            int first = Math.max(0, dayIndex(startDate));
+            int last = Math.min(days - 1, dayIndex(endDate.minusNanos(1)));
+            for (int day = first; day <= last; day++) {
+                if (model.remaining.get(day) == 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void upsertVehicle(VehicleAllocationView view) {
+            VehicleState vehicle = vehicles.get(view.getVehicleId());
+            if (vehicle != null && !vehicle.model.modelPublicId.equals(view.getModelPublicId())) {
+                // Moved to another model: withdraw it from the old one first
+                vehicle.available = false;
+                refresh(vehicle);
+                vehicle.model.vehicles.remove(vehicle.vehicleId);
+                vehicle = new VehicleState(vehicle.vehicleId, model(view.getModelPublicId()), days,
+                        vehicle.intervals);
+                vehicles.put(vehicle.vehicleId, vehicle);
+            } else if (vehicle == null) {
+                vehicle = new VehicleState(view.getVehicleId(), model(view.getModelPublicId()), days,
+                        new HashMap<>());
+                vehicles.put(vehicle.vehicleId, vehicle);
+            }
+            vehicle.model.vehicles.put(vehicle.vehicleId, vehicle);
+            vehicle.available = view.getStatus() == VehicleStatus.AVAILABLE;
+            refresh(vehicle);
+        }
+
+        void putInterval(UUID vehicleId, UUID reservationId, Interval interval) {
+            VehicleState vehicle = vehicles.get(vehicleId);
+            if (vehicle == null) {
+                // Unknown vehicle (e.g. inserted outside the service); the next rebuild picks it up
+                return;
+            }
+            vehicle.intervals.put(reservationId, interval);
+            vehicleByReservation.put(reservationId, vehicleId);
+            refresh(vehicle);
+        }
+
+        /**
+         * Put the booking if it still occupies its vehicle, remove it otherwise.
+         */
+        void applyInterval(BookingIntervalView view, LocalDateTime now) {
+            ReservationStatus status = view.getReservationStatus();
+            boolean active = (status == ReservationStatus.CONFIRMED || status == ReservationStatus.PENDING)
+                    && view.getBookingEndDate().isAfter(now);
+            if (active) {
+                putInterval(view.getVehicleId(), view.getReservationId(), new Interval(view.getBookingStartDate(),
+                        view.getBookingEndDate(), status, view.getExpiresAt()));
+            } else {
+                removeInterval(view.getReservationId());
+            }
+        }
+
+        void removeInterval(UUID reservationId) {
+            UUID vehicleId = vehicleByReservation.remove(reservationId);
+            VehicleState vehicle = vehicleId != null ? vehicles.get(vehicleId) : null;
+            if (vehicle != null && vehicle.intervals.remove(reservationId) != null) {
+                refresh(vehicle);
+            }
+        }
+
+        private ModelInventory model(UUID modelPublicId) {
+            return models.computeIfAbsent(modelPublicId, id -> new ModelInventory(id, days));
+        }
+
+        /**
+         * Recompute the vehicle's free days and apply the difference to its
+         * model's counters.
+         */
+        private void refresh(VehicleState vehicle) {
+            boolean[] free = vehicle.available ? freeDays(vehicle) : new boolean[days];
+            ModelInventory model = vehicle.model;
+            for (int day = 0; day < days; day++) {
+                if (free[day] != vehicle.freeDays[day]) {
+                    model.remaining.addAndGet(day, free[day] ? 1 : -1);
+                }
+            }
+            vehicle.freeDays = free;
+            model.nextHoldExpiry = model.vehicles.values().stream()
+                    .flatMap(v -> v.intervals.values().stream())
+                    .filter(i -> i.status() == ReservationStatus.PENDING && i.expiresAt() != null)
+                    .map(Interval::expiresAt)
+                    .min(Comparator.naturalOrder())
+                    .orElse(null);
+        }
+
+        /**
+         * Days not entirely covered by the union of the vehicle's bookings.
+         */
+        private boolean[] freeDays(VehicleState vehicle) {
+            boolean[] free = new boolean[days];
+            Arrays.fill(free, true);
+
+            List<Interval> sorted = new ArrayList<>(vehicle.intervals.values());
+            sorted.sort(Comparator.comparing(Interval::bookingStartDate));
+
+            LocalDateTime coveredFrom = null;
+            LocalDateTime coveredTo = null;
+            for (Interval interval : sorted) {
+                if (coveredTo != null && !interval.bookingStartDate().isAfter(coveredTo)) {
+                    if (interval.bookingEndDate().isAfter(coveredTo)) {
+                        coveredTo = interval.bookingEndDate();
+                    }
+                    continue;
+                }
+                markFullDays(free, coveredFrom, coveredTo);
+                coveredFrom = interval.bookingStartDate();
+                coveredTo = interval.bookingEndDate();
+            }
+            markFullDays(free, coveredFrom, coveredTo);
+            return free;
+        }
+
+        private void markFullDays(boolean[] free, LocalDateTime from, LocalDateTime to) {
+            if (from == null) {
+                return;
+            }
+            // First day starting at or after `from`, last day ending at or before `to`
+            int first = dayIndex(from) + (from.toLocalTime().equals(LocalTime.MIDNIGHT) ? 0 : 1);
+            int end = dayIndex(to);
+            for (int day = Math.max(0, first); day < Math.min(days, end); day++) {
+                free[day] = false;
+            }
+        }
+
+        private int dayIndex(LocalDateTime dateTime) {
+            return (int) ChronoUnit.DAYS.between(baseDate, dateTime.toLocalDate());
+        }
+    }
+
+    private static final class ModelInventory {
+        private final UUID modelPublicId;
+        private final AtomicLongArray remaining;
+        private final Map<UUID, VehicleState> vehicles = new HashMap<>();
+        // Earliest expiresAt among the model's PENDING holds; past it the counters may be low
+        private volatile LocalDateTime nextHoldExpiry;
+
+        ModelInventory(UUID modelPublicId, int days) {
+            this.modelPublicId = modelPublicId;
+            this.remaining = new AtomicLongArray(days);
+        }
+    }
+
+    private static final class VehicleState {
+        private final UUID vehicleId;
+        private final ModelInventory model;
+        private final Map<UUID, Interval> intervals;
+        private boolean available;
+        private boolean[] freeDays;
+
+        VehicleState(UUID vehicleId, ModelInventory model, int days, Map<UUID, Interval> intervals) {
+            this.vehicleId = vehicleId;
+            this.model = model;
+            this.intervals = intervals;
+            this.freeDays = new boolean[days];
+        }
+    }
+
+    record Interval(LocalDateTime bookingStartDate, LocalDateTime bookingEndDate, ReservationStatus status,
+            LocalDateTime expiresAt) {
+    }
+}
@@ -0,0 +1,238 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.exception.ReservationAdmissionTimeoutException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 🚦 Per-model Reservation Admission
+ *
+ * Bounds how many reservation requests for the same car model allocate at
+ * once. During a flash sale, hundreds of requests for one model would
+ * otherwise all open a transaction, scan the same candidate rows and skip
+ * each other's locks, burning database CPU and pool connections.
+ *
+ * - One fair semaphore per model: excess requests queue in arrival order
+ * - The limit follows the model's AVAILABLE vehicle count from the
+ * availability index (at least 1, at most max-concurrency-per-model)
+ * - A request that waits longer than max-wait-ms is rejected with 503
+ * - Gates (and their meters) exist only for models the availability index
+ * knows; other ids pass straight through, and fail in the allocation as
+ * before. A gate idle for idle-evict-ms is dropped again
+ *
+ * Runs before the reservation transaction starts, so queued requests hold no
+ * database connection.
+ */
+@Component
+@Slf4j
+public class ReservationAdmissionControl {
+
+    private static final long RESIZE_INTERVAL_MS = 1000;
+
+    private final VehicleAvailabilityIndex availabilityIndex;
+    private final MeterRegistry meterRegistry;
+    private final Map<UUID, ModelGate> gates = new ConcurrentHashMap<>();
+
+    @Value("${booking.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${booking.admission.max-concurrency-per-model:8}")
+    private int maxConcurrency;
+
+    @Value("${booking.admission.max-wait-ms:2000}")
+    private long maxWaitMs;
+
+    @Value("${booking.admission.idle-evict-ms:300000}")
+    private long idleEvictMs;
+
+    public ReservationAdmissionControl(VehicleAvailabilityIndex availabilityIndex, MeterRegistry meterRegistry) {
+        this.availabilityIndex = availabilityIndex;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Run {@code action} once the model has a free slot.
+     *
+     * @throws ReservationAdmissionTimeoutException if no slot frees up within
+     *                                              max-wait-ms
+     */
+    public <T> T admit(UUID modelPublicId, Supplier<T> action) {
+        if (!enabled || !availabilityIndex.isKnownModel(modelPublicId)) {
+            return action.get();
+        }
+
+        // users is only touched inside compute, so eviction never drops a gate in use
+        ModelGate gate = gates.compute(modelPublicId, (id, existing) -> {
+            ModelGate g = existing != null ? existing : newGate(id);
+            g.users++;
+            return g;
+        });
+        try {
+            gate.resizeIfDue();
+            return admit(gate, action);
+        } finally {
+            gates.computeIfPresent(modelPublicId, (id, g) -> {
+                g.users--;
+                g.lastUsedAt = System.currentTimeMillis();
+                return g;
+            });
+        }
+    }
+
+    /**
+     * Drop gates unused for idle-evict-ms, together with their meters.
+     */
+    @Scheduled(fixedDelayString = "${booking.admission.idle-evict-ms:300000}", initialDelay = 60000)
+    public void evictIdleGates() {
+        long cutoff = System.currentTimeMillis() - idleEvictMs;
+        gates.keySet().forEach(id -> gates.computeIfPresent(id, (key, gate) -> {
+            if (gate.users > 0 || gate.lastUsedAt > cutoff) {
+                return gate;
+            }
+            gate.meters.forEach(meterRegistry::remove);
+            return null;
+        }));
+    }
+
+    private <T> T admit(ModelGate gate, Supplier<T> action) {
+        UUID modelPublicId = gate.modelPublicId;
+
+        long started = System.nanoTime();
+        boolean admitted;
+        try {
+            admitted = gate.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        long waitedNanos = System.nanoTime() - started;
+        (admitted ? gate.admittedWait : gate.timedOutWait).record(waitedNanos, TimeUnit.NANOSECONDS);
+
+        if (!admitted) {
+            log.warn("Reservation admission timed out for model {} ({} queued, limit {})",
+                    modelPublicId, gate.getQueueLength(), gate.limit);
+            throw new ReservationAdmissionTimeoutException(modelPublicId,
+                    TimeUnit.NANOSECONDS.toMillis(waitedNanos));
+        }
+
+        try {
+            return action.get();
+        } finally {
+            gate.release();
+        }
+    }
+
+    private ModelGate newGate(UUID modelPublicId) {
+        ModelGate gate = new ModelGate(modelPublicId, targetLimit(modelPublicId));
+        String model = modelPublicId.toString();
+        Gauge queueDepth = Gauge.builder("booking.admission.queue.depth", gate, ModelGate::getQueueLength)
+                .description("Reservation requests waiting for an admission slot")
+                .tag("model", model)
+                .register(meterRegistry);
+        Gauge limit = Gauge.builder("booking.admission.limit", gate, g -> g.limit)
+                .description("Concurrent reservation requests allowed per model")
+                .tag("model", model)
+                .register(meterRegistry);
+        gate.admittedWait = waitTimer(model, "admitted");
+        gate.timedOutWait = waitTimer(model, "timed_out");
+        gate.meters = List.of(queueDepth, limit, gate.admittedWait, gate.timedOutWait);
+        return gate;
+    }
+
+    private Timer waitTimer(String model, String outcome) {
+        return Timer.builder("booking.admission.wait")
+                .description("Time reservation requests waited for an admission slot")
+                .tag("model", model)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private int targetLimit(UUID modelPublicId) {
+        int available = availabilityIndex.countAvailableVehicles(modelPublicId);
+        if (available < 0) {
+            return maxConcurrency; // Index not built: don't guess low
+        }
+        return Math.max(1, Math.min(maxConcurrency, available));
+    }
+
+    /**
+     * Fair semaphore whose number of permits can follow the fleet size.
+     */
+    private final class ModelGate extends Semaphore {
+        private final UUID modelPublicId;
+        private volatile int limit;
+        private volatile long resizedAt;
+        private Timer admittedWait;
+        private Timer timedOutWait;
+        private List<Meter> meters;
+        // Requests inside admit(); guarded by the gates map's per-key lock
+        private int users;
+        private volatile long lastUsedAt;
+        // Permits still to take back after a shrink; paid off by the next
+        // releases instead of pushing available permits below zero. Guarded by this
+        private int debt;
+
+        ModelGate(UUID modelPublicId, int limit) {
+            super(limit, true);
+            this.modelPublicId = modelPublicId;
+            this.limit = limit;
+            this.resizedAt = System.currentTimeMillis();
+            this.lastUsedAt = resizedAt;
+        }
+
+        void resizeIfDue() {
+            long now = System.currentTimeMillis();
+            if (now - resizedAt < RESIZE_INTERVAL_MS) {
+                return;
+            }
+            synchronized (this) {
+                if (now - resizedAt < RESIZE_INTERVAL_MS) {
+                    return;
+                }
+                resizedAt = now;
+                int target = targetLimit(modelPublicId);
+                int delta = target - limit;
+                if (delta > 0) {
+                    int repaid = Math.min(delta, debt);
+                    debt -= repaid;
+                    if (delta > repaid) {
+                        super.release(delta - repaid);
+                    }
+                } else if (delta < 0) {
+                    // Take back free permits now, the rest as holders finish
+                    int owed = -delta;
+                    while (owed > 0 && tryAcquire()) {
+                        owed--;
+                    }
+                    debt += owed;
+                }
+                limit = target;
+            }
+        }
+
+        @Override
+        public void release() {
+            synchronized (this) {
+                if (debt > 0) {
+                    debt--;
+                    return;
+                }
+            }
+            super.release();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.repository.VehicleBookingRecordRepository;
+import com.exploresg.fleetservice.service.SchedulerLockService.SchedulerLease;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 🗄️ Reservation Archival
+ *
+ * Keeps vehicle_booking_records down to the rows that still matter for
+ * allocation. Every night (ReservationCleanupScheduler, on one replica) it
+ * moves finished rows into vehicle_booking_records_archive:
+ * - CANCELLED / EXPIRED rows not touched for retention-days
+ * - CONFIRMED rows whose booking ended more than retention-days ago
+ *
+ * The archive is range-partitioned by booking_end_date, one partition per
+ * month (created here before rows land in it), so lookups bounded by
+ * booking_end_date only read the months they need. Rows move in batches of
+ * batch-size, each a single DELETE ... RETURNING / INSERT statement fenced
+ * by the job's scheduler lease.
+ *
+ * Months older than detach-after-months are detached from the archive and
+ * left as standalone tables (vehicle_booking_records_archive_yYYYYmMM). With
+ * cold storage enabled, each detached table is then exported to a segment
+ * file (BookingColdStorage) and dropped.
+ */
+@Component
+@Slf4j
+public class ReservationArchiver {
+
+    static final String ARCHIVE_TABLE = "vehicle_booking_records_archive";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'y'yyyy'm'MM");
+    private static final Pattern PARTITION_NAME = Pattern.compile(ARCHIVE_TABLE + "_y(\\d{4})m(\\d{2})");
+
+    private final VehicleBookingRecordRepository bookingRecordRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final BookingColdStorage coldStorage;
+    private final Counter archivedRows;
+
+    @Value("${booking.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${booking.archive.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${booking.archive.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${booking.archive.detach-after-months:12}")
+    private int detachAfterMonths;
+
+    public ReservationArchiver(
+            VehicleBookingRecordRepository bookingRecordRepository,
+            JdbcTemplate jdbcTemplate,
+            BookingColdStorage coldStorage,
+            MeterRegistry meterRegistry) {
+        this.bookingRecordRepository = bookingRecordRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.coldStorage = coldStorage;
+        this.archivedRows = Counter.builder("booking.archive.rows")
+                .description("Booking records moved to the archive table")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Move archivable rows into the archive, then detach aged partitions.
+     *
+     * @return rows moved
+     */
+    public long archive(SchedulerLease lease) {
+        if (!enabled) {
+            return 0;
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        List<Date> months = bookingRecordRepository.findArchivableMonths(cutoff);
+        months.forEach(month -> ensurePartition(YearMonth.from(month.toLocalDate())));
+
+        long moved = 0;
+        int batch;
+        do {
+            batch = bookingRecordRepository.moveArchivableBatch(cutoff, batchSize,
+                    lease.lockName(), lease.fencingToken());
+            moved += batch;
+            archivedRows.increment(batch);
+        } while (batch == batchSize);
+
+        int detached = detachAgedPartitions();
+        log.info("Archived {} booking record(s) across {} month(s), detached {} partition(s)",
+                moved, months.size(), detached);
+
+        if (coldStorage.isEnabled()) {
+            exportDetachedPartitions();
+        }
+        return moved;
+    }
+
+    private void ensurePartition(YearMonth month) {
+        LocalDate from = month.atDay(1);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month)
+                + " PARTITION OF " + ARCHIVE_TABLE
+                + " FOR VALUES FROM ('" + from + "') TO ('" + from.plusMonths(1) + "')");
+    }
+
+    private int detachAgedPartitions() {
+        YearMonth oldestKept = YearMonth.now().minusMonths(detachAfterMonths);
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                        "JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "WHERE i.inhparent = CAST(? AS regclass)",
+                String.class, ARCHIVE_TABLE);
+
+        int detached = 0;
+        for (String partition : partitions) {
+            // Empty for the default partition
+            Optional<YearMonth> month = partitionMonth(partition);
+            if (month.isPresent() && month.get().isBefore(oldestKept)) {
+                jdbcTemplate.execute("ALTER TABLE " + ARCHIVE_TABLE + " DETACH PARTITION " + partition);
+                log.info("Detached archive partition {}", partition);
+                detached++;
+            }
+        }
+        return detached;
+    }
+
+    /**
+     * Export every detached month table (including ones left by an earlier
+     * failed run) to cold storage, dropping each once its segment is written.
+     */
+    private void exportDetachedPartitions() {
+        List<String> tables = jdbcTemplate.queryForList(
+                "SELECT relname FROM pg_class " +
+                        "WHERE relkind = 'r' AND NOT relispartition AND relname LIKE ?",
+                String.class, ARCHIVE_TABLE + "\\_y%");
+
+        for (String table : tables) {
+            Optional<YearMonth> month = partitionMonth(table);
+            if (month.isEmpty()) {
+                continue;
+            }
+            try {
+                coldStorage.exportPartition(table, month.get());
+                jdbcTemplate.execute("DROP TABLE " + table);
+            } catch (Exception e) {
+                log.error("Could not move {} to cold storage, keeping the table: {}", table, e.getMessage(), e);
+            }
+        }
+    }
+
+    static String partitionName(YearMonth month) {
+        return ARCHIVE_TABLE + "_" + month.format(PARTITION_SUFFIX);
+    }
+
+    /**
+     * Month of a table named by partitionName, empty for any other table.
+     */
+    static Optional<YearMonth> partitionMonth(String table) {
+        Matcher matcher = PARTITION_NAME.matcher(table);
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        int month = Integer.parseInt(matcher.group(2));
+        if (month < 1 || month > 12) {
+            return Optional.empty();
+        }
+        return Optional.of(YearMonth.of(Integer.parseInt(matcher.group(1)), month));
+    }
+}
@@ -5,8 +5,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 /**
@@ -21,7 +21,17 @@ import java.time.LocalDateTime;
  * - Close browser during payment
  * - Take too long to complete payment
  * 
- * Expired reservations automatically free up the vehicle for other users.
+ * Availability checks already treat PENDING holds past expires_at as free, so
+ * vehicles are back on sale the moment a hold expires; this job only flips the
+ * stored status to EXPIRED so the records stay truthful.
+ * 
+ * ReservationExpiryEngine normally expires holds within a second of their
+ * deadline; this poll is the safety net for anything it missed (e.g. holds
+ * created by a replica that restarted before they were due).
+ * 
+ * With several replicas, the bulk UPDATE and the archival run on one pod per
+ * tick (SchedulerLockService); each pod still releases the expired holds
+ * from its own availability index.
  * 
  * Note: Changed from 10s to 5 minutes (300s) to reduce:
  * - Database query load (from 360/hour to 12/hour)
@@ -33,7 +43,13 @@ import java.time.LocalDateTime;
 @Slf4j
 public class ReservationCleanupScheduler {
 
+    private static final String CLEANUP_LOCK = "reservation-cleanup";
+    private static final String ARCHIVE_LOCK = "reservation-archive";
+
     private final VehicleBookingRecordRepository bookingRecordRepository;
+    private final VehicleAvailabilityIndex availabilityIndex;
+    private final SchedulerLockService schedulerLock;
+    private final ReservationArchiver reservationArchiver;
 
     /**
      * Cleanup expired PENDING reservations
@@ -44,7 +60,8 @@ public class ReservationCleanupScheduler {
      * This ensures expired reservations are cleaned up within reasonable time:
      * - Reservation expires at T+5 minutes (300s)
      * - Cleanup runs at most every 5 minutes
-     * - Expired reservations freed up within 5-10 minutes max
+     * - Expired reservations marked EXPIRED within 5-10 minutes max
+     * (the vehicle itself is bookable again right at expiry)
      * 
      * Memory optimization: Reduced from 10s to 5 minutes
      * - Query reduction: 360/hour → 12/hour (97% reduction)
@@ -54,21 +71,26 @@ public class ReservationCleanupScheduler {
      * Startup optimization: Delayed to 2 minutes after app start
      * - Prevents additional DB load during critical startup phase
      * - Allows liveness/readiness probes to pass first
+     * 
+     * Lease held at least 4 minutes, so other replicas skip this tick
      */
     @Scheduled(fixedDelay = 300000, initialDelay = 120000)
-    @Transactional
     public void cleanupExpiredReservations() {
         try {
             LocalDateTime now = LocalDateTime.now();
+            availabilityIndex.releaseExpiredHolds(now);
 
-            // Bulk update all expired PENDING reservations to EXPIRED
-            int expiredCount = bookingRecordRepository.expirePendingReservations(now);
+            schedulerLock.runExclusively(CLEANUP_LOCK, Duration.ofMinutes(2), Duration.ofMinutes(4), lease -> {
+                // Bulk update all expired PENDING reservations to EXPIRED
+                int expiredCount = bookingRecordRepository.expirePendingReservations(
+                        now, lease.lockName(), lease.fencingToken());
 
-            if (expiredCount > 0) {
-                log.info("Expired {} PENDING reservation(s) at {}", expiredCount, now);
-            } else {
-                log.debug("No expired reservations found at {}", now);
-            }
+                if (expiredCount > 0) {
+                    log.info("Expired {} PENDING reservation(s) at {}", expiredCount, now);
+                } else {
+                    log.debug("No expired reservations found at {}", now);
+                }
+            });
 
         } catch (Exception e) {
             // Log error but don't stop the scheduler
@@ -77,18 +99,18 @@ public class ReservationCleanupScheduler {
     }
 
     /**
-     * Optional: Cleanup very old CANCELLED/EXPIRED records (run daily)
+     * Archive old CANCELLED/EXPIRED and finished CONFIRMED records (run daily)
      * 
-     * This is for housekeeping - removes records older than 30 days
-     * to keep the table size manageable.
+     * This is for housekeeping - moves records older than 30 days into the
+     * monthly-partitioned archive table (ReservationArchiver) to keep the
+     * table size manageable.
      */
     @Scheduled(cron = "0 0 2 * * *") // Run at 2 AM daily
-    @Transactional
     public void archiveOldReservations() {
         try {
-            // TODO: Implement archival if needed
-            // Could move old records to an archive table or delete them
             log.debug("Running daily archival job");
+            schedulerLock.runExclusively(ARCHIVE_LOCK, Duration.ofMinutes(10), Duration.ofHours(1),
+                    reservationArchiver::archive);
 
         } catch (Exception e) {
             log.error("Error during reservation archival: {}", e.getMessage(), e);
@@ -0,0 +1,185 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.dto.CreateTemporaryReservationRequest;
+import com.exploresg.fleetservice.dto.TemporaryReservationResponse;
+import com.exploresg.fleetservice.exception.NoVehicleAvailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 🧺 Reservation Request Coalescing
+ *
+ * Front door for temporary reservations. In coalescing mode
+ * (booking.allocation.coalescing.enabled=true), requests for the same model
+ * and dates that arrive within window-ms of each other are collected and
+ * served by ReservationService.createTemporaryReservationsCoalesced: one
+ * locking query and one batched insert for the whole group instead of one
+ * transaction per request. Each caller still gets its own response or
+ * exception.
+ *
+ * A batch is flushed when the window closes or when it reaches max-batch.
+ * With coalescing off, requests go straight to createTemporaryReservation.
+ *
+ * booking.reservation.allocation (tagged mode=direct|coalesced) times both
+ * paths, so the two modes can be compared under the same load.
+ */
+@Component
+@Slf4j
+public class ReservationCoalescer {
+
+    private final ReservationService reservationService;
+    private final Timer directTimer;
+    private final Timer coalescedTimer;
+    private final Map<BatchKey, Batch> openBatches = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    @Value("${booking.allocation.coalescing.enabled:false}")
+    private boolean enabled;
+
+    @Value("${booking.allocation.coalescing.window-ms:5}")
+    private long windowMs;
+
+    @Value("${booking.allocation.coalescing.max-batch:16}")
+    private int maxBatch;
+
+    public ReservationCoalescer(ReservationService reservationService, MeterRegistry meterRegistry) {
+        this.reservationService = reservationService;
+        this.directTimer = allocationTimer(meterRegistry, "direct");
+        this.coalescedTimer = allocationTimer(meterRegistry, "coalesced");
+        this.flusher = Executors.newScheduledThreadPool(
+                Math.max(2, Runtime.getRuntime().availableProcessors()), r -> {
+                    Thread thread = new Thread(r, "reservation-coalescer");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    private static Timer allocationTimer(MeterRegistry meterRegistry, String mode) {
+        return Timer.builder("booking.reservation.allocation")
+                .description("End-to-end time to create a temporary reservation")
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Create a temporary reservation, coalesced with concurrent identical
+     * requests when enabled.
+     */
+    public TemporaryReservationResponse reserve(CreateTemporaryReservationRequest request) {
+        if (!enabled) {
+            return directTimer.record(() -> reservationService.createTemporaryReservation(request));
+        }
+        return coalescedTimer.record(() -> reserveCoalesced(request));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+    }
+
+    private TemporaryReservationResponse reserveCoalesced(CreateTemporaryReservationRequest request) {
+        BatchKey key = new BatchKey(request.getModelPublicId(), request.getStartDate(), request.getEndDate());
+
+        CompletableFuture<TemporaryReservationResponse> result = null;
+        while (result == null) {
+            // null when the batch was sealed between lookup and join: open a new one
+            result = openBatches.computeIfAbsent(key, this::openBatch).join(request.getBookingId());
+        }
+
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private Batch openBatch(BatchKey key) {
+        Batch batch = new Batch(key);
+        flusher.schedule(() -> {
+            if (batch.seal()) {
+                batch.flush();
+            }
+        }, windowMs, TimeUnit.MILLISECONDS);
+        return batch;
+    }
+
+    private record BatchKey(UUID modelPublicId, LocalDateTime startDate, LocalDateTime endDate) {
+    }
+
+    /**
+     * Requests collected for one key during one window. Sealed exactly once,
+     * after which nobody can join and it is flushed.
+     */
+    private final class Batch {
+        private final BatchKey key;
+        // By booking id: a retried request joins the original's future
+        private final Map<UUID, CompletableFuture<TemporaryReservationResponse>> waiters = new LinkedHashMap<>();
+        private boolean sealed;
+
+        Batch(BatchKey key) {
+            this.key = key;
+        }
+
+        synchronized CompletableFuture<TemporaryReservationResponse> join(UUID bookingId) {
+            if (sealed) {
+                return null;
+            }
+            CompletableFuture<TemporaryReservationResponse> future = waiters.computeIfAbsent(bookingId,
+                    id -> new CompletableFuture<>());
+            if (waiters.size() >= maxBatch && seal()) {
+                flusher.execute(this::flush);
+            }
+            return future;
+        }
+
+        synchronized boolean seal() {
+            if (sealed) {
+                return false;
+            }
+            sealed = true;
+            openBatches.remove(key, this);
+            return true;
+        }
+
+        void flush() {
+            try {
+                ReservationService.CoalescedReservations result = reservationService
+                        .createTemporaryReservationsCoalesced(key.modelPublicId(), key.startDate(), key.endDate(),
+                                waiters.keySet());
+                waiters.forEach((bookingId, future) -> {
+                    TemporaryReservationResponse response = result.responses().get(bookingId);
+                    if (response != null) {
+                        future.complete(response);
+                    } else if (result.conflicts().contains(bookingId)) {
+                        future.completeExceptionally(ReservationService.severalHolds(bookingId));
+                    } else {
+                        future.completeExceptionally(new NoVehicleAvailableException(key.modelPublicId(),
+                                "No vehicles available for the requested dates"));
+                    }
+                });
+            } catch (RuntimeException | Error e) {
+                log.warn("Coalesced reservation batch of {} failed for model {}: {}", waiters.size(),
+                        key.modelPublicId(), e.getMessage());
+                waiters.values().forEach(future -> future.completeExceptionally(e));
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.event.ReservationStateChangedEvent;
+import com.exploresg.fleetservice.model.VehicleBookingRecord.ReservationStatus;
+import com.exploresg.fleetservice.repository.VehicleBookingRecordRepository;
+import com.exploresg.fleetservice.repository.projection.BookingIntervalView;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ⏱️ Reservation Expiry Engine
+ *
+ * Expires PENDING holds within about a second of their expiresAt, instead of
+ * waiting for the 5-minute cleanup poll.
+ *
+ * How it works:
+ * - A DelayQueue holds one deadline per PENDING reservation
+ * - Seeded from the database once the application is ready
+ * - Fed by every committed PENDING reservation (ReservationStateChangedEvent)
+ * - A 1s tick drains the due deadlines and expires them in small batched
+ * UPDATE ... RETURNING statements keyed by id (no scan over
+ * idx_status_expires); EXPIRED events go out for the returned rows only
+ *
+ * Deadlines are never removed on confirm/cancel: the UPDATE only touches rows
+ * that are still PENDING and past expires_at, so stale deadlines are no-ops.
+ *
+ * On shutdown the due deadlines are drained one last time.
+ * ReservationCleanupScheduler keeps running as a slow safety net (e.g. for
+ * holds created by another replica that restarted).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReservationExpiryEngine {
+
+    private final VehicleBookingRecordRepository bookingRecordRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${booking.reservation.expiry-engine.enabled:true}")
+    private boolean enabled;
+
+    @Value("${booking.reservation.expiry-engine.batch-size:100}")
+    private int batchSize;
+
+    private final DelayQueue<ExpiryDeadline> deadlines = new DelayQueue<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            List<BookingIntervalView> pending = bookingRecordRepository.findPendingBookingIntervals();
+            pending.forEach(view -> schedule(view.getReservationId(), view.getExpiresAt()));
+            log.info("Reservation expiry engine loaded {} PENDING deadline(s)", pending.size());
+        } catch (Exception e) {
+            log.error("Failed to load PENDING deadlines, relying on cleanup poll: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Track the deadline of every newly committed (or re-opened) PENDING hold.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationStateChanged(ReservationStateChangedEvent event) {
+        if (enabled && event.getStatus() == ReservationStatus.PENDING && event.getExpiresAt() != null) {
+            schedule(event.getReservationId(), event.getExpiresAt());
+        }
+    }
+
+    /**
+     * Drain due deadlines and expire them in batches.
+     * Runs every second; a no-op when nothing is due.
+     */
+    @Scheduled(fixedDelayString = "${booking.reservation.expiry-engine.tick-ms:1000}", initialDelay = 5000)
+    public void expireDueReservations() {
+        if (!enabled) {
+            return;
+        }
+
+        List<UUID> due = new ArrayList<>();
+        ExpiryDeadline deadline;
+        while ((deadline = deadlines.poll()) != null) {
+            due.add(deadline.reservationId);
+            if (due.size() >= batchSize) {
+                expireBatch(due);
+                due = new ArrayList<>();
+            }
+        }
+        if (!due.isEmpty()) {
+            expireBatch(due);
+        }
+    }
+
+    public int getPendingDeadlineCount() {
+        return deadlines.size();
+    }
+
+    /**
+     * Expire what is already due before the pod goes away; deadlines still
+     * in the future are left to the cleanup poll and the other replicas.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        expireDueReservations();
+        int remaining = deadlines.size();
+        deadlines.clear();
+        log.info("Reservation expiry engine stopped, {} future deadline(s) left to the cleanup poll", remaining);
+    }
+
+    private void schedule(UUID reservationId, LocalDateTime expiresAt) {
+        deadlines.offer(new ExpiryDeadline(reservationId, expiresAt));
+    }
+
+    private void expireBatch(List<UUID> ids) {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            // Events only for rows this UPDATE changed: a hold re-opened by a retried
+            // booking in the meantime is skipped by the predicates and must stay indexed
+            List<BookingIntervalView> expired = bookingRecordRepository.expirePendingReservationsByIds(ids, now);
+            if (expired.isEmpty()) {
+                log.debug("No PENDING holds left to expire among {} due deadline(s)", ids.size());
+                return;
+            }
+
+            expired.forEach(view -> eventPublisher.publishEvent(new ReservationStateChangedEvent(
+                    view.getReservationId(),
+                    view.getVehicleId(),
+                    view.getBookingStartDate(),
+                    view.getBookingEndDate(),
+                    ReservationStatus.EXPIRED,
+                    view.getExpiresAt())));
+
+            log.info("Expired {} PENDING reservation(s) at {}", expired.size(), now);
+        } catch (Exception e) {
+            // Leave them to the cleanup poll rather than retrying in a tight loop
+            log.error("Error expiring {} reservation(s): {}", ids.size(), e.getMessage(), e);
+        }
+    }
+
+    private static final class ExpiryDeadline implements Delayed {
+        private final UUID reservationId;
+        private final long deadlineNanos;
+
+        ExpiryDeadline(UUID reservationId, LocalDateTime expiresAt) {
+            this.reservationId = reservationId;
+            long delayNanos = Duration.between(LocalDateTime.now(), expiresAt).toNanos();
+            this.deadlineNanos = System.nanoTime() + delayNanos;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(deadlineNanos, ((ExpiryDeadline) other).deadlineNanos);
+        }
+    }
+}
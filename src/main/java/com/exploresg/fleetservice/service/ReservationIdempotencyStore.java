@@ -0,0 +1,185 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.exception.IdempotencyKeyMismatchException;
+import com.exploresg.fleetservice.exception.InvalidIdempotencyKeyException;
+import com.exploresg.fleetservice.model.ReservationIdempotencyKey;
+import com.exploresg.fleetservice.model.ReservationIdempotencyKey.Operation;
+import com.exploresg.fleetservice.repository.ReservationIdempotencyKeyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * 🔑 Idempotency-Key store for confirm / cancel
+ *
+ * The payment flow retries confirm on timeouts; without a key, a retry after
+ * success fails with 400 because the reservation is no longer PENDING. A call
+ * made with an Idempotency-Key records its outcome in
+ * reservation_idempotency_keys, in the same transaction as the state change,
+ * and a retry with that key replays it.
+ *
+ * - Lookups go to a bounded in-memory LRU first, then the key table; neither
+ * touches vehicle_booking_records
+ * - Keys are kept for retention-hours, then deleted in bulk; a key past
+ * retention counts as unused even before the purge removes it
+ * - A key reused for another reservation or operation is rejected
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReservationIdempotencyStore {
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String PURGE_LOCK = "idempotency-key-purge";
+
+    private final ReservationIdempotencyKeyRepository keyRepository;
+    private final SchedulerLockService schedulerLock;
+
+    @Value("${booking.idempotency-keys.retention-hours:24}")
+    private long retentionHours;
+
+    @Value("${booking.idempotency-keys.cache-size:10000}")
+    private int cacheSize;
+
+    private final Map<String, ReservationIdempotencyKey> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ReservationIdempotencyKey> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    /**
+     * Reject a key the table cannot hold, before any work is done with it.
+     *
+     * @throws InvalidIdempotencyKeyException if the key is blank or too long
+     */
+    public static void validate(String idempotencyKey) {
+        if (idempotencyKey.isBlank()) {
+            throw new InvalidIdempotencyKeyException("Idempotency-Key must not be blank");
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException(
+                    "Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+    }
+
+    /**
+     * The recorded outcome for the key, if the call was already made and is
+     * still within retention.
+     *
+     * @throws IdempotencyKeyMismatchException if the key was used for a
+     *                                         different call
+     */
+    public Optional<ReservationIdempotencyKey> find(String idempotencyKey, Operation operation, UUID reservationId) {
+        ReservationIdempotencyKey recorded;
+        synchronized (cache) {
+            recorded = cache.get(idempotencyKey);
+        }
+        if (recorded == null) {
+            recorded = keyRepository.findById(idempotencyKey).orElse(null);
+            if (recorded == null) {
+                return Optional.empty();
+            }
+            cacheAfterCommit(recorded);
+        }
+
+        if (recorded.getExpiresAt().isBefore(LocalDateTime.now())) {
+            return Optional.empty(); // Past retention, awaiting purge: free to reuse
+        }
+        if (!recorded.matches(operation, reservationId)) {
+            throw new IdempotencyKeyMismatchException(idempotencyKey,
+                    "Idempotency-Key was already used for " + recorded.getOperation()
+                            + " of reservation " + recorded.getReservationId());
+        }
+        return Optional.of(recorded);
+    }
+
+    /**
+     * Record the outcome in the caller's transaction; cached once it commits.
+     * A row left for the key past retention is overwritten.
+     *
+     * @throws IdempotencyKeyMismatchException if a concurrent request took the
+     *                                         key first (rolls the call back)
+     */
+    public void record(
+            String idempotencyKey,
+            Operation operation,
+            UUID reservationId,
+            UUID vehicleId,
+            LocalDateTime completedAt) {
+
+        ReservationIdempotencyKey key = ReservationIdempotencyKey.builder()
+                .idempotencyKey(idempotencyKey)
+                .operation(operation)
+                .reservationId(reservationId)
+                .vehicleId(vehicleId)
+                .completedAt(completedAt)
+                .expiresAt(completedAt.plusHours(retentionHours))
+                .build();
+
+        int inserted = keyRepository.insertOrReplaceExpired(
+                key.getIdempotencyKey(),
+                key.getOperation().name(),
+                key.getReservationId(),
+                key.getVehicleId(),
+                key.getCompletedAt(),
+                key.getExpiresAt());
+        if (inserted == 0) {
+            throw new IdempotencyKeyMismatchException(idempotencyKey,
+                    "Idempotency-Key is being used by a concurrent request");
+        }
+        cacheAfterCommit(key);
+    }
+
+    /**
+     * Delete keys past retention in one statement (runs hourly, on one
+     * replica; every replica trims its own cache)
+     */
+    @Scheduled(fixedDelayString = "${booking.idempotency-keys.purge-ms:3600000}", initialDelay = 300000)
+    public void purgeExpired() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            synchronized (cache) {
+                cache.values().removeIf(key -> key.getExpiresAt().isBefore(now));
+            }
+            schedulerLock.runExclusively(PURGE_LOCK, Duration.ofMinutes(5), Duration.ofMinutes(30), lease -> {
+                int deleted = keyRepository.deleteExpired(now, lease.lockName(), lease.fencingToken());
+                if (deleted > 0) {
+                    log.info("Purged {} expired idempotency key(s)", deleted);
+                }
+            });
+        } catch (Exception e) {
+            log.error("Error purging idempotency keys: {}", e.getMessage(), e);
+        }
+    }
+
+    private void cacheAfterCommit(ReservationIdempotencyKey key) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(key);
+                }
+            });
+        } else {
+            put(key);
+        }
+    }
+
+    private void put(ReservationIdempotencyKey key) {
+        synchronized (cache) {
+            cache.put(key.getIdempotencyKey(), key);
+        }
+    }
+}
@@ -1,22 +1,44 @@
 package com.exploresg.fleetservice.service;
 
 import com.exploresg.fleetservice.dto.*;
+import com.exploresg.fleetservice.event.ReservationStateChangedEvent;
 import com.exploresg.fleetservice.model.FleetVehicle;
+import com.exploresg.fleetservice.model.ReservationIdempotencyKey;
+import com.exploresg.fleetservice.model.ReservationIdempotencyKey.Operation;
 import com.exploresg.fleetservice.model.VehicleBookingRecord;
 import com.exploresg.fleetservice.model.VehicleBookingRecord.ReservationStatus;
 import com.exploresg.fleetservice.exception.*;
 import com.exploresg.fleetservice.repository.FleetVehicleRepository;
 import com.exploresg.fleetservice.repository.VehicleBookingRecordRepository;
+import com.exploresg.fleetservice.repository.projection.BookingIntervalView;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -25,27 +47,58 @@ public class ReservationService {
 
         private final FleetVehicleRepository fleetVehicleRepository;
         private final VehicleBookingRecordRepository bookingRecordRepository;
+        private final VehicleAvailabilityIndex availabilityIndex;
+        private final ModelInventoryLedger inventoryLedger;
+        private final BookingIdempotencyCache idempotencyCache;
+        private final ReservationIdempotencyStore idempotencyStore;
+        private final ApplicationEventPublisher eventPublisher;
+        private final NamedParameterJdbcTemplate jdbcTemplate;
 
         // @Value("${booking.reservation.expiry-seconds:30}")
         @Value("${booking.reservation.expiry-seconds:300}")
         private int reservationExpirySeconds;
 
+        // How many index candidates to lock-and-verify before falling back to the full scan
+        @Value("${booking.allocation.index.candidate-limit:3}")
+        private int indexCandidateLimit;
+
+        // locking: SELECT ... FOR UPDATE SKIP LOCKED, then insert
+        // optimistic: insert directly, excl_vbr_vehicle_period rejects overlaps
+        @Value("${booking.allocation.mode:locking}")
+        private String allocationMode;
+
+        // How many vehicles an optimistic allocation tries per source (index / scan)
+        @Value("${booking.allocation.optimistic.max-attempts:5}")
+        private int optimisticMaxAttempts;
+
+        // Set at startup once the exclusion constraint is confirmed
+        private volatile boolean optimisticAllocation;
+
         /**
          * 🔐 PHASE 1: Create Temporary Reservation (BEFORE Payment)
          * 
-         * This method uses pessimistic locking to prevent race conditions.
-         * It locks ONE available vehicle for 30 seconds while user completes payment.
+         * This method uses pessimistic locking (or, in optimistic mode, the
+         * database's overlap exclusion constraint) to prevent race conditions.
+         * It holds ONE available vehicle while user completes payment.
          * 
          * Flow:
          * 1. Validate date range
-         * 2. Check for duplicate booking (idempotency)
+         * 2. Check for duplicate booking (idempotency), then reject right away if
+         * the model inventory ledger shows a sold-out day in the range. Recent
+         * retries are answered from BookingIdempotencyCache, and the lookup is
+         * skipped for booking ids its Bloom filter has never seen
          * 3. Find ONE available vehicle with SELECT FOR UPDATE SKIP LOCKED
+         * (candidates come from the in-memory availability index when possible),
+         * or in optimistic mode INSERT the hold directly and retry the next
+         * candidate on conflict
          * 4. Create PENDING reservation that expires in 30 seconds
          * 5. Commit transaction (vehicle is now locked)
          * 
          * @param request Contains modelPublicId, bookingId, startDate, endDate
          * @return TemporaryReservationResponse with reservationId and expiresAt
          * @throws NoVehicleAvailableException if no vehicles available
+         * @throws BookingConflictException    if the booking id already owns
+         *                                     several holds (a cart)
          * @throws InvalidDateRangeException   if dates are invalid
          */
         @Transactional(isolation = Isolation.READ_COMMITTED, timeout = 10)
@@ -60,69 +113,295 @@ public class ReservationService {
                 validateDateRange(request.getStartDate(), request.getEndDate());
 
                 // 2. Check for duplicate booking (idempotency)
-                Optional<VehicleBookingRecord> existingReservation = bookingRecordRepository
-                                .findByBookingId(request.getBookingId());
+                Optional<TemporaryReservationResponse> recent = idempotencyCache.findRecent(request.getBookingId());
+                if (recent.isPresent()) {
+                        log.warn("Duplicate reservation request answered from cache for bookingId: {}",
+                                        request.getBookingId());
+                        return recent.get();
+                }
+
+                // Skipped for booking ids the filter has never seen; the hold insert
+                // re-checks the booking id in SQL, so ids from other replicas are still caught
+                Optional<VehicleBookingRecord> existingReservation = idempotencyCache
+                                .mightHaveSeen(request.getBookingId())
+                                                ? findSingleReservation(request.getBookingId())
+                                                : Optional.empty();
+                idempotencyCache.markSeen(request.getBookingId());
 
                 if (existingReservation.isPresent()) {
                         VehicleBookingRecord existing = existingReservation.get();
                         log.warn("Duplicate reservation request detected for bookingId: {}", request.getBookingId());
 
                         // If existing reservation is still valid, return it
-                        if (existing.getReservationStatus() == ReservationStatus.PENDING
-                                        && !existing.isExpired()) {
-                                return TemporaryReservationResponse.success(
-                                                existing.getId(),
-                                                existing.getVehicle().getId(),
-                                                existing.getBookingId(),
-                                                existing.getExpiresAt());
+                        if (isActiveHold(existing)) {
+                                TemporaryReservationResponse response = toTemporaryReservationResponse(existing);
+                                idempotencyCache.remember(response);
+                                return response;
                         }
 
                         // If expired, we can create a new one (fall through)
                         log.info("Previous reservation expired, creating new one");
                 }
 
-                // 3. Find ONE available vehicle with pessimistic locking
-                // This is THE MOST CRITICAL part - prevents race conditions
-                Optional<FleetVehicle> availableVehicle = fleetVehicleRepository
-                                .findOneAvailableVehicleForBooking(
-                                                request.getModelPublicId(),
-                                                request.getStartDate(),
-                                                request.getEndDate());
-
-                if (availableVehicle.isEmpty()) {
-                        log.warn("No vehicles available for model: {} in date range: {} to {}",
-                                        request.getModelPublicId(), request.getStartDate(), request.getEndDate());
-                        throw new NoVehicleAvailableException(request.getModelPublicId(),
-                                        "No vehicles available for the requested dates");
+                // Sold out on some day of the range: no vehicle can match, skip the locking scan
+                if (inventoryLedger.isSoldOut(request.getModelPublicId(), request.getStartDate(),
+                                request.getEndDate())) {
+                        log.info("Model {} sold out per inventory ledger, rejecting without allocation",
+                                        request.getModelPublicId());
+                        throw noVehicleAvailable(request);
                 }
 
-                FleetVehicle vehicle = availableVehicle.get();
-                log.info("Vehicle locked for booking: vehicleId={}, licensePlate={}",
-                                vehicle.getId(), vehicle.getLicensePlate());
-
-                // 4. Create PENDING reservation with expiry time
+                // 3. + 4. Take ONE available vehicle and write a PENDING hold with expiry time
                 LocalDateTime expiresAt = LocalDateTime.now().plusSeconds(reservationExpirySeconds);
 
-                VehicleBookingRecord reservation = VehicleBookingRecord.builder()
-                                .vehicle(vehicle)
-                                .bookingId(request.getBookingId())
-                                .bookingStartDate(request.getStartDate())
-                                .bookingEndDate(request.getEndDate())
-                                .reservationStatus(ReservationStatus.PENDING)
-                                .expiresAt(expiresAt)
-                                .build();
+                // A retried booking may have to reuse its old row (uk_vehicle_booking),
+                // which the plain INSERT cannot do, so it always takes the locking path
+                VehicleBookingRecord reservation = optimisticAllocation && existingReservation.isEmpty()
+                                ? holdVehicleOptimistically(request, expiresAt)
+                                : holdVehicleWithLock(request, existingReservation, expiresAt);
 
-                reservation = bookingRecordRepository.save(reservation);
+                eventPublisher.publishEvent(ReservationStateChangedEvent.of(reservation));
 
                 log.info("Temporary reservation created successfully: reservationId={}, expiresAt={}",
-                                reservation.getId(), expiresAt);
+                                reservation.getId(), reservation.getExpiresAt());
 
-                // 5. Transaction commits here - vehicle is now locked for 30 seconds
-                return TemporaryReservationResponse.success(
-                                reservation.getId(),
-                                vehicle.getId(),
-                                request.getBookingId(),
-                                expiresAt);
+                // 5. Transaction commits here - vehicle is now held for the expiry window
+                TemporaryReservationResponse response = toTemporaryReservationResponse(reservation);
+                idempotencyCache.remember(response);
+                return response;
+        }
+
+        /**
+         * 🛒 PHASE 1 (cart): Reserve several vehicles under one booking
+         * 
+         * All-or-nothing: every line gets a PENDING hold, or the transaction
+         * rolls back and none does. Lines are grouped by (model, dates) and each
+         * group locks its k vehicles with a single FOR UPDATE SKIP LOCKED ...
+         * LIMIT k query; the holds are written as one batched insert per group.
+         * 
+         * Always uses locking allocation, whatever booking.allocation.mode says.
+         * 
+         * @param request bookingId plus one (modelPublicId, startDate, endDate) line
+         *                per car
+         * @return one TemporaryReservationResponse per line, in request order
+         * @throws NoVehicleAvailableException if any line cannot be served
+         * @throws BookingConflictException    if the booking already holds
+         *                                     vehicles for other lines
+         * @throws InvalidDateRangeException   if any line's dates are invalid
+         */
+        @Transactional(isolation = Isolation.READ_COMMITTED, timeout = 10)
+        public CartReservationResponse createCartReservation(CartReservationRequest request) {
+
+                UUID bookingId = request.getBookingId();
+                log.info("Creating cart reservation: bookingId={}, lines={}", bookingId, request.getLines().size());
+
+                // 1. Validate every line before locking anything
+                request.getLines().forEach(line -> validateDateRange(line.getStartDate(), line.getEndDate()));
+
+                // 2. Idempotency: a replayed cart gets its still-valid holds back,
+                // but only if they are exactly the requested lines
+                List<VehicleBookingRecord> existing = bookingRecordRepository.findAllByBookingId(bookingId);
+                idempotencyCache.markSeen(bookingId);
+                List<VehicleBookingRecord> activeHolds = existing.stream()
+                                .filter(ReservationService::isActiveHold)
+                                .toList();
+                if (!activeHolds.isEmpty()) {
+                        List<VehicleBookingRecord> replayed = holdsInLineOrder(request, activeHolds)
+                                        .orElseThrow(() -> {
+                                                log.warn("Booking {} already holds {} vehicles that don't match its {} cart lines",
+                                                                bookingId, activeHolds.size(), request.getLines().size());
+                                                return new BookingConflictException(bookingId,
+                                                                "Booking already holds reservations that do not match the cart lines");
+                                        });
+                        log.warn("Duplicate cart reservation request detected for bookingId: {}", bookingId);
+                        return CartReservationResponse.success(
+                                        bookingId,
+                                        replayed.stream().map(this::toTemporaryReservationResponse).toList(),
+                                        replayed.get(0).getExpiresAt());
+                }
+
+                // Vehicles used once for this booking can't take another row (uk_vehicle_booking)
+                Set<UUID> picked = new HashSet<>();
+                existing.forEach(r -> picked.add(r.getVehicle().getId()));
+
+                // 3. Lock k vehicles per (model, dates) group and write their holds
+                LocalDateTime now = LocalDateTime.now();
+                LocalDateTime expiresAt = now.plusSeconds(reservationExpirySeconds);
+                Map<CartGroup, List<VehicleBookingRecord>> holds = new LinkedHashMap<>();
+                for (Map.Entry<CartGroup, Long> group : groupCartLines(request).entrySet()) {
+                        holds.put(group.getKey(), holdVehicles(bookingId, group.getKey(),
+                                        group.getValue().intValue(), picked, expiresAt, now));
+                }
+
+                // 4. Hand the holds back in line order
+                Map<CartGroup, Iterator<VehicleBookingRecord>> byGroup = new HashMap<>();
+                holds.forEach((group, records) -> byGroup.put(group, records.iterator()));
+                List<TemporaryReservationResponse> reservations = request.getLines().stream()
+                                .map(line -> byGroup.get(CartGroup.of(line)).next())
+                                .map(this::toTemporaryReservationResponse)
+                                .toList();
+
+                holds.values().forEach(records -> records
+                                .forEach(r -> eventPublisher.publishEvent(ReservationStateChangedEvent.of(r))));
+
+                log.info("Cart reservation created: bookingId={}, vehicles={}, expiresAt={}",
+                                bookingId, reservations.size(), expiresAt);
+
+                return CartReservationResponse.success(bookingId, reservations, expiresAt);
+        }
+
+        /**
+         * 🧺 PHASE 1 (coalesced): Serve a batch of identical requests at once
+         * 
+         * Called by ReservationCoalescer with the booking ids of requests for
+         * the same model and dates that arrived within one coalescing window.
+         * One FOR UPDATE SKIP LOCKED ... LIMIT k query locks a vehicle per
+         * request and the holds are written as one batch of the guarded insert
+         * (see insertPendingHoldIfFree).
+         * 
+         * Unlike the cart, this is not all-or-nothing: requests are served in
+         * arrival order until vehicles run out, and a hold the guard refuses
+         * only fails its own request.
+         * 
+         * @return responses by booking id, plus the booking ids that already own
+         *         several holds (a cart); booking ids in neither got no vehicle
+         * @throws InvalidDateRangeException if the shared dates are invalid
+         */
+        @Transactional(isolation = Isolation.READ_COMMITTED, timeout = 10)
+        public CoalescedReservations createTemporaryReservationsCoalesced(
+                        UUID modelPublicId,
+                        LocalDateTime startDate,
+                        LocalDateTime endDate,
+                        Collection<UUID> bookingIds) {
+
+                log.info("Creating {} coalesced reservations for model: {}, dates: {} to {}",
+                                bookingIds.size(), modelPublicId, startDate, endDate);
+
+                validateDateRange(startDate, endDate);
+
+                CoalescedReservations result = allocateCoalesced(modelPublicId, startDate, endDate, bookingIds);
+                result.responses().values().forEach(idempotencyCache::remember);
+                return result;
+        }
+
+        /**
+         * Outcome of a coalesced batch. Booking ids in {@code conflicts} already
+         * own several holds (a cart) and cannot be served as a single hold.
+         */
+        public record CoalescedReservations(
+                        Map<UUID, TemporaryReservationResponse> responses,
+                        Set<UUID> conflicts) {
+        }
+
+        private CoalescedReservations allocateCoalesced(
+                        UUID modelPublicId,
+                        LocalDateTime startDate,
+                        LocalDateTime endDate,
+                        Collection<UUID> bookingIds) {
+
+                // Idempotency for the whole batch in one query
+                Map<UUID, TemporaryReservationResponse> responses = new LinkedHashMap<>();
+                Set<UUID> conflicts = new HashSet<>();
+                Set<UUID> excluded = new HashSet<>();
+                bookingIds.forEach(idempotencyCache::markSeen);
+                groupByBookingId(bookingRecordRepository.findAllByBookingIdIn(bookingIds)).forEach((bookingId, rows) -> {
+                        if (rows.size() > 1) {
+                                conflicts.add(bookingId);
+                        } else if (isActiveHold(rows.get(0))) {
+                                responses.put(bookingId, toTemporaryReservationResponse(rows.get(0)));
+                        } else {
+                                // Old row of a retried booking: keep off its vehicle (uk_vehicle_booking)
+                                excluded.add(rows.get(0).getVehicle().getId());
+                        }
+                });
+                CoalescedReservations result = new CoalescedReservations(responses, conflicts);
+
+                List<UUID> toAllocate = bookingIds.stream()
+                                .filter(bookingId -> !responses.containsKey(bookingId) && !conflicts.contains(bookingId))
+                                .distinct()
+                                .toList();
+                if (toAllocate.isEmpty() || inventoryLedger.isSoldOut(modelPublicId, startDate, endDate)) {
+                        return result;
+                }
+
+                LocalDateTime now = LocalDateTime.now();
+                LocalDateTime expiresAt = now.plusSeconds(reservationExpirySeconds);
+                List<FleetVehicle> vehicles = fleetVehicleRepository.lockAvailableVehiclesForBooking(
+                                modelPublicId, startDate, endDate, now, notInArgument(excluded), toAllocate.size());
+                if (vehicles.isEmpty()) {
+                        return result;
+                }
+
+                bookingRecordRepository.expireStalePendingHolds(
+                                vehicles.stream().map(FleetVehicle::getId).toList(), startDate, endDate, now);
+
+                List<VehicleBookingRecord> records = new ArrayList<>(vehicles.size());
+                for (int i = 0; i < vehicles.size(); i++) {
+                        records.add(VehicleBookingRecord.builder()
+                                        .id(UUID.randomUUID())
+                                        .vehicle(vehicles.get(i))
+                                        .bookingId(toAllocate.get(i))
+                                        .bookingStartDate(startDate)
+                                        .bookingEndDate(endDate)
+                                        .reservationStatus(ReservationStatus.PENDING)
+                                        .expiresAt(expiresAt)
+                                        .build());
+                }
+
+                // Same guarded insert as the direct path, as one JDBC batch: a booking id
+                // that already has a row (skipped lookup, other replica) or a vehicle
+                // taken by an optimistic writer costs that booking its hold, not the batch
+                int[] inserted = jdbcTemplate.batchUpdate(
+                                VehicleBookingRecordRepository.INSERT_PENDING_HOLD_IF_FREE,
+                                records.stream().map(record -> holdParameters(record, now))
+                                                .toArray(SqlParameterSource[]::new));
+
+                List<UUID> missed = new ArrayList<>();
+                for (int i = 0; i < records.size(); i++) {
+                        VehicleBookingRecord record = records.get(i);
+                        // INSERT ... SELECT is never rewritten into a multi-row insert, so
+                        // the driver reports a count per row
+                        if (inserted[i] == 1) {
+                                eventPublisher.publishEvent(ReservationStateChangedEvent.of(record));
+                                responses.put(record.getBookingId(), toTemporaryReservationResponse(record));
+                        } else {
+                                missed.add(record.getBookingId());
+                        }
+                }
+
+                if (!missed.isEmpty()) {
+                        // Hand back holds the booking id guard tripped on; the rest get no vehicle
+                        log.warn("{} coalesced hold(s) not written for model {}, checking booking ids",
+                                        missed.size(), modelPublicId);
+                        groupByBookingId(bookingRecordRepository.findAllByBookingIdIn(missed))
+                                        .forEach((bookingId, rows) -> {
+                                                if (rows.size() > 1) {
+                                                        conflicts.add(bookingId);
+                                                } else if (isActiveHold(rows.get(0))) {
+                                                        responses.put(bookingId,
+                                                                        toTemporaryReservationResponse(rows.get(0)));
+                                                }
+                                        });
+                }
+
+                log.info("Coalesced reservations created: {} of {} requests served for model {}",
+                                records.size() - missed.size(), toAllocate.size(), modelPublicId);
+                return result;
+        }
+
+        private static Map<UUID, List<VehicleBookingRecord>> groupByBookingId(List<VehicleBookingRecord> records) {
+                return records.stream().collect(Collectors.groupingBy(VehicleBookingRecord::getBookingId));
+        }
+
+        static SqlParameterSource holdParameters(VehicleBookingRecord record, LocalDateTime now) {
+                return new MapSqlParameterSource()
+                                .addValue("id", record.getId())
+                                .addValue("vehicleId", record.getVehicle().getId())
+                                .addValue("bookingId", record.getBookingId())
+                                .addValue("startDate", record.getBookingStartDate())
+                                .addValue("endDate", record.getBookingEndDate())
+                                .addValue("expiresAt", record.getExpiresAt())
+                                .addValue("now", now);
         }
 
         /**
@@ -131,12 +410,13 @@ public class ReservationService {
          * This method confirms the reservation after payment succeeds.
          * It verifies the reservation hasn't expired and updates status to CONFIRMED.
          * 
-         * Flow:
-         * 1. Find reservation by ID
-         * 2. Check reservation exists and is PENDING
-         * 3. Check reservation hasn't expired
+         * Flow (one conditional UPDATE ... RETURNING, no entity load):
+         * 1. Match reservation by ID
+         * 2. Only if it is PENDING
+         * 3. And hasn't expired
          * 4. Update status to CONFIRMED
          * 5. Record payment reference and confirmation time
+         * If no row matches, a status-only lookup picks the exception.
          * 
          * @param reservationId UUID of the temporary reservation
          * @param request       Contains paymentReference
@@ -149,49 +429,68 @@ public class ReservationService {
         public ConfirmReservationResponse confirmReservation(
                         UUID reservationId,
                         ConfirmReservationRequest request) {
+                return confirmReservation(reservationId, request, null);
+        }
+
+        /**
+         * Confirm with an Idempotency-Key: a retry with the same key gets the
+         * original confirmation back instead of a 400, served from
+         * ReservationIdempotencyStore without touching the reservation.
+         * 
+         * @param idempotencyKey Idempotency-Key header, or null
+         * @throws IdempotencyKeyMismatchException if the key was used for another
+         *                                         call
+         * @throws InvalidIdempotencyKeyException  if the key is blank or too long
+         */
+        @Transactional
+        public ConfirmReservationResponse confirmReservation(
+                        UUID reservationId,
+                        ConfirmReservationRequest request,
+                        String idempotencyKey) {
 
                 log.info("Confirming reservation: reservationId={}, paymentRef={}",
                                 reservationId, request.getPaymentReference());
 
-                // 1. Find reservation
-                VehicleBookingRecord reservation = bookingRecordRepository
-                                .findById(reservationId)
-                                .orElseThrow(() -> new ReservationNotFoundException(reservationId));
-
-                // 2. Check reservation status
-                if (reservation.getReservationStatus() != ReservationStatus.PENDING) {
-                        throw new InvalidReservationStatusException(
-                                        reservationId,
-                                        reservation.getReservationStatus().name(),
-                                        ReservationStatus.PENDING.name());
-                }
-
-                // 3. Check if reservation has expired
-                if (reservation.isExpired()) {
-                        log.warn("Attempt to confirm expired reservation: reservationId={}, expiresAt={}",
-                                        reservationId, reservation.getExpiresAt());
-                        throw new ReservationExpiredException(reservationId);
+                if (idempotencyKey != null) {
+                        ReservationIdempotencyStore.validate(idempotencyKey);
+                        Optional<ReservationIdempotencyKey> recorded = idempotencyStore
+                                        .find(idempotencyKey, Operation.CONFIRM, reservationId);
+                        if (recorded.isPresent()) {
+                                log.info("Replaying confirmation for Idempotency-Key: reservationId={}", reservationId);
+                                return replayConfirmation(recorded.get());
+                        }
                 }
 
-                // 4. Update reservation to CONFIRMED
+                // 1.-4. Confirm in one statement, only if still PENDING and not expired
                 LocalDateTime confirmedAt = LocalDateTime.now();
-                reservation.setReservationStatus(ReservationStatus.CONFIRMED);
-                reservation.setPaymentReference(request.getPaymentReference());
-                reservation.setConfirmedAt(confirmedAt);
-                reservation.setExpiresAt(null); // Clear expiry since it's now confirmed
+                Optional<BookingIntervalView> result = bookingRecordRepository
+                                .confirmPendingReservation(
+                                                reservationId,
+                                                request.getPaymentReference(),
+                                                request.getNotes(),
+                                                confirmedAt);
+                if (result.isEmpty()) {
+                        // A concurrent retry with the same key may have just committed
+                        Optional<ReservationIdempotencyKey> recorded = idempotencyKey == null
+                                        ? Optional.empty()
+                                        : idempotencyStore.find(idempotencyKey, Operation.CONFIRM, reservationId);
+                        return replayConfirmation(recorded.orElseThrow(() -> transitionRejected(reservationId, true)));
+                }
+                BookingIntervalView confirmed = result.get();
 
-                if (request.getNotes() != null) {
-                        reservation.setNotes(request.getNotes());
+                if (idempotencyKey != null) {
+                        idempotencyStore.record(idempotencyKey, Operation.CONFIRM, reservationId,
+                                        confirmed.getVehicleId(), confirmedAt);
                 }
 
-                reservation = bookingRecordRepository.save(reservation);
+                publishStateChange(confirmed);
 
                 log.info("Reservation confirmed successfully: reservationId={}, vehicleId={}",
-                                reservation.getId(), reservation.getVehicle().getId());
+                                reservationId, confirmed.getVehicleId());
 
                 return ConfirmReservationResponse.success(
-                                reservation.getId(),
-                                reservation.getVehicle().getId(),
+                                reservationId,
+                                confirmed.getVehicleId(),
                                 confirmedAt);
         }
 
@@ -199,37 +498,61 @@ public class ReservationService {
          * ❌ PHASE 3: Cancel Reservation
          * 
          * Used when payment fails or user cancels.
-         * Sets reservation status to CANCELLED, freeing the vehicle.
+         * Sets reservation status to CANCELLED, freeing the vehicle, with one
+         * conditional UPDATE ... RETURNING.
          * 
          * @param reservationId UUID of the reservation to cancel
          * @param reason        Optional cancellation reason
          */
         @Transactional
         public void cancelReservation(UUID reservationId, String reason) {
+                cancelReservation(reservationId, reason, null);
+        }
+
+        /**
+         * Cancel with an Idempotency-Key: a retry with the same key succeeds
+         * again instead of failing with 400.
+         * 
+         * @param idempotencyKey Idempotency-Key header, or null
+         * @throws IdempotencyKeyMismatchException if the key was used for another
+         *                                         call
+         * @throws InvalidIdempotencyKeyException  if the key is blank or too long
+         */
+        @Transactional
+        public void cancelReservation(UUID reservationId, String reason, String idempotencyKey) {
                 log.info("Cancelling reservation: reservationId={}, reason={}", reservationId, reason);
 
-                VehicleBookingRecord reservation = bookingRecordRepository
-                                .findById(reservationId)
-                                .orElseThrow(() -> new ReservationNotFoundException(reservationId));
+                if (idempotencyKey != null) {
+                        ReservationIdempotencyStore.validate(idempotencyKey);
+                        if (idempotencyStore.find(idempotencyKey, Operation.CANCEL, reservationId).isPresent()) {
+                                log.info("Replaying cancellation for Idempotency-Key: reservationId={}", reservationId);
+                                return;
+                        }
+                }
 
                 // Only PENDING reservations can be cancelled this way
-                if (reservation.getReservationStatus() != ReservationStatus.PENDING) {
-                        throw new InvalidReservationStatusException(
-                                        reservationId,
-                                        reservation.getReservationStatus().name(),
-                                        ReservationStatus.PENDING.name());
+                LocalDateTime cancelledAt = LocalDateTime.now();
+                Optional<BookingIntervalView> result = bookingRecordRepository
+                                .cancelPendingReservation(reservationId, reason, cancelledAt);
+                if (result.isEmpty()) {
+                        // A concurrent retry with the same key may have just committed
+                        if (idempotencyKey != null && idempotencyStore
+                                        .find(idempotencyKey, Operation.CANCEL, reservationId).isPresent()) {
+                                return;
+                        }
+                        throw transitionRejected(reservationId, false);
                 }
+                BookingIntervalView cancelled = result.get();
 
-                reservation.setReservationStatus(ReservationStatus.CANCELLED);
-                reservation.setCancelledAt(LocalDateTime.now());
-                if (reason != null) {
-                        reservation.setNotes(reason);
+                if (idempotencyKey != null) {
+                        idempotencyStore.record(idempotencyKey, Operation.CANCEL, reservationId,
+                                        cancelled.getVehicleId(), cancelledAt);
                 }
 
-                bookingRecordRepository.save(reservation);
+                publishStateChange(cancelled);
 
                 log.info("Reservation cancelled: reservationId={}, vehicleId={}",
-                                reservationId, reservation.getVehicle().getId());
+                                reservationId, cancelled.getVehicleId());
         }
 
         /**
@@ -260,7 +583,8 @@ public class ReservationService {
                 long availableCount = bookingRecordRepository.countAvailableVehicles(
                                 modelPublicId,
                                 startDate,
-                                endDate);
+                                endDate,
+                                LocalDateTime.now());
 
                 log.debug("Available vehicles found: {}", availableCount);
 
@@ -271,6 +595,456 @@ public class ReservationService {
                                 endDate);
         }
 
+        /**
+         * 📊 Batch Availability Check
+         * 
+         * Same as checkAvailability, for several models and one date range,
+         * answered with a single grouped query.
+         * 
+         * @param modelPublicIds Car models to check (duplicates are ignored)
+         * @param startDate      Booking start date
+         * @param endDate        Booking end date
+         * @return counts per requested model, in request order (0 if none free)
+         */
+        @Transactional(readOnly = true)
+        public BatchAvailabilityResponse checkAvailabilityBatch(
+                        List<UUID> modelPublicIds,
+                        LocalDateTime startDate,
+                        LocalDateTime endDate) {
+
+                log.debug("Checking availability for {} models, dates: {} to {}",
+                                modelPublicIds.size(), startDate, endDate);
+
+                validateDateRange(startDate, endDate);
+
+                Map<UUID, Long> availableCounts = new LinkedHashMap<>();
+                modelPublicIds.forEach(id -> availableCounts.put(id, 0L));
+
+                bookingRecordRepository.countAvailableVehiclesByModels(
+                                availableCounts.keySet(),
+                                startDate,
+                                endDate,
+                                LocalDateTime.now())
+                                .forEach(row -> availableCounts.put(row.getModelPublicId(), row.getAvailableCount()));
+
+                return BatchAvailabilityResponse.builder()
+                                .availableCounts(availableCounts)
+                                .startDate(startDate)
+                                .endDate(endDate)
+                                .build();
+        }
+
+        /**
+         * 🔐 Locking allocation (booking.allocation.mode=locking)
+         * 
+         * Locks one available vehicle FOR UPDATE, then writes the hold. Every
+         * allocation on the same vehicle serializes on the vehicle row.
+         * 
+         * A booking id with no known row goes through the guarded insert, which
+         * refuses it if a row turns up after all (the idempotency lookup was
+         * skipped or raced); that row is then handed back or reused.
+         */
+        private VehicleBookingRecord holdVehicleWithLock(
+                        CreateTemporaryReservationRequest request,
+                        Optional<VehicleBookingRecord> existingReservation,
+                        LocalDateTime expiresAt) {
+
+                // This is THE MOST CRITICAL part - prevents race conditions
+                Optional<FleetVehicle> availableVehicle = lockAvailableVehicle(
+                                request.getModelPublicId(),
+                                request.getStartDate(),
+                                request.getEndDate());
+
+                if (availableVehicle.isEmpty()) {
+                        throw noVehicleAvailable(request);
+                }
+
+                FleetVehicle vehicle = availableVehicle.get();
+                log.info("Vehicle locked for booking: vehicleId={}, licensePlate={}",
+                                vehicle.getId(), vehicle.getLicensePlate());
+
+                LocalDateTime now = LocalDateTime.now();
+                bookingRecordRepository.expireStalePendingHolds(
+                                List.of(vehicle.getId()), request.getStartDate(), request.getEndDate(), now);
+
+                if (existingReservation.isEmpty()) {
+                        Optional<VehicleBookingRecord> inserted = insertHold(request, vehicle.getId(), expiresAt, now);
+                        if (inserted.isPresent()) {
+                                return inserted.get();
+                        }
+                        existingReservation = findSingleReservation(request.getBookingId());
+                        if (existingReservation.isEmpty()) {
+                                // Only reachable when optimistic writers (which take no row lock) run
+                                // alongside: excl_vbr_vehicle_period rejected the overlap
+                                log.warn("Vehicle {} taken concurrently by an optimistic allocation", vehicle.getId());
+                                throw noVehicleAvailable(request);
+                        }
+                        log.warn("Booking id {} already has a reservation, skipped lookup missed it",
+                                        request.getBookingId());
+                        if (isActiveHold(existingReservation.get())) {
+                                return existingReservation.get();
+                        }
+                }
+
+                VehicleBookingRecord reservation;
+                if (existingReservation.isPresent()
+                                && existingReservation.get().getVehicle().getId().equals(vehicle.getId())) {
+                        // Expired holds no longer block availability, so a retried booking can land
+                        // on its old vehicle again: reuse the row to respect uk_vehicle_booking
+                        reservation = existingReservation.get();
+                        reservation.setBookingStartDate(request.getStartDate());
+                        reservation.setBookingEndDate(request.getEndDate());
+                        reservation.setReservationStatus(ReservationStatus.PENDING);
+                        reservation.setExpiresAt(expiresAt);
+                        reservation.setCancelledAt(null);
+                } else {
+                        reservation = VehicleBookingRecord.builder()
+                                        .vehicle(vehicle)
+                                        .bookingId(request.getBookingId())
+                                        .bookingStartDate(request.getStartDate())
+                                        .bookingEndDate(request.getEndDate())
+                                        .reservationStatus(ReservationStatus.PENDING)
+                                        .expiresAt(expiresAt)
+                                        .build();
+                }
+
+                try {
+                        return bookingRecordRepository.saveAndFlush(reservation);
+                } catch (DataIntegrityViolationException e) {
+                        // Only reachable when optimistic writers (which take no row lock) run
+                        // alongside: excl_vbr_vehicle_period rejected the overlap
+                        log.warn("Vehicle {} taken concurrently by an optimistic allocation", vehicle.getId());
+                        throw noVehicleAvailable(request);
+                }
+        }
+
+        /**
+         * ⚡ Optimistic allocation (booking.allocation.mode=optimistic)
+         * 
+         * No row locks: picks a few candidate vehicles (availability index first,
+         * then an unlocked scan) and INSERTs the hold directly. The database's
+         * excl_vbr_vehicle_period constraint rejects a vehicle that was taken in
+         * the meantime (0 rows inserted), and the next candidate is tried.
+         */
+        private VehicleBookingRecord holdVehicleOptimistically(
+                        CreateTemporaryReservationRequest request,
+                        LocalDateTime expiresAt) {
+
+                LocalDateTime now = LocalDateTime.now();
+                Set<UUID> tried = new HashSet<>();
+
+                List<UUID> candidates = availabilityIndex.findCandidates(
+                                request.getModelPublicId(), request.getStartDate(), request.getEndDate(),
+                                optimisticMaxAttempts);
+                Optional<VehicleBookingRecord> reservation = insertFirstFree(request, candidates, tried, expiresAt, now);
+
+                if (reservation.isEmpty()) {
+                        List<UUID> scanned = fleetVehicleRepository.findAvailableVehicleIdsForBooking(
+                                        request.getModelPublicId(), request.getStartDate(), request.getEndDate(),
+                                        now, optimisticMaxAttempts);
+                        reservation = insertFirstFree(request, scanned, tried, expiresAt, now);
+                }
+
+                if (reservation.isPresent()) {
+                        return reservation.get();
+                }
+
+                // Every insert may have been refused by the booking id guard rather than
+                // by overlaps: a retry whose idempotency lookup was skipped
+                Optional<VehicleBookingRecord> existing = findSingleReservation(request.getBookingId());
+                if (existing.isEmpty()) {
+                        throw noVehicleAvailable(request);
+                }
+                log.warn("Booking id {} already has a reservation, skipped lookup missed it", request.getBookingId());
+                return isActiveHold(existing.get())
+                                ? existing.get()
+                                : holdVehicleWithLock(request, existing, expiresAt);
+        }
+
+        private Optional<VehicleBookingRecord> insertFirstFree(
+                        CreateTemporaryReservationRequest request,
+                        List<UUID> candidates,
+                        Set<UUID> tried,
+                        LocalDateTime expiresAt,
+                        LocalDateTime now) {
+
+                for (UUID vehicleId : candidates) {
+                        if (!tried.add(vehicleId)) {
+                                continue;
+                        }
+                        bookingRecordRepository.expireStalePendingHolds(
+                                        List.of(vehicleId), request.getStartDate(), request.getEndDate(), now);
+
+                        Optional<VehicleBookingRecord> inserted = insertHold(request, vehicleId, expiresAt, now);
+                        if (inserted.isPresent()) {
+                                log.info("Vehicle held optimistically for booking: vehicleId={}", vehicleId);
+                                return inserted;
+                        }
+                        log.debug("Optimistic insert rejected for vehicle {}, trying next", vehicleId);
+                }
+                return Optional.empty();
+        }
+
+        /**
+         * INSERT the PENDING hold if the vehicle is free and the booking id has
+         * no row yet; empty if either check refused it.
+         */
+        private Optional<VehicleBookingRecord> insertHold(
+                        CreateTemporaryReservationRequest request,
+                        UUID vehicleId,
+                        LocalDateTime expiresAt,
+                        LocalDateTime now) {
+
+                UUID reservationId = UUID.randomUUID();
+                int inserted = bookingRecordRepository.insertPendingHoldIfFree(
+                                reservationId,
+                                vehicleId,
+                                request.getBookingId(),
+                                request.getStartDate(),
+                                request.getEndDate(),
+                                expiresAt,
+                                now);
+                return inserted == 1 ? bookingRecordRepository.findById(reservationId) : Optional.empty();
+        }
+
+        /**
+         * The single reservation row of a booking id, if any. A cart keeps
+         * several rows under one booking id, which a single-vehicle request
+         * cannot reuse or replay.
+         */
+        private Optional<VehicleBookingRecord> findSingleReservation(UUID bookingId) {
+                List<VehicleBookingRecord> rows = bookingRecordRepository.findAllByBookingId(bookingId);
+                if (rows.size() > 1) {
+                        throw severalHolds(bookingId);
+                }
+                return rows.stream().findFirst();
+        }
+
+        static BookingConflictException severalHolds(UUID bookingId) {
+                log.warn("Booking id {} already owns several reservations, rejecting single-vehicle request",
+                                bookingId);
+                return new BookingConflictException(bookingId,
+                                "Booking already holds several reservations; manage them through the cart");
+        }
+
+        private static boolean isActiveHold(VehicleBookingRecord record) {
+                return record.getReservationStatus() == ReservationStatus.PENDING && !record.isExpired();
+        }
+
+        private NoVehicleAvailableException noVehicleAvailable(CreateTemporaryReservationRequest request) {
+                log.warn("No vehicles available for model: {} in date range: {} to {}",
+                                request.getModelPublicId(), request.getStartDate(), request.getEndDate());
+                return new NoVehicleAvailableException(request.getModelPublicId(),
+                                "No vehicles available for the requested dates");
+        }
+
+        /**
+         * Optimistic allocation is only safe with the exclusion constraint in
+         * place; without it (e.g. H2, or the constraint could not be created over
+         * existing overlapping rows) stay on the locking path.
+         */
+        @EventListener(ApplicationReadyEvent.class)
+        public void resolveAllocationMode() {
+                if (!"optimistic".equalsIgnoreCase(allocationMode)) {
+                        log.info("Booking allocation mode: locking");
+                        return;
+                }
+
+                boolean constraintPresent;
+                try {
+                        constraintPresent = bookingRecordRepository.existsBookingExclusionConstraint();
+                } catch (DataAccessException e) {
+                        constraintPresent = false;
+                }
+
+                optimisticAllocation = constraintPresent;
+                if (constraintPresent) {
+                        log.info("Booking allocation mode: optimistic (excl_vbr_vehicle_period present)");
+                } else {
+                        log.warn("Booking allocation mode 'optimistic' requested but excl_vbr_vehicle_period "
+                                        + "is not installed, falling back to locking");
+                }
+        }
+
+        /**
+         * Lock one available vehicle of the model for the date range.
+         * 
+         * Asks the in-memory availability index for a short ranked candidate list
+         * and lock-and-verifies each one by id (cheap, single-row). Falls back to
+         * the full FOR UPDATE SKIP LOCKED scan when the index has no usable
+         * candidate (not built yet, stale, or vehicles locked by others).
+         */
+        private Optional<FleetVehicle> lockAvailableVehicle(
+                        UUID modelPublicId,
+                        LocalDateTime startDate,
+                        LocalDateTime endDate) {
+
+                LocalDateTime now = LocalDateTime.now();
+                List<UUID> candidates = availabilityIndex.findCandidates(
+                                modelPublicId, startDate, endDate, indexCandidateLimit);
+
+                for (UUID candidateId : candidates) {
+                        Optional<FleetVehicle> locked = fleetVehicleRepository
+                                        .lockVehicleIfAvailableForBooking(candidateId, startDate, endDate, now);
+                        if (locked.isPresent()) {
+                                return locked;
+                        }
+                        log.debug("Index candidate {} no longer available, trying next", candidateId);
+                }
+
+                if (!candidates.isEmpty()) {
+                        log.info("All {} index candidates rejected for model {}, falling back to full scan",
+                                        candidates.size(), modelPublicId);
+                }
+
+                return fleetVehicleRepository.findOneAvailableVehicleForBooking(
+                                modelPublicId,
+                                startDate,
+                                endDate,
+                                now);
+        }
+
+        private static Map<CartGroup, Long> groupCartLines(CartReservationRequest request) {
+                return request.getLines().stream()
+                                .collect(Collectors.groupingBy(CartGroup::of, LinkedHashMap::new,
+                                                Collectors.counting()));
+        }
+
+        /**
+         * The active holds of a replayed cart in line order, or empty if they
+         * are not exactly one hold per line (e.g. a single ENDPOINT 1 hold, or
+         * a line cancelled since).
+         */
+        private static Optional<List<VehicleBookingRecord>> holdsInLineOrder(
+                        CartReservationRequest request,
+                        List<VehicleBookingRecord> activeHolds) {
+
+                Map<CartGroup, List<VehicleBookingRecord>> holdsByGroup = activeHolds.stream()
+                                .collect(Collectors.groupingBy(CartGroup::of));
+                Map<CartGroup, Long> lines = groupCartLines(request);
+                boolean matches = holdsByGroup.size() == lines.size() && lines.entrySet().stream()
+                                .allMatch(group -> holdsByGroup.getOrDefault(group.getKey(), List.of())
+                                                .size() == group.getValue());
+                if (!matches) {
+                        return Optional.empty();
+                }
+
+                Map<CartGroup, Iterator<VehicleBookingRecord>> byGroup = new HashMap<>();
+                holdsByGroup.forEach((group, records) -> byGroup.put(group, records.iterator()));
+                return Optional.of(request.getLines().stream()
+                                .map(line -> byGroup.get(CartGroup.of(line)).next())
+                                .toList());
+        }
+
+        /**
+         * Lock {@code count} vehicles for one cart group in one query and write
+         * their PENDING holds in one batch. Throws if fewer are free.
+         */
+        private List<VehicleBookingRecord> holdVehicles(
+                        UUID bookingId,
+                        CartGroup group,
+                        int count,
+                        Set<UUID> picked,
+                        LocalDateTime expiresAt,
+                        LocalDateTime now) {
+
+                if (inventoryLedger.isSoldOut(group.modelPublicId(), group.startDate(), group.endDate())) {
+                        throw new NoVehicleAvailableException(group.modelPublicId(),
+                                        "No vehicles available for the requested dates");
+                }
+
+                List<FleetVehicle> vehicles = fleetVehicleRepository.lockAvailableVehiclesForBooking(
+                                group.modelPublicId(), group.startDate(), group.endDate(), now,
+                                notInArgument(picked), count);
+
+                if (vehicles.size() < count) {
+                        log.warn("Cart needs {} vehicles of model {} but only {} available",
+                                        count, group.modelPublicId(), vehicles.size());
+                        throw new NoVehicleAvailableException(group.modelPublicId(),
+                                        "Only " + vehicles.size() + " of " + count
+                                                        + " requested vehicles available for the requested dates");
+                }
+
+                List<UUID> vehicleIds = vehicles.stream().map(FleetVehicle::getId).toList();
+                picked.addAll(vehicleIds);
+                bookingRecordRepository.expireStalePendingHolds(vehicleIds, group.startDate(), group.endDate(), now);
+
+                List<VehicleBookingRecord> records = vehicles.stream()
+                                .map(vehicle -> VehicleBookingRecord.builder()
+                                                .vehicle(vehicle)
+                                                .bookingId(bookingId)
+                                                .bookingStartDate(group.startDate())
+                                                .bookingEndDate(group.endDate())
+                                                .reservationStatus(ReservationStatus.PENDING)
+                                                .expiresAt(expiresAt)
+                                                .build())
+                                .toList();
+
+                // Flushed per group so the next group's NOT EXISTS sees these holds
+                return bookingRecordRepository.saveAllAndFlush(records);
+        }
+
+        // NOT IN () is invalid SQL: exclude a nil id when there is nothing to exclude
+        private static Collection<UUID> notInArgument(Set<UUID> ids) {
+                return ids.isEmpty() ? List.of(new UUID(0L, 0L)) : ids;
+        }
+
+        private TemporaryReservationResponse toTemporaryReservationResponse(VehicleBookingRecord record) {
+                return TemporaryReservationResponse.success(
+                                record.getId(),
+                                record.getVehicle().getId(),
+                                record.getBookingId(),
+                                record.getExpiresAt());
+        }
+
+        private record CartGroup(UUID modelPublicId, LocalDateTime startDate, LocalDateTime endDate) {
+                static CartGroup of(CartReservationRequest.Line line) {
+                        return new CartGroup(line.getModelPublicId(), line.getStartDate(), line.getEndDate());
+                }
+
+                static CartGroup of(VehicleBookingRecord record) {
+                        return new CartGroup(record.getVehicle().getCarModel().getPublicId(),
+                                        record.getBookingStartDate(), record.getBookingEndDate());
+                }
+        }
+
+        /**
+         * Work out why a conditional confirm / cancel matched no row, with a
+         * status-only lookup that runs on this failure path alone.
+         */
+        private RuntimeException transitionRejected(UUID reservationId, boolean checksExpiry) {
+                Optional<ReservationStatus> status = bookingRecordRepository.findReservationStatusById(reservationId);
+                if (status.isEmpty()) {
+                        return new ReservationNotFoundException(reservationId);
+                }
+                if (checksExpiry && status.get() == ReservationStatus.PENDING) {
+                        // Still PENDING, so the expiry predicate is what failed
+                        log.warn("Attempt to confirm expired reservation: reservationId={}", reservationId);
+                        return new ReservationExpiredException(reservationId);
+                }
+                return new InvalidReservationStatusException(
+                                reservationId,
+                                status.get().name(),
+                                ReservationStatus.PENDING.name());
+        }
+
+        private static ConfirmReservationResponse replayConfirmation(ReservationIdempotencyKey recorded) {
+                return ConfirmReservationResponse.success(
+                                recorded.getReservationId(),
+                                recorded.getVehicleId(),
+                                recorded.getCompletedAt());
+        }
+
+        private void publishStateChange(BookingIntervalView view) {
+                eventPublisher.publishEvent(new ReservationStateChangedEvent(
+                                view.getReservationId(),
+                                view.getVehicleId(),
+                                view.getBookingStartDate(),
+                                view.getBookingEndDate(),
+                                view.getReservationStatus(),
+                                view.getExpiresAt()));
+        }
+
         /**
          * Validate date range
          */
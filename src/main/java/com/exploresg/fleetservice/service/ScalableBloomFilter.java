@@ -0,0 +1,117 @@
+package com.exploresg.fleetservice.service;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Scalable Bloom filter of UUIDs (Almeida et al.): a chain of plain Bloom
+ * filters, each twice the capacity and half the false-positive rate of the
+ * previous one, so the overall false-positive rate stays under the target
+ * however many ids are added. No false negatives.
+ *
+ * Thread-safe: bits are set with CAS, a new stage is appended under a lock.
+ */
+final class ScalableBloomFilter {
+
+    private static final double TIGHTENING_RATIO = 0.5;
+
+    private final List<Stage> stages = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param initialCapacity   ids the first stage holds before a new one is added
+     * @param falsePositiveRate overall target false-positive rate
+     */
+    ScalableBloomFilter(int initialCapacity, double falsePositiveRate) {
+        // Stage i gets p0 * r^i; the series sums to p0 / (1 - r) = target
+        stages.add(new Stage(initialCapacity, falsePositiveRate * (1 - TIGHTENING_RATIO)));
+    }
+
+    boolean mightContain(UUID id) {
+        long h1 = mix(id.getMostSignificantBits() ^ Long.rotateLeft(id.getLeastSignificantBits(), 32));
+        long h2 = mix(id.getLeastSignificantBits() + 0x9E3779B97F4A7C15L) | 1;
+        for (Stage stage : stages) {
+            if (stage.contains(h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void add(UUID id) {
+        long h1 = mix(id.getMostSignificantBits() ^ Long.rotateLeft(id.getLeastSignificantBits(), 32));
+        long h2 = mix(id.getLeastSignificantBits() + 0x9E3779B97F4A7C15L) | 1;
+        Stage current = stages.get(stages.size() - 1);
+        if (current.count.get() >= current.capacity) {
+            current = grow(current);
+        }
+        current.put(h1, h2);
+    }
+
+    int stageCount() {
+        return stages.size();
+    }
+
+    /**
+     * Approximate memory held by the bit arrays, in bytes.
+     */
+    long sizeInBytes() {
+        return stages.stream().mapToLong(s -> s.bits.length() * 8L).sum();
+    }
+
+    private synchronized Stage grow(Stage full) {
+        Stage last = stages.get(stages.size() - 1);
+        if (last != full) {
+            return last; // Another thread already grew the filter
+        }
+        Stage next = new Stage(full.capacity * 2, full.falsePositiveRate * TIGHTENING_RATIO);
+        stages.add(next);
+        return next;
+    }
+
+    // Stafford variant 13 of the SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class Stage {
+        private final long capacity;
+        private final double falsePositiveRate;
+        private final long bitCount;
+        private final int hashCount;
+        private final AtomicLongArray bits;
+        private final AtomicInteger count = new AtomicInteger();
+
+        Stage(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            double ln2 = Math.log(2);
+            long words = Math.max(1, (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2) / 64));
+            this.bits = new AtomicLongArray(Math.toIntExact(words));
+            this.bitCount = words * 64;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * ln2));
+        }
+
+        boolean contains(long h1, long h2) {
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void put(long h1, long h2) {
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                bits.getAndAccumulate((int) (bit >>> 6), 1L << bit, (word, mask) -> word | mask);
+            }
+            count.incrementAndGet();
+        }
+    }
+}
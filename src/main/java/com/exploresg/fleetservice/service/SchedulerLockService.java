@@ -0,0 +1,192 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.repository.SchedulerLockRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 🔒 Single-runner lock for scheduled jobs
+ *
+ * Every replica runs the same @Scheduled methods. Jobs that rewrite shared
+ * rows (expiry sweep, archival, key purge) wrap their body in
+ * runExclusively, so each tick runs on one pod only and the others skip it.
+ *
+ * - Lease row per job in scheduler_locks, taken with one INSERT ... ON
+ * CONFLICT DO UPDATE that only succeeds once the previous lease has lapsed
+ * - Renewed in the background every third of the lease while the job runs
+ * - Held for at least min-hold after the job, so replicas whose tick is a bit
+ * later don't run it again
+ * - Every takeover bumps fencing_token; the job's writes are guarded with
+ * the token (see SchedulerLease) and refused once the lease was lost, e.g.
+ * after a long GC pause
+ *
+ * Fails closed: if the lease cannot be taken the tick is skipped, which is
+ * safe for these catch-up jobs.
+ */
+@Component
+@Slf4j
+public class SchedulerLockService {
+
+    private final SchedulerLockRepository lockRepository;
+    private final MeterRegistry meterRegistry;
+    private final String ownerId;
+    private final ScheduledExecutorService renewer;
+
+    @Value("${scheduler.lock.enabled:true}")
+    private boolean enabled;
+
+    public SchedulerLockService(
+            SchedulerLockRepository lockRepository,
+            MeterRegistry meterRegistry,
+            @Value("${HOSTNAME:}") String hostname) {
+        this.lockRepository = lockRepository;
+        this.meterRegistry = meterRegistry;
+        this.ownerId = (hostname.isBlank() ? localHostName() : hostname)
+                + "/" + UUID.randomUUID().toString().substring(0, 8);
+        this.renewer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "scheduler-lock-renewer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Run {@code job} if this replica gets the lease for {@code lockName}.
+     *
+     * @param leaseFor    how long the lease lasts without renewal
+     * @param minHold     how long the lease is kept after taking it, even if
+     *                    the job finishes sooner (a bit less than the job's
+     *                    interval)
+     * @param job         the job body; guard its writes with the lease
+     * @return true if the job ran here
+     */
+    public boolean runExclusively(String lockName, Duration leaseFor, Duration minHold,
+            Consumer<SchedulerLease> job) {
+        if (!enabled) {
+            job.accept(SchedulerLease.unfenced(lockName));
+            return true;
+        }
+
+        Optional<Long> token;
+        try {
+            token = lockRepository.tryAcquire(lockName, ownerId, seconds(leaseFor));
+        } catch (Exception e) {
+            log.error("Could not take scheduler lock {}, skipping this run: {}", lockName, e.getMessage());
+            attempt(lockName, "error");
+            return false;
+        }
+        if (token.isEmpty()) {
+            log.debug("Scheduler lock {} held by another replica, skipping", lockName);
+            attempt(lockName, "busy");
+            return false;
+        }
+        attempt(lockName, "acquired");
+
+        SchedulerLease lease = new SchedulerLease(lockName, token.get());
+        long renewEveryMs = Math.max(1000, leaseFor.toMillis() / 3);
+        ScheduledFuture<?> renewal = renewer.scheduleAtFixedRate(() -> renew(lease, leaseFor),
+                renewEveryMs, renewEveryMs, TimeUnit.MILLISECONDS);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            job.accept(lease);
+            return true;
+        } finally {
+            renewal.cancel(false);
+            sample.stop(Timer.builder("scheduler.job.duration")
+                    .description("Run time of lock-guarded scheduled jobs")
+                    .tag("lock", lockName)
+                    .register(meterRegistry));
+            try {
+                lockRepository.release(lockName, lease.fencingToken(), seconds(minHold));
+            } catch (Exception e) {
+                log.warn("Could not release scheduler lock {}, it lapses on its own: {}", lockName, e.getMessage());
+            }
+        }
+    }
+
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renewer.shutdownNow();
+    }
+
+    private void renew(SchedulerLease lease, Duration leaseFor) {
+        try {
+            if (lockRepository.renew(lease.lockName(), lease.fencingToken(), seconds(leaseFor)) == 1) {
+                renewal(lease.lockName(), "renewed");
+                return;
+            }
+            log.warn("Scheduler lock {} lost (token {}), its writes will be refused",
+                    lease.lockName(), lease.fencingToken());
+            renewal(lease.lockName(), "lost");
+        } catch (Exception e) {
+            log.warn("Could not renew scheduler lock {}: {}", lease.lockName(), e.getMessage());
+            renewal(lease.lockName(), "error");
+        }
+    }
+
+    private void attempt(String lockName, String outcome) {
+        Counter.builder("scheduler.lock.attempts")
+                .description("Scheduler lock acquisition attempts")
+                .tag("lock", lockName)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private void renewal(String lockName, String outcome) {
+        Counter.builder("scheduler.lock.renewals")
+                .description("Scheduler lock lease renewals")
+                .tag("lock", lockName)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static double seconds(Duration duration) {
+        return duration.toMillis() / 1000.0;
+    }
+
+    private static String localHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown-host";
+        }
+    }
+
+    /**
+     * A lease held by the running job. Fenced statements take lockName and
+     * fencingToken and only write while scheduler_locks still shows this
+     * token.
+     */
+    public record SchedulerLease(String lockName, long fencingToken) {
+
+        // Locking disabled: no lease row, fenced statements must not check it
+        static SchedulerLease unfenced(String lockName) {
+            return new SchedulerLease(lockName, -1);
+        }
+
+        public boolean isFenced() {
+            return fencingToken >= 0;
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.event.FleetVehicleChangedEvent;
+import com.exploresg.fleetservice.event.ReservationStateChangedEvent;
+import com.exploresg.fleetservice.model.VehicleBookingRecord.ReservationStatus;
+import com.exploresg.fleetservice.model.VehicleStatus;
+import com.exploresg.fleetservice.repository.FleetVehicleRepository;
+import com.exploresg.fleetservice.repository.VehicleBookingRecordRepository;
+import com.exploresg.fleetservice.repository.projection.BookingIntervalView;
+import com.exploresg.fleetservice.repository.projection.VehicleAllocationView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 🗂️ In-memory Vehicle Availability Index
+ *
+ * Keeps, per CarModel.publicId, every vehicle of that model together with its
+ * sorted CONFIRMED/PENDING booking intervals (PENDING holds stop blocking as
+ * soon as they pass expiresAt). This lets
+ * ReservationService pick a ranked list of candidate vehicles in microseconds,
+ * so the database only has to lock-and-verify one known vehicle id instead of
+ * running the full NOT EXISTS anti-join for every request.
+ *
+ * The index is a hint, never the source of truth:
+ * - Every candidate is re-checked by the database under FOR UPDATE SKIP LOCKED
+ * - If all candidates fail (stale index, other replicas), the caller falls
+ * back to the full query
+ *
+ * Lifecycle:
+ * - Rebuilt from the database once the application is ready
+ * - Updated after commit on reservation create/confirm/cancel and vehicle
+ * changes, and when the expiry engine or cleanup job expires PENDING holds
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VehicleAvailabilityIndex {
+
+    private static final Comparator<VehicleEntry> CANDIDATE_ORDER = Comparator
+            .comparing((VehicleEntry v) -> v.mileageKm, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(v -> v.vehicleId);
+
+    private final FleetVehicleRepository fleetVehicleRepository;
+    private final VehicleBookingRecordRepository bookingRecordRepository;
+
+    @Value("${booking.allocation.index.enabled:true}")
+    private boolean enabled;
+
+    private final Object mutationLock = new Object();
+    private volatile Snapshot snapshot = new Snapshot();
+    private volatile boolean ready = false;
+
+    // Mutations received while a rebuild is loading; replayed onto the new snapshot
+    private List<Consumer<Snapshot>> replayLog;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuild the whole index from the database.
+     * Safe to call while reservations are being processed.
+     */
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        synchronized (mutationLock) {
+            replayLog = new ArrayList<>();
+        }
+
+        try {
+            Snapshot fresh = new Snapshot();
+            fleetVehicleRepository.findAllAllocationViews().forEach(fresh::upsertVehicle);
+            bookingRecordRepository.findActiveBookingIntervals(LocalDateTime.now())
+                    .forEach(view -> fresh.putInterval(view.getVehicleId(), Interval.of(view)));
+
+            synchronized (mutationLock) {
+                replayLog.forEach(op -> op.accept(fresh));
+                snapshot = fresh;
+                ready = true;
+            }
+
+            log.info("Vehicle availability index rebuilt: {} models, {} vehicles in {}ms",
+                    fresh.models.size(), fresh.vehicles.size(), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.error("Failed to rebuild vehicle availability index: {}", e.getMessage(), e);
+        } finally {
+            synchronized (mutationLock) {
+                replayLog = null;
+            }
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} vehicle ids of the given model that are
+     * AVAILABLE and have no blocking booking overlapping [startDate, endDate),
+     * ordered like findOneAvailableVehicleForBooking (lowest mileage first).
+     *
+     * Returns an empty list when the index is disabled or not built yet.
+     */
+    public List<UUID> findCandidates(UUID modelPublicId, LocalDateTime startDate, LocalDateTime endDate,
+            int limit) {
+        if (!enabled || !ready) {
+            return List.of();
+        }
+
+        ModelEntry model = snapshot.models.get(modelPublicId);
+        if (model == null) {
+            return List.of();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        PriorityQueue<VehicleEntry> best = new PriorityQueue<>(CANDIDATE_ORDER.reversed());
+        synchronized (model) {
+            for (VehicleEntry vehicle : model.vehicles.values()) {
+                if (!vehicle.available || vehicle.overlaps(startDate, endDate, now)) {
+                    continue;
+                }
+                best.offer(vehicle);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+
+        List<UUID> candidates = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            candidates.add(0, best.poll().vehicleId);
+        }
+        return candidates;
+    }
+
+    /**
+     * Number of AVAILABLE vehicles of the model, bookings ignored; -1 when the
+     * index is disabled or not built yet.
+     */
+    public int countAvailableVehicles(UUID modelPublicId) {
+        if (!enabled || !ready) {
+            return -1;
+        }
+        ModelEntry model = snapshot.models.get(modelPublicId);
+        if (model == null) {
+            return 0;
+        }
+        synchronized (model) {
+            return (int) model.vehicles.values().stream().filter(v -> v.available).count();
+        }
+    }
+
+    /**
+     * Whether the index has vehicles of the model; false when the index is
+     * disabled or not built yet.
+     */
+    public boolean isKnownModel(UUID modelPublicId) {
+        return enabled && ready && snapshot.models.containsKey(modelPublicId);
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * Keep booking intervals in sync once a reservation change is committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationStateChanged(ReservationStateChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (event.isActive()) {
+            Interval interval = new Interval(event.getReservationId(), event.getBookingStartDate(),
+                    event.getBookingEndDate(), event.getStatus(), event.getExpiresAt());
+            mutate(s -> s.putInterval(event.getVehicleId(), interval));
+        } else {
+            mutate(s -> s.removeInterval(event.getReservationId()));
+        }
+    }
+
+    /**
+     * Refresh vehicle status / mileage once a vehicle change is committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFleetVehicleChanged(FleetVehicleChangedEvent event) {
+        if (!enabled || event.getVehicleIds().isEmpty()) {
+            return;
+        }
+        List<VehicleAllocationView> views = fleetVehicleRepository.findAllocationViewsByIdIn(event.getVehicleIds());
+        mutate(s -> views.forEach(s::upsertVehicle));
+    }
+
+    /**
+     * Drop PENDING holds that expired before {@code now} (mirrors
+     * VehicleBookingRecordRepository.expirePendingReservations) and intervals
+     * that already ended.
+     */
+    public void releaseExpiredHolds(LocalDateTime now) {
+        if (enabled) {
+            mutate(s -> s.pruneReleased(now));
+        }
+    }
+
+    private void mutate(Consumer<Snapshot> op) {
+        synchronized (mutationLock) {
+            op.accept(snapshot);
+            if (replayLog != null) {
+                replayLog.add(op);
+            }
+        }
+    }
+
+    /**
+     * One generation of the index. Replaced wholesale on rebuild.
+     */
+    private static final class Snapshot {
+        private final Map<UUID, ModelEntry> models = new ConcurrentHashMap<>();
+        private final Map<UUID, VehicleEntry> vehicles = new ConcurrentHashMap<>();
+        private final Map<UUID, UUID> vehicleByReservation = new ConcurrentHashMap<>();
+
+        void upsertVehicle(VehicleAllocationView view) {
+            ModelEntry model = models.computeIfAbsent(view.getModelPublicId(), ModelEntry::new);
+            synchronized (model) {
+                VehicleEntry vehicle = vehicles.computeIfAbsent(view.getVehicleId(),
+                        id -> new VehicleEntry(id, model));
+                vehicle.available = view.getStatus() == VehicleStatus.AVAILABLE;
+                vehicle.mileageKm = view.getMileageKm();
+                model.vehicles.put(vehicle.vehicleId, vehicle);
+            }
+        }
+
+        void putInterval(UUID vehicleId, Interval interval) {
+            VehicleEntry vehicle = vehicles.get(vehicleId);
+            if (vehicle == null) {
+                // Unknown vehicle (e.g. inserted outside the service); the next rebuild picks it up
+                return;
+            }
+            synchronized (vehicle.model) {
+                vehicle.intervals.removeIf(i -> i.reservationId.equals(interval.reservationId));
+                vehicle.intervals.add(interval);
+            }
+            vehicleByReservation.put(interval.reservationId, vehicleId);
+        }
+
+        void removeInterval(UUID reservationId) {
+            UUID vehicleId = vehicleByReservation.remove(reservationId);
+            VehicleEntry vehicle = vehicleId != null ? vehicles.get(vehicleId) : null;
+            if (vehicle == null) {
+                return;
+            }
+            synchronized (vehicle.model) {
+                vehicle.intervals.removeIf(i -> i.reservationId.equals(reservationId));
+            }
+        }
+
+        /**
+         * Drop PENDING holds that expired before {@code now} and intervals
+         * that already ended.
+         */
+        void pruneReleased(LocalDateTime now) {
+            for (ModelEntry model : models.values()) {
+                synchronized (model) {
+                    for (VehicleEntry vehicle : model.vehicles.values()) {
+                        vehicle.intervals.removeIf(i -> {
+                            boolean released = i.isExpiredHold(now) || !i.bookingEndDate.isAfter(now);
+                            if (released) {
+                                vehicleByReservation.remove(i.reservationId);
+                            }
+                            return released;
+                        });
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * All vehicles of one car model. Instances are also the lock guarding
+     * their vehicles' mutable state.
+     */
+    private static final class ModelEntry {
+        private final UUID modelPublicId;
+        private final Map<UUID, VehicleEntry> vehicles = new HashMap<>();
+
+        ModelEntry(UUID modelPublicId) {
+            this.modelPublicId = modelPublicId;
+        }
+    }
+
+    private static final class VehicleEntry {
+        private final UUID vehicleId;
+        private final ModelEntry model;
+        private final NavigableSet<Interval> intervals = new TreeSet<>(Interval.ORDER);
+        private boolean available;
+        private Integer mileageKm;
+
+        VehicleEntry(UUID vehicleId, ModelEntry model) {
+            this.vehicleId = vehicleId;
+            this.model = model;
+        }
+
+        /**
+         * Whether any blocking interval overlaps [startDate, endDate).
+         */
+        boolean overlaps(LocalDateTime startDate, LocalDateTime endDate, LocalDateTime now) {
+            for (Interval interval : intervals) {
+                if (!interval.bookingStartDate.isBefore(endDate)) {
+                    // Sorted by start date: nothing further can overlap
+                    return false;
+                }
+                if (interval.bookingEndDate.isAfter(startDate) && interval.blocks(now)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private record Interval(UUID reservationId, LocalDateTime bookingStartDate, LocalDateTime bookingEndDate,
+            ReservationStatus status, LocalDateTime expiresAt) {
+
+        static final Comparator<Interval> ORDER = Comparator
+                .comparing(Interval::bookingStartDate)
+                .thenComparing(Interval::reservationId);
+
+        boolean isExpiredHold(LocalDateTime now) {
+            return status == ReservationStatus.PENDING && expiresAt != null && !expiresAt.isAfter(now);
+        }
+
+        /**
+         * CONFIRMED and unexpired PENDING intervals block the vehicle, matching
+         * the database predicates used for allocation.
+         */
+        boolean blocks(LocalDateTime now) {
+            return bookingEndDate.isAfter(now) && !isExpiredHold(now);
+        }
+
+        static Interval of(BookingIntervalView view) {
+            return new Interval(view.getReservationId(), view.getBookingStartDate(), view.getBookingEndDate(),
+                    view.getReservationStatus(), view.getExpiresAt());
+        }
+    }
+}
@@ -0,0 +1,174 @@
+-- ==============================================================================
+-- PostgreSQL-specific schema objects
+--
+-- Runs on every startup (spring.sql.init.mode=always, platform=postgresql)
+-- BEFORE Hibernate touches the schema, so every statement must be idempotent.
+-- Objects on Hibernate-managed tables are guarded with to_regclass(): on a
+-- brand-new database they are created on the next startup, once Hibernate has
+-- created the tables.
+--
+-- DO blocks use single-quoted bodies (not $$) because Spring's script splitter
+-- does not understand dollar quoting.
+-- ==============================================================================
+
+-- Availability anti-join: covers the CONFIRMED / PENDING rows only and carries
+-- expires_at so "PENDING AND expires_at > now" is answered from the index
+-- without visiting the heap.
+DO '
+BEGIN
+    IF to_regclass(''vehicle_booking_records'') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_vbr_active_vehicle_dates
+            ON vehicle_booking_records (vehicle_id, booking_start_date, booking_end_date)
+            INCLUDE (reservation_status, expires_at)
+            WHERE reservation_status IN (''CONFIRMED'', ''PENDING'');
+    END IF;
+END';
+
+-- Overlap enforcement in the database: no two CONFIRMED / PENDING rows of the
+-- same vehicle may have intersecting [start, end) periods. Lets allocation
+-- insert optimistically (booking.allocation.mode=optimistic) instead of
+-- locking the vehicle row first.
+--
+-- Stale PENDING holds (past expires_at, not flipped yet) are expired first, as
+-- the constraint would otherwise count them. The whole block is skipped with a
+-- warning when existing rows still overlap or btree_gist is not installable;
+-- allocation then stays in locking mode.
+--
+-- Every ALTER takes an ACCESS EXCLUSIVE lock, even when IF NOT EXISTS makes
+-- it a no-op, and would queue behind any long transaction while blocking all
+-- reservation traffic. So the catalogs are checked first and nothing is
+-- altered once the constraint (and with it the column) is in place.
+DO '
+BEGIN
+    IF to_regclass(''vehicle_booking_records'') IS NOT NULL
+       AND NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''excl_vbr_vehicle_period'') THEN
+        CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+        IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                        WHERE table_schema = current_schema()
+                          AND table_name = ''vehicle_booking_records''
+                          AND column_name = ''booking_period'') THEN
+            ALTER TABLE vehicle_booking_records
+                ADD COLUMN booking_period tsrange
+                GENERATED ALWAYS AS (tsrange(booking_start_date, booking_end_date, ''[)'')) STORED;
+        END IF;
+
+        UPDATE vehicle_booking_records
+           SET reservation_status = ''EXPIRED'', last_updated_at = now()
+         WHERE reservation_status = ''PENDING''
+           AND expires_at <= now();
+
+        ALTER TABLE vehicle_booking_records
+            ADD CONSTRAINT excl_vbr_vehicle_period
+            EXCLUDE USING gist (vehicle_id WITH =, booking_period WITH &&)
+            WHERE (reservation_status IN (''CONFIRMED'', ''PENDING''));
+    END IF;
+EXCEPTION WHEN OTHERS THEN
+    RAISE WARNING ''excl_vbr_vehicle_period not installed: %'', SQLERRM;
+END';
+
+-- Fleet search (FleetVehicleSearchRepositoryImpl): trigram GIN indexes on the
+-- lower-cased columns, so LOWER(col) LIKE '%term%' is answered from the index
+-- instead of a scan of the operator's fleet. Skipped with a warning when
+-- pg_trgm is not installable; search then works as before, unindexed.
+DO '
+BEGIN
+    IF to_regclass(''fleet_vehicles'') IS NOT NULL AND to_regclass(''car_models'') IS NOT NULL THEN
+        CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+        CREATE INDEX IF NOT EXISTS idx_fleet_vehicles_plate_trgm
+            ON fleet_vehicles USING gin (LOWER(license_plate) gin_trgm_ops);
+        CREATE INDEX IF NOT EXISTS idx_fleet_vehicles_location_trgm
+            ON fleet_vehicles USING gin (LOWER(current_location) gin_trgm_ops);
+        CREATE INDEX IF NOT EXISTS idx_car_models_model_trgm
+            ON car_models USING gin (LOWER(model) gin_trgm_ops);
+        CREATE INDEX IF NOT EXISTS idx_car_models_manufacturer_trgm
+            ON car_models USING gin (LOWER(manufacturer) gin_trgm_ops);
+    END IF;
+EXCEPTION WHEN OTHERS THEN
+    RAISE WARNING ''fleet search trigram indexes not installed: %'', SQLERRM;
+END';
+
+-- Keyset listing of an operator's fleet (searchFleetVehiclesAfter): one index
+-- per sort order, ending in id, so each page is a seek plus a short range read.
+DO '
+BEGIN
+    IF to_regclass(''fleet_vehicles'') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_fleet_vehicles_owner_plate_id
+            ON fleet_vehicles (owner_id, license_plate, id);
+        CREATE INDEX IF NOT EXISTS idx_fleet_vehicles_owner_status_id
+            ON fleet_vehicles (owner_id, status, id);
+        CREATE INDEX IF NOT EXISTS idx_fleet_vehicles_owner_price_id
+            ON fleet_vehicles (owner_id, daily_price, id);
+        CREATE INDEX IF NOT EXISTS idx_fleet_vehicles_owner_created_id
+            ON fleet_vehicles (owner_id, created_at, id);
+    END IF;
+END';
+
+-- Change polling of the model inventory ledger (findBookingIntervalsUpdatedSince,
+-- findAllocationViewsUpdatedSince): each poll reads the last few seconds only.
+DO '
+BEGIN
+    IF to_regclass(''vehicle_booking_records'') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_vbr_last_updated
+            ON vehicle_booking_records (last_updated_at);
+    END IF;
+    IF to_regclass(''fleet_vehicles'') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_fleet_vehicles_last_updated
+            ON fleet_vehicles (last_updated_at);
+    END IF;
+END';
+
+-- Idempotency-Key outcomes for confirm / cancel (ReservationIdempotencyKey).
+-- Created here rather than by Hibernate so prod (ddl-auto=validate) has it.
+CREATE TABLE IF NOT EXISTS reservation_idempotency_keys (
+    idempotency_key VARCHAR(255) PRIMARY KEY,
+    operation       VARCHAR(10)  NOT NULL,
+    reservation_id  UUID         NOT NULL,
+    vehicle_id      UUID,
+    completed_at    TIMESTAMP(6) NOT NULL,
+    expires_at      TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_expires
+    ON reservation_idempotency_keys (expires_at);
+
+-- Leases of scheduled jobs that run on one replica at a time (SchedulerLock).
+CREATE TABLE IF NOT EXISTS scheduler_locks (
+    lock_name     VARCHAR(64)  PRIMARY KEY,
+    owner_id      VARCHAR(255) NOT NULL,
+    fencing_token BIGINT       NOT NULL,
+    locked_at     TIMESTAMP(6) NOT NULL,
+    locked_until  TIMESTAMP(6) NOT NULL
+);
+
+-- Archive of finished bookings (ReservationArchiver), range-partitioned by
+-- booking_end_date with one partition per month, created by the archival job.
+-- The default partition only catches rows a missing month partition would
+-- otherwise reject. No FK to fleet_vehicles: archived vehicles may be deleted.
+CREATE TABLE IF NOT EXISTS vehicle_booking_records_archive (
+    id                 UUID         NOT NULL,
+    vehicle_id         UUID         NOT NULL,
+    booking_id         UUID         NOT NULL,
+    booking_start_date TIMESTAMP(6) NOT NULL,
+    booking_end_date   TIMESTAMP(6) NOT NULL,
+    reservation_status VARCHAR(20)  NOT NULL,
+    expires_at         TIMESTAMP(6),
+    payment_reference  VARCHAR(255),
+    notes              TEXT,
+    created_at         TIMESTAMP(6) NOT NULL,
+    confirmed_at       TIMESTAMP(6),
+    cancelled_at       TIMESTAMP(6),
+    last_updated_at    TIMESTAMP(6) NOT NULL,
+    archived_at        TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id, booking_end_date)
+) PARTITION BY RANGE (booking_end_date);
+
+CREATE TABLE IF NOT EXISTS vehicle_booking_records_archive_default
+    PARTITION OF vehicle_booking_records_archive DEFAULT;
+
+CREATE INDEX IF NOT EXISTS idx_vbr_archive_booking_id
+    ON vehicle_booking_records_archive (booking_id);
+
+CREATE INDEX IF NOT EXISTS idx_vbr_archive_vehicle_end
+    ON vehicle_booking_records_archive (vehicle_id, booking_end_date);
@@ -2,6 +2,9 @@ package com.exploresg.fleetservice.controller;
 
 import com.exploresg.fleetservice.model.CarModel;
 import com.exploresg.fleetservice.service.CarModelService;
+import com.exploresg.fleetservice.service.CatalogSnapshotService;
+import com.exploresg.fleetservice.service.FleetExportService;
+import com.exploresg.fleetservice.service.FleetImportService;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
@@ -24,6 +27,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = FleetController.class, excludeAutoConfiguration =  {SecurityAutoConfiguration.class, OAuth2ResourceServerAutoConfiguration.class,
@@ -32,6 +37,12 @@ import static org.mockito.Mockito.when;
 public class FleetControllerUnitTest {
     @MockitoBean
     CarModelService carModelService;
+    @MockitoBean
+    CatalogSnapshotService catalogSnapshotService;
+    @MockitoBean
+    FleetExportService fleetExportService;
+    @MockitoBean
+    FleetImportService fleetImportService;
     @Autowired
     MockMvc mockMvc;
 
@@ -82,4 +93,35 @@ public class FleetControllerUnitTest {
 
         Mockito.verify(carModelService, Mockito.times(1)).getAllCarModels();
     }
+
+    @Test
+    @DisplayName("Should serve the catalog snapshot and return 304 when the ETag matches")
+    public void testGetAvailableModelsHonoursIfNoneMatch() throws Exception {
+        CatalogSnapshotService.Snapshot snapshot = new CatalogSnapshotService.Snapshot(7, "W/\"abc\"",
+                "[]".getBytes(), null, 0);
+        when(catalogSnapshotService.getSnapshot()).thenReturn(snapshot);
+
+        MvcResult fresh = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/fleet/models")).andReturn();
+        assertEquals(200, fresh.getResponse().getStatus());
+        assertEquals("[]", fresh.getResponse().getContentAsString());
+        assertEquals("W/\"abc\"", fresh.getResponse().getHeader("ETag"));
+        assertEquals("7", fresh.getResponse().getHeader("X-Catalog-Version"));
+
+        MvcResult cached = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/fleet/models")
+                .header("If-None-Match", "W/\"abc\"")).andReturn();
+        assertEquals(304, cached.getResponse().getStatus());
+        assertEquals(0, cached.getResponse().getContentLength());
+    }
+
+    @Test
+    @DisplayName("Should gzip the catalog only when Accept-Encoding gives gzip a non-zero weight")
+    public void testAcceptsGzipHonoursQValues() {
+        assertTrue(FleetController.acceptsGzip("gzip, deflate, br"));
+        assertTrue(FleetController.acceptsGzip("br;q=1.0, gzip;q=0.5"));
+        assertTrue(FleetController.acceptsGzip("*"));
+        assertFalse(FleetController.acceptsGzip("gzip;q=0"));
+        assertFalse(FleetController.acceptsGzip("*;q=0.5, gzip;q=0.000"));
+        assertFalse(FleetController.acceptsGzip("identity"));
+        assertFalse(FleetController.acceptsGzip(null));
+    }
 }
@@ -0,0 +1,98 @@
+package com.exploresg.fleetservice.repository;
+
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.FleetVehicle;
+import com.exploresg.fleetservice.model.VehicleBookingRecord;
+import com.exploresg.fleetservice.model.VehicleBookingRecord.ReservationStatus;
+import com.exploresg.fleetservice.model.VehicleStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Retention cutoff of the archival job (findArchivableMonths; moveArchivableBatch
+ * uses the same predicate): CANCELLED / EXPIRED rows by last_updated_at,
+ * CONFIRMED rows by booking_end_date, PENDING rows never.
+ */
+@DataJpaTest
+public class ArchivableBookingRepositoryTest {
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+    @Autowired
+    private VehicleBookingRecordRepository bookingRecordRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime cutoff = LocalDate.of(2025, 6, 1).atStartOfDay();
+    private FleetVehicle vehicle;
+
+    @BeforeEach
+    void setup() {
+        vehicle = vehicle();
+    }
+
+    @Test
+    @DisplayName("Should pick cancelled rows by last update and confirmed rows by booking end")
+    void shouldApplyCutoffPerStatus() {
+        // Ended in January, cancelled long ago: archivable
+        booking(ReservationStatus.CANCELLED, LocalDate.of(2025, 1, 20), cutoff.minusDays(90));
+        // Ended in February, but touched after the cutoff: kept
+        booking(ReservationStatus.EXPIRED, LocalDate.of(2025, 2, 20), cutoff.plusDays(1));
+        // Ended in March, confirmation updated after the cutoff: archivable by end date
+        booking(ReservationStatus.CONFIRMED, LocalDate.of(2025, 3, 20), cutoff.plusDays(5));
+        // Ends after the cutoff: kept
+        booking(ReservationStatus.CONFIRMED, LocalDate.of(2025, 6, 20), cutoff.minusDays(30));
+        // Never archived, however old
+        booking(ReservationStatus.PENDING, LocalDate.of(2025, 4, 20), cutoff.minusDays(60));
+
+        assertThat(bookingRecordRepository.findArchivableMonths(cutoff)).containsExactlyInAnyOrder(
+                Date.valueOf(LocalDate.of(2025, 1, 1)), Date.valueOf(LocalDate.of(2025, 3, 1)));
+    }
+
+    private void booking(ReservationStatus status, LocalDate endDate, LocalDateTime lastUpdatedAt) {
+        VehicleBookingRecord record = testEntityManager.persistAndFlush(VehicleBookingRecord.builder()
+                .vehicle(vehicle)
+                .bookingId(UUID.randomUUID())
+                .bookingStartDate(endDate.minusDays(2).atStartOfDay())
+                .bookingEndDate(endDate.atStartOfDay())
+                .reservationStatus(status)
+                .build());
+        // last_updated_at is maintained by Hibernate; backdate it directly
+        jdbcTemplate.update("UPDATE vehicle_booking_records SET last_updated_at = ? WHERE id = ?",
+                lastUpdatedAt, record.getId());
+    }
+
+    private FleetVehicle vehicle() {
+        CarModel carModel = new CarModel();
+        carModel.setPublicId(UUID.randomUUID());
+        carModel.setModel("Corolla");
+        carModel.setManufacturer("Toyota");
+        carModel.setSeats(5);
+        carModel.setLuggage(2);
+        carModel.setTransmission("Automatic");
+        carModel.setCategory("Sedan");
+        carModel.setFuelType("Petrol");
+        carModel.setImageUrl("https://example.com/corolla.png");
+        testEntityManager.persist(carModel);
+        return testEntityManager.persist(FleetVehicle.builder()
+                .carModel(carModel)
+                .ownerId(UUID.randomUUID())
+                .dailyPrice(new BigDecimal("100.00"))
+                .licensePlate("SGX1234A")
+                .status(VehicleStatus.AVAILABLE)
+                .build());
+    }
+}
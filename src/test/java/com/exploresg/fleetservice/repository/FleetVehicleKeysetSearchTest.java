@@ -0,0 +1,168 @@
+package com.exploresg.fleetservice.repository;
+
+import com.exploresg.fleetservice.dto.FleetVehicleCursorPage;
+import com.exploresg.fleetservice.dto.FleetVehicleCursorPage.TotalMode;
+import com.exploresg.fleetservice.exception.InvalidPageCursorException;
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.FleetVehicle;
+import com.exploresg.fleetservice.model.VehicleStatus;
+import com.exploresg.fleetservice.repository.FleetVehicleSearchRepository.KeysetSort;
+import com.exploresg.fleetservice.service.CarModelService;
+import com.exploresg.fleetservice.service.FleetDashboardRollup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Keyset listing through CarModelService.searchFleetVehiclesKeyset: cursors
+ * round-trip for every sort, foreign or altered cursors are refused, and each
+ * total mode reports what it promises.
+ */
+@DataJpaTest
+@Import(CarModelService.class)
+public class FleetVehicleKeysetSearchTest {
+
+    private static final UUID OWNER_ID = UUID.randomUUID();
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+    @Autowired
+    private CarModelService carModelService;
+
+    @MockitoBean
+    private FleetDashboardRollup dashboardRollup;
+
+    @BeforeEach
+    void setup() {
+        CarModel corolla = carModel();
+        vehicle(corolla, "SGX1234A", "120.00", VehicleStatus.AVAILABLE, OWNER_ID);
+        vehicle(corolla, "SGX5678B", "95.50", VehicleStatus.UNDER_MAINTENANCE, OWNER_ID);
+        vehicle(corolla, "SKA9012C", "150.00", VehicleStatus.AVAILABLE, OWNER_ID);
+        vehicle(corolla, "SGX0000D", "80.00", VehicleStatus.AVAILABLE, UUID.randomUUID());
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should walk the whole fleet one page at a time for every sort, in both directions")
+    void shouldRoundTripCursors() {
+        for (KeysetSort sort : KeysetSort.values()) {
+            for (boolean ascending : new boolean[] { true, false }) {
+                List<UUID> all = page(sort, ascending, null, 10).getContent().stream()
+                        .map(FleetVehicle::getId).toList();
+
+                List<UUID> walked = new ArrayList<>();
+                String cursor = null;
+                do {
+                    FleetVehicleCursorPage page = page(sort, ascending, cursor, 1);
+                    page.getContent().forEach(vehicle -> walked.add(vehicle.getId()));
+                    cursor = page.getNextCursor();
+                } while (cursor != null);
+
+                assertThat(all).hasSize(3);
+                assertThat(walked).as("%s %s", sort, ascending ? "asc" : "desc").isEqualTo(all);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse cursors that are malformed, altered or issued for another sort")
+    void shouldRejectBadCursors() {
+        String cursor = page(KeysetSort.DAILY_PRICE, true, null, 1).getNextCursor();
+        String token = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> page(KeysetSort.LICENSE_PLATE, true, cursor, 1))
+                .isInstanceOf(InvalidPageCursorException.class);
+        assertThatThrownBy(() -> page(KeysetSort.DAILY_PRICE, false, cursor, 1))
+                .isInstanceOf(InvalidPageCursorException.class);
+        assertThatThrownBy(() -> page(KeysetSort.DAILY_PRICE, true, "not*base64", 1))
+                .isInstanceOf(InvalidPageCursorException.class);
+        assertThatThrownBy(() -> page(KeysetSort.DAILY_PRICE, true, encode("v2" + token.substring(2)), 1))
+                .isInstanceOf(InvalidPageCursorException.class);
+        assertThatThrownBy(() -> page(KeysetSort.DAILY_PRICE, true,
+                encode(token.substring(0, token.lastIndexOf('|') + 1) + "cheap"), 1))
+                .isInstanceOf(InvalidPageCursorException.class);
+        assertThatThrownBy(() -> page(KeysetSort.DAILY_PRICE, true,
+                encode("v1|DAILY_PRICE|asc|not-a-uuid|95.50"), 1))
+                .isInstanceOf(InvalidPageCursorException.class);
+    }
+
+    @Test
+    @DisplayName("Should report totals per total mode")
+    void shouldReportTotalsPerMode() {
+        FleetVehicleCursorPage exact = page(KeysetSort.LICENSE_PLATE, true, null, 1, TotalMode.EXACT);
+        assertThat(exact.getTotalElements()).isEqualTo(3);
+        assertThat(exact.isTotalCapped()).isFalse();
+
+        CarModelService target = AopTestUtils.getTargetObject(carModelService);
+        ReflectionTestUtils.setField(target, "searchTotalCap", 2L);
+        FleetVehicleCursorPage capped = page(KeysetSort.LICENSE_PLATE, true, null, 1, TotalMode.CAPPED);
+        assertThat(capped.getTotalElements()).isEqualTo(2);
+        assertThat(capped.isTotalCapped()).isTrue();
+
+        // H2's EXPLAIN has no row estimate: reported as unknown, not as zero
+        FleetVehicleCursorPage estimated = page(KeysetSort.LICENSE_PLATE, true, null, 1, TotalMode.ESTIMATED);
+        assertThat(estimated.getTotalElements()).isNull();
+        assertThat(estimated.getContent()).hasSize(1);
+
+        FleetVehicleCursorPage none = page(KeysetSort.LICENSE_PLATE, true, null, 1, TotalMode.NONE);
+        assertThat(none.getTotalElements()).isNull();
+        assertThat(none.getTotalMode()).isEqualTo(TotalMode.NONE);
+    }
+
+    private FleetVehicleCursorPage page(KeysetSort sort, boolean ascending, String cursor, int size) {
+        return page(sort, ascending, cursor, size, TotalMode.NONE);
+    }
+
+    private FleetVehicleCursorPage page(KeysetSort sort, boolean ascending, String cursor, int size,
+            TotalMode totalMode) {
+        return carModelService.searchFleetVehiclesKeyset(OWNER_ID, null, null, null, null, null, sort, ascending,
+                cursor, size, totalMode);
+    }
+
+    private static String encode(String token) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private CarModel carModel() {
+        CarModel carModel = new CarModel();
+        carModel.setPublicId(UUID.randomUUID());
+        carModel.setModel("Corolla");
+        carModel.setManufacturer("Toyota");
+        carModel.setSeats(5);
+        carModel.setLuggage(2);
+        carModel.setTransmission("Automatic");
+        carModel.setCategory("Sedan");
+        carModel.setFuelType("Petrol");
+        carModel.setImageUrl("https://example.com/corolla.png");
+        return testEntityManager.persist(carModel);
+    }
+
+    private void vehicle(CarModel carModel, String licensePlate, String dailyPrice, VehicleStatus status,
+            UUID ownerId) {
+        testEntityManager.persist(FleetVehicle.builder()
+                .carModel(carModel)
+                .ownerId(ownerId)
+                .dailyPrice(new BigDecimal(dailyPrice))
+                .licensePlate(licensePlate)
+                .status(status)
+                .build());
+    }
+}
@@ -0,0 +1,122 @@
+package com.exploresg.fleetservice.repository;
+
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.FleetVehicle;
+import com.exploresg.fleetservice.model.VehicleStatus;
+import com.exploresg.fleetservice.repository.FleetVehicleSearchRepository.KeysetSort;
+import com.exploresg.fleetservice.repository.FleetVehicleSearchRepository.SearchCriteria;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+public class FleetVehicleSearchRepositoryTest {
+
+    private static final UUID OWNER_ID = UUID.randomUUID();
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+    @Autowired
+    private FleetVehicleRepository fleetVehicleRepository;
+
+    @BeforeEach
+    void setup() {
+        CarModel corolla = carModel("Corolla", "Toyota");
+        CarModel model3 = carModel("Model 3", "Tesla");
+        vehicle(corolla, "SGX1234A", "Changi", VehicleStatus.AVAILABLE, OWNER_ID);
+        vehicle(corolla, "SGX_99B", "Jurong", VehicleStatus.UNDER_MAINTENANCE, OWNER_ID);
+        vehicle(model3, "SKA5678C", "Changi Airport", VehicleStatus.AVAILABLE, OWNER_ID);
+        vehicle(model3, "SGX7777D", "Changi", VehicleStatus.AVAILABLE, UUID.randomUUID());
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should combine filters case-insensitively within the owner's fleet")
+    void shouldCombineFilters() {
+        Page<FleetVehicle> page = fleetVehicleRepository.searchFleetVehicles(OWNER_ID, null, "AVAILABLE",
+                null, null, "CHANGI", PageRequest.of(0, 10, Sort.by("license_plate")));
+
+        assertThat(page.getContent()).extracting(FleetVehicle::getLicensePlate)
+                .containsExactly("SGX1234A", "SKA5678C");
+        assertThat(page.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should treat LIKE wildcards in search terms literally")
+    void shouldEscapeWildcards() {
+        Page<FleetVehicle> page = fleetVehicleRepository.searchFleetVehicles(OWNER_ID, "x_", null,
+                null, null, null, PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).extracting(FleetVehicle::getLicensePlate).containsExactly("SGX_99B");
+    }
+
+    @Test
+    @DisplayName("Should report the total from the window count, also past the last page")
+    void shouldCountTotals() {
+        Page<FleetVehicle> first = fleetVehicleRepository.searchFleetVehicles(OWNER_ID, null, null,
+                "o", null, null, PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "license_plate")));
+        Page<FleetVehicle> beyond = fleetVehicleRepository.searchFleetVehicles(OWNER_ID, null, null,
+                "o", null, null, PageRequest.of(5, 1));
+
+        assertThat(first.getContent()).extracting(FleetVehicle::getLicensePlate).containsExactly("SKA5678C");
+        assertThat(first.getTotalElements()).isEqualTo(3);
+        assertThat(beyond.getContent()).isEmpty();
+        assertThat(beyond.getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should continue keyset pages after the last (sort value, id) and cap counts")
+    void shouldPageByKeyset() {
+        SearchCriteria criteria = new SearchCriteria(OWNER_ID, null, null, null, null, null);
+
+        List<FleetVehicle> first = fleetVehicleRepository.searchFleetVehiclesAfter(criteria,
+                KeysetSort.LICENSE_PLATE, false, null, null, 2);
+        FleetVehicle last = first.get(first.size() - 1);
+        List<FleetVehicle> second = fleetVehicleRepository.searchFleetVehiclesAfter(criteria,
+                KeysetSort.LICENSE_PLATE, false, KeysetSort.LICENSE_PLATE.valueOf(last), last.getId(), 2);
+
+        assertThat(first).extracting(FleetVehicle::getLicensePlate).containsExactly("SKA5678C", "SGX_99B");
+        assertThat(second).extracting(FleetVehicle::getLicensePlate).containsExactly("SGX1234A");
+        assertThat(fleetVehicleRepository.countFleetVehicles(criteria, 0)).isEqualTo(3);
+        assertThat(fleetVehicleRepository.countFleetVehicles(criteria, 1)).isEqualTo(2);
+    }
+
+    private CarModel carModel(String model, String manufacturer) {
+        CarModel carModel = new CarModel();
+        carModel.setPublicId(UUID.randomUUID());
+        carModel.setModel(model);
+        carModel.setManufacturer(manufacturer);
+        carModel.setSeats(5);
+        carModel.setLuggage(2);
+        carModel.setTransmission("Automatic");
+        carModel.setCategory("Sedan");
+        carModel.setFuelType("Petrol");
+        carModel.setImageUrl("https://example.com/" + model + ".png");
+        return testEntityManager.persist(carModel);
+    }
+
+    private void vehicle(CarModel carModel, String licensePlate, String location, VehicleStatus status,
+            UUID ownerId) {
+        testEntityManager.persist(FleetVehicle.builder()
+                .carModel(carModel)
+                .ownerId(ownerId)
+                .dailyPrice(new BigDecimal("100.00"))
+                .licensePlate(licensePlate)
+                .currentLocation(location)
+                .status(status)
+                .build());
+    }
+}
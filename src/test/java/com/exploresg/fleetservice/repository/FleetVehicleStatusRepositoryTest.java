@@ -0,0 +1,112 @@
+package com.exploresg.fleetservice.repository;
+
+import com.exploresg.fleetservice.dto.BulkVehicleStatusRequest;
+import com.exploresg.fleetservice.dto.BulkVehicleStatusResponse;
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.FleetVehicle;
+import com.exploresg.fleetservice.model.VehicleStatus;
+import com.exploresg.fleetservice.service.CarModelService;
+import com.exploresg.fleetservice.service.FleetDashboardRollup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(CarModelService.class)
+public class FleetVehicleStatusRepositoryTest {
+
+    private static final UUID OWNER_ID = UUID.randomUUID();
+    private static final UUID OTHER_OWNER_ID = UUID.randomUUID();
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+    @Autowired
+    private FleetVehicleRepository fleetVehicleRepository;
+    @Autowired
+    private CarModelService carModelService;
+
+    @MockitoBean
+    private FleetDashboardRollup dashboardRollup;
+
+    private UUID owned;
+    private UUID foreign;
+
+    @BeforeEach
+    void setup() {
+        CarModel corolla = carModel();
+        owned = vehicle(corolla, "SGX1234A", OWNER_ID);
+        foreign = vehicle(corolla, "SGX5678B", OTHER_OWNER_ID);
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should neither update nor report vehicles of another operator")
+    void shouldIgnoreOtherOwnersVehicles() {
+        BulkVehicleStatusResponse response = carModelService.updateFleetVehicleStatuses(OWNER_ID,
+                BulkVehicleStatusRequest.builder()
+                        .vehicleIds(List.of(owned, foreign))
+                        .status(VehicleStatus.AVAILABLE)
+                        .build());
+
+        assertThat(response.getUpdated()).isEqualTo(1);
+        assertThat(response.getResults()).containsExactly(
+                new BulkVehicleStatusResponse.Result(owned, BulkVehicleStatusResponse.Outcome.UPDATED),
+                new BulkVehicleStatusResponse.Result(foreign, BulkVehicleStatusResponse.Outcome.NOT_FOUND));
+
+        FleetVehicle untouched = fleetVehicleRepository.findById(foreign).orElseThrow();
+        assertThat(untouched.getStatus()).isEqualTo(VehicleStatus.UNDER_MAINTENANCE);
+        assertThat(untouched.getMaintenanceNote()).isEqualTo("Brake check");
+    }
+
+    @Test
+    @DisplayName("Should clear maintenance note and expected return date when not given")
+    void shouldClearMaintenanceDetails() {
+        int updated = fleetVehicleRepository.updateStatusForOwner(OWNER_ID, List.of(owned),
+                VehicleStatus.AVAILABLE, null, null, LocalDateTime.now());
+
+        FleetVehicle vehicle = fleetVehicleRepository.findById(owned).orElseThrow();
+        assertThat(updated).isEqualTo(1);
+        assertThat(vehicle.getStatus()).isEqualTo(VehicleStatus.AVAILABLE);
+        assertThat(vehicle.getMaintenanceNote()).isNull();
+        assertThat(vehicle.getExpectedReturnDate()).isNull();
+    }
+
+    private CarModel carModel() {
+        CarModel carModel = new CarModel();
+        carModel.setPublicId(UUID.randomUUID());
+        carModel.setModel("Corolla");
+        carModel.setManufacturer("Toyota");
+        carModel.setSeats(5);
+        carModel.setLuggage(2);
+        carModel.setTransmission("Automatic");
+        carModel.setCategory("Sedan");
+        carModel.setFuelType("Petrol");
+        carModel.setImageUrl("https://example.com/corolla.png");
+        return testEntityManager.persist(carModel);
+    }
+
+    private UUID vehicle(CarModel carModel, String licensePlate, UUID ownerId) {
+        return testEntityManager.persist(FleetVehicle.builder()
+                .carModel(carModel)
+                .ownerId(ownerId)
+                .dailyPrice(new BigDecimal("100.00"))
+                .licensePlate(licensePlate)
+                .status(VehicleStatus.UNDER_MAINTENANCE)
+                .maintenanceNote("Brake check")
+                .expectedReturnDate(LocalDateTime.now().plusDays(2))
+                .build()).getId();
+    }
+}
@@ -0,0 +1,62 @@
+package com.exploresg.fleetservice.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lease statements of SchedulerLockRepository. They use ON CONFLICT DO UPDATE
+ * and make_interval, which H2 does not understand, so this runs only against
+ * a PostgreSQL database given in FLEET_TEST_POSTGRES_URL (user and password
+ * in FLEET_TEST_POSTGRES_USER / FLEET_TEST_POSTGRES_PASSWORD).
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfEnvironmentVariable(named = "FLEET_TEST_POSTGRES_URL", matches = ".+")
+@TestPropertySource(properties = {
+        "spring.datasource.url=${FLEET_TEST_POSTGRES_URL:}",
+        "spring.datasource.username=${FLEET_TEST_POSTGRES_USER:postgres}",
+        "spring.datasource.password=${FLEET_TEST_POSTGRES_PASSWORD:}",
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect"
+})
+public class SchedulerLockPostgresTest {
+
+    private static final String LOCK = "reservation-expiry-sweep";
+
+    @Autowired
+    private SchedulerLockRepository lockRepository;
+
+    @Test
+    @DisplayName("Should not hand an unexpired lease to a second acquirer")
+    void shouldRefuseSecondAcquirer() {
+        Optional<Long> first = lockRepository.tryAcquire(LOCK, "fleet-service-0/1a2b3c4d", 60);
+        Optional<Long> second = lockRepository.tryAcquire(LOCK, "fleet-service-1/5e6f7a8b", 60);
+
+        assertThat(first).isPresent();
+        assertThat(second).isEmpty();
+        assertThat(lockRepository.renew(LOCK, first.get(), 60)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should bump the fencing token on takeover and refuse the old token")
+    void shouldFenceOffPreviousHolder() {
+        long stale = lockRepository.tryAcquire(LOCK, "fleet-service-0/1a2b3c4d", 60).orElseThrow();
+        // Let the lease lapse right away
+        assertThat(lockRepository.release(LOCK, stale, 0)).isEqualTo(1);
+
+        long current = lockRepository.tryAcquire(LOCK, "fleet-service-1/5e6f7a8b", 60).orElseThrow();
+
+        assertThat(current).isEqualTo(stale + 1);
+        assertThat(lockRepository.renew(LOCK, stale, 60)).isZero();
+        assertThat(lockRepository.release(LOCK, stale, 0)).isZero();
+    }
+}
@@ -0,0 +1,78 @@
+package com.exploresg.fleetservice.repository;
+
+import com.exploresg.fleetservice.model.ReservationIdempotencyKey;
+import com.exploresg.fleetservice.model.ReservationIdempotencyKey.Operation;
+import com.exploresg.fleetservice.model.SchedulerLock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fenced bulk statements: they write only while scheduler_locks still shows
+ * the caller's token on an unexpired lease.
+ */
+@DataJpaTest
+public class SchedulerLockRepositoryTest {
+
+    private static final String LOCK = "idempotency-key-purge";
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+    @Autowired
+    private ReservationIdempotencyKeyRepository keyRepository;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void setup() {
+        testEntityManager.persist(ReservationIdempotencyKey.builder()
+                .idempotencyKey("payment-retry-1")
+                .operation(Operation.CONFIRM)
+                .reservationId(UUID.randomUUID())
+                .completedAt(now.minusDays(2))
+                .expiresAt(now.minusDays(1))
+                .build());
+    }
+
+    @Test
+    @DisplayName("Should refuse a fenced write made with a stale fencing token")
+    void shouldRefuseStaleToken() {
+        lease(2, now.plusMinutes(1));
+
+        assertThat(keyRepository.deleteExpired(now, LOCK, 1)).isZero();
+        assertThat(keyRepository.deleteExpired(now, LOCK, 2)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should refuse a fenced write once the lease has lapsed, even with the current token")
+    void shouldRefuseLapsedLease() {
+        lease(2, now.minusSeconds(1));
+
+        assertThat(keyRepository.deleteExpired(now, LOCK, 2)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should write without a lease row when locking is disabled")
+    void shouldSkipFenceForUnfencedLease() {
+        assertThat(keyRepository.deleteExpired(now, LOCK, -1)).isEqualTo(1);
+    }
+
+    private void lease(long fencingToken, LocalDateTime lockedUntil) {
+        testEntityManager.persist(SchedulerLock.builder()
+                .lockName(LOCK)
+                .ownerId("fleet-service-0/1a2b3c4d")
+                .fencingToken(fencingToken)
+                .lockedAt(now.minusMinutes(1))
+                .lockedUntil(lockedUntil)
+                .build());
+        testEntityManager.flush();
+    }
+}
@@ -0,0 +1,179 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.dto.AvailabilityCalendarResponse;
+import com.exploresg.fleetservice.dto.AvailabilityCalendarResponse.Granularity;
+import com.exploresg.fleetservice.exception.InvalidDateRangeException;
+import com.exploresg.fleetservice.model.VehicleBookingRecord.ReservationStatus;
+import com.exploresg.fleetservice.model.VehicleStatus;
+import com.exploresg.fleetservice.repository.FleetVehicleRepository;
+import com.exploresg.fleetservice.repository.VehicleBookingRecordRepository;
+import com.exploresg.fleetservice.repository.projection.BookingIntervalView;
+import com.exploresg.fleetservice.repository.projection.VehicleAllocationView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AvailabilityCalendarServiceTest {
+
+    private static final UUID MODEL = UUID.randomUUID();
+    private static final UUID SHORT_BOOKING = UUID.randomUUID();
+    private static final UUID EXPIRED_HOLD = UUID.randomUUID();
+    private static final UUID TWO_DAY_BOOKING = UUID.randomUUID();
+    private static final UUID IN_MAINTENANCE = UUID.randomUUID();
+
+    @Mock
+    private FleetVehicleRepository fleetVehicleRepository;
+
+    @Mock
+    private VehicleBookingRecordRepository bookingRecordRepository;
+
+    @InjectMocks
+    private AvailabilityCalendarService calendarService;
+
+    private final LocalDateTime tomorrow = LocalDate.now().plusDays(1).atStartOfDay();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(calendarService, "horizonDays", 30);
+        ReflectionTestUtils.setField(calendarService, "cacheTtlMs", 60000L);
+        ReflectionTestUtils.setField(calendarService, "cacheMaxModels", 1);
+    }
+
+    @Test
+    @DisplayName("Should count vehicles free for each day and hour, ignoring expired holds")
+    void shouldCountFreeVehiclesPerSlot() {
+        when(fleetVehicleRepository.findAllocationViewsByModelPublicId(MODEL)).thenReturn(List.of(
+                vehicle(SHORT_BOOKING, VehicleStatus.AVAILABLE),
+                vehicle(EXPIRED_HOLD, VehicleStatus.AVAILABLE),
+                vehicle(TWO_DAY_BOOKING, VehicleStatus.AVAILABLE),
+                vehicle(IN_MAINTENANCE, VehicleStatus.UNDER_MAINTENANCE)));
+        when(bookingRecordRepository.findActiveBookingIntervalsByModelPublicId(eq(MODEL), any(), any()))
+                .thenReturn(List.of(
+                        interval(SHORT_BOOKING, tomorrow.plusHours(10), tomorrow.plusHours(12).plusMinutes(30),
+                                ReservationStatus.CONFIRMED, null),
+                        interval(EXPIRED_HOLD, tomorrow, tomorrow.plusDays(5),
+                                ReservationStatus.PENDING, LocalDateTime.now().minusMinutes(1)),
+                        interval(TWO_DAY_BOOKING, tomorrow, tomorrow.plusDays(2),
+                                ReservationStatus.CONFIRMED, null)));
+
+        AvailabilityCalendarResponse days = calendarService.getCalendar(MODEL, null, 4, Granularity.DAY);
+
+        assertThat(days.getTotalVehicles()).isEqualTo(3);
+        assertThat(days.getSlots()).extracting(AvailabilityCalendarResponse.Slot::getAvailableCount)
+                .containsExactly(3L, 1L, 2L, 3L);
+
+        AvailabilityCalendarResponse hours = calendarService.getCalendar(MODEL, tomorrow.toLocalDate(), 1,
+                Granularity.HOUR);
+
+        assertThat(hours.getSlots()).hasSize(24);
+        assertThat(hours.getSlots().get(9).getAvailableCount()).isEqualTo(2);
+        assertThat(hours.getSlots().get(12).getAvailableCount()).isEqualTo(1);
+        assertThat(hours.getSlots().get(13).getAvailableCount()).isEqualTo(2);
+        assertThat(hours.getSlots().get(10).getStart()).isEqualTo(tomorrow.plusHours(10));
+    }
+
+    @Test
+    @DisplayName("Should not cache models without vehicles and evict the least recently used model")
+    void shouldBoundCalendarCache() {
+        UUID unknown = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        when(fleetVehicleRepository.findAllocationViewsByModelPublicId(unknown)).thenReturn(List.of());
+        when(fleetVehicleRepository.findAllocationViewsByModelPublicId(MODEL))
+                .thenReturn(List.of(vehicle(SHORT_BOOKING, VehicleStatus.AVAILABLE)));
+        when(fleetVehicleRepository.findAllocationViewsByModelPublicId(other))
+                .thenReturn(List.of(vehicle(TWO_DAY_BOOKING, VehicleStatus.AVAILABLE)));
+        when(bookingRecordRepository.findActiveBookingIntervalsByModelPublicId(any(), any(), any()))
+                .thenReturn(List.of());
+
+        calendarService.getCalendar(unknown, null, 1, Granularity.DAY);
+        calendarService.getCalendar(unknown, null, 1, Granularity.DAY);
+        calendarService.getCalendar(MODEL, null, 1, Granularity.DAY);
+        calendarService.getCalendar(MODEL, null, 1, Granularity.DAY);
+        calendarService.getCalendar(other, null, 1, Granularity.DAY);
+        calendarService.getCalendar(MODEL, null, 1, Granularity.DAY);
+
+        verify(fleetVehicleRepository, times(2)).findAllocationViewsByModelPublicId(unknown);
+        verify(fleetVehicleRepository, times(2)).findAllocationViewsByModelPublicId(MODEL);
+        verify(fleetVehicleRepository, times(1)).findAllocationViewsByModelPublicId(other);
+    }
+
+    @Test
+    @DisplayName("Should reject windows outside the booking horizon")
+    void shouldRejectWindowOutsideHorizon() {
+        assertThatThrownBy(() -> calendarService.getCalendar(MODEL, null, 31, Granularity.DAY))
+                .isInstanceOf(InvalidDateRangeException.class);
+        assertThatThrownBy(() -> calendarService.getCalendar(MODEL, LocalDate.now().minusDays(1), 1,
+                Granularity.DAY)).isInstanceOf(InvalidDateRangeException.class);
+        assertThatThrownBy(() -> calendarService.getCalendar(MODEL, LocalDate.now().plusDays(20), 15,
+                Granularity.DAY)).isInstanceOf(InvalidDateRangeException.class);
+    }
+
+    private static VehicleAllocationView vehicle(UUID id, VehicleStatus status) {
+        return new VehicleAllocationView() {
+            public UUID getVehicleId() {
+                return id;
+            }
+
+            public UUID getModelPublicId() {
+                return MODEL;
+            }
+
+            public VehicleStatus getStatus() {
+                return status;
+            }
+
+            public Integer getMileageKm() {
+                return 0;
+            }
+        };
+    }
+
+    private static BookingIntervalView interval(UUID vehicleId, LocalDateTime start, LocalDateTime end,
+            ReservationStatus status, LocalDateTime expiresAt) {
+        UUID reservationId = UUID.randomUUID();
+        return new BookingIntervalView() {
+            public UUID getReservationId() {
+                return reservationId;
+            }
+
+            public UUID getVehicleId() {
+                return vehicleId;
+            }
+
+            public LocalDateTime getBookingStartDate() {
+                return start;
+            }
+
+            public LocalDateTime getBookingEndDate() {
+                return end;
+            }
+
+            public ReservationStatus getReservationStatus() {
+                return status;
+            }
+
+            public LocalDateTime getExpiresAt() {
+                return expiresAt;
+            }
+        };
+    }
+}
@@ -0,0 +1,115 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.dto.TemporaryReservationResponse;
+import com.exploresg.fleetservice.event.ReservationStateChangedEvent;
+import com.exploresg.fleetservice.model.VehicleBookingRecord.ReservationStatus;
+import com.exploresg.fleetservice.repository.VehicleBookingRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BookingIdempotencyCacheTest {
+
+    @Mock
+    private VehicleBookingRecordRepository bookingRecordRepository;
+
+    @InjectMocks
+    private BookingIdempotencyCache idempotencyCache;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(idempotencyCache, "enabled", true);
+        ReflectionTestUtils.setField(idempotencyCache, "warmupDays", 30);
+        ReflectionTestUtils.setField(idempotencyCache, "expectedIds", 1000);
+        ReflectionTestUtils.setField(idempotencyCache, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(idempotencyCache, "lruMaxSize", 2);
+        ReflectionTestUtils.setField(idempotencyCache, "lruTtlMs", 10_000L);
+    }
+
+    @Test
+    @DisplayName("Should answer 'maybe' until warmed, then only for ids warmed or marked seen")
+    void shouldFilterUnseenIdsOnceWarmed() {
+        UUID warmed = UUID.randomUUID();
+        UUID marked = UUID.randomUUID();
+        UUID unseen = UUID.randomUUID();
+        assertThat(idempotencyCache.mightHaveSeen(unseen)).isTrue();
+
+        when(bookingRecordRepository.findBookingIdsCreatedSince(any())).thenReturn(List.of(warmed));
+        idempotencyCache.rebuild();
+        idempotencyCache.markSeen(marked);
+
+        assertThat(idempotencyCache.mightHaveSeen(warmed)).isTrue();
+        assertThat(idempotencyCache.mightHaveSeen(marked)).isTrue();
+        assertThat(idempotencyCache.mightHaveSeen(unseen)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should replay a recent hold until it leaves PENDING")
+    void shouldReplayRecentHold() {
+        TemporaryReservationResponse hold = hold(UUID.randomUUID());
+        idempotencyCache.remember(hold);
+
+        assertThat(idempotencyCache.findRecent(hold.getBookingId())).contains(hold);
+
+        idempotencyCache.onReservationStateChanged(new ReservationStateChangedEvent(hold.getReservationId(),
+                hold.getVehicleId(), LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(5),
+                ReservationStatus.CONFIRMED, null));
+        assertThat(idempotencyCache.findRecent(hold.getBookingId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should not replay holds past the LRU TTL or past their own expiry")
+    void shouldDropStaleHolds() {
+        TemporaryReservationResponse expired = hold(UUID.randomUUID());
+        expired.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        idempotencyCache.remember(expired);
+        assertThat(idempotencyCache.findRecent(expired.getBookingId())).isEmpty();
+
+        ReflectionTestUtils.setField(idempotencyCache, "lruTtlMs", -1L);
+        TemporaryReservationResponse old = hold(UUID.randomUUID());
+        idempotencyCache.remember(old);
+        assertThat(idempotencyCache.findRecent(old.getBookingId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used hold beyond max-size")
+    void shouldEvictLeastRecentlyUsed() {
+        TemporaryReservationResponse first = hold(UUID.randomUUID());
+        TemporaryReservationResponse second = hold(UUID.randomUUID());
+        TemporaryReservationResponse third = hold(UUID.randomUUID());
+        idempotencyCache.remember(first);
+        idempotencyCache.remember(second);
+        // Touch first, so second is the eldest
+        idempotencyCache.findRecent(first.getBookingId());
+        idempotencyCache.remember(third);
+
+        assertThat(idempotencyCache.findRecent(first.getBookingId())).contains(first);
+        assertThat(idempotencyCache.findRecent(second.getBookingId())).isEmpty();
+        assertThat(idempotencyCache.findRecent(third.getBookingId())).contains(third);
+    }
+
+    private static TemporaryReservationResponse hold(UUID bookingId) {
+        return TemporaryReservationResponse.builder()
+                .success(true)
+                .reservationId(UUID.randomUUID())
+                .vehicleId(UUID.randomUUID())
+                .bookingId(bookingId)
+                .status("PENDING")
+                .expiresAt(LocalDateTime.now().plusMinutes(5))
+                .build();
+    }
+}
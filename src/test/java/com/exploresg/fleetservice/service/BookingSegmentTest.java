@@ -0,0 +1,96 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.dto.ArchivedBookingResponse;
+import com.exploresg.fleetservice.service.BookingSegment.Column;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BookingSegmentTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should read back exactly the rows written, looked up by booking or vehicle id")
+    void shouldRoundTripRows() throws Exception {
+        UUID vehicleId = UUID.randomUUID();
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0, 0, 123_456_000);
+        Path file = directory.resolve("bookings-2025-03.seg");
+        ArchivedBookingResponse cancelled = row(vehicleId, start, "CANCELLED", null, "Payment failed ✗");
+        ArchivedBookingResponse confirmed = row(vehicleId, start.plusDays(3), "CONFIRMED", "PAY-X", "");
+        List<ArchivedBookingResponse> others = new ArrayList<>();
+
+        // Small row groups so the matches land in different groups
+        try (BookingSegment.Writer writer = new BookingSegment.Writer(file, 64)) {
+            writer.add(cancelled);
+            for (int i = 0; i < 500; i++) {
+                ArchivedBookingResponse other = row(UUID.randomUUID(), start.plusHours(i), "CONFIRMED", "PAY-" + i,
+                        null);
+                others.add(other);
+                writer.add(other);
+            }
+            writer.add(confirmed);
+            writer.commit();
+        }
+
+        try (BookingSegment.Reader reader = new BookingSegment.Reader(file)) {
+            assertThat(reader.rowCount()).isEqualTo(502);
+            assertThat(reader.groupCount()).isEqualTo(8);
+            assertThat(reader.minBookingEnd()).isEqualTo(start.plusDays(1));
+            assertThat(reader.find(Column.VEHICLE_ID, vehicleId)).containsExactly(cancelled, confirmed);
+            assertThat(reader.find(Column.BOOKING_ID, confirmed.getBookingId())).containsExactly(confirmed);
+            assertThat(reader.find(Column.BOOKING_ID, UUID.randomUUID())).isEmpty();
+            assertThat(reader.readGroup(1)).containsExactlyElementsOf(others.subList(63, 127));
+        }
+        assertThat(directory.resolve("bookings-2025-03.seg.tmp")).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Should leave an existing segment untouched when a write is not committed")
+    void shouldDiscardUncommittedWrite() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2025, 4, 1, 10, 0);
+        Path file = directory.resolve("bookings-2025-04.seg");
+        ArchivedBookingResponse kept = row(UUID.randomUUID(), start, "CONFIRMED", "PAY-1", null);
+        try (BookingSegment.Writer writer = new BookingSegment.Writer(file)) {
+            writer.add(kept);
+            writer.commit();
+        }
+
+        try (BookingSegment.Writer writer = new BookingSegment.Writer(file)) {
+            writer.add(row(UUID.randomUUID(), start, "CONFIRMED", "PAY-2", null));
+        }
+
+        try (BookingSegment.Reader reader = new BookingSegment.Reader(file)) {
+            assertThat(reader.readGroup(0)).containsExactly(kept);
+        }
+        assertThat(directory.resolve("bookings-2025-04.seg.tmp")).doesNotExist();
+    }
+
+    private static ArchivedBookingResponse row(UUID vehicleId, LocalDateTime start, String status,
+            String paymentReference, String notes) {
+        return ArchivedBookingResponse.builder()
+                .reservationId(UUID.randomUUID())
+                .vehicleId(vehicleId)
+                .bookingId(UUID.randomUUID())
+                .bookingStartDate(start)
+                .bookingEndDate(start.plusDays(1))
+                .reservationStatus(status)
+                .paymentReference(paymentReference)
+                .notes(notes)
+                .createdAt(start.minusDays(2))
+                .confirmedAt("CONFIRMED".equals(status) ? start.minusDays(1) : null)
+                .cancelledAt("CANCELLED".equals(status) ? start.minusDays(1) : null)
+                .lastUpdatedAt(start.minusDays(1))
+                .archivedAt(start.plusMonths(2))
+                .build();
+    }
+}
@@ -0,0 +1,42 @@
+package com.exploresg.fleetservice.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CsvRecordReaderTest {
+
+    @Test
+    @DisplayName("Should split quoted fields, doubled quotes and embedded line breaks per RFC 4180")
+    void shouldReadQuotedFields() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader(
+                "car_model_id,licensePlate,currentLocation,maintenanceNote\r\n" +
+                        "1,SGP2001,\"1.453675, 103.621496\",\"said \"\"brakes\"\"\"\r\n" +
+                        "2,SGP2002,,\"line one\nline two\"\n" +
+                        "3,SGP2003,Changi,"));
+
+        assertThat(reader.next()).containsExactly("car_model_id", "licensePlate", "currentLocation",
+                "maintenanceNote");
+        assertThat(reader.next()).containsExactly("1", "SGP2001", "1.453675, 103.621496", "said \"brakes\"");
+        assertThat(reader.recordLine()).isEqualTo(2);
+        assertThat(reader.next()).containsExactly("2", "SGP2002", "", "line one\nline two");
+        assertThat(reader.next()).containsExactly("3", "SGP2003", "Changi", "");
+        assertThat(reader.recordLine()).isEqualTo(5);
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject a quoted field that never closes")
+    void shouldRejectUnterminatedQuote() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("a,b\n1,\"open"));
+
+        assertThat(reader.next()).isEqualTo(List.of("a", "b"));
+        assertThatThrownBy(reader::next).isInstanceOf(IOException.class).hasMessageContaining("line 2");
+    }
+}
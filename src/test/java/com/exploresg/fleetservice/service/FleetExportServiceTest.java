@@ -0,0 +1,100 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.config.JacksonConfig;
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.FleetVehicle;
+import com.exploresg.fleetservice.model.VehicleStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({ FleetExportService.class, JacksonConfig.class })
+public class FleetExportServiceTest {
+
+    private static final UUID OWNER_ID = UUID.randomUUID();
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+    @Autowired
+    private FleetExportService fleetExportService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setup() {
+        CarModel carModel = new CarModel();
+        carModel.setPublicId(UUID.randomUUID());
+        carModel.setModel("Corolla");
+        carModel.setManufacturer("Toyota");
+        carModel.setSeats(5);
+        carModel.setLuggage(2);
+        carModel.setTransmission("Automatic");
+        carModel.setCategory("Sedan");
+        carModel.setFuelType("Petrol");
+        carModel.setImageUrl("https://example.com/corolla.png");
+        testEntityManager.persist(carModel);
+
+        vehicle(carModel, "SGX2B", "Changi, \"T3\" carpark", OWNER_ID);
+        vehicle(carModel, "SGX1A", null, OWNER_ID);
+        vehicle(carModel, "SKA9Z", "Jurong", UUID.randomUUID());
+        testEntityManager.flush();
+    }
+
+    @Test
+    @DisplayName("Should stream one JSON object per line for the owner's vehicles only")
+    void shouldExportNdjson() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = fleetExportService.export(OWNER_ID, FleetExportService.Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(rows).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("licensePlate").asText()).isEqualTo("SGX1A");
+        assertThat(first.get("manufacturer").asText()).isEqualTo("Toyota");
+        assertThat(first.get("dailyPrice").decimalValue()).isEqualByComparingTo("120.50");
+        assertThat(first.get("currentLocation").isNull()).isTrue();
+        assertThat(objectMapper.readTree(lines[1]).get("currentLocation").asText())
+                .isEqualTo("Changi, \"T3\" carpark");
+    }
+
+    @Test
+    @DisplayName("Should write a header row and quote CSV fields that need it")
+    void shouldExportCsv() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        fleetExportService.export(OWNER_ID, FleetExportService.Format.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).startsWith("id,licensePlate,status,carModelPublicId,manufacturer,model,dailyPrice,");
+        assertThat(lines[1]).contains(",SGX1A,AVAILABLE,").contains(",Toyota,Corolla,120.50,");
+        assertThat(lines[2]).contains(",\"Changi, \"\"T3\"\" carpark\",");
+    }
+
+    private void vehicle(CarModel carModel, String licensePlate, String location, UUID ownerId) {
+        testEntityManager.persist(FleetVehicle.builder()
+                .carModel(carModel)
+                .ownerId(ownerId)
+                .dailyPrice(new BigDecimal("120.50"))
+                .licensePlate(licensePlate)
+                .currentLocation(location)
+                .status(VehicleStatus.AVAILABLE)
+                .build());
+    }
+}
@@ -0,0 +1,87 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.dto.FleetImportResponse;
+import com.exploresg.fleetservice.event.FleetVehicleChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class FleetImportServiceTest {
+
+    private static final UUID OWNER_ID = UUID.randomUUID();
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private FleetImportService fleetImportService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(fleetImportService, "batchSize", 1000);
+        ReflectionTestUtils.setField(fleetImportService, "maxReportedErrors", 1000);
+    }
+
+    @Test
+    @DisplayName("Should retry a rejected batch row by row and report only the offending rows")
+    @SuppressWarnings("unchecked")
+    void shouldRetryFailedBatchRowByRow() {
+        String csv = """
+                car_model_id,dailyPrice,licensePlate,status
+                1,120.00,SGA1001A,AVAILABLE
+                1,120.00,SGA1002B,AVAILABLE
+                1,120.00,SGA1003C,AVAILABLE
+                """;
+        when(jdbcTemplate.queryForList("SELECT id FROM car_models", Long.class)).thenReturn(List.of(1L));
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataIntegrityViolationException("value too long for type character varying(20)"));
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM fleet_vehicles"), eq(UUID.class), any(Object[].class)))
+                .thenReturn(List.of());
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class)))
+                .thenReturn(1)
+                .thenThrow(new DataIntegrityViolationException("value too long for type character varying(20)"))
+                .thenReturn(0);
+
+        FleetImportResponse response = fleetImportService.importCsv(OWNER_ID,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(response.getTotalRows()).isEqualTo(3);
+        assertThat(response.getImportedRows()).isEqualTo(1);
+        assertThat(response.getFailedRows()).isEqualTo(2);
+        assertThat(response.getErrors()).extracting(FleetImportResponse.RowError::getLicensePlate)
+                .containsExactly("SGA1002B", "SGA1003C");
+        assertThat(response.getErrors().get(0).getMessage()).startsWith("Insert failed:");
+        assertThat(response.getErrors().get(1).getMessage()).startsWith("Conflicts with an existing");
+        verify(eventPublisher).publishEvent(any(FleetVehicleChangedEvent.class));
+    }
+}
@@ -1,13 +1,24 @@
 package com.exploresg.fleetservice.service;
 
 import com.exploresg.fleetservice.dto.CreateCarModelRequest;
+import com.exploresg.fleetservice.dto.FleetDashboardDto;
+import com.exploresg.fleetservice.dto.OperatorCarModelDto;
 import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.FleetVehicle;
+import com.exploresg.fleetservice.model.VehicleBookingRecord;
+import com.exploresg.fleetservice.model.VehicleBookingRecord.ReservationStatus;
+import com.exploresg.fleetservice.model.VehicleStatus;
 import com.exploresg.fleetservice.repository.CarModelRepository;
+import com.exploresg.fleetservice.repository.FleetVehicleRepository;
+import com.exploresg.fleetservice.repository.VehicleBookingRecordRepository;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -20,10 +31,16 @@ public class FleetServiceIntegrationTest {
     private CarModelService carModelService;
     @Autowired
     private CarModelRepository carModelRepository;
+    @Autowired
+    private FleetVehicleRepository fleetVehicleRepository;
+    @Autowired
+    private VehicleBookingRecordRepository bookingRecordRepository;
 
     @BeforeAll
     @AfterAll
     public void deleteAll() {
+        bookingRecordRepository.deleteAll();
+        fleetVehicleRepository.deleteAll();
         carModelRepository.deleteAll();
     }
 
@@ -66,4 +83,66 @@ public class FleetServiceIntegrationTest {
         assertTrue(!carmodels.isEmpty());
     }
 
+    @Test
+    @Order(3)
+    public void shouldAggregateFleetDashboard() {
+        CarModel carModel = carModelService.getAllCarModels().get(0);
+        UUID ownerId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+
+        FleetVehicle booked = fleetVehicleRepository.save(vehicle(carModel, ownerId, "SGX1", VehicleStatus.AVAILABLE,
+                60000, "100.00", null));
+        fleetVehicleRepository.save(vehicle(carModel, ownerId, "SGX2", VehicleStatus.AVAILABLE, 20000, "50.00", null));
+        fleetVehicleRepository.save(vehicle(carModel, ownerId, "SGX3", VehicleStatus.UNDER_MAINTENANCE, null,
+                "60.00", now.minusDays(1)));
+        bookingRecordRepository.save(VehicleBookingRecord.builder()
+                .vehicle(booked)
+                .bookingId(UUID.randomUUID())
+                .bookingStartDate(now.minusDays(1))
+                .bookingEndDate(now.plusDays(1))
+                .reservationStatus(ReservationStatus.CONFIRMED)
+                .build());
+
+        FleetDashboardDto dashboard = carModelService.getFleetDashboard(ownerId);
+
+        assertEquals(3, dashboard.getVehicleStatus().getTotal());
+        assertEquals(2, dashboard.getVehicleStatus().getAvailable());
+        assertEquals(1, dashboard.getVehicleStatus().getUnderMaintenance());
+        assertEquals(1, dashboard.getVehicleStatus().getBooked());
+        assertEquals(1, dashboard.getServiceReminders().getOverdue());
+        assertEquals(1, dashboard.getServiceReminders().getDueSoon());
+        assertEquals(40000.0, dashboard.getStatistics().getAverageMileage());
+        assertEquals(0, new BigDecimal("210.00").compareTo(dashboard.getStatistics().getTotalPotentialDailyRevenue()));
+        assertEquals(1, dashboard.getFleetByModel().size());
+        assertEquals(1, dashboard.getFleetByModel().get(0).getBookedCount());
+        assertEquals(new BigDecimal("70.00"), dashboard.getFleetByModel().get(0).getAverageDailyPrice());
+
+        // Rollup is updated from the vehicle change event, not recomputed
+        carModelService.updateFleetVehicleStatus(booked.getId(), VehicleStatus.UNDER_MAINTENANCE);
+        FleetDashboardDto updated = carModelService.getFleetDashboard(ownerId);
+        assertEquals(1, updated.getVehicleStatus().getAvailable());
+        assertEquals(2, updated.getVehicleStatus().getUnderMaintenance());
+        assertEquals(0, updated.getServiceReminders().getDueSoon());
+
+        List<OperatorCarModelDto> models = carModelService.getAvailableModelsByOperator(ownerId);
+        assertEquals(1, models.size());
+        assertEquals(1, models.get(0).getAvailableVehicleCount());
+        assertEquals(0, new BigDecimal("50.00").compareTo(models.get(0).getDailyPrice()));
+        assertEquals(carModel.getPublicId().toString(), models.get(0).getPublicModelId());
+        assertTrue(carModelService.getAvailableModelsPerOperator().stream()
+                .anyMatch(dto -> ownerId.equals(dto.getOperatorId())));
+    }
+
+    private static FleetVehicle vehicle(CarModel carModel, UUID ownerId, String licensePlate, VehicleStatus status,
+            Integer mileageKm, String dailyPrice, LocalDateTime expectedReturnDate) {
+        return FleetVehicle.builder()
+                .carModel(carModel)
+                .ownerId(ownerId)
+                .licensePlate(licensePlate)
+                .status(status)
+                .mileageKm(mileageKm)
+                .dailyPrice(new BigDecimal(dailyPrice))
+                .expectedReturnDate(expectedReturnDate)
+                .build();
+    }
 }
@@ -1,8 +1,12 @@
 package com.exploresg.fleetservice.service;
 
 import com.exploresg.fleetservice.controller.FleetController;
+import com.exploresg.fleetservice.dto.BulkVehicleStatusRequest;
+import com.exploresg.fleetservice.dto.BulkVehicleStatusResponse;
 import com.exploresg.fleetservice.dto.CreateCarModelRequest;
+import com.exploresg.fleetservice.event.FleetVehicleChangedEvent;
 import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.VehicleStatus;
 import com.exploresg.fleetservice.repository.CarModelRepository;
 import com.exploresg.fleetservice.repository.FleetVehicleRepository;
 import com.exploresg.fleetservice.repository.VehicleBookingRecordRepository;
@@ -17,10 +21,18 @@ import org.springframework.boot.autoconfigure.security.oauth2.client.OAuth2Clien
 import org.springframework.boot.autoconfigure.security.oauth2.resource.servlet.OAuth2ResourceServerAutoConfiguration;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -35,9 +47,40 @@ public class FleetServiceUnitTest {
     @Mock
     private VehicleBookingRecordRepository bookingRecordRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private CarModelService carModelService;
 
+    @Test
+    void shouldUpdateOwnedVehicleStatusesInBulk() {
+        UUID ownerId = UUID.randomUUID();
+        UUID owned = UUID.randomUUID();
+        UUID foreign = UUID.randomUUID();
+        BulkVehicleStatusRequest request = BulkVehicleStatusRequest.builder()
+                .vehicleIds(List.of(owned, foreign, owned))
+                .status(VehicleStatus.UNDER_MAINTENANCE)
+                .maintenanceNote("Brake check")
+                .build();
+
+        when(fleetVehicleRepository.updateStatusForOwner(eq(ownerId), anyCollection(),
+                eq(VehicleStatus.UNDER_MAINTENANCE), eq("Brake check"), isNull(), any(LocalDateTime.class)))
+                .thenReturn(1);
+        when(fleetVehicleRepository.findIdsByOwnerIdAndIdIn(eq(ownerId), anyCollection()))
+                .thenReturn(List.of(owned));
+
+        BulkVehicleStatusResponse response = carModelService.updateFleetVehicleStatuses(ownerId, request);
+
+        assertThat(response.getRequested()).isEqualTo(2);
+        assertThat(response.getUpdated()).isEqualTo(1);
+        assertThat(response.getResults()).containsExactly(
+                new BulkVehicleStatusResponse.Result(owned, BulkVehicleStatusResponse.Outcome.UPDATED),
+                new BulkVehicleStatusResponse.Result(foreign, BulkVehicleStatusResponse.Outcome.NOT_FOUND));
+        verify(fleetVehicleRepository, Mockito.never()).save(any());
+        verify(eventPublisher, Mockito.times(1)).publishEvent(new FleetVehicleChangedEvent(ownerId, List.of(owned)));
+    }
+
     @Test
     void shouldCreateCarModel() {
         CreateCarModelRequest request = new CreateCarModelRequest();
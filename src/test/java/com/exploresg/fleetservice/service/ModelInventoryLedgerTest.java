@@ -0,0 +1,160 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.event.ReservationStateChangedEvent;
+import com.exploresg.fleetservice.model.VehicleBookingRecord.ReservationStatus;
+import com.exploresg.fleetservice.model.VehicleStatus;
+import com.exploresg.fleetservice.repository.FleetVehicleRepository;
+import com.exploresg.fleetservice.repository.VehicleBookingRecordRepository;
+import com.exploresg.fleetservice.repository.projection.BookingIntervalView;
+import com.exploresg.fleetservice.repository.projection.VehicleAllocationView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ModelInventoryLedgerTest {
+
+    private static final UUID MODEL = UUID.randomUUID();
+    private static final UUID FIRST = UUID.randomUUID();
+    private static final UUID SECOND = UUID.randomUUID();
+
+    @Mock
+    private FleetVehicleRepository fleetVehicleRepository;
+
+    @Mock
+    private VehicleBookingRecordRepository bookingRecordRepository;
+
+    @InjectMocks
+    private ModelInventoryLedger ledger;
+
+    // Day 3 of the horizon, midnight
+    private final LocalDateTime day = LocalDate.now().plusDays(3).atStartOfDay();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(ledger, "enabled", true);
+        ReflectionTestUtils.setField(ledger, "horizonDays", 30);
+        when(fleetVehicleRepository.findAllAllocationViews()).thenReturn(List.of(
+                vehicle(FIRST, VehicleStatus.AVAILABLE),
+                vehicle(SECOND, VehicleStatus.AVAILABLE)));
+        when(bookingRecordRepository.findActiveBookingIntervals(any())).thenReturn(List.of());
+        ledger.rebuild();
+    }
+
+    @Test
+    @DisplayName("Should report sold out only for days every vehicle is booked end to end")
+    void shouldDetectSoldOutDays() {
+        UUID firstBooking = UUID.randomUUID();
+        // Both vehicles cover the whole of `day`; the day after is only partly covered
+        ledger.onReservationStateChanged(new ReservationStateChangedEvent(firstBooking, FIRST,
+                day.minusHours(12), day.plusHours(36), ReservationStatus.CONFIRMED, null));
+        ledger.onReservationStateChanged(new ReservationStateChangedEvent(UUID.randomUUID(), SECOND,
+                day, day.plusDays(1), ReservationStatus.CONFIRMED, null));
+
+        assertThat(ledger.isSoldOut(MODEL, day.plusHours(10), day.plusHours(14))).isTrue();
+        assertThat(ledger.isSoldOut(MODEL, day.minusDays(1), day.plusDays(2))).isTrue();
+        assertThat(ledger.isSoldOut(MODEL, day.plusHours(37), day.plusDays(3))).isFalse();
+        assertThat(ledger.isSoldOut(UUID.randomUUID(), day, day.plusDays(1))).isFalse();
+
+        ledger.onReservationStateChanged(new ReservationStateChangedEvent(firstBooking, FIRST,
+                day.minusHours(12), day.plusHours(36), ReservationStatus.CANCELLED, null));
+        assertThat(ledger.isSoldOut(MODEL, day.plusHours(10), day.plusHours(14))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should not judge a model while one of its holds is past expiry")
+    void shouldIgnoreModelWithLapsedHold() {
+        ledger.onReservationStateChanged(new ReservationStateChangedEvent(UUID.randomUUID(), FIRST,
+                day, day.plusDays(1), ReservationStatus.CONFIRMED, null));
+        UUID hold = UUID.randomUUID();
+        ledger.onReservationStateChanged(new ReservationStateChangedEvent(hold, SECOND,
+                day, day.plusDays(1), ReservationStatus.PENDING, LocalDateTime.now().minusSeconds(1)));
+
+        assertThat(ledger.isSoldOut(MODEL, day, day.plusDays(1))).isFalse();
+
+        ledger.onReservationStateChanged(new ReservationStateChangedEvent(hold, SECOND,
+                day, day.plusDays(1), ReservationStatus.PENDING, LocalDateTime.now().plusMinutes(5)));
+        assertThat(ledger.isSoldOut(MODEL, day, day.plusDays(1))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should pick up a cancellation made on another replica on the next poll")
+    void shouldApplyChangesFromPoll() {
+        UUID booking = UUID.randomUUID();
+        ledger.onReservationStateChanged(new ReservationStateChangedEvent(booking, FIRST,
+                day, day.plusDays(1), ReservationStatus.CONFIRMED, null));
+        ledger.onReservationStateChanged(new ReservationStateChangedEvent(UUID.randomUUID(), SECOND,
+                day, day.plusDays(1), ReservationStatus.CONFIRMED, null));
+        assertThat(ledger.isSoldOut(MODEL, day, day.plusDays(1))).isTrue();
+
+        // Cancelled on another replica: no event here, only the changed row
+        when(fleetVehicleRepository.findAllocationViewsUpdatedSince(any())).thenReturn(List.of());
+        when(bookingRecordRepository.findBookingIntervalsUpdatedSince(any())).thenReturn(List.of(
+                interval(booking, FIRST, ReservationStatus.CANCELLED)));
+        ledger.pollChanges();
+
+        assertThat(ledger.isSoldOut(MODEL, day, day.plusDays(1))).isFalse();
+    }
+
+    private BookingIntervalView interval(UUID reservationId, UUID vehicleId, ReservationStatus status) {
+        return new BookingIntervalView() {
+            public UUID getReservationId() {
+                return reservationId;
+            }
+
+            public UUID getVehicleId() {
+                return vehicleId;
+            }
+
+            public LocalDateTime getBookingStartDate() {
+                return day;
+            }
+
+            public LocalDateTime getBookingEndDate() {
+                return day.plusDays(1);
+            }
+
+            public ReservationStatus getReservationStatus() {
+                return status;
+            }
+
+            public LocalDateTime getExpiresAt() {
+                return null;
+            }
+        };
+    }
+
+    private static VehicleAllocationView vehicle(UUID id, VehicleStatus status) {
+        return new VehicleAllocationView() {
+            public UUID getVehicleId() {
+                return id;
+            }
+
+            public UUID getModelPublicId() {
+                return MODEL;
+            }
+
+            public VehicleStatus getStatus() {
+                return status;
+            }
+
+            public Integer getMileageKm() {
+                return null;
+            }
+        };
+    }
+}
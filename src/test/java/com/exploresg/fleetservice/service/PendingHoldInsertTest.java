@@ -0,0 +1,116 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.FleetVehicle;
+import com.exploresg.fleetservice.model.VehicleBookingRecord;
+import com.exploresg.fleetservice.model.VehicleBookingRecord.ReservationStatus;
+import com.exploresg.fleetservice.model.VehicleStatus;
+import com.exploresg.fleetservice.repository.VehicleBookingRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the guarded hold insert of the coalesced allocation, with the
+ * service's own parameters, on H2 in PostgreSQL mode (ON CONFLICT DO NOTHING).
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:pendinghold;MODE=PostgreSQL;DB_CLOSE_DELAY=-1")
+public class PendingHoldInsertTest {
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    @Autowired
+    private VehicleBookingRecordRepository bookingRecordRepository;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(3);
+    private FleetVehicle booked;
+    private FleetVehicle free;
+    private UUID existingBooking;
+
+    @BeforeEach
+    void setup() {
+        CarModel corolla = carModel();
+        booked = vehicle(corolla, "SGX1234A");
+        free = vehicle(corolla, "SGX5678B");
+        existingBooking = UUID.randomUUID();
+        VehicleBookingRecord existing = hold(booked, existingBooking);
+        existing.setId(null);
+        testEntityManager.persist(existing);
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should skip a batched hold whose booking id already has a row and write the others")
+    void shouldSkipHoldForExistingBookingId() {
+        UUID newBooking = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+
+        int[] inserted = jdbcTemplate.batchUpdate(VehicleBookingRecordRepository.INSERT_PENDING_HOLD_IF_FREE,
+                new SqlParameterSource[] {
+                        ReservationService.holdParameters(hold(free, existingBooking), now),
+                        ReservationService.holdParameters(hold(free, newBooking), now)
+                });
+
+        assertThat(inserted).containsExactly(0, 1);
+        assertThat(bookingRecordRepository.findAllByBookingId(existingBooking))
+                .extracting(record -> record.getVehicle().getId())
+                .containsExactly(booked.getId());
+        assertThat(bookingRecordRepository.findAllByBookingId(newBooking))
+                .extracting(record -> record.getVehicle().getId())
+                .containsExactly(free.getId());
+    }
+
+    private VehicleBookingRecord hold(FleetVehicle vehicle, UUID bookingId) {
+        return VehicleBookingRecord.builder()
+                .id(UUID.randomUUID())
+                .vehicle(vehicle)
+                .bookingId(bookingId)
+                .bookingStartDate(start)
+                .bookingEndDate(start.plusDays(2))
+                .reservationStatus(ReservationStatus.PENDING)
+                .expiresAt(LocalDateTime.now().plusMinutes(5))
+                .build();
+    }
+
+    private CarModel carModel() {
+        CarModel carModel = new CarModel();
+        carModel.setPublicId(UUID.randomUUID());
+        carModel.setModel("Corolla");
+        carModel.setManufacturer("Toyota");
+        carModel.setSeats(5);
+        carModel.setLuggage(2);
+        carModel.setTransmission("Automatic");
+        carModel.setCategory("Sedan");
+        carModel.setFuelType("Petrol");
+        carModel.setImageUrl("https://example.com/corolla.png");
+        return testEntityManager.persist(carModel);
+    }
+
+    private FleetVehicle vehicle(CarModel carModel, String licensePlate) {
+        return testEntityManager.persist(FleetVehicle.builder()
+                .carModel(carModel)
+                .ownerId(UUID.randomUUID())
+                .dailyPrice(new BigDecimal("100.00"))
+                .licensePlate(licensePlate)
+                .status(VehicleStatus.AVAILABLE)
+                .build());
+    }
+}
@@ -0,0 +1,156 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.exception.GlobalExceptionHandler;
+import com.exploresg.fleetservice.exception.ReservationAdmissionTimeoutException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReservationAdmissionControlTest {
+
+    private static final UUID MODEL = UUID.randomUUID();
+
+    @Mock
+    private VehicleAvailabilityIndex availabilityIndex;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ReservationAdmissionControl admissionControl;
+
+    @BeforeEach
+    void setUp() {
+        admissionControl = new ReservationAdmissionControl(availabilityIndex, meterRegistry);
+        ReflectionTestUtils.setField(admissionControl, "enabled", true);
+        ReflectionTestUtils.setField(admissionControl, "maxConcurrency", 8);
+        ReflectionTestUtils.setField(admissionControl, "maxWaitMs", 50L);
+        ReflectionTestUtils.setField(admissionControl, "idleEvictMs", 0L);
+        when(availabilityIndex.isKnownModel(MODEL)).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("Should reject a request that waits past max-wait-ms with 503 and Retry-After")
+    void shouldTimeOutWithServiceUnavailable() throws Exception {
+        when(availabilityIndex.countAvailableVehicles(MODEL)).thenReturn(1);
+        CountDownLatch admitted = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        CompletableFuture<Object> holder = holdSlot(admitted, done);
+
+        assertThatThrownBy(() -> admissionControl.admit(MODEL, () -> "second"))
+                .isInstanceOfSatisfying(ReservationAdmissionTimeoutException.class, e -> {
+                    assertThat(e.getModelPublicId()).isEqualTo(MODEL);
+                    assertThat(e.getWaitedMs()).isGreaterThanOrEqualTo(50);
+                    ResponseEntity<?> response = new GlobalExceptionHandler().handleReservationAdmissionTimeout(e,
+                            new ServletWebRequest(new MockHttpServletRequest("POST", "/api/v1/reservations")));
+                    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                    assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+                });
+
+        done.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        assertThat(admissionControl.admit(MODEL, () -> "third")).isEqualTo("third");
+    }
+
+    @Test
+    @DisplayName("Should shrink and regrow the limit without ever going below zero free slots")
+    void shouldResizeDownAndBackUp() throws Exception {
+        when(availabilityIndex.countAvailableVehicles(MODEL)).thenReturn(2);
+        admissionControl.admit(MODEL, () -> null);
+        Semaphore gate = gate();
+        // Two requests inside
+        gate.acquire(2);
+
+        when(availabilityIndex.countAvailableVehicles(MODEL)).thenReturn(1);
+        resize(gate);
+        assertThat(gate.availablePermits()).isZero();
+
+        when(availabilityIndex.countAvailableVehicles(MODEL)).thenReturn(2);
+        resize(gate);
+        assertThat(gate.availablePermits()).isZero();
+
+        when(availabilityIndex.countAvailableVehicles(MODEL)).thenReturn(1);
+        resize(gate);
+        gate.release();
+        assertThat(gate.availablePermits()).isZero();
+        gate.release();
+        assertThat(gate.availablePermits()).isEqualTo(1);
+
+        when(availabilityIndex.countAvailableVehicles(MODEL)).thenReturn(2);
+        resize(gate);
+        assertThat(gate.availablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should never evict a gate while a request is inside it")
+    void shouldKeepGateInUse() throws Exception {
+        when(availabilityIndex.countAvailableVehicles(MODEL)).thenReturn(1);
+        CountDownLatch admitted = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        CompletableFuture<Object> holder = holdSlot(admitted, done);
+        Semaphore gate = gate();
+
+        admissionControl.evictIdleGates();
+        assertThat(gates()).containsKey(MODEL);
+        assertThat(meterRegistry.find("booking.admission.limit").tag("model", MODEL.toString()).gauge())
+                .isNotNull();
+
+        done.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        admissionControl.evictIdleGates();
+        assertThat(gates()).doesNotContainKey(MODEL);
+        assertThat(meterRegistry.find("booking.admission.limit").tag("model", MODEL.toString()).gauge())
+                .isNull();
+        // The holder's release went to the evicted gate, not a fresh one
+        assertThat(gate.availablePermits()).isEqualTo(1);
+    }
+
+    private CompletableFuture<Object> holdSlot(CountDownLatch admitted, CountDownLatch done)
+            throws InterruptedException {
+        CompletableFuture<Object> holder = CompletableFuture.supplyAsync(() -> admissionControl.admit(MODEL, () -> {
+            admitted.countDown();
+            try {
+                return done.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }));
+        assertThat(admitted.await(5, TimeUnit.SECONDS)).isTrue();
+        return holder;
+    }
+
+    private void resize(Semaphore gate) {
+        ReflectionTestUtils.setField(gate, "resizedAt", 0L);
+        ReflectionTestUtils.invokeMethod(gate, "resizeIfDue");
+    }
+
+    private Semaphore gate() {
+        return (Semaphore) gates().get(MODEL);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<UUID, ?> gates() {
+        return (Map<UUID, ?>) ReflectionTestUtils.getField(admissionControl, "gates");
+    }
+}
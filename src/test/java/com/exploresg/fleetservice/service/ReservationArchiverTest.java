@@ -0,0 +1,132 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.repository.VehicleBookingRecordRepository;
+import com.exploresg.fleetservice.service.SchedulerLockService.SchedulerLease;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static com.exploresg.fleetservice.service.ReservationArchiver.ARCHIVE_TABLE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReservationArchiverTest {
+
+    private static final SchedulerLease LEASE = new SchedulerLease("reservation-archival", 4);
+    private static final String LIST_PARTITIONS = "SELECT c.relname FROM pg_inherits";
+
+    @Mock
+    private VehicleBookingRecordRepository bookingRecordRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private BookingColdStorage coldStorage;
+
+    private ReservationArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        archiver = new ReservationArchiver(bookingRecordRepository, jdbcTemplate, coldStorage,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(archiver, "enabled", true);
+        ReflectionTestUtils.setField(archiver, "retentionDays", 30);
+        ReflectionTestUtils.setField(archiver, "batchSize", 100);
+        ReflectionTestUtils.setField(archiver, "detachAfterMonths", 12);
+    }
+
+    @Test
+    @DisplayName("Should create the month partitions first, then move batches until one comes back short")
+    void shouldMoveBatchesIntoCreatedPartitions() {
+        when(bookingRecordRepository.findArchivableMonths(any())).thenReturn(List.of(
+                Date.valueOf(LocalDate.of(2025, 1, 1)), Date.valueOf(LocalDate.of(2025, 2, 1))));
+        when(bookingRecordRepository.moveArchivableBatch(any(), eq(100), eq(LEASE.lockName()),
+                eq(LEASE.fencingToken())))
+                .thenReturn(100, 100, 7);
+        when(jdbcTemplate.queryForList(startsWith(LIST_PARTITIONS), eq(String.class), eq(ARCHIVE_TABLE)))
+                .thenReturn(List.of());
+
+        long moved = archiver.archive(LEASE);
+
+        assertThat(moved).isEqualTo(207);
+        InOrder order = inOrder(jdbcTemplate, bookingRecordRepository);
+        order.verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS " + ARCHIVE_TABLE + "_y2025m01 PARTITION OF "
+                + ARCHIVE_TABLE + " FOR VALUES FROM ('2025-01-01') TO ('2025-02-01')");
+        order.verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS " + ARCHIVE_TABLE + "_y2025m02 PARTITION OF "
+                + ARCHIVE_TABLE + " FOR VALUES FROM ('2025-02-01') TO ('2025-03-01')");
+        order.verify(bookingRecordRepository, times(3)).moveArchivableBatch(any(), anyInt(), any(),
+                eq(LEASE.fencingToken()));
+    }
+
+    @Test
+    @DisplayName("Should archive with a cutoff retention-days back, for both lookup and move")
+    void shouldUseRetentionCutoff() {
+        when(bookingRecordRepository.findArchivableMonths(any())).thenReturn(List.of());
+        when(jdbcTemplate.queryForList(startsWith(LIST_PARTITIONS), eq(String.class), eq(ARCHIVE_TABLE)))
+                .thenReturn(List.of());
+
+        archiver.archive(LEASE);
+
+        ArgumentCaptor<LocalDateTime> lookupCutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> moveCutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(bookingRecordRepository).findArchivableMonths(lookupCutoff.capture());
+        verify(bookingRecordRepository).moveArchivableBatch(moveCutoff.capture(), anyInt(), any(), eq(4L));
+        assertThat(lookupCutoff.getValue()).isCloseTo(LocalDateTime.now().minusDays(30), within(5, ChronoUnit.SECONDS));
+        assertThat(moveCutoff.getValue()).isEqualTo(lookupCutoff.getValue());
+    }
+
+    @Test
+    @DisplayName("Should detach only month partitions older than detach-after-months")
+    void shouldDetachAgedPartitionsOnly() {
+        String aged = ReservationArchiver.partitionName(YearMonth.now().minusMonths(13));
+        String kept = ReservationArchiver.partitionName(YearMonth.now().minusMonths(12));
+        when(bookingRecordRepository.findArchivableMonths(any())).thenReturn(List.of());
+        when(jdbcTemplate.queryForList(startsWith(LIST_PARTITIONS), eq(String.class), eq(ARCHIVE_TABLE)))
+                .thenReturn(List.of(ARCHIVE_TABLE + "_default", aged, kept));
+
+        archiver.archive(LEASE);
+
+        verify(jdbcTemplate).execute("ALTER TABLE " + ARCHIVE_TABLE + " DETACH PARTITION " + aged);
+        verify(jdbcTemplate, never()).execute("ALTER TABLE " + ARCHIVE_TABLE + " DETACH PARTITION " + kept);
+        verify(jdbcTemplate, never()).execute(
+                "ALTER TABLE " + ARCHIVE_TABLE + " DETACH PARTITION " + ARCHIVE_TABLE + "_default");
+    }
+
+    @Test
+    @DisplayName("Should read the month back from partition names and ignore other tables")
+    void shouldParsePartitionNames() {
+        YearMonth month = YearMonth.of(2024, 11);
+
+        assertThat(ReservationArchiver.partitionMonth(ReservationArchiver.partitionName(month))).contains(month);
+        assertThat(ReservationArchiver.partitionMonth(ARCHIVE_TABLE + "_default")).isEmpty();
+        assertThat(ReservationArchiver.partitionMonth(ARCHIVE_TABLE + "_y2024m13")).isEmpty();
+        assertThat(ReservationArchiver.partitionMonth(ARCHIVE_TABLE + "_y2024m11_old")).isEmpty();
+        assertThat(ReservationArchiver.partitionMonth("vehicle_booking_records")).isEmpty();
+    }
+}
@@ -0,0 +1,162 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.dto.CreateTemporaryReservationRequest;
+import com.exploresg.fleetservice.dto.TemporaryReservationResponse;
+import com.exploresg.fleetservice.exception.BookingConflictException;
+import com.exploresg.fleetservice.exception.NoVehicleAvailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReservationCoalescerTest {
+
+    private static final UUID MODEL = UUID.randomUUID();
+
+    @Mock
+    private ReservationService reservationService;
+
+    private ReservationCoalescer coalescer;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(3);
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new ReservationCoalescer(reservationService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(coalescer, "enabled", true);
+        ReflectionTestUtils.setField(coalescer, "windowMs", 500L);
+        ReflectionTestUtils.setField(coalescer, "maxBatch", 16);
+    }
+
+    @AfterEach
+    void tearDown() {
+        coalescer.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should seal and flush a batch as soon as it reaches max-batch, without waiting for the window")
+    @SuppressWarnings("unchecked")
+    void shouldSealAtMaxBatch() throws Exception {
+        ReflectionTestUtils.setField(coalescer, "windowMs", 60_000L);
+        ReflectionTestUtils.setField(coalescer, "maxBatch", 2);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(reservationService.createTemporaryReservationsCoalesced(eq(MODEL), eq(start), eq(start.plusDays(2)),
+                anyCollection()))
+                .thenReturn(served(first, second));
+
+        CompletableFuture<TemporaryReservationResponse> firstCall = reserveAsync(first);
+        CompletableFuture<TemporaryReservationResponse> secondCall = reserveAsync(second);
+
+        assertThat(firstCall.get(5, TimeUnit.SECONDS).getBookingId()).isEqualTo(first);
+        assertThat(secondCall.get(5, TimeUnit.SECONDS).getBookingId()).isEqualTo(second);
+        ArgumentCaptor<Collection<UUID>> bookingIds = ArgumentCaptor.forClass(Collection.class);
+        verify(reservationService).createTemporaryReservationsCoalesced(eq(MODEL), any(), any(),
+                bookingIds.capture());
+        assertThat(bookingIds.getValue()).containsExactlyInAnyOrder(first, second);
+    }
+
+    @Test
+    @DisplayName("Should hand a retried booking id the original request's result")
+    @SuppressWarnings("unchecked")
+    void shouldJoinRetryToOriginalFuture() throws Exception {
+        UUID bookingId = UUID.randomUUID();
+        when(reservationService.createTemporaryReservationsCoalesced(eq(MODEL), any(), any(), anyCollection()))
+                .thenReturn(served(bookingId));
+
+        CompletableFuture<TemporaryReservationResponse> original = reserveAsync(bookingId);
+        CompletableFuture<TemporaryReservationResponse> retry = reserveAsync(bookingId);
+
+        assertThat(retry.get(5, TimeUnit.SECONDS)).isSameAs(original.get(5, TimeUnit.SECONDS));
+        ArgumentCaptor<Collection<UUID>> bookingIds = ArgumentCaptor.forClass(Collection.class);
+        verify(reservationService, times(1)).createTemporaryReservationsCoalesced(eq(MODEL), any(), any(),
+                bookingIds.capture());
+        assertThat(bookingIds.getValue()).containsExactly(bookingId);
+    }
+
+    @Test
+    @DisplayName("Should fail only the requests a partly served batch left without a hold")
+    void shouldFailUnservedRequestsOfBatch() {
+        UUID served = UUID.randomUUID();
+        UUID unserved = UUID.randomUUID();
+        UUID cart = UUID.randomUUID();
+        when(reservationService.createTemporaryReservationsCoalesced(eq(MODEL), any(), any(), anyCollection()))
+                .thenReturn(new ReservationService.CoalescedReservations(
+                        Map.of(served, response(served)), Set.of(cart)));
+
+        CompletableFuture<TemporaryReservationResponse> servedCall = reserveAsync(served);
+        CompletableFuture<TemporaryReservationResponse> unservedCall = reserveAsync(unserved);
+        CompletableFuture<TemporaryReservationResponse> cartCall = reserveAsync(cart);
+
+        assertThat(servedCall.join().getBookingId()).isEqualTo(served);
+        assertThatThrownBy(unservedCall::join).hasCauseInstanceOf(NoVehicleAvailableException.class);
+        assertThatThrownBy(cartCall::join).hasCauseInstanceOf(BookingConflictException.class);
+    }
+
+    @Test
+    @DisplayName("Should fail every request of a batch whose allocation throws")
+    void shouldFailWholeBatchOnAllocationError() {
+        QueryTimeoutException failure = new QueryTimeoutException("canceling statement due to statement timeout");
+        when(reservationService.createTemporaryReservationsCoalesced(eq(MODEL), any(), any(), anyCollection()))
+                .thenThrow(failure);
+
+        CompletableFuture<TemporaryReservationResponse> first = reserveAsync(UUID.randomUUID());
+        CompletableFuture<TemporaryReservationResponse> second = reserveAsync(UUID.randomUUID());
+
+        assertThatThrownBy(first::join).isInstanceOf(CompletionException.class).hasCause(failure);
+        assertThatThrownBy(second::join).isInstanceOf(CompletionException.class).hasCause(failure);
+    }
+
+    private CompletableFuture<TemporaryReservationResponse> reserveAsync(UUID bookingId) {
+        CreateTemporaryReservationRequest request = CreateTemporaryReservationRequest.builder()
+                .modelPublicId(MODEL)
+                .bookingId(bookingId)
+                .startDate(start)
+                .endDate(start.plusDays(2))
+                .build();
+        return CompletableFuture.supplyAsync(() -> coalescer.reserve(request));
+    }
+
+    private static ReservationService.CoalescedReservations served(UUID... bookingIds) {
+        Map<UUID, TemporaryReservationResponse> responses = new HashMap<>();
+        for (UUID bookingId : bookingIds) {
+            responses.put(bookingId, response(bookingId));
+        }
+        return new ReservationService.CoalescedReservations(responses, Set.of());
+    }
+
+    private static TemporaryReservationResponse response(UUID bookingId) {
+        return TemporaryReservationResponse.builder()
+                .reservationId(UUID.randomUUID())
+                .vehicleId(UUID.randomUUID())
+                .bookingId(bookingId)
+                .build();
+    }
+}
@@ -0,0 +1,144 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.event.ReservationStateChangedEvent;
+import com.exploresg.fleetservice.model.VehicleBookingRecord.ReservationStatus;
+import com.exploresg.fleetservice.repository.VehicleBookingRecordRepository;
+import com.exploresg.fleetservice.repository.projection.BookingIntervalView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReservationExpiryEngineTest {
+
+    private static final UUID VEHICLE = UUID.randomUUID();
+
+    @Mock
+    private VehicleBookingRecordRepository bookingRecordRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ReservationExpiryEngine expiryEngine;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(3);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(expiryEngine, "enabled", true);
+        ReflectionTestUtils.setField(expiryEngine, "batchSize", 100);
+    }
+
+    @Test
+    @DisplayName("Should publish EXPIRED only for the holds the UPDATE returned")
+    @SuppressWarnings("unchecked")
+    void shouldPublishOnlyReturnedRows() {
+        UUID lapsed = UUID.randomUUID();
+        UUID confirmed = UUID.randomUUID();
+        expiryEngine.onReservationStateChanged(pending(lapsed, LocalDateTime.now().minusSeconds(1)));
+        expiryEngine.onReservationStateChanged(pending(confirmed, LocalDateTime.now().minusSeconds(1)));
+        // confirmed in the meantime: the UPDATE's predicates skip it
+        when(bookingRecordRepository.expirePendingReservationsByIds(anyList(), any()))
+                .thenReturn(List.of(interval(lapsed)));
+
+        expiryEngine.expireDueReservations();
+
+        ArgumentCaptor<List<UUID>> ids = ArgumentCaptor.forClass(List.class);
+        verify(bookingRecordRepository).expirePendingReservationsByIds(ids.capture(), any());
+        assertThat(ids.getValue()).containsExactlyInAnyOrder(lapsed, confirmed);
+        ArgumentCaptor<ReservationStateChangedEvent> events = ArgumentCaptor.forClass(
+                ReservationStateChangedEvent.class);
+        verify(eventPublisher).publishEvent(events.capture());
+        assertThat(events.getValue().getReservationId()).isEqualTo(lapsed);
+        assertThat(events.getValue().getStatus()).isEqualTo(ReservationStatus.EXPIRED);
+        assertThat(expiryEngine.getPendingDeadlineCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should schedule PENDING holds only and track a re-opened hold's new deadline")
+    void shouldRescheduleReopenedHold() {
+        UUID reservation = UUID.randomUUID();
+        expiryEngine.onReservationStateChanged(pending(reservation, LocalDateTime.now().plusMinutes(5)));
+        expiryEngine.onReservationStateChanged(new ReservationStateChangedEvent(reservation, VEHICLE,
+                start, start.plusDays(2), ReservationStatus.CONFIRMED, null));
+        expiryEngine.onReservationStateChanged(new ReservationStateChangedEvent(reservation, VEHICLE,
+                start, start.plusDays(2), ReservationStatus.CANCELLED, null));
+
+        assertThat(expiryEngine.getPendingDeadlineCount()).isEqualTo(1);
+
+        // Retried booking re-opens the hold with a fresh expiry
+        expiryEngine.onReservationStateChanged(pending(reservation, LocalDateTime.now().plusMinutes(10)));
+        assertThat(expiryEngine.getPendingDeadlineCount()).isEqualTo(2);
+
+        expiryEngine.expireDueReservations();
+        verify(bookingRecordRepository, never()).expirePendingReservationsByIds(anyList(), any());
+    }
+
+    @Test
+    @DisplayName("Should expire due holds on shutdown and drop the future deadlines")
+    void shouldDrainOnShutdown() {
+        UUID due = UUID.randomUUID();
+        expiryEngine.onReservationStateChanged(pending(due, LocalDateTime.now().minusSeconds(1)));
+        expiryEngine.onReservationStateChanged(pending(UUID.randomUUID(), LocalDateTime.now().plusMinutes(5)));
+        when(bookingRecordRepository.expirePendingReservationsByIds(eq(List.of(due)), any()))
+                .thenReturn(List.of(interval(due)));
+
+        expiryEngine.shutdown();
+
+        verify(eventPublisher).publishEvent(any(ReservationStateChangedEvent.class));
+        assertThat(expiryEngine.getPendingDeadlineCount()).isZero();
+    }
+
+    private ReservationStateChangedEvent pending(UUID reservationId, LocalDateTime expiresAt) {
+        return new ReservationStateChangedEvent(reservationId, VEHICLE, start, start.plusDays(2),
+                ReservationStatus.PENDING, expiresAt);
+    }
+
+    private BookingIntervalView interval(UUID reservationId) {
+        return new BookingIntervalView() {
+            public UUID getReservationId() {
+                return reservationId;
+            }
+
+            public UUID getVehicleId() {
+                return VEHICLE;
+            }
+
+            public LocalDateTime getBookingStartDate() {
+                return start;
+            }
+
+            public LocalDateTime getBookingEndDate() {
+                return start.plusDays(2);
+            }
+
+            public ReservationStatus getReservationStatus() {
+                return ReservationStatus.EXPIRED;
+            }
+
+            public LocalDateTime getExpiresAt() {
+                return null;
+            }
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.exception.IdempotencyKeyMismatchException;
+import com.exploresg.fleetservice.exception.InvalidIdempotencyKeyException;
+import com.exploresg.fleetservice.model.ReservationIdempotencyKey;
+import com.exploresg.fleetservice.model.ReservationIdempotencyKey.Operation;
+import com.exploresg.fleetservice.repository.ReservationIdempotencyKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReservationIdempotencyStoreTest {
+
+    private static final String KEY = "payment-retry-1";
+    private static final UUID RESERVATION = UUID.randomUUID();
+
+    @Mock
+    private ReservationIdempotencyKeyRepository keyRepository;
+
+    @Mock
+    private SchedulerLockService schedulerLock;
+
+    @InjectMocks
+    private ReservationIdempotencyStore idempotencyStore;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(idempotencyStore, "retentionHours", 24L);
+        ReflectionTestUtils.setField(idempotencyStore, "cacheSize", 100);
+    }
+
+    @Test
+    @DisplayName("Should treat a key past retention as unused, even for another call")
+    void shouldIgnoreKeyPastRetention() {
+        LocalDateTime completedAt = LocalDateTime.now().minusHours(25);
+        when(keyRepository.findById(KEY)).thenReturn(Optional.of(ReservationIdempotencyKey.builder()
+                .idempotencyKey(KEY)
+                .operation(Operation.CANCEL)
+                .reservationId(UUID.randomUUID())
+                .completedAt(completedAt)
+                .expiresAt(completedAt.plusHours(24))
+                .build()));
+
+        assertThat(idempotencyStore.find(KEY, Operation.CONFIRM, RESERVATION)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reject recording a key another request still holds")
+    void shouldRejectKeyTakenConcurrently() {
+        when(keyRepository.insertOrReplaceExpired(eq(KEY), eq("CONFIRM"), eq(RESERVATION), any(), any(), any()))
+                .thenReturn(0);
+
+        assertThatThrownBy(() -> idempotencyStore.record(KEY, Operation.CONFIRM, RESERVATION, UUID.randomUUID(),
+                LocalDateTime.now())).isInstanceOf(IdempotencyKeyMismatchException.class);
+    }
+
+    @Test
+    @DisplayName("Should reject blank and over-long keys as invalid input")
+    void shouldRejectMalformedKeys() {
+        assertThatThrownBy(() -> ReservationIdempotencyStore.validate(" "))
+                .isInstanceOf(InvalidIdempotencyKeyException.class);
+        assertThatThrownBy(() -> ReservationIdempotencyStore.validate("k".repeat(256)))
+                .isInstanceOf(InvalidIdempotencyKeyException.class);
+        ReservationIdempotencyStore.validate("k".repeat(255));
+    }
+}
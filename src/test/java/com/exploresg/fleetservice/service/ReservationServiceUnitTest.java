@@ -0,0 +1,411 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.dto.CartReservationRequest;
+import com.exploresg.fleetservice.dto.ConfirmReservationRequest;
+import com.exploresg.fleetservice.dto.ConfirmReservationResponse;
+import com.exploresg.fleetservice.dto.CreateTemporaryReservationRequest;
+import com.exploresg.fleetservice.dto.TemporaryReservationResponse;
+import com.exploresg.fleetservice.event.ReservationStateChangedEvent;
+import com.exploresg.fleetservice.exception.BookingConflictException;
+import com.exploresg.fleetservice.exception.IdempotencyKeyMismatchException;
+import com.exploresg.fleetservice.exception.InvalidIdempotencyKeyException;
+import com.exploresg.fleetservice.exception.InvalidReservationStatusException;
+import com.exploresg.fleetservice.exception.NoVehicleAvailableException;
+import com.exploresg.fleetservice.exception.ReservationExpiredException;
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.FleetVehicle;
+import com.exploresg.fleetservice.model.ReservationIdempotencyKey;
+import com.exploresg.fleetservice.model.ReservationIdempotencyKey.Operation;
+import com.exploresg.fleetservice.model.VehicleBookingRecord;
+import com.exploresg.fleetservice.model.VehicleBookingRecord.ReservationStatus;
+import com.exploresg.fleetservice.repository.FleetVehicleRepository;
+import com.exploresg.fleetservice.repository.VehicleBookingRecordRepository;
+import com.exploresg.fleetservice.repository.projection.BookingIntervalView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReservationServiceUnitTest {
+
+    private static final UUID RESERVATION = UUID.randomUUID();
+    private static final UUID VEHICLE = UUID.randomUUID();
+    private static final UUID MODEL = UUID.randomUUID();
+    private static final String KEY = "payment-retry-1";
+
+    @Mock
+    private FleetVehicleRepository fleetVehicleRepository;
+
+    @Mock
+    private VehicleBookingRecordRepository bookingRecordRepository;
+
+    @Mock
+    private VehicleAvailabilityIndex availabilityIndex;
+
+    @Mock
+    private ModelInventoryLedger inventoryLedger;
+
+    @Mock
+    private BookingIdempotencyCache idempotencyCache;
+
+    @Mock
+    private ReservationIdempotencyStore idempotencyStore;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private ReservationService reservationService;
+
+    private final ConfirmReservationRequest confirmRequest = ConfirmReservationRequest.builder()
+            .paymentReference("PAY-123")
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        reservationService = new ReservationService(fleetVehicleRepository, bookingRecordRepository,
+                availabilityIndex, inventoryLedger, idempotencyCache, idempotencyStore, eventPublisher, jdbcTemplate);
+        ReflectionTestUtils.setField(reservationService, "reservationExpirySeconds", 300);
+    }
+
+    @Test
+    @DisplayName("Should confirm a PENDING hold in one conditional update and publish the change")
+    void shouldConfirmPendingReservation() {
+        when(bookingRecordRepository.confirmPendingReservation(eq(RESERVATION), eq("PAY-123"), isNull(), any()))
+                .thenReturn(Optional.of(interval(ReservationStatus.CONFIRMED)));
+
+        ConfirmReservationResponse response = reservationService.confirmReservation(RESERVATION, confirmRequest);
+
+        assertThat(response.isSuccess()).isTrue();
+        assertThat(response.getReservationId()).isEqualTo(RESERVATION);
+        assertThat(response.getVehicleId()).isEqualTo(VEHICLE);
+        verify(bookingRecordRepository, never()).findReservationStatusById(any());
+        verify(eventPublisher).publishEvent(any(ReservationStateChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should cancel a PENDING hold in one conditional update and publish the change")
+    void shouldCancelPendingReservation() {
+        when(bookingRecordRepository.cancelPendingReservation(eq(RESERVATION), eq("Payment failed"), any()))
+                .thenReturn(Optional.of(interval(ReservationStatus.CANCELLED)));
+
+        reservationService.cancelReservation(RESERVATION, "Payment failed");
+
+        verify(bookingRecordRepository, never()).findReservationStatusById(any());
+        verify(eventPublisher).publishEvent(any(ReservationStateChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should replay a confirmation for the same Idempotency-Key without touching the reservation")
+    void shouldReplayConfirmation() {
+        LocalDateTime completedAt = LocalDateTime.now().minusMinutes(2);
+        when(idempotencyStore.find(KEY, Operation.CONFIRM, RESERVATION))
+                .thenReturn(Optional.of(ReservationIdempotencyKey.builder()
+                        .idempotencyKey(KEY)
+                        .operation(Operation.CONFIRM)
+                        .reservationId(RESERVATION)
+                        .vehicleId(VEHICLE)
+                        .completedAt(completedAt)
+                        .expiresAt(completedAt.plusHours(24))
+                        .build()));
+
+        ConfirmReservationResponse response = reservationService.confirmReservation(RESERVATION, confirmRequest, KEY);
+
+        assertThat(response.getVehicleId()).isEqualTo(VEHICLE);
+        assertThat(response.getConfirmedAt()).isEqualTo(completedAt);
+        verify(bookingRecordRepository, never()).confirmPendingReservation(any(), any(), any(), any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("Should reject an Idempotency-Key already used for another call before changing anything")
+    void shouldRejectReusedIdempotencyKey() {
+        when(idempotencyStore.find(KEY, Operation.CANCEL, RESERVATION))
+                .thenThrow(new IdempotencyKeyMismatchException(KEY, "Idempotency-Key was already used for CONFIRM"));
+
+        assertThatThrownBy(() -> reservationService.cancelReservation(RESERVATION, null, KEY))
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+        verify(bookingRecordRepository, never()).cancelPendingReservation(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should reject an over-long Idempotency-Key as a bad request")
+    void shouldRejectOverLongIdempotencyKey() {
+        assertThatThrownBy(() -> reservationService.confirmReservation(RESERVATION, confirmRequest, "k".repeat(256)))
+                .isInstanceOf(InvalidIdempotencyKeyException.class);
+        verify(idempotencyStore, never()).find(any(), any(), any());
+        verify(bookingRecordRepository, never()).confirmPendingReservation(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should report an expired hold when the confirm matches no row but it is still PENDING")
+    void shouldRejectConfirmOfExpiredHold() {
+        when(bookingRecordRepository.confirmPendingReservation(eq(RESERVATION), any(), any(), any()))
+                .thenReturn(Optional.empty());
+        when(bookingRecordRepository.findReservationStatusById(RESERVATION))
+                .thenReturn(Optional.of(ReservationStatus.PENDING));
+
+        assertThatThrownBy(() -> reservationService.confirmReservation(RESERVATION, confirmRequest))
+                .isInstanceOf(ReservationExpiredException.class);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("Should reject confirming or cancelling a reservation that is no longer PENDING")
+    void shouldRejectTransitionOfNonPendingReservation() {
+        when(bookingRecordRepository.confirmPendingReservation(eq(RESERVATION), any(), any(), any()))
+                .thenReturn(Optional.empty());
+        when(bookingRecordRepository.cancelPendingReservation(eq(RESERVATION), any(), any()))
+                .thenReturn(Optional.empty());
+        when(bookingRecordRepository.findReservationStatusById(RESERVATION))
+                .thenReturn(Optional.of(ReservationStatus.CONFIRMED));
+
+        assertThatThrownBy(() -> reservationService.confirmReservation(RESERVATION, confirmRequest))
+                .isInstanceOf(InvalidReservationStatusException.class);
+        assertThatThrownBy(() -> reservationService.cancelReservation(RESERVATION, "Changed plans"))
+                .isInstanceOf(InvalidReservationStatusException.class);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("Should fail the whole cart without writing holds when a line is short of vehicles")
+    void shouldRejectCartShortOfVehicles() {
+        UUID bookingId = UUID.randomUUID();
+        LocalDateTime start = LocalDateTime.now().plusDays(3);
+        when(bookingRecordRepository.findAllByBookingId(bookingId)).thenReturn(List.of());
+        when(fleetVehicleRepository.lockAvailableVehiclesForBooking(eq(MODEL), eq(start), eq(start.plusDays(2)),
+                any(), anyCollection(), anyInt()))
+                .thenReturn(List.of(vehicle()));
+
+        assertThatThrownBy(() -> reservationService.createCartReservation(cart(bookingId, start, 2)))
+                .isInstanceOf(NoVehicleAvailableException.class);
+        verify(bookingRecordRepository, never()).saveAllAndFlush(any());
+        verify(bookingRecordRepository, never()).expireStalePendingHolds(any(), any(), any(), any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("Should refuse to replay a cart whose booking holds fewer vehicles than lines")
+    void shouldRejectCartReplayWithMismatchedHolds() {
+        UUID bookingId = UUID.randomUUID();
+        LocalDateTime start = LocalDateTime.now().plusDays(3);
+        when(bookingRecordRepository.findAllByBookingId(bookingId))
+                .thenReturn(List.of(hold(bookingId, start)));
+
+        assertThatThrownBy(() -> reservationService.createCartReservation(cart(bookingId, start, 2)))
+                .isInstanceOf(BookingConflictException.class);
+        verify(fleetVehicleRepository, never()).lockAvailableVehiclesForBooking(any(), any(), any(), any(),
+                anyCollection(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should skip the booking id lookup for an id the filter has never seen")
+    void shouldSkipLookupForUnseenBookingId() {
+        UUID bookingId = UUID.randomUUID();
+        LocalDateTime start = LocalDateTime.now().plusDays(3);
+        when(idempotencyCache.mightHaveSeen(bookingId)).thenReturn(false);
+        // Stops the request right after the idempotency step
+        when(inventoryLedger.isSoldOut(eq(MODEL), any(), any())).thenReturn(true);
+
+        assertThatThrownBy(() -> reservationService.createTemporaryReservation(single(bookingId, start)))
+                .isInstanceOf(NoVehicleAvailableException.class);
+        verify(bookingRecordRepository, never()).findAllByBookingId(any());
+        verify(idempotencyCache).markSeen(bookingId);
+    }
+
+    @Test
+    @DisplayName("Should look a possibly seen booking id up and hand back its active hold")
+    void shouldLookUpSeenBookingId() {
+        UUID bookingId = UUID.randomUUID();
+        LocalDateTime start = LocalDateTime.now().plusDays(3);
+        VehicleBookingRecord existing = hold(bookingId, start);
+        when(idempotencyCache.mightHaveSeen(bookingId)).thenReturn(true);
+        when(bookingRecordRepository.findAllByBookingId(bookingId)).thenReturn(List.of(existing));
+
+        TemporaryReservationResponse response = reservationService.createTemporaryReservation(
+                single(bookingId, start));
+
+        assertThat(response.getReservationId()).isEqualTo(existing.getId());
+        verify(idempotencyCache).remember(response);
+        verify(fleetVehicleRepository, never()).lockAvailableVehiclesForBooking(any(), any(), any(), any(),
+                anyCollection(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should replay a recent hold from the LRU without any query")
+    void shouldReplayRecentHoldFromCache() {
+        UUID bookingId = UUID.randomUUID();
+        TemporaryReservationResponse recent = TemporaryReservationResponse.builder()
+                .reservationId(RESERVATION)
+                .vehicleId(VEHICLE)
+                .bookingId(bookingId)
+                .build();
+        when(idempotencyCache.findRecent(bookingId)).thenReturn(Optional.of(recent));
+
+        assertThat(reservationService.createTemporaryReservation(single(bookingId, LocalDateTime.now().plusDays(3))))
+                .isSameAs(recent);
+        verify(idempotencyCache, never()).mightHaveSeen(any());
+        verifyNoInteractions(bookingRecordRepository, fleetVehicleRepository);
+    }
+
+    @Test
+    @DisplayName("Should reject a single-vehicle request reusing a cart's booking id")
+    void shouldRejectTemporaryReservationForCartBookingId() {
+        UUID bookingId = UUID.randomUUID();
+        LocalDateTime start = LocalDateTime.now().plusDays(3);
+        when(idempotencyCache.mightHaveSeen(bookingId)).thenReturn(true);
+        when(bookingRecordRepository.findAllByBookingId(bookingId))
+                .thenReturn(List.of(hold(bookingId, start), hold(bookingId, start)));
+
+        assertThatThrownBy(() -> reservationService.createTemporaryReservation(
+                CreateTemporaryReservationRequest.builder()
+                        .modelPublicId(MODEL)
+                        .bookingId(bookingId)
+                        .startDate(start)
+                        .endDate(start.plusDays(2))
+                        .build()))
+                .isInstanceOf(BookingConflictException.class);
+        verify(bookingRecordRepository, never()).insertPendingHoldIfFree(any(), any(), any(), any(), any(), any(),
+                any());
+    }
+
+    @Test
+    @DisplayName("Should report a cart's booking id as a conflict in a coalesced batch, not as one of its holds")
+    void shouldReportCartBookingIdAsCoalescedConflict() {
+        UUID cartBooking = UUID.randomUUID();
+        LocalDateTime start = LocalDateTime.now().plusDays(3);
+        when(bookingRecordRepository.findAllByBookingIdIn(List.of(cartBooking)))
+                .thenReturn(List.of(hold(cartBooking, start), hold(cartBooking, start)));
+
+        ReservationService.CoalescedReservations result = reservationService.createTemporaryReservationsCoalesced(
+                MODEL, start, start.plusDays(2), List.of(cartBooking));
+
+        assertThat(result.responses()).isEmpty();
+        assertThat(result.conflicts()).containsExactly(cartBooking);
+        verify(fleetVehicleRepository, never()).lockAvailableVehiclesForBooking(any(), any(), any(), any(),
+                anyCollection(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should hand back the existing hold when the guarded batch insert skips a booking id")
+    void shouldReturnExistingHoldForMissedCoalescedInsert() {
+        UUID fresh = UUID.randomUUID();
+        UUID raced = UUID.randomUUID();
+        LocalDateTime start = LocalDateTime.now().plusDays(3);
+        VehicleBookingRecord existing = hold(raced, start);
+        when(bookingRecordRepository.findAllByBookingIdIn(List.of(fresh, raced))).thenReturn(List.of());
+        when(fleetVehicleRepository.lockAvailableVehiclesForBooking(eq(MODEL), any(), any(), any(), anyCollection(),
+                eq(2)))
+                .thenReturn(List.of(vehicle(), vehicle()));
+        // raced: written by another replica between the lookup and the insert
+        when(jdbcTemplate.batchUpdate(eq(VehicleBookingRecordRepository.INSERT_PENDING_HOLD_IF_FREE),
+                any(SqlParameterSource[].class)))
+                .thenReturn(new int[] { 1, 0 });
+        when(bookingRecordRepository.findAllByBookingIdIn(List.of(raced))).thenReturn(List.of(existing));
+
+        ReservationService.CoalescedReservations result = reservationService.createTemporaryReservationsCoalesced(
+                MODEL, start, start.plusDays(2), List.of(fresh, raced));
+
+        assertThat(result.responses()).containsOnlyKeys(fresh, raced);
+        assertThat(result.responses().get(raced).getReservationId()).isEqualTo(existing.getId());
+        assertThat(result.conflicts()).isEmpty();
+        verify(eventPublisher, times(1)).publishEvent(any(ReservationStateChangedEvent.class));
+    }
+
+    private static CreateTemporaryReservationRequest single(UUID bookingId, LocalDateTime start) {
+        return CreateTemporaryReservationRequest.builder()
+                .modelPublicId(MODEL)
+                .bookingId(bookingId)
+                .startDate(start)
+                .endDate(start.plusDays(2))
+                .build();
+    }
+
+    private static CartReservationRequest cart(UUID bookingId, LocalDateTime start, int lines) {
+        CartReservationRequest.Line line = CartReservationRequest.Line.builder()
+                .modelPublicId(MODEL)
+                .startDate(start)
+                .endDate(start.plusDays(2))
+                .build();
+        return CartReservationRequest.builder()
+                .bookingId(bookingId)
+                .lines(Collections.nCopies(lines, line))
+                .build();
+    }
+
+    private static VehicleBookingRecord hold(UUID bookingId, LocalDateTime start) {
+        return VehicleBookingRecord.builder()
+                .id(UUID.randomUUID())
+                .vehicle(vehicle())
+                .bookingId(bookingId)
+                .bookingStartDate(start)
+                .bookingEndDate(start.plusDays(2))
+                .reservationStatus(ReservationStatus.PENDING)
+                .expiresAt(LocalDateTime.now().plusMinutes(5))
+                .build();
+    }
+
+    private static FleetVehicle vehicle() {
+        return FleetVehicle.builder()
+                .id(VEHICLE)
+                .carModel(CarModel.builder().publicId(MODEL).build())
+                .build();
+    }
+
+    private static BookingIntervalView interval(ReservationStatus status) {
+        LocalDateTime start = LocalDateTime.now().plusDays(3);
+        return new BookingIntervalView() {
+            public UUID getReservationId() {
+                return RESERVATION;
+            }
+
+            public UUID getVehicleId() {
+                return VEHICLE;
+            }
+
+            public LocalDateTime getBookingStartDate() {
+                return start;
+            }
+
+            public LocalDateTime getBookingEndDate() {
+                return start.plusDays(2);
+            }
+
+            public ReservationStatus getReservationStatus() {
+                return status;
+            }
+
+            public LocalDateTime getExpiresAt() {
+                return null;
+            }
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package com.exploresg.fleetservice.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ScalableBloomFilterTest {
+
+    @Test
+    @DisplayName("Should never miss an added id and stay near the target false-positive rate as it grows")
+    void shouldGrowWithoutFalseNegatives() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+        List<UUID> added = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            UUID id = UUID.randomUUID();
+            filter.add(id);
+            added.add(id);
+        }
+
+        assertThat(added).allMatch(filter::mightContain);
+        assertThat(filter.stageCount()).isGreaterThan(1);
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+    }
+}
@@ -0,0 +1,88 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.repository.SchedulerLockRepository;
+import com.exploresg.fleetservice.service.SchedulerLockService.SchedulerLease;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class SchedulerLockServiceTest {
+
+    private static final String LOCK = "reservation-expiry-sweep";
+
+    @Mock
+    private SchedulerLockRepository lockRepository;
+
+    private SchedulerLockService lockService;
+
+    private final List<SchedulerLease> leases = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lockService = new SchedulerLockService(lockRepository, new SimpleMeterRegistry(), "fleet-service-0");
+        ReflectionTestUtils.setField(lockService, "enabled", true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        lockService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should run the job under the acquired fencing token and release that token")
+    void shouldRunJobUnderAcquiredLease() {
+        when(lockRepository.tryAcquire(eq(LOCK), eq(lockService.getOwnerId()), anyDouble()))
+                .thenReturn(Optional.of(7L));
+
+        boolean ran = lockService.runExclusively(LOCK, Duration.ofSeconds(30), Duration.ofSeconds(20), leases::add);
+
+        assertThat(ran).isTrue();
+        assertThat(leases).containsExactly(new SchedulerLease(LOCK, 7L));
+        assertThat(leases.get(0).isFenced()).isTrue();
+        verify(lockRepository).release(LOCK, 7L, 20.0);
+    }
+
+    @Test
+    @DisplayName("Should skip the job while another replica holds the lease")
+    void shouldSkipJobWhenLeaseIsHeld() {
+        when(lockRepository.tryAcquire(eq(LOCK), anyString(), anyDouble())).thenReturn(Optional.empty());
+
+        boolean ran = lockService.runExclusively(LOCK, Duration.ofSeconds(30), Duration.ofSeconds(20), leases::add);
+
+        assertThat(ran).isFalse();
+        assertThat(leases).isEmpty();
+        verify(lockRepository, never()).release(anyString(), anyLong(), anyDouble());
+    }
+
+    @Test
+    @DisplayName("Should skip the job when the lease cannot be taken at all")
+    void shouldFailClosedOnLockError() {
+        when(lockRepository.tryAcquire(eq(LOCK), anyString(), anyDouble()))
+                .thenThrow(new IllegalStateException("connection refused"));
+
+        assertThat(lockService.runExclusively(LOCK, Duration.ofSeconds(30), Duration.ofSeconds(20), leases::add))
+                .isFalse();
+        assertThat(leases).isEmpty();
+    }
+}
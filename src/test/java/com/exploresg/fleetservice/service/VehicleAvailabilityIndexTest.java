@@ -0,0 +1,136 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.event.ReservationStateChangedEvent;
+import com.exploresg.fleetservice.model.VehicleBookingRecord.ReservationStatus;
+import com.exploresg.fleetservice.model.VehicleStatus;
+import com.exploresg.fleetservice.repository.FleetVehicleRepository;
+import com.exploresg.fleetservice.repository.VehicleBookingRecordRepository;
+import com.exploresg.fleetservice.repository.projection.BookingIntervalView;
+import com.exploresg.fleetservice.repository.projection.VehicleAllocationView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class VehicleAvailabilityIndexTest {
+
+    private static final UUID MODEL = UUID.randomUUID();
+    private static final UUID LOW_MILEAGE = UUID.randomUUID();
+    private static final UUID MID_MILEAGE = UUID.randomUUID();
+    private static final UUID HIGH_MILEAGE = UUID.randomUUID();
+    private static final UUID IN_MAINTENANCE = UUID.randomUUID();
+
+    @Mock
+    private FleetVehicleRepository fleetVehicleRepository;
+
+    @Mock
+    private VehicleBookingRecordRepository bookingRecordRepository;
+
+    @InjectMocks
+    private VehicleAvailabilityIndex index;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1);
+    private final LocalDateTime end = start.plusDays(2);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(index, "enabled", true);
+        when(fleetVehicleRepository.findAllAllocationViews()).thenReturn(List.of(
+                vehicle(HIGH_MILEAGE, VehicleStatus.AVAILABLE, 90000),
+                vehicle(LOW_MILEAGE, VehicleStatus.AVAILABLE, 1000),
+                vehicle(MID_MILEAGE, VehicleStatus.AVAILABLE, 40000),
+                vehicle(IN_MAINTENANCE, VehicleStatus.UNDER_MAINTENANCE, 10)));
+    }
+
+    @Test
+    @DisplayName("Should rank available vehicles by mileage and skip overlapping bookings")
+    void shouldRankCandidatesAndSkipOverlaps() {
+        when(bookingRecordRepository.findActiveBookingIntervals(any())).thenReturn(List.of(
+                interval(LOW_MILEAGE, start.minusHours(5), start.plusHours(1), ReservationStatus.CONFIRMED)));
+
+        index.rebuild();
+
+        assertThat(index.findCandidates(MODEL, start, end, 5)).containsExactly(MID_MILEAGE, HIGH_MILEAGE);
+        assertThat(index.findCandidates(MODEL, end, end.plusDays(1), 1)).containsExactly(LOW_MILEAGE);
+        assertThat(index.findCandidates(UUID.randomUUID(), start, end, 5)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should apply reservation events after the index is built")
+    void shouldTrackReservationEvents() {
+        when(bookingRecordRepository.findActiveBookingIntervals(any())).thenReturn(List.of());
+        index.rebuild();
+
+        UUID reservationId = UUID.randomUUID();
+        index.onReservationStateChanged(new ReservationStateChangedEvent(reservationId, LOW_MILEAGE, start, end,
+                ReservationStatus.PENDING, LocalDateTime.now().plusMinutes(5)));
+        assertThat(index.findCandidates(MODEL, start, end, 1)).containsExactly(MID_MILEAGE);
+
+        index.onReservationStateChanged(new ReservationStateChangedEvent(reservationId, LOW_MILEAGE, start, end,
+                ReservationStatus.CANCELLED, null));
+        assertThat(index.findCandidates(MODEL, start, end, 1)).containsExactly(LOW_MILEAGE);
+    }
+
+    private static VehicleAllocationView vehicle(UUID id, VehicleStatus status, Integer mileageKm) {
+        return new VehicleAllocationView() {
+            public UUID getVehicleId() {
+                return id;
+            }
+
+            public UUID getModelPublicId() {
+                return MODEL;
+            }
+
+            public VehicleStatus getStatus() {
+                return status;
+            }
+
+            public Integer getMileageKm() {
+                return mileageKm;
+            }
+        };
+    }
+
+    private static BookingIntervalView interval(UUID vehicleId, LocalDateTime start, LocalDateTime end,
+            ReservationStatus status) {
+        UUID reservationId = UUID.randomUUID();
+        return new BookingIntervalView() {
+            public UUID getReservationId() {
+                return reservationId;
+            }
+
+            public UUID getVehicleId() {
+                return vehicleId;
+            }
+
+            public LocalDateTime getBookingStartDate() {
+                return start;
+            }
+
+            public LocalDateTime getBookingEndDate() {
+                return end;
+            }
+
+            public ReservationStatus getReservationStatus() {
+                return status;
+            }
+
+            public LocalDateTime getExpiresAt() {
+                return null;
+            }
+        };
+    }
+}